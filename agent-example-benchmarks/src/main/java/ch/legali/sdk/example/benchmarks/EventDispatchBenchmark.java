@@ -0,0 +1,156 @@
+package ch.legali.sdk.example.benchmarks;
+
+import static org.mockito.Mockito.mock;
+
+import ch.legali.api.events.AnnotationCreatedEvent;
+import ch.legali.api.events.BaseEvent;
+import ch.legali.api.events.ExportCreatedEvent;
+import ch.legali.api.events.LegalCaseCreatedEvent;
+import ch.legali.api.events.LegalCaseReadyEvent;
+import ch.legali.api.events.LegalCaseStatusChangedEvent;
+import ch.legali.api.events.LegalCaseUpdatedEvent;
+import ch.legali.api.events.PongEvent;
+import ch.legali.api.events.SourceFileCreatedEvent;
+import ch.legali.api.events.SourceFileFailedEvent;
+import ch.legali.api.events.SourceFileReadyEvent;
+import ch.legali.api.events.SourceFileUpdatedEvent;
+import ch.legali.api.events.TicketCreatedEvent;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Publishes a burst of events, as returned by one heartbeat, through the Spring {@link
+ * EventListener} dispatch the ExampleEventService relies on.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventDispatchBenchmark {
+
+  private static final int BURST = 100;
+
+  private static final List<Class<? extends BaseEvent>> TYPES =
+      List.of(
+          PongEvent.class,
+          LegalCaseCreatedEvent.class,
+          LegalCaseStatusChangedEvent.class,
+          LegalCaseUpdatedEvent.class,
+          LegalCaseReadyEvent.class,
+          SourceFileCreatedEvent.class,
+          SourceFileUpdatedEvent.class,
+          SourceFileReadyEvent.class,
+          SourceFileFailedEvent.class,
+          AnnotationCreatedEvent.class,
+          ExportCreatedEvent.class,
+          TicketCreatedEvent.class);
+
+  private AnnotationConfigApplicationContext context;
+  private BaseEvent[] events;
+
+  @Setup
+  public void setUp() {
+    this.context = new AnnotationConfigApplicationContext(Listener.class);
+    this.events = new BaseEvent[BURST];
+    for (int i = 0; i < BURST; i++) {
+      this.events[i] = mock(TYPES.get(i % TYPES.size()));
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.context.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BURST)
+  public void publishBurst(Blackhole blackhole) {
+    this.context.getBean(Listener.class).blackhole = blackhole;
+    for (BaseEvent event : this.events) {
+      this.context.publishEvent(event);
+    }
+  }
+
+  /** One listener per event type, like the ExampleEventService. */
+  public static class Listener {
+
+    private Blackhole blackhole;
+
+    @EventListener
+    public void handle(PongEvent event) {
+      this.blackhole.consume(event);
+    }
+
+    @EventListener
+    public void handle(LegalCaseCreatedEvent event) {
+      this.blackhole.consume(event);
+    }
+
+    @EventListener
+    public void handle(LegalCaseStatusChangedEvent event) {
+      this.blackhole.consume(event);
+    }
+
+    @EventListener
+    public void handle(LegalCaseUpdatedEvent event) {
+      this.blackhole.consume(event);
+    }
+
+    @EventListener
+    public void handle(LegalCaseReadyEvent event) {
+      this.blackhole.consume(event);
+    }
+
+    @EventListener
+    public void handle(SourceFileCreatedEvent event) {
+      this.blackhole.consume(event);
+    }
+
+    @EventListener
+    public void handle(SourceFileUpdatedEvent event) {
+      this.blackhole.consume(event);
+    }
+
+    @EventListener
+    public void handle(SourceFileReadyEvent event) {
+      this.blackhole.consume(event);
+    }
+
+    @EventListener
+    public void handle(SourceFileFailedEvent event) {
+      this.blackhole.consume(event);
+    }
+
+    @EventListener
+    public void handle(AnnotationCreatedEvent event) {
+      this.blackhole.consume(event);
+    }
+
+    @EventListener
+    public void handle(ExportCreatedEvent event) {
+      this.blackhole.consume(event);
+    }
+
+    @EventListener
+    public void handle(TicketCreatedEvent event) {
+      this.blackhole.consume(event);
+    }
+  }
+}
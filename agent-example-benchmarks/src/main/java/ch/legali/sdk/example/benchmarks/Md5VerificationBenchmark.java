@@ -0,0 +1,120 @@
+package ch.legali.sdk.example.benchmarks;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ch.legali.sdk.example.config.DownloadConfig;
+import ch.legali.sdk.example.config.RuntimeConfig;
+import ch.legali.sdk.example.files.Checksums;
+import ch.legali.sdk.example.files.MappedFileInputStream;
+import ch.legali.sdk.example.files.VerifiedDownloader;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.models.AgentFileDTO;
+import ch.legali.sdk.services.FileService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Downloads a file through the {@link VerifiedDownloader}, which streams it to disk and verifies
+ * the MD5, hashes a file on disk as the upload journal does, and reads a file for upload in both
+ * modes of the {@link ch.legali.sdk.example.files.PathUploader}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Md5VerificationBenchmark {
+
+  @Param({"65536", "16777216"})
+  public int size;
+
+  private Path directory;
+  private Path source;
+  private Path target;
+  private AgentFileDTO file;
+  private VerifiedDownloader downloader;
+
+  @Setup
+  public void setUp() throws IOException {
+    byte[] content = new byte[this.size];
+    ThreadLocalRandom.current().nextBytes(content);
+    this.directory = Files.createTempDirectory("md5-benchmark");
+    this.source = Files.write(this.directory.resolve("source.pdf"), content);
+    this.target = this.directory.resolve("target.pdf");
+
+    FileService fileService = mock(FileService.class);
+    when(fileService.downloadFile("uri"))
+        .thenAnswer(invocation -> new ByteArrayInputStream(content));
+    this.file = mock(AgentFileDTO.class);
+    when(this.file.uri()).thenReturn("uri");
+    when(this.file.filename()).thenReturn("target.pdf");
+    when(this.file.md5())
+        .thenReturn(Base64.getEncoder().encodeToString(Checksums.md5().digest(content)));
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    this.downloader =
+        new VerifiedDownloader(
+            fileService,
+            new ConnectorRuntime(new RuntimeConfig(), new SyncTaskExecutor(), registry),
+            new DownloadConfig());
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    FileSystemUtils.deleteRecursively(this.directory);
+  }
+
+  @Benchmark
+  public Path download() throws IOException {
+    return this.downloader.download(this.file, this.target);
+  }
+
+  @Benchmark
+  public String hashFile() throws IOException {
+    return Checksums.md5(this.source);
+  }
+
+  @Benchmark
+  public String uploadStreamed() throws IOException {
+    MessageDigest digest = Checksums.md5();
+    try (InputStream is = new DigestInputStream(Files.newInputStream(this.source), digest)) {
+      is.transferTo(OutputStream.nullOutputStream());
+    }
+    return Checksums.encode(digest);
+  }
+
+  @Benchmark
+  public String uploadMapped() throws IOException {
+    String md5 = Checksums.md5(this.source);
+    try (InputStream is = MappedFileInputStream.open(this.source)) {
+      is.transferTo(OutputStream.nullOutputStream());
+    }
+    return md5;
+  }
+}
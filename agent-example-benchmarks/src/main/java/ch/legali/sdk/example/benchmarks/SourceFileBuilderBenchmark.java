@@ -0,0 +1,49 @@
+package ch.legali.sdk.example.benchmarks;
+
+import ch.legali.sdk.models.AgentSourceFileDTO;
+import ch.legali.sdk.models.AgentSourceFileDTO.MetadataKeys;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Builds a source file DTO with the metadata the example connector sets per document. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SourceFileBuilderBenchmark {
+
+  private final UUID legalCaseId = UUID.randomUUID();
+
+  @Benchmark
+  public AgentSourceFileDTO build() {
+    return AgentSourceFileDTO.builder()
+        .sourceFileId(UUID.randomUUID())
+        .legalCaseId(this.legalCaseId)
+        .folder("accident")
+        .fileReference(UUID.randomUUID().toString())
+        .putMetadata("legali.metadata.title", "Sample Document")
+        .putMetadata("legali.metadata.alttitle", "Alternative Title")
+        .putMetadata("legali.metadata.doctype", "type_medical")
+        .putMetadata("legali.metadata.issuedate", "2012-12-12")
+        .putMetadata("legali.metadata.pagination.number", "123")
+        .putMetadata("legali.metadata.pagination.id", "Wf0ZoNA5")
+        .putMetadata(MetadataKeys.LEGALI_METADATA_RECEIPTDATE.key(), "2012-12-11")
+        .putMetadata(MetadataKeys.LEGALI_PIPELINE_SPLITTING_DISABLED.key(), "true")
+        .putMetadata("legali.mapping.key", "M1")
+        .putMetadata("legali.metadata.some-property", "")
+        .putMetadata("legali.uploader", "example-agent")
+        .putMetadata("meta.dummy", "dummy value")
+        .build();
+  }
+}
@@ -0,0 +1,54 @@
+package ch.legali.sdk.example.benchmarks;
+
+import ch.legali.sdk.example.config.ExampleConfig;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Resolves the department of a tenant, as every LegalCaseCreatedEvent handler does. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TenantLookupBenchmark {
+
+  @Param({"2", "50"})
+  public int departments;
+
+  private ExampleConfig exampleConfig;
+  private List<UUID> tenantIds;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    Map<String, UUID> tenants = new LinkedHashMap<>();
+    for (int i = 1; i <= this.departments; i++) {
+      tenants.put("department-" + i, UUID.randomUUID());
+    }
+    this.exampleConfig = new ExampleConfig();
+    this.exampleConfig.setTenants(tenants);
+    this.tenantIds = List.copyOf(tenants.values());
+  }
+
+  @Benchmark
+  public Optional<String> department() {
+    UUID tenantId = this.tenantIds.get(this.next++ % this.tenantIds.size());
+    return this.exampleConfig.getDepartment(tenantId);
+  }
+}
@@ -0,0 +1,74 @@
+package ch.legali.sdk.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Assembles XFDF annotations as in ExampleThread#getExampleXfdf. The example concatenates literals
+ * only, which javac folds into a constant, so the benchmark fills in the values a connector takes
+ * from its source system.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XfdfBenchmark {
+
+  @Param({"1", "20"})
+  public int annotations;
+
+  @Benchmark
+  public String concat() {
+    String annots = "";
+    for (int i = 0; i < this.annotations; i++) {
+      annots += highlight(i);
+    }
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<xfdf xmlns=\"http://ns.adobe.com/xfdf/\">\n"
+        + "    <annots>\n"
+        + annots
+        + "    </annots>\n"
+        + "</xfdf>";
+  }
+
+  @Benchmark
+  public String builder() {
+    StringBuilder xfdf = new StringBuilder(256 + 512 * this.annotations);
+    xfdf.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+        .append("<xfdf xmlns=\"http://ns.adobe.com/xfdf/\">\n")
+        .append("    <annots>\n");
+    for (int i = 0; i < this.annotations; i++) {
+      xfdf.append(highlight(i));
+    }
+    return xfdf.append("    </annots>\n").append("</xfdf>").toString();
+  }
+
+  private static String highlight(int page) {
+    return "        <highlight page=\""
+        + page
+        + "\" rect=\"75.071,516.351,289.625,531.103\" color=\"#FF9800\"\n"
+        + "            name=\""
+        + (1234567 + page)
+        + "\" title=\"test title\" subject=\"hello world\"\n"
+        + "            date=\"D:20230706160122+02'00'\" opacity=\"0.5\""
+        + " creationdate=\"D:20230706160122+02'00'\"\n"
+        + "            coords=\"75.32109928446837,531.1031977120231,289.62462070530665,"
+        + "524.6739848693966,75.07139920622396,522.7800005529471,289.37492062706224,"
+        + "516.3507877103207\">\n"
+        + "            <contents>Hello World "
+        + page
+        + "</contents>\n"
+        + "        </highlight>\n";
+  }
+}
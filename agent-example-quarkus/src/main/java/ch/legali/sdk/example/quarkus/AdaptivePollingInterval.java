@@ -0,0 +1,109 @@
+package ch.legali.sdk.example.quarkus;
+
+import ch.legali.sdk.SdkConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The delay until the next heartbeat, adapted to the event backlog:
+ *
+ * <ul>
+ *   <li>a full batch of events: poll again right away, more events are waiting. Unless the batch
+ *       held events whose acknowledgement is still pending: poll again after the min interval, so
+ *       the acknowledgements complete before the next batch
+ *   <li>some events: poll again after the min interval
+ *   <li>no events: multiply the interval by the backoff multiplier, up to the max interval
+ *   <li>failed heartbeat, or the agent is DOWN: poll again after the min interval
+ * </ul>
+ *
+ * <p>The SDK reports the agent DOWN after legali.max-failed-heartbeats failed heartbeats in a row.
+ * Until then, a failed heartbeat may look like one without events, so a lost connection is detected
+ * after at most max-failed-heartbeats times the max interval. The max interval is therefore capped
+ * to legali.heartbeat.liveness-timeout / max-failed-heartbeats. Unless set, the liveness timeout is
+ * max-failed-heartbeats times the fixed delay of 10s the heartbeat had before, so a lost connection
+ * is detected as fast as before and an idle agent polls every 10s.
+ */
+@ApplicationScoped
+public class AdaptivePollingInterval {
+
+  private static final Logger log = LoggerFactory.getLogger(AdaptivePollingInterval.class);
+
+  // of the heartbeat before it adapted to the backlog
+  private static final Duration FIXED_INTERVAL = Duration.ofSeconds(10);
+
+  @Inject Config.Mapping config;
+
+  @Inject SdkConfig sdkConfig;
+
+  @Inject MeterRegistry meterRegistry;
+
+  private Duration maxInterval;
+  private volatile Duration current;
+
+  @PostConstruct
+  void init() {
+    this.maxInterval =
+        maxInterval(this.config.heartbeat(), this.sdkConfig.getMaxFailedHeartbeats());
+    this.current = this.config.heartbeat().minInterval();
+    Gauge.builder("agent.heartbeat.interval", this, i -> i.current().toMillis() / 1000.0)
+        .baseUnit("seconds")
+        .register(this.meterRegistry);
+  }
+
+  public Duration current() {
+    return this.current;
+  }
+
+  /**
+   * @param events number of events returned by the heartbeat
+   * @param redelivered number of those events whose acknowledgement is still pending
+   * @return the delay until the next heartbeat
+   */
+  public synchronized Duration onHeartbeat(int events, int redelivered) {
+    Config.Heartbeat heartbeat = this.config.heartbeat();
+    if (events >= heartbeat.fullBatchSize() && redelivered == 0) {
+      this.current = Duration.ZERO;
+    } else if (events > 0) {
+      this.current = heartbeat.minInterval();
+    } else {
+      long backoff =
+          (long)
+              (Math.max(this.current.toMillis(), heartbeat.minInterval().toMillis())
+                  * heartbeat.backoffMultiplier());
+      this.current = Duration.ofMillis(Math.min(backoff, this.maxInterval.toMillis()));
+    }
+    return this.current;
+  }
+
+  /**
+   * @return the delay until the next heartbeat
+   */
+  public synchronized Duration onFailure() {
+    this.current = this.config.heartbeat().minInterval();
+    return this.current;
+  }
+
+  private static Duration maxInterval(Config.Heartbeat heartbeat, int maxFailedHeartbeats) {
+    int failures = Math.max(1, maxFailedHeartbeats);
+    Duration livenessTimeout =
+        heartbeat.livenessTimeout().orElse(FIXED_INTERVAL.multipliedBy(failures));
+    Duration liveness = livenessTimeout.dividedBy(failures);
+    if (heartbeat.maxInterval().compareTo(liveness) <= 0) {
+      return heartbeat.maxInterval();
+    }
+    log.warn(
+        "legali.heartbeat.max-interval {} exceeds liveness-timeout {} / {} failed heartbeats,"
+            + " capped to {}",
+        heartbeat.maxInterval(),
+        livenessTimeout,
+        maxFailedHeartbeats,
+        liveness);
+    return liveness.compareTo(heartbeat.minInterval()) < 0 ? heartbeat.minInterval() : liveness;
+  }
+}
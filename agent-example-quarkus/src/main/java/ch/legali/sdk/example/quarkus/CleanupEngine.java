@@ -0,0 +1,194 @@
+package ch.legali.sdk.example.quarkus;
+
+import ch.legali.sdk.models.AgentLegalCaseDTO;
+import ch.legali.sdk.services.LegalCaseService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deletes or archives the legal cases added by this agent, see legali.example.housekeeping.
+ *
+ * <p>The matching legal cases are processed page by page, legali.example.housekeeping.concurrency
+ * at a time and at most cases-per-second. Legal cases that fail are retried by the next run.
+ *
+ * <p>Archived legal cases are still listed, so every archived legal case is appended to the
+ * checkpoint file and an interrupted run resumes where it stopped; the file is removed once a run
+ * completes. Deleted legal cases are not listed again and need no record.
+ */
+@ApplicationScoped
+public class CleanupEngine {
+
+  private static final Logger log = LoggerFactory.getLogger(CleanupEngine.class);
+
+  /** What happens to the legal cases added by this agent. */
+  public enum Action {
+    DELETE,
+    ARCHIVE
+  }
+
+  @Inject LegalCaseService legalCaseService;
+
+  @Inject Config.Mapping config;
+
+  @Inject MeterRegistry meterRegistry;
+
+  private final AtomicInteger remaining = new AtomicInteger();
+  private long nextFreeNanos;
+
+  /** Cleans up all matching legal cases, blocks until done. */
+  public void run() throws IOException, InterruptedException {
+    Config.Housekeeping housekeeping = this.config.example().housekeeping();
+    Path checkpoint = Paths.get(housekeeping.checkpointPath());
+    Set<UUID> done = readCheckpoint(checkpoint);
+
+    List<UUID> legalCaseIds =
+        this.legalCaseService.list().stream()
+            .filter(
+                legalCase ->
+                    housekeeping
+                        .uploader()
+                        .equals(legalCase.metadata().getOrDefault("legali.uploader", "")))
+            .map(AgentLegalCaseDTO::legalCaseId)
+            .filter(legalCaseId -> !done.contains(legalCaseId))
+            .toList();
+    log.info(
+        "🧹 {} {} legal cases{}",
+        housekeeping.action() == Action.DELETE ? "Deleting" : "Archiving",
+        legalCaseIds.size(),
+        done.isEmpty() ? "" : ", resuming after " + done.size());
+
+    this.meterRegistry.gauge("agent.cleanup.remaining", this.remaining);
+    Counter cleanedCounter =
+        this.meterRegistry.counter(
+            "agent.cleanup", "outcome", housekeeping.action().name().toLowerCase());
+    Counter failedCounter = this.meterRegistry.counter("agent.cleanup", "outcome", "failed");
+    this.remaining.set(legalCaseIds.size());
+
+    AtomicInteger cleaned = new AtomicInteger();
+    AtomicInteger failed = new AtomicInteger();
+    ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, housekeeping.concurrency()));
+    try {
+      int pageSize = Math.max(1, housekeeping.pageSize());
+      for (int from = 0; from < legalCaseIds.size(); from += pageSize) {
+        List<UUID> page =
+            legalCaseIds.subList(from, Math.min(from + pageSize, legalCaseIds.size()));
+        List<Callable<Void>> tasks = new ArrayList<>(page.size());
+        for (UUID legalCaseId : page) {
+          tasks.add(
+              () -> {
+                this.pace(housekeeping.casesPerSecond());
+                if (this.cleanUp(legalCaseId, housekeeping.action(), checkpoint)) {
+                  cleanedCounter.increment();
+                  cleaned.incrementAndGet();
+                } else {
+                  failedCounter.increment();
+                  failed.incrementAndGet();
+                }
+                this.remaining.decrementAndGet();
+                return null;
+              });
+        }
+        workers.invokeAll(tasks);
+        log.info("🧹 {}/{} legal cases cleaned up", cleaned.get(), legalCaseIds.size());
+      }
+    } finally {
+      workers.shutdownNow();
+      this.remaining.set(0);
+    }
+
+    log.info("🧹 Cleanup finished, {} legal cases failed", failed.get());
+    if (failed.get() == 0) {
+      Files.deleteIfExists(checkpoint);
+    }
+  }
+
+  /**
+   * @return whether the legal case has been cleaned up
+   */
+  private boolean cleanUp(UUID legalCaseId, Action action, Path checkpoint) {
+    try {
+      if (action == Action.ARCHIVE) {
+        this.legalCaseService.archive(legalCaseId);
+      } else {
+        this.legalCaseService.delete(legalCaseId);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Failed to clean up legal case {}: {}", legalCaseId, e.getMessage());
+      return false;
+    }
+    if (action == Action.DELETE) {
+      return true;
+    }
+    try {
+      synchronized (this) {
+        Files.writeString(
+            checkpoint,
+            legalCaseId + "\n",
+            StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND);
+      }
+    } catch (IOException e) {
+      // the legal case is cleaned up again by a resumed run, which is harmless
+      log.warn("Failed to record cleaned up legal case {}", legalCaseId, e);
+    }
+    return true;
+  }
+
+  /** Spaces out the calls evenly to stay at the rate, 0 or less for no limit. */
+  private void pace(double perSecond) throws InterruptedException {
+    if (perSecond <= 0) {
+      return;
+    }
+    long waitNanos;
+    synchronized (this) {
+      long now = System.nanoTime();
+      if (this.nextFreeNanos - now < 0) {
+        this.nextFreeNanos = now;
+      }
+      waitNanos = this.nextFreeNanos - now;
+      this.nextFreeNanos += (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+    }
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+
+  /** Reads the cleaned up legal cases, a line cut off by a crash is ignored. */
+  private static Set<UUID> readCheckpoint(Path checkpoint) throws IOException {
+    Set<UUID> done = new HashSet<>();
+    if (!Files.exists(checkpoint)) {
+      Path parent = checkpoint.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      return done;
+    }
+    for (String line : Files.readAllLines(checkpoint, StandardCharsets.UTF_8)) {
+      try {
+        done.add(UUID.fromString(line.strip()));
+      } catch (IllegalArgumentException e) {
+        log.warn("Ignoring incomplete checkpoint line in {}", checkpoint);
+      }
+    }
+    return done;
+  }
+}
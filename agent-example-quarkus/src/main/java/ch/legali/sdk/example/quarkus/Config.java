@@ -22,11 +22,15 @@ import ch.legali.sdk.services.SourceFileService;
 import feign.Logger;
 import feign.http2client.Http2Client;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.arc.BindingsSource;
+import io.quarkus.arc.InterceptionProxy;
 import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Produces;
 import jakarta.inject.Singleton;
 import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -64,6 +68,172 @@ public class Config {
     Optional<Integer> maxConnectionRetries();
 
     Map<String, UUID> tenants();
+
+    Optional<String> downloadQuarantinePath();
+
+    Heartbeat heartbeat();
+
+    Readiness readiness();
+
+    Example example();
+
+    Ingestion ingestion();
+
+    Events events();
+
+    EventLoop eventLoop();
+  }
+
+  /** Adaptive heartbeat interval, see {@link AdaptivePollingInterval}. */
+  interface Heartbeat {
+
+    @WithDefault("3s")
+    Duration initialDelay();
+
+    /** Interval after a heartbeat returned events, or failed. */
+    @WithDefault("2s")
+    Duration minInterval();
+
+    /**
+     * Upper bound of the interval while heartbeats return no events, capped to liveness-timeout /
+     * legali.max-failed-heartbeats.
+     */
+    @WithDefault("10s")
+    Duration maxInterval();
+
+    /**
+     * A lost connection is reported, the agent is DOWN, within this time. Defaults to
+     * legali.max-failed-heartbeats times 10s, the fixed heartbeat delay the adaptive interval
+     * replaces.
+     */
+    Optional<Duration> livenessTimeout();
+
+    /** Factor the interval grows by with every heartbeat that returns no events. */
+    @WithDefault("2")
+    double backoffMultiplier();
+
+    /** A heartbeat returning this many events is polled again right away. */
+    @WithDefault("100")
+    int fullBatchSize();
+  }
+
+  /** Readiness of source files, see {@link SourceFileReadiness}. */
+  interface Readiness {
+
+    /**
+     * Check the status of source files that have been waiting this long, in case their event was
+     * missed, once per interval.
+     */
+    @WithDefault("60s")
+    Duration pollInterval();
+
+    /** Statuses of source files nobody waits for yet, kept for a later wait. */
+    @WithDefault("10000")
+    int rememberedStatuses();
+  }
+
+  /** Named like the legali.example properties of agent-example-spring. */
+  interface Example {
+
+    /** Clean up the legal cases added by this agent before running the example. */
+    @WithDefault("false")
+    boolean cleanup();
+
+    Housekeeping housekeeping();
+  }
+
+  /** Cleanup of the legal cases added by this agent, see {@link CleanupEngine}. */
+  interface Housekeeping {
+
+    @WithDefault("DELETE")
+    CleanupEngine.Action action();
+
+    /** Clean up the legal cases whose legali.uploader metadata has this value. */
+    @WithDefault("example-agent")
+    String uploader();
+
+    /** Number of legal cases cleaned up at once. */
+    @WithDefault("4")
+    int concurrency();
+
+    /** Max. legal cases cleaned up per second, 0 for no limit. */
+    @WithDefault("10")
+    double casesPerSecond();
+
+    /** Number of legal cases per page; progress is logged after every page. */
+    @WithDefault("100")
+    int pageSize();
+
+    /** Legal cases cleaned up by an interrupted run, skipped when it resumes. */
+    @WithDefault("./journal/cleanup.log")
+    String checkpointPath();
+  }
+
+  /** Concurrent ingestion of legal cases, see {@link IngestionPipeline}. */
+  interface Ingestion {
+
+    /** Run the ingestion pipeline instead of the example. */
+    @WithDefault("false")
+    boolean enabled();
+
+    /** Number of legal cases, with one source file each, to ingest. */
+    @WithDefault("20")
+    int cases();
+
+    /** Department the legal cases are created in. */
+    @WithDefault("department-1")
+    String department();
+
+    /** Number of legal cases in flight at once. */
+    @WithDefault("8")
+    int concurrency();
+
+    /** Threads of the pool the blocking SDK calls run on, unless virtual-threads is set. */
+    @WithDefault("16")
+    int workers();
+
+    /** Run every blocking SDK call on a virtual thread of its own instead of the pool. */
+    @WithDefault("false")
+    boolean virtualThreads();
+
+    /** Legal cases buffered when the source emits faster than they are requested. */
+    @WithDefault("256")
+    int overflowBuffer();
+
+    /** Retries of a failed SDK call, conflicts and missing entities are not retried. */
+    @WithDefault("3")
+    int maxRetries();
+
+    /** Delay before the first retry, growing exponentially up to max-retry-backoff. */
+    @WithDefault("1s")
+    Duration retryBackoff();
+
+    @WithDefault("30s")
+    Duration maxRetryBackoff();
+
+    /** Wait this long for a source file to be processed. */
+    @WithDefault("60s")
+    Duration readinessTimeout();
+  }
+
+  /** Handling of the events of legal-i, see {@link EventAcknowledger}. */
+  interface Events {
+
+    /** Worker threads that send event acknowledgements. */
+    @WithDefault("4")
+    int ackWorkers();
+  }
+
+  /** Lag of the Vert.x event loops, see {@link EventLoopMonitor}. */
+  interface EventLoop {
+
+    /** Send a probe task to every event loop this often. */
+    @WithDefault("1s")
+    Duration probeInterval();
+
+    /** A probe that waits longer than this counts as a blocked event loop. */
+    @WithDefault("100ms")
+    Duration blockedThreshold();
   }
 
   @Produces
@@ -185,8 +355,10 @@ public class Config {
 
   @Produces
   @Singleton
-  public FileService fileService(InternalFileService internalFileService) {
-    return new FileService(internalFileService);
+  public FileService fileService(
+      InternalFileService internalFileService,
+      @BindingsSource(SdkCall.Bindings.class) InterceptionProxy<FileService> proxy) {
+    return proxy.create(new FileService(internalFileService));
   }
 
   @Produces
@@ -194,21 +366,27 @@ public class Config {
   public SourceFileService sourceFileService(
       SourceFileClient sourceFileClient,
       InternalFileService internalFileService,
-      ConfigService configService) {
-    return new SourceFileService(sourceFileClient, internalFileService, configService);
+      ConfigService configService,
+      @BindingsSource(SdkCall.Bindings.class) InterceptionProxy<SourceFileService> proxy) {
+    return proxy.create(
+        new SourceFileService(sourceFileClient, internalFileService, configService));
   }
 
   @Produces
   @Singleton
   public LegalCaseService legalCaseService(
-      LegalCaseClient legalCaseClient, ConfigService configService) {
-    return new LegalCaseService(legalCaseClient, configService);
+      LegalCaseClient legalCaseClient,
+      ConfigService configService,
+      @BindingsSource(SdkCall.Bindings.class) InterceptionProxy<LegalCaseService> proxy) {
+    return proxy.create(new LegalCaseService(legalCaseClient, configService));
   }
 
   @Produces
   @Singleton
-  public ExportService exportService(ExportClient exportClient) {
-    return new ExportService(exportClient);
+  public ExportService exportService(
+      ExportClient exportClient,
+      @BindingsSource(SdkCall.Bindings.class) InterceptionProxy<ExportService> proxy) {
+    return proxy.create(new ExportService(exportClient));
   }
 
   @Produces
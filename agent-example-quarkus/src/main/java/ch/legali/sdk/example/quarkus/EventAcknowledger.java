@@ -0,0 +1,84 @@
+package ch.legali.sdk.example.quarkus;
+
+import ch.legali.api.events.BaseEvent;
+import ch.legali.sdk.services.EventService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends event acknowledgements on a worker pool of their own, legali.events.ack-workers threads, so
+ * the event consumers can run on the event loop and do not wait for the round-trip. A failed
+ * acknowledgement is logged, the event is then delivered again.
+ *
+ * <p>Until its acknowledgement completes, the heartbeat may return an event again. The
+ * ExampleEventService asks {@link #isPending} and skips it, so its consumers do not run twice.
+ */
+@ApplicationScoped
+public class EventAcknowledger {
+
+  private static final Logger log = LoggerFactory.getLogger(EventAcknowledger.class);
+
+  @Inject Vertx vertx;
+
+  @Inject EventService eventService;
+
+  @Inject Config.Mapping config;
+
+  @Inject MeterRegistry meterRegistry;
+
+  private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+  private WorkerExecutor workers;
+  private Counter sentCounter;
+  private Counter failedCounter;
+
+  @PostConstruct
+  void init() {
+    this.workers =
+        this.vertx.createSharedWorkerExecutor(
+            "event-acks", Math.max(1, this.config.events().ackWorkers()));
+    this.sentCounter = this.meterRegistry.counter("agent.events.acks", "outcome", "sent");
+    this.failedCounter = this.meterRegistry.counter("agent.events.acks", "outcome", "failed");
+  }
+
+  @PreDestroy
+  void close() {
+    this.workers.close();
+  }
+
+  /** Acknowledges the event on the acknowledgement workers, returns right away. */
+  public void acknowledge(BaseEvent event) {
+    this.pending.add(event.eventId());
+    this.workers
+        .executeBlocking(
+            () -> {
+              this.eventService.acknowledge(event);
+              return null;
+            },
+            false)
+        .onSuccess(ignored -> this.sentCounter.increment())
+        .onFailure(
+            e -> {
+              log.warn("Failed to acknowledge event {}, it is delivered again", event.eventId(), e);
+              this.failedCounter.increment();
+            })
+        .onComplete(ignored -> this.pending.remove(event.eventId()));
+  }
+
+  /**
+   * @return true if the acknowledgement of the event has not completed yet
+   */
+  public boolean isPending(UUID eventId) {
+    return this.pending.contains(eventId);
+  }
+}
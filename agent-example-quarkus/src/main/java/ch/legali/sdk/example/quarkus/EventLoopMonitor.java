@@ -0,0 +1,106 @@
+package ch.legali.sdk.example.quarkus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.util.concurrent.EventExecutor;
+import io.quarkus.scheduler.Scheduled;
+import io.vertx.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how long the Vert.x event loops take to pick up a task, so a handler that blocks an
+ * event loop shows up as a metric instead of a "thread blocked" warning in the log.
+ *
+ * <p>Every legali.event-loop.probe-interval, an empty task is sent to each event loop that has no
+ * probe pending. The delay until it runs is recorded as agent.eventloop.lag. A probe that waits
+ * longer than blocked-threshold, whether it has run by then or is still waiting, counts once as
+ * agent.eventloop.blocked.
+ */
+@ApplicationScoped
+public class EventLoopMonitor {
+
+  @Inject Vertx vertx;
+
+  @Inject Config.Mapping config;
+
+  @Inject MeterRegistry meterRegistry;
+
+  private final List<Probe> probes = new ArrayList<>();
+
+  // Vert.x offers no other public way to reach every event loop
+  @SuppressWarnings("deprecation")
+  @PostConstruct
+  void init() {
+    int index = 0;
+    for (EventExecutor loop : this.vertx.nettyEventLoopGroup()) {
+      String name = "eventloop-" + index++;
+      this.probes.add(
+          new Probe(
+              loop,
+              Timer.builder("agent.eventloop.lag").tag("loop", name).register(this.meterRegistry),
+              this.meterRegistry.counter("agent.eventloop.blocked", "loop", name)));
+    }
+  }
+
+  @Scheduled(
+      every = "${legali.event-loop.probe-interval:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void probe() {
+    long threshold = this.config.eventLoop().blockedThreshold().toNanos();
+    for (Probe probe : this.probes) {
+      probe.send(threshold);
+    }
+  }
+
+  /** The probes of one event loop. */
+  private static final class Probe {
+
+    private final EventExecutor loop;
+    private final Timer lagTimer;
+    private final Counter blockedCounter;
+
+    // System.nanoTime() when the pending probe was sent, 0 if none is pending
+    private final AtomicLong pendingSince = new AtomicLong();
+    // the pending probe was counted as blocked
+    private final AtomicBoolean counted = new AtomicBoolean();
+
+    Probe(EventExecutor loop, Timer lagTimer, Counter blockedCounter) {
+      this.loop = loop;
+      this.lagTimer = lagTimer;
+      this.blockedCounter = blockedCounter;
+    }
+
+    void send(long threshold) {
+      long now = System.nanoTime();
+      long since = this.pendingSince.get();
+      if (since != 0) {
+        // the previous probe is still waiting, the loop is busy
+        this.countBlocked(now - since, threshold);
+        return;
+      }
+      this.counted.set(false);
+      this.pendingSince.set(now);
+      this.loop.execute(
+          () -> {
+            long lag = System.nanoTime() - now;
+            this.lagTimer.record(lag, TimeUnit.NANOSECONDS);
+            this.countBlocked(lag, threshold);
+            this.pendingSince.set(0);
+          });
+    }
+
+    private void countBlocked(long lag, long threshold) {
+      if (lag > threshold && this.counted.compareAndSet(false, true)) {
+        this.blockedCounter.increment();
+      }
+    }
+  }
+}
@@ -3,15 +3,22 @@ package ch.legali.sdk.example.quarkus;
 import ch.legali.api.events.BaseEvent;
 import ch.legali.api.events.LegalCaseCreatedEvent;
 import ch.legali.api.events.PongEvent;
+import ch.legali.api.events.SourceFileFailedEvent;
+import ch.legali.api.events.SourceFileReadyEvent;
 import ch.legali.sdk.internal.HealthService;
+import ch.legali.sdk.models.AgentSourceFileDTO;
 import ch.legali.sdk.services.EventService;
-import io.quarkus.scheduler.Scheduled;
+import io.quarkus.runtime.StartupEvent;
 import io.quarkus.vertx.ConsumeEvent;
+import io.vertx.core.Vertx;
 import io.vertx.mutiny.core.eventbus.EventBus;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +40,14 @@ public class ExampleEventService {
 
   @Inject EventBus bus;
 
+  @Inject Vertx vertx;
+
+  @Inject AdaptivePollingInterval pollingInterval;
+
+  @Inject SourceFileReadiness sourceFileReadiness;
+
+  @Inject EventAcknowledger eventAcknowledger;
+
   @PostConstruct
   void init() {
     // NOTE: all events that the agent subscribes to, need to be handled by an event listener.
@@ -40,7 +55,11 @@ public class ExampleEventService {
         PongEvent.class,
 
         // legalcase CRUD through frontend
-        LegalCaseCreatedEvent.class
+        LegalCaseCreatedEvent.class,
+
+        // completes the waits of the SourceFileReadiness
+        SourceFileReadyEvent.class,
+        SourceFileFailedEvent.class
         //                LegalCaseStatusChangedEvent.class,
         //                LegalCaseUpdatedEvent.class,
         //                LegalCaseDeletedEvent.class,
@@ -52,10 +71,6 @@ public class ExampleEventService {
         //                // sourcefiles CRUD through frontend
         //                SourceFileCreatedEvent.class,
         //                SourceFileUpdatedEvent.class,
-        //                SourceFileReadyEvent.class,
-        //
-        //                // processing error
-        //                SourceFileFailedEvent.class,
         //
         //                // export
         //                ExportCreatedEvent.class,
@@ -73,20 +88,63 @@ public class ExampleEventService {
         );
   }
 
-  @Scheduled(every = "10s", delayed = "3s")
-  void schedule() {
-    for (BaseEvent event : this.healthService.heartbeat()) {
+  void onStart(@Observes StartupEvent event) {
+    this.schedule(this.config.heartbeat().initialDelay());
+  }
+
+  /** Runs the heartbeat after the delay, off the event loop, and schedules the next one. */
+  private void schedule(Duration delay) {
+    this.vertx.setTimer(
+        Math.max(1, delay.toMillis()),
+        id ->
+            this.vertx
+                .executeBlocking(this::heartbeat, false)
+                .onComplete(
+                    result -> {
+                      if (result.failed()) {
+                        log.error("💔 Heartbeat failed", result.cause());
+                      }
+                      this.schedule(
+                          result.succeeded() ? result.result() : this.pollingInterval.onFailure());
+                    }));
+  }
+
+  /**
+   * @return the delay until the next heartbeat
+   */
+  private Duration heartbeat() {
+    List<BaseEvent> events = this.healthService.heartbeat();
+    if (this.healthService.getState() == HealthService.HealthState.DOWN) {
+      return this.pollingInterval.onFailure();
+    }
+    int redelivered = 0;
+    for (BaseEvent event : events) {
+      if (this.eventAcknowledger.isPending(event.eventId())) {
+        // handled already, its acknowledgement has not completed yet
+        redelivered++;
+        continue;
+      }
       this.bus.publish(event.getClass().getSimpleName(), event);
     }
+    if (redelivered > 0) {
+      log.debug("Skipped {} events with pending acknowledgements", redelivered);
+    }
 
     // on first successful fetch, signal to app it's ready to do things.
     if (!this.started) {
       this.bus.publish(BUS_STARTED, Instant.now());
       this.started = true;
     }
+    return this.pollingInterval.onHeartbeat(events.size(), redelivered);
   }
 
-  @ConsumeEvent(value = BUS_STARTED)
+  /*
+   * Consumers run on the event loop and must not block it: the acknowledgements are sent by the
+   * EventAcknowledger, consumers that call the SDK themselves run on a worker (blocking = true),
+   * and long-running work such as the example scenario is handed to a stage of its own.
+   */
+
+  @ConsumeEvent(value = BUS_STARTED, blocking = true)
   void start(Instant when) {
     log.info("🏓 Requesting a pong remote event");
     this.eventService.ping(this.config.tenants().get("department-1"));
@@ -96,7 +154,7 @@ public class ExampleEventService {
   @ConsumeEvent(value = "PongEvent")
   void consume(PongEvent event) {
     log.info("got pong event " + event);
-    this.eventService.acknowledge(event);
+    this.eventAcknowledger.acknowledge(event);
   }
 
   @ConsumeEvent(value = "LegalCaseCreatedEvent")
@@ -118,6 +176,22 @@ public class ExampleEventService {
             + event.legalCase().caseData().get("PII_FIRSTNAME")
             + " "
             + event.legalCase().caseData().get("PII_LASTNAME"));
-    this.eventService.acknowledge(event);
+    this.eventAcknowledger.acknowledge(event);
+  }
+
+  @ConsumeEvent(value = "SourceFileReadyEvent")
+  void consume(SourceFileReadyEvent event) {
+    log.info("SourceFileReadyEvent: " + event.sourceFileId());
+    this.sourceFileReadiness.complete(
+        event.sourceFileId(), AgentSourceFileDTO.SourceFileStatus.READY);
+    this.eventAcknowledger.acknowledge(event);
+  }
+
+  @ConsumeEvent(value = "SourceFileFailedEvent")
+  void consume(SourceFileFailedEvent event) {
+    log.info("SourceFileFailedEvent: " + event.sourceFileId());
+    this.sourceFileReadiness.complete(
+        event.sourceFileId(), AgentSourceFileDTO.SourceFileStatus.ERROR);
+    this.eventAcknowledger.acknowledge(event);
   }
 }
@@ -11,6 +11,7 @@ import ch.legali.sdk.services.FileService;
 import ch.legali.sdk.services.LegalCaseService;
 import ch.legali.sdk.services.SourceFileService;
 import io.quarkus.vertx.ConsumeEvent;
+import io.smallrye.mutiny.Uni;
 import io.vertx.core.Vertx;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -18,15 +19,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +41,14 @@ public class ExampleService {
 
   @Inject ExportService exportService;
 
+  @Inject VerifiedDownloader verifiedDownloader;
+
+  @Inject SourceFileReadiness sourceFileReadiness;
+
+  @Inject CleanupEngine cleanupEngine;
+
+  @Inject IngestionPipeline ingestionPipeline;
+
   @Inject Config.Mapping config;
 
   private static final Logger log = LoggerFactory.getLogger(ExampleService.class);
@@ -51,12 +57,58 @@ public class ExampleService {
   void start(Instant when) {
     log.info("received start event, let's go!");
 
-    this.vertx.<String>executeBlocking(
-        promise -> {
+    if (this.config.ingestion().enabled()) {
+      // the pipeline offloads its blocking calls, the event loop is not held up
+      this.housekeeping()
+          .chain(this.ingestionPipeline::run)
+          .subscribe()
+          .with(
+              summary -> log.info("ExampleAgent ingestion successful"),
+              failure -> log.error("🙅‍  Ingestion failed", failure));
+      return;
+    }
+
+    // unordered, so it does not queue behind other blocking work of this context
+    this.vertx.executeBlocking(
+        () -> {
+          if (this.config.example().cleanup()) {
+            cleanup();
+          }
           runExample();
           runExampleTwoDepartments();
           log.info("ExampleAgent run successful");
-        });
+          return null;
+        },
+        false);
+  }
+
+  /** Runs the cleanup on a worker thread, if enabled. */
+  private Uni<Void> housekeeping() {
+    if (!this.config.example().cleanup()) {
+      return Uni.createFrom().voidItem();
+    }
+    return Uni.createFrom()
+        .completionStage(
+            () ->
+                this.vertx
+                    .executeBlocking(
+                        () -> {
+                          cleanup();
+                          return (Void) null;
+                        },
+                        false)
+                    .toCompletionStage());
+  }
+
+  /** Deletes or archives the legal cases added by this agent. */
+  private void cleanup() {
+    try {
+      this.cleanupEngine.run();
+    } catch (IOException e) {
+      log.error("🙅‍  Failed to read the cleanup checkpoint", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
   }
 
   /**
@@ -140,15 +192,19 @@ public class ExampleService {
     }
 
     log.info("😴  Waiting for SourceFile to be processed  (will timeout after 3 seconds!)");
-    // NOTE: use with care, busy waiting and usually not required
-    AgentSourceFileDTO.SourceFileStatus status =
-        this.sourceFileService.waitForSourceFileReadyOrTimeout(
-            sourceFile.sourceFileId(), TimeUnit.SECONDS.toSeconds(3));
-
-    // NOTE: will always time out, if processing is disabled
-    if (status.equals(AgentSourceFileDTO.SourceFileStatus.ERROR)
-        || status.equals(AgentSourceFileDTO.SourceFileStatus.TIMEOUT)) {
-      log.warn("💥 legal-i was not fast enough to process this file {}", sourceFile.sourceFileId());
+    // completed by the SourceFileReadyEvent or SourceFileFailedEvent, blocks a worker, not the
+    // event loop
+    try {
+      AgentSourceFileDTO.SourceFileStatus status =
+          this.sourceFileReadiness.await(sourceFile.sourceFileId(), Duration.ofSeconds(3)).join();
+      // NOTE: will always time out, if processing is disabled
+      if (status.equals(AgentSourceFileDTO.SourceFileStatus.ERROR)
+          || status.equals(AgentSourceFileDTO.SourceFileStatus.TIMEOUT)) {
+        log.warn(
+            "💥 legal-i was not fast enough to process this file {}", sourceFile.sourceFileId());
+      }
+    } catch (CompletionException e) {
+      log.error("🙅‍  Failed to wait for SourceFile {}", sourceFile.sourceFileId(), e.getCause());
     }
 
     // Try to create same sourcefile with another file
@@ -171,20 +227,18 @@ public class ExampleService {
     List<AgentSourceFileDTO> list = this.sourceFileService.getByLegalCase(legalCase.legalCaseId());
     log.info("1️⃣ LegalCase has {} source files", list.size());
 
-    // download file again and verify md5
+    // download file again and verify md5 while it is streamed to disk
     AgentFileDTO downloadedFile = list.get(0).originalFile();
-    try (InputStream is = this.fileService.downloadFile(downloadedFile.uri())) {
-      Path target = Path.of("./" + downloadedFile.filename());
-      Files.copy(is, target, StandardCopyOption.REPLACE_EXISTING);
-
-      MessageDigest md = MessageDigest.getInstance("MD5");
-      String md5 = Base64.getEncoder().encodeToString(md.digest(Files.readAllBytes(target)));
-      log.info(
-          "🧮 MD5 of downloaded file is {}",
-          md5.equals(downloadedFile.md5()) ? "correct" : "DIFFERENT!");
+    try {
+      Path target =
+          this.verifiedDownloader.download(
+              downloadedFile, Path.of("./" + downloadedFile.filename()));
+      log.info("🧮 MD5 of downloaded file is correct");
 
       Files.delete(target);
-    } catch (NoSuchAlgorithmException | IOException e) {
+    } catch (VerifiedDownloader.ChecksumMismatchException e) {
+      log.info("🧮 MD5 of downloaded file is DIFFERENT!");
+    } catch (IOException e) {
       e.printStackTrace();
     }
 
@@ -358,16 +412,6 @@ public class ExampleService {
     log.info("🥳 LegalCases for Department 1 and Department 2 have been created and deleted!");
   }
 
-  public void cleanup() {
-    List<AgentLegalCaseDTO> allCases = this.legalCaseService.list();
-    for (AgentLegalCaseDTO currentLegalCase : allCases) {
-      if ("example-agent".equals(currentLegalCase.metadata().getOrDefault("legali.uploader", ""))) {
-        log.info("🧹 Cleaning up {}", currentLegalCase.legalCaseId());
-        this.legalCaseService.delete(currentLegalCase.legalCaseId());
-      }
-    }
-  }
-
   /**
    * @return String random doc type
    */
@@ -0,0 +1,185 @@
+package ch.legali.sdk.example.quarkus;
+
+import ch.legali.sdk.exceptions.FileConflictException;
+import ch.legali.sdk.exceptions.NotFoundException;
+import ch.legali.sdk.models.AgentLegalCaseDTO;
+import ch.legali.sdk.models.AgentSourceFileDTO;
+import ch.legali.sdk.models.AgentSourceFileDTO.SourceFileStatus;
+import ch.legali.sdk.services.LegalCaseService;
+import ch.legali.sdk.services.SourceFileService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ingests legal cases concurrently, see legali.ingestion.
+ *
+ * <p>Each legal case passes through a chain of {@link Uni}s: create the legal case, upload its
+ * source file and await its readiness. legali.ingestion.concurrency chains are merged at once.
+ * Blocking SDK calls are offloaded to a bounded pool, or to virtual threads, and retried with
+ * exponential backoff; the readiness is awaited through {@link SourceFileReadiness} without holding
+ * a thread. The source only emits legal cases as chains complete, overflow-buffer bounds what a
+ * source that does not follow the demand can queue.
+ */
+@ApplicationScoped
+public class IngestionPipeline {
+
+  private static final Logger log = LoggerFactory.getLogger(IngestionPipeline.class);
+
+  @Inject LegalCaseService legalCaseService;
+
+  @Inject SourceFileService sourceFileService;
+
+  @Inject SourceFileReadiness sourceFileReadiness;
+
+  @Inject Config.Mapping config;
+
+  @Inject MeterRegistry meterRegistry;
+
+  private ExecutorService executor;
+  private Counter uploadedCounter;
+  private Counter failedCounter;
+
+  @PostConstruct
+  void init() {
+    Config.Ingestion ingestion = this.config.ingestion();
+    if (ingestion.virtualThreads()) {
+      this.executor =
+          Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ingest-", 0).factory());
+    } else {
+      this.executor =
+          Executors.newFixedThreadPool(
+              Math.max(1, ingestion.workers()),
+              Thread.ofPlatform().name("ingest-", 0).daemon().factory());
+    }
+    this.uploadedCounter =
+        this.meterRegistry.counter("agent.ingestion.documents", "outcome", "uploaded");
+    this.failedCounter =
+        this.meterRegistry.counter("agent.ingestion.documents", "outcome", "failed");
+  }
+
+  @PreDestroy
+  void shutdown() {
+    this.executor.shutdownNow();
+  }
+
+  /**
+   * @return completes with the number of ingested and failed legal cases once all are done
+   */
+  public Uni<Summary> run() {
+    Config.Ingestion ingestion = this.config.ingestion();
+    UUID tenantId = this.config.tenants().get(ingestion.department());
+    log.info(
+        "📥 Ingesting {} legal cases, {} at a time", ingestion.cases(), ingestion.concurrency());
+
+    return Multi.createFrom()
+        .range(0, ingestion.cases())
+        .onOverflow()
+        .buffer(ingestion.overflowBuffer())
+        .onItem()
+        .transformToUni(index -> this.ingest(index, tenantId))
+        .merge(ingestion.concurrency())
+        .collect()
+        .in(() -> new int[2], (tally, ingested) -> tally[ingested ? 0 : 1]++)
+        .map(tally -> new Summary(tally[0], tally[1]))
+        .invoke(summary -> log.info("📥 Ingestion finished: {}", summary));
+  }
+
+  /**
+   * @return completes with false if the legal case failed, never fails
+   */
+  private Uni<Boolean> ingest(int index, UUID tenantId) {
+    AgentLegalCaseDTO legalCase =
+        AgentLegalCaseDTO.builder()
+            .legalCaseId(UUID.randomUUID())
+            .caseData(Map.of("PII_FIRSTNAME", "John", "PII_LASTNAME", "Doe"))
+            .reference("ingestion-" + index)
+            .owner("DummyIamUser")
+            .build();
+    AgentSourceFileDTO sourceFile =
+        AgentSourceFileDTO.builder()
+            .sourceFileId(UUID.randomUUID())
+            .legalCaseId(legalCase.legalCaseId())
+            .folder("accident")
+            .fileReference("ingestion-" + index + ".pdf")
+            .putMetadata("legali.metadata.title", "Ingested Document " + index)
+            .build();
+
+    return this.blocking(() -> this.legalCaseService.create(legalCase, tenantId))
+        .chain(() -> this.blocking(() -> this.upload(sourceFile)))
+        .invoke(() -> this.uploadedCounter.increment())
+        .chain(
+            () ->
+                Uni.createFrom()
+                    .completionStage(
+                        () ->
+                            this.sourceFileReadiness.await(
+                                sourceFile.sourceFileId(),
+                                this.config.ingestion().readinessTimeout())))
+        .map(
+            status -> {
+              // NOTE: always times out if processing is disabled
+              if (status != SourceFileStatus.READY) {
+                log.warn("💥 SourceFile {} is {}", sourceFile.sourceFileId(), status);
+              }
+              return true;
+            })
+        .onFailure()
+        .recoverWithItem(
+            failure -> {
+              log.error("🙅‍  Failed to ingest LegalCase {}", legalCase.reference(), failure);
+              this.failedCounter.increment();
+              return false;
+            });
+  }
+
+  private void upload(AgentSourceFileDTO sourceFile) {
+    // opened on every attempt, a retry uploads the whole file again
+    try (InputStream is = getClass().getResourceAsStream("/sample.pdf")) {
+      this.sourceFileService.create(sourceFile, is);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Runs the call on the worker pool, retrying it with backoff. */
+  private Uni<Void> blocking(Runnable call) {
+    Config.Ingestion ingestion = this.config.ingestion();
+    return Uni.createFrom()
+        .item(
+            () -> {
+              call.run();
+              return (Void) null;
+            })
+        .runSubscriptionOn(this.executor)
+        .onFailure(IngestionPipeline::isRetryable)
+        .retry()
+        .withBackOff(ingestion.retryBackoff(), ingestion.maxRetryBackoff())
+        .atMost(ingestion.maxRetries());
+  }
+
+  private static boolean isRetryable(Throwable failure) {
+    // creates are idempotent, anything but a conflict or a missing entity may succeed again
+    return !(failure instanceof FileConflictException || failure instanceof NotFoundException);
+  }
+
+  /**
+   * @param ingested legal cases whose source file was uploaded
+   * @param failed legal cases that failed after all retries
+   */
+  public record Summary(int ingested, int failed) {}
+}
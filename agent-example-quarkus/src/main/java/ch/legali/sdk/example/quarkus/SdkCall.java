@@ -0,0 +1,21 @@
+package ch.legali.sdk.example.quarkus;
+
+import jakarta.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** Records the calls of the annotated SDK service, see {@link SdkCallInterceptor}. */
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface SdkCall {
+
+  /**
+   * Binds {@link SdkCall} to the SDK services, which cannot be annotated, when their producers in
+   * {@link Config} wrap them with an {@code InterceptionProxy}.
+   */
+  @SdkCall
+  abstract class Bindings {}
+}
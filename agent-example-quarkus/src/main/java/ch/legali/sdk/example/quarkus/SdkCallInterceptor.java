@@ -0,0 +1,172 @@
+package ch.legali.sdk.example.quarkus;
+
+import ch.legali.sdk.services.ExportService;
+import ch.legali.sdk.services.FileService;
+import ch.legali.sdk.services.LegalCaseService;
+import ch.legali.sdk.services.SourceFileService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Times the calls of the SDK services as agent.sdk.calls, tagged by service, operation (the
+ * method), tenant and outcome, and counts the calls in flight per service.
+ *
+ * <p>The bytes of {@link InputStream} arguments are counted as uploaded when the SDK reads them,
+ * the bytes of returned streams as downloaded when the caller reads them. The timer of a download
+ * thus stops when the stream is returned, not when it is read.
+ *
+ * <p>The tenant is the argument that is a configured tenant id, e.g. of {@code
+ * LegalCaseService.create}.
+ *
+ * <p>A meter is registered on first use and looked up afterwards.
+ */
+@SdkCall
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class SdkCallInterceptor {
+
+  private static final Map<Class<?>, String> SERVICES =
+      Map.of(
+          LegalCaseService.class, "legalcase",
+          SourceFileService.class, "sourcefile",
+          FileService.class, "file",
+          ExportService.class, "export");
+
+  @Inject MeterRegistry meterRegistry;
+
+  @Inject Config.Mapping config;
+
+  private record TimerKey(Method method, String tenant, String outcome) {}
+
+  private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+  private final Map<String, Counter> bytes = new ConcurrentHashMap<>();
+  private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+  @AroundInvoke
+  Object record(InvocationContext context) throws Exception {
+    String service =
+        SERVICES.getOrDefault(
+            context.getMethod().getDeclaringClass(),
+            context.getMethod().getDeclaringClass().getSimpleName());
+    Object[] parameters = context.getParameters();
+    boolean uploads = false;
+    for (int i = 0; i < parameters.length; i++) {
+      if (parameters[i] instanceof InputStream in) {
+        parameters[i] = new CountingInputStream(in, this.bytes(service, "upload"));
+        uploads = true;
+      }
+    }
+    if (uploads) {
+      context.setParameters(parameters);
+    }
+
+    String tenant = this.tenant(parameters);
+    String outcome = "error";
+    AtomicInteger calls = this.inFlight(service);
+    calls.incrementAndGet();
+    long start = System.nanoTime();
+    try {
+      Object result = context.proceed();
+      outcome = "success";
+      if (result instanceof InputStream in) {
+        return new CountingInputStream(in, this.bytes(service, "download"));
+      }
+      return result;
+    } finally {
+      long nanos = System.nanoTime() - start;
+      calls.decrementAndGet();
+      this.timers
+          .computeIfAbsent(
+              new TimerKey(context.getMethod(), tenant, outcome), key -> this.timer(service, key))
+          .record(nanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private Timer timer(String service, TimerKey key) {
+    return Timer.builder("agent.sdk.calls")
+        .tags(
+            "service",
+            service,
+            "operation",
+            key.method().getName(),
+            "tenant",
+            key.tenant(),
+            "outcome",
+            key.outcome())
+        .register(this.meterRegistry);
+  }
+
+  private AtomicInteger inFlight(String service) {
+    return this.inFlight.computeIfAbsent(
+        service,
+        s ->
+            this.meterRegistry.gauge(
+                "agent.sdk.inflight", Tags.of("service", s), new AtomicInteger()));
+  }
+
+  private Counter bytes(String service, String direction) {
+    return this.bytes.computeIfAbsent(
+        service + "/" + direction,
+        key ->
+            Counter.builder("agent.sdk.bytes")
+                .baseUnit("bytes")
+                .tags("service", service, "direction", direction)
+                .register(this.meterRegistry));
+  }
+
+  private String tenant(Object[] parameters) {
+    for (Map.Entry<String, UUID> entry : this.config.tenants().entrySet()) {
+      for (Object parameter : parameters) {
+        if (entry.getValue().equals(parameter)) {
+          return entry.getKey();
+        }
+      }
+    }
+    return "none";
+  }
+
+  /** Counts the bytes read. */
+  private static class CountingInputStream extends FilterInputStream {
+
+    private final Counter counter;
+
+    CountingInputStream(InputStream in, Counter counter) {
+      super(in);
+      this.counter = counter;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b != -1) {
+        this.counter.increment();
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = super.read(b, off, len);
+      if (read > 0) {
+        this.counter.increment(read);
+      }
+      return read;
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package ch.legali.sdk.example.quarkus;
+
+import ch.legali.sdk.models.AgentSourceFileDTO.SourceFileStatus;
+import ch.legali.sdk.services.SourceFileService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Futures of the processing status of source files, completed by the SourceFileReadyEvent and
+ * SourceFileFailedEvent consumers. Unlike {@link
+ * SourceFileService#waitForSourceFileReadyOrTimeout}, waiting holds neither a thread nor polls the
+ * API in a loop.
+ *
+ * <p>A status that arrives before anybody waits for it is kept for the next {@link #await}. Source
+ * files that have been waiting for legali.readiness.poll-interval are checked once per interval, in
+ * case their event was missed.
+ */
+@ApplicationScoped
+public class SourceFileReadiness {
+
+  private static final Logger log = LoggerFactory.getLogger(SourceFileReadiness.class);
+
+  @Inject SourceFileService sourceFileService;
+
+  @Inject Config.Mapping config;
+
+  @Inject MeterRegistry meterRegistry;
+
+  // guarded by itself
+  private final Map<UUID, Waiter> waiting = new HashMap<>();
+  // guarded by waiting, oldest first
+  private Map<UUID, SourceFileStatus> unclaimed;
+
+  private Counter eventCounter;
+  private Counter polledCounter;
+  private Counter timeoutCounter;
+
+  @PostConstruct
+  void init() {
+    int remembered = this.config.readiness().rememberedStatuses();
+    this.unclaimed =
+        new LinkedHashMap<>() {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<UUID, SourceFileStatus> eldest) {
+            return this.size() > remembered;
+          }
+        };
+    Gauge.builder("agent.readiness.waiting", this, SourceFileReadiness::waitingCount)
+        .register(this.meterRegistry);
+    this.eventCounter = this.meterRegistry.counter("agent.readiness", "outcome", "event");
+    this.polledCounter = this.meterRegistry.counter("agent.readiness", "outcome", "polled");
+    this.timeoutCounter = this.meterRegistry.counter("agent.readiness", "outcome", "timeout");
+  }
+
+  /**
+   * Waits for the source file to be processed. Waiting again for the same source file returns the
+   * same future, with the timeout of the first wait.
+   *
+   * @param sourceFileId the source file
+   * @param timeout completes with {@link SourceFileStatus#TIMEOUT} after this long
+   * @return completes with the status of the source file once it is processed
+   */
+  public CompletableFuture<SourceFileStatus> await(UUID sourceFileId, Duration timeout) {
+    Waiter waiter;
+    synchronized (this.waiting) {
+      SourceFileStatus status = this.unclaimed.remove(sourceFileId);
+      if (status != null) {
+        return CompletableFuture.completedFuture(status);
+      }
+      waiter = this.waiting.get(sourceFileId);
+      if (waiter != null) {
+        return waiter.future();
+      }
+      waiter = new Waiter(new CompletableFuture<>(), System.nanoTime());
+      this.waiting.put(sourceFileId, waiter);
+    }
+    waiter
+        .future()
+        .completeOnTimeout(SourceFileStatus.TIMEOUT, timeout.toMillis(), TimeUnit.MILLISECONDS)
+        .thenAccept(
+            status -> {
+              synchronized (this.waiting) {
+                this.waiting.remove(sourceFileId);
+              }
+              if (status == SourceFileStatus.TIMEOUT) {
+                this.timeoutCounter.increment();
+              }
+            });
+    return waiter.future();
+  }
+
+  /** Completes the wait for a processed source file, called by the event consumers. */
+  public void complete(UUID sourceFileId, SourceFileStatus status) {
+    Waiter waiter;
+    synchronized (this.waiting) {
+      waiter = this.waiting.remove(sourceFileId);
+      if (waiter == null) {
+        this.unclaimed.put(sourceFileId, status);
+        return;
+      }
+    }
+    if (waiter.future().complete(status)) {
+      this.eventCounter.increment();
+    }
+  }
+
+  @Scheduled(
+      every = "${legali.readiness.poll-interval:60s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void poll() {
+    long due = System.nanoTime() - this.config.readiness().pollInterval().toNanos();
+    List<UUID> sourceFileIds;
+    synchronized (this.waiting) {
+      sourceFileIds =
+          this.waiting.entrySet().stream()
+              .filter(entry -> entry.getValue().since() - due <= 0)
+              .map(Map.Entry::getKey)
+              .toList();
+    }
+    for (UUID sourceFileId : sourceFileIds) {
+      try {
+        // a single check, returns TIMEOUT while the source file is processed
+        SourceFileStatus status =
+            this.sourceFileService.waitForSourceFileReadyOrTimeout(sourceFileId, 0);
+        if (status != SourceFileStatus.TIMEOUT && this.completePolled(sourceFileId, status)) {
+          log.info("SourceFile {} is {}, its event was missed", sourceFileId, status);
+          this.polledCounter.increment();
+        }
+      } catch (RuntimeException e) {
+        log.warn("Failed to check the status of SourceFile {}", sourceFileId, e);
+      }
+    }
+  }
+
+  private boolean completePolled(UUID sourceFileId, SourceFileStatus status) {
+    Waiter waiter;
+    synchronized (this.waiting) {
+      waiter = this.waiting.remove(sourceFileId);
+    }
+    return waiter != null && waiter.future().complete(status);
+  }
+
+  private int waitingCount() {
+    synchronized (this.waiting) {
+      return this.waiting.size();
+    }
+  }
+
+  /**
+   * @param since when the wait started, in nanos
+   */
+  private record Waiter(CompletableFuture<SourceFileStatus> future, long since) {}
+}
@@ -0,0 +1,102 @@
+package ch.legali.sdk.example.quarkus;
+
+import ch.legali.sdk.models.AgentFileDTO;
+import ch.legali.sdk.services.FileService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Downloads files and verifies their MD5 in a single pass: the digest is computed while the bytes
+ * are streamed to disk, so the file is neither read back nor held in memory.
+ */
+@ApplicationScoped
+public class VerifiedDownloader {
+
+  private static final Logger log = LoggerFactory.getLogger(VerifiedDownloader.class);
+
+  @Inject FileService fileService;
+
+  @Inject Config.Mapping config;
+
+  /**
+   * Downloads the file to a sibling .part file and moves it to the target once its MD5 matches.
+   *
+   * @param file the file to download
+   * @param target where to store the file, parent directories are created
+   * @return the target
+   * @throws ChecksumMismatchException if the MD5 does not match, the file has been quarantined or
+   *     removed
+   * @throws IOException if the download fails
+   */
+  public Path download(AgentFileDTO file, Path target) throws IOException {
+    Path directory = target.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path part = directory.resolve(target.getFileName() + ".part");
+
+    MessageDigest digest = md5();
+    try (InputStream is =
+        new DigestInputStream(this.fileService.downloadFile(file.uri()), digest)) {
+      Files.copy(is, part, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(part);
+      throw e;
+    }
+
+    String md5 = Base64.getEncoder().encodeToString(digest.digest());
+    if (!md5.equals(file.md5())) {
+      this.reject(part, target, file);
+      throw new ChecksumMismatchException(file.filename(), file.md5(), md5);
+    }
+
+    try {
+      Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+    return target;
+  }
+
+  private void reject(Path part, Path target, AgentFileDTO file) throws IOException {
+    if (this.config.downloadQuarantinePath().isEmpty()) {
+      Files.delete(part);
+      return;
+    }
+    Path quarantine = Paths.get(this.config.downloadQuarantinePath().get());
+    Files.createDirectories(quarantine);
+    Path quarantined =
+        quarantine.resolve(System.currentTimeMillis() + "-" + target.getFileName().toString());
+    Files.move(part, quarantined, StandardCopyOption.REPLACE_EXISTING);
+    log.warn("☣️  Quarantined {} to {}", file.filename(), quarantined);
+  }
+
+  private static MessageDigest md5() {
+    try {
+      return MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("MD5 is not supported by this JVM", e);
+    }
+  }
+
+  /** The MD5 of a downloaded file does not match the MD5 announced by legal-i. */
+  public static class ChecksumMismatchException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ChecksumMismatchException(String filename, String expected, String actual) {
+      super("MD5 of " + filename + " is " + actual + ", expected " + expected);
+    }
+  }
+}
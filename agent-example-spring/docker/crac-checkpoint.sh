@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+#
+# Takes a CRaC checkpoint of the agent and commits it as an image that restores it.
+#
+# Usage: docker/crac-checkpoint.sh [base image] [image]
+#
+# The checkpoint is taken when the application context has been refreshed
+# (spring.context.checkpoint=onRefresh): the beans are created, the SDK is wired, but nothing has
+# been started yet. No connection is open, so no API is needed. The checkpoint holds placeholder
+# credentials only, on restore the legali.* settings are bound again from the environment of the
+# restored container, the HTTP client is built anew and a fresh access token is requested.
+#
+# Checkpoint and restore need the CHECKPOINT_RESTORE and SYS_PTRACE capabilities:
+#   docker run --cap-add CHECKPOINT_RESTORE --cap-add SYS_PTRACE -e LEGALI_CLIENT_SECRET ... <image>
+#
+set -euo pipefail
+
+BASE=${1:-legali-agent-example-spring-crac-base}
+IMAGE=${2:-legali-agent-example-spring-crac}
+CONTAINER=legali-agent-checkpoint
+
+docker rm -f "${CONTAINER}" >/dev/null 2>&1 || true
+
+# the JVM exits once the checkpoint is written
+docker run --name "${CONTAINER}" \
+  --cap-add CHECKPOINT_RESTORE --cap-add SYS_PTRACE \
+  -e LEGALI_CLIENT_ID=checkpoint \
+  -e LEGALI_CLIENT_SECRET=checkpoint \
+  --entrypoint java \
+  "${BASE}" \
+  -XX:MaxRAMPercentage=90.0 \
+  -Dspring.context.checkpoint=onRefresh \
+  -XX:CRaCCheckpointTo=/app/checkpoint \
+  -jar agent.jar || true
+
+if [ -z "$(docker diff "${CONTAINER}" | grep '/app/checkpoint/')" ]; then
+  docker logs "${CONTAINER}" | tail -20
+  docker rm "${CONTAINER}" >/dev/null
+  echo "No checkpoint written" >&2
+  exit 1
+fi
+
+docker commit \
+  --change 'ENTRYPOINT ["java", "-XX:CRaCRestoreFrom=/app/checkpoint"]' \
+  "${CONTAINER}" "${IMAGE}" >/dev/null
+docker rm "${CONTAINER}" >/dev/null
+echo "Committed ${IMAGE}"
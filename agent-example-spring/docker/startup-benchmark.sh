@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+#
+# Compares the startup time and memory of the JVM images and the native image of the agent.
+#
+# Usage: docker/startup-benchmark.sh [runs]
+#
+# Build the images first (make dockerize dockerize-cds dockerize-crac dockerize-native) and start
+# the API stand-in on port 8090 (cd ../agent-example-standin && make run). Images that have not
+# been built are skipped, pass IMAGES="..." to choose. Reported per run:
+#   heartbeat  time from `docker run` until the agent logs its first successful heartbeat
+#   ready      time from `docker run` until /actuator/health/readiness answers, i.e. the agent is
+#              connected to the API
+#   rss        resident set size of the agent process, SETTLE seconds after it is ready
+#
+set -euo pipefail
+
+RUNS=${1:-5}
+SETTLE=${SETTLE:-10}
+STANDIN=${STANDIN:-http://localhost:8090}
+read -r -a IMAGES <<<"${IMAGES:-legali-agent-example-spring legali-agent-example-spring-cds legali-agent-example-spring-crac legali-agent-example-spring-native}"
+
+millis() {
+  date +%s%3N
+}
+
+for image in "${IMAGES[@]}"; do
+  if ! docker image inspect "${image}" >/dev/null 2>&1; then
+    echo "${image} not built, skipped"
+    continue
+  fi
+  options=()
+  if [[ "${image}" == *-crac ]]; then
+    # CRIU needs these to restore the process
+    options=(--cap-add CHECKPOINT_RESTORE --cap-add SYS_PTRACE)
+  fi
+
+  for run in $(seq 1 "${RUNS}"); do
+    start=$(millis)
+    id=$(docker run -d --rm --network host ${options[@]+"${options[@]}"} \
+      -e LEGALI_AUTH_URL="${STANDIN}" \
+      -e LEGALI_API_URL="${STANDIN}/agents/v1" \
+      -e LEGALI_CLIENT_ID=benchmark \
+      -e LEGALI_CLIENT_SECRET=benchmark \
+      -e LEGALI_EXAMPLE_HEARTBEAT_INITIAL_DELAY=0s \
+      "${image}")
+    ready=
+    heartbeat=
+    until [ -n "${ready}" ] && [ -n "${heartbeat}" ]; do
+      if [ -z "${ready}" ] && curl -sf -o /dev/null http://localhost:8085/actuator/health/readiness; then
+        ready=$(($(millis) - start))
+      fi
+      if [ -z "${heartbeat}" ] && docker logs "${id}" 2>&1 | grep "First heartbeat" >/dev/null; then
+        heartbeat=$(($(millis) - start))
+      fi
+      sleep 0.01
+    done
+    sleep "${SETTLE}"
+    # the restored CRaC process is not PID 1, take the largest process of the container
+    rss=$(docker exec "${id}" sh -c 'grep -h VmRSS /proc/[0-9]*/status 2>/dev/null || true' \
+      | awk '$2 > max { max = $2 } END { print max }')
+    docker stop "${id}" >/dev/null
+    printf '%-36s run %d  heartbeat %6d ms  ready %6d ms  rss %8d KiB\n' \
+      "${image}" "${run}" "${heartbeat}" "${ready}" "${rss}"
+  done
+done
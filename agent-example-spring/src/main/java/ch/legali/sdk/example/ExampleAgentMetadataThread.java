@@ -1,6 +1,7 @@
 package ch.legali.sdk.example;
 
 import ch.legali.sdk.example.config.ExampleConfig;
+import ch.legali.sdk.example.events.SourceFileReadiness;
 import ch.legali.sdk.models.AgentLegalCaseDTO;
 import ch.legali.sdk.models.AgentSourceFileDTO;
 import ch.legali.sdk.models.AgentSourceFileDTO.MetadataKeys;
@@ -9,9 +10,10 @@ import ch.legali.sdk.services.LegalCaseService;
 import ch.legali.sdk.services.SourceFileService;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.ClassPathResource;
@@ -26,14 +28,17 @@ public class ExampleAgentMetadataThread implements Runnable {
   private final LegalCaseService legalCaseService;
   private final SourceFileService sourceFileService;
   private final ExampleConfig exampleConfig;
+  private final SourceFileReadiness sourceFileReadiness;
 
   public ExampleAgentMetadataThread(
       LegalCaseService legalCaseService,
       SourceFileService sourceFileService,
-      ExampleConfig exampleConfig) {
+      ExampleConfig exampleConfig,
+      SourceFileReadiness sourceFileReadiness) {
     this.legalCaseService = legalCaseService;
     this.sourceFileService = sourceFileService;
     this.exampleConfig = exampleConfig;
+    this.sourceFileReadiness = sourceFileReadiness;
   }
 
   /**
@@ -93,8 +98,8 @@ public class ExampleAgentMetadataThread implements Runnable {
      * To keep a constant memory footprint on the agent, the SDK uses a FileObject and
      * not a ByteArrayResource. PDF files can be large if they contain images (>
      * 500MB), in multi-threaded mode this leads to unwanted spikes in memory usage.
-     * Ideally the files are chunked downloaded to a temporary file and then passed to
-     * the SDK.
+     * Files from a remote source can be piped to the upload by the StreamUploader,
+     * with a fixed buffer and without a temporary file.
      */
 
     // add / delete a sourcefile
@@ -138,24 +143,17 @@ public class ExampleAgentMetadataThread implements Runnable {
     }
 
     log.info("😴  Waiting for SourceFile to be processed  (will timeout after 3 seconds!)");
-    // NOTE: use with care, busy waiting and usually not required
-    SourceFileStatus status =
-        this.sourceFileService.waitForSourceFileReadyOrTimeout(
-            sourceFile.sourceFileId(), TimeUnit.SECONDS.toSeconds(3));
-
-    // NOTE: will always time out, if processing is disabled
-    if (status.equals(SourceFileStatus.ERROR) || status.equals(SourceFileStatus.TIMEOUT)) {
-      log.warn("💥 legal-i was not fast enough to process this file {}", sourceFile.sourceFileId());
-    }
-  }
-
-  public void cleanup() {
-    List<AgentLegalCaseDTO> allCases = this.legalCaseService.list();
-    for (AgentLegalCaseDTO currentLegalCase : allCases) {
-      if ("example-agent".equals(currentLegalCase.metadata().getOrDefault("legali.uploader", ""))) {
-        log.info("🧹 Cleaning up {}", currentLegalCase.legalCaseId());
-        this.legalCaseService.delete(currentLegalCase.legalCaseId());
+    // completed by the SourceFileReadyEvent or SourceFileFailedEvent, blocks the scenario thread
+    try {
+      SourceFileStatus status =
+          this.sourceFileReadiness.await(sourceFile.sourceFileId(), Duration.ofSeconds(3)).join();
+      // NOTE: will always time out, if processing is disabled
+      if (status.equals(SourceFileStatus.ERROR) || status.equals(SourceFileStatus.TIMEOUT)) {
+        log.warn(
+            "💥 legal-i was not fast enough to process this file {}", sourceFile.sourceFileId());
       }
+    } catch (CompletionException e) {
+      log.error("🙅‍  Failed to wait for SourceFile {}", sourceFile.sourceFileId(), e.getCause());
     }
   }
 }
@@ -3,10 +3,12 @@ package ch.legali.sdk.example;
 import ch.legali.sdk.LegaliAgentSdk;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackageClasses = {LegaliAgentSdk.class, ExampleApplication.class})
 @EnableScheduling
+@ImportRuntimeHints(SdkRuntimeHints.class)
 public class ExampleApplication {
 
   public static void main(String[] args) {
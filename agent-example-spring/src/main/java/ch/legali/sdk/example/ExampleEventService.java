@@ -3,51 +3,65 @@ package ch.legali.sdk.example;
 // CHECKSTYLE IGNORE AvoidStarImport FOR NEXT 1 LINES
 import ch.legali.api.events.*;
 import ch.legali.sdk.example.config.ExampleConfig;
+import ch.legali.sdk.example.config.HeartbeatConfig;
+import ch.legali.sdk.example.events.AdaptivePollingInterval;
+import ch.legali.sdk.example.events.EventOutbox;
+import ch.legali.sdk.example.events.SourceFileReadiness;
+import ch.legali.sdk.example.files.ExportDownloadWorker;
 import ch.legali.sdk.internal.HealthService;
-import ch.legali.sdk.models.AgentFileDTO;
+import ch.legali.sdk.models.AgentSourceFileDTO.SourceFileStatus;
 import ch.legali.sdk.services.EventService;
-import ch.legali.sdk.services.FileService;
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.Map;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Service;
 
 /** This service is used to react to events form the legal-i cloud. */
 @Service
-public class ExampleEventService {
+public class ExampleEventService implements SchedulingConfigurer {
   private static final Logger log = LoggerFactory.getLogger(ExampleEventService.class);
 
   private static final int THRESHOLD_GIGABYTES = 1;
-  private final FileService fileService;
+  private final ExportDownloadWorker exportDownloadWorker;
   private final EventService eventService;
   private final ExampleConfig exampleConfig;
   private final ApplicationEventPublisher applicationEventPublisher;
+  private final EventOutbox eventOutbox;
+  private final AdaptivePollingInterval pollingInterval;
+  private final HeartbeatConfig heartbeatConfig;
+  private final SourceFileReadiness sourceFileReadiness;
   private boolean started = false;
 
   private final HealthService healthService;
 
   public ExampleEventService(
-      FileService fileService,
+      ExportDownloadWorker exportDownloadWorker,
       EventService eventService,
       ApplicationEventPublisher applicationEventPublisher,
       HealthService healthService,
-      ExampleConfig exampleConfig) {
-    this.fileService = fileService;
+      ExampleConfig exampleConfig,
+      EventOutbox eventOutbox,
+      AdaptivePollingInterval pollingInterval,
+      HeartbeatConfig heartbeatConfig,
+      SourceFileReadiness sourceFileReadiness) {
+    this.exportDownloadWorker = exportDownloadWorker;
     this.eventService = eventService;
     this.applicationEventPublisher = applicationEventPublisher;
     this.healthService = healthService;
     this.exampleConfig = exampleConfig;
+    this.eventOutbox = eventOutbox;
+    this.pollingInterval = pollingInterval;
+    this.heartbeatConfig = heartbeatConfig;
+    this.sourceFileReadiness = sourceFileReadiness;
   }
 
   @PostConstruct
@@ -97,10 +111,33 @@ public class ExampleEventService {
     this.eventService.ping(this.exampleConfig.getTenants().get("department-2"));
   }
 
-  @Scheduled(fixedDelayString = "PT30S", initialDelayString = "PT3S")
+  /** Schedules the heartbeat, each run sets the delay until the next one. */
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar registrar) {
+    registrar.addTriggerTask(
+        this::getEvents,
+        context ->
+            context.lastCompletion() == null
+                ? Instant.now().plus(this.heartbeatConfig.getInitialDelay())
+                : context.lastCompletion().plus(this.pollingInterval.current()));
+  }
+
   public void getEvents() {
-    for (BaseEvent event : this.healthService.heartbeat()) {
-      this.applicationEventPublisher.publishEvent(event);
+    try {
+      List<BaseEvent> events = this.healthService.heartbeat();
+      if (this.healthService.getState() == HealthService.HealthState.DOWN) {
+        this.pollingInterval.onFailure();
+        return;
+      }
+      this.pollingInterval.onHeartbeat(events.size());
+      this.eventOutbox.submit(events);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (RuntimeException e) {
+      log.error("💔 Heartbeat failed", e);
+      this.pollingInterval.onFailure();
+      return;
     }
 
     // on first successful fetch, signal to app it's ready to do things.
@@ -121,23 +158,18 @@ public class ExampleEventService {
 
   /*
    * NOTE: all events that the agent subscribes to, need to be handled by an event listener.
+   * Events are acknowledged by the EventOutbox, a handler that throws runs again.
    */
 
   @EventListener
   public void handle(PongEvent event) {
     log.info("🏓 PingPong Event received:\n" + event.message());
-    this.eventService.acknowledge(event);
   }
 
   // legalcase handlers
   @EventListener
   public void handle(LegalCaseCreatedEvent event) {
-    String department =
-        this.exampleConfig.getTenants().entrySet().stream()
-            .filter(entry -> entry.getValue().equals(event.tenantId()))
-            .map(Map.Entry::getKey)
-            .findFirst()
-            .orElseThrow();
+    String department = this.exampleConfig.getDepartment(event.tenantId()).orElseThrow();
     log.info(
         "LegalCaseCreatedEvent\n "
             + "Tenant: "
@@ -149,13 +181,11 @@ public class ExampleEventService {
             + event.legalCase().caseData().get("PII_LASTNAME")
             + " "
             + event.legalCase().caseData().get("PII_LASTNAME"));
-    this.eventService.acknowledge(event);
   }
 
   @EventListener
   public void handle(LegalCaseStatusChangedEvent event) {
     log.info("LegalCaseStatusChangedEvent: " + "\n" + event.legalCaseId() + " " + event.status());
-    this.eventService.acknowledge(event);
   }
 
   @EventListener
@@ -166,7 +196,6 @@ public class ExampleEventService {
             + event.legalCase().caseData().get("PII_LASTNAME")
             + " "
             + event.legalCase().caseData().get("PII_FIRSTNAME"));
-    this.eventService.acknowledge(event);
   }
 
   @EventListener
@@ -177,19 +206,16 @@ public class ExampleEventService {
             + event.legalCaseId()
             + "\nlegalCaseUrl: "
             + event.legalCaseUrl());
-    this.eventService.acknowledge(event);
   }
 
   @EventListener
   public void handle(LegalCaseDeletedEvent event) {
     log.info("LegalCaseDeletedEvent: " + "\n" + event.legalCase().legalCaseId());
-    this.eventService.acknowledge(event);
   }
 
   @EventListener
   public void handle(NotebookUpdatedEvent event) {
     log.info("📓 NotebookUpdatedEvent: " + "\n" + event.notebook());
-    this.eventService.acknowledge(event);
   }
 
   // sourcefiles handler
@@ -197,25 +223,23 @@ public class ExampleEventService {
   @EventListener
   public void handle(SourceFileCreatedEvent event) {
     log.info("SourceFileCreatedEvent: " + "\n" + event.sourceFile().sourceFileId());
-    this.eventService.acknowledge(event);
   }
 
   @EventListener
   public void handle(SourceFileUpdatedEvent event) {
     log.info("SourceFileUpdatedEvent: " + "\n" + event.sourceFile().folder());
-    this.eventService.acknowledge(event);
   }
 
   @EventListener
   public void handle(SourceFileReadyEvent event) {
     log.info("SourceFileReadyEvent: " + "\n" + event.sourceFileId());
-    this.eventService.acknowledge(event);
+    this.sourceFileReadiness.complete(event.sourceFileId(), SourceFileStatus.READY);
   }
 
   @EventListener
   public void handle(SourceFileFailedEvent event) {
     log.info("SourceFileFailedEvent: " + "\n" + event.sourceFileId());
-    this.eventService.acknowledge(event);
+    this.sourceFileReadiness.complete(event.sourceFileId(), SourceFileStatus.ERROR);
   }
 
   @EventListener
@@ -225,22 +249,17 @@ public class ExampleEventService {
     log.info("    Case Id   : " + event.export().legalCaseId());
     log.info("    Timestamp : " + event.ts());
 
-    AgentFileDTO fileToDownload;
-    if (event.export().file().contentLength() > (THRESHOLD_GIGABYTES * 1000000000)
-        && event.export().tocFile() != null) {
-      fileToDownload = event.export().tocFile();
-    } else {
-      fileToDownload = event.export().file();
-    }
+    boolean tocFile =
+        event.export().file().contentLength() > (THRESHOLD_GIGABYTES * 1000000000)
+            && event.export().tocFile() != null;
 
-    try (InputStream is = this.fileService.downloadFile(fileToDownload.uri())) {
-      Files.createDirectories(Paths.get("./temp"));
-      Files.copy(
-          is, Path.of("./temp/" + fileToDownload.filename()), StandardCopyOption.REPLACE_EXISTING);
+    // the download runs in the background, the handler is done once the job is stored
+    try {
+      this.exportDownloadWorker.enqueue(event.export(), tocFile);
     } catch (IOException e) {
-      e.printStackTrace();
+      throw new UncheckedIOException(
+          "Failed to queue download of export " + event.export().exportId(), e);
     }
-    log.info("⤵️  Downloaded file: {}", fileToDownload.filename());
 
     if (!event.export().paginationReferencesList().isEmpty()) {
       log.info("🔗  References of paginated documents: ");
@@ -256,8 +275,6 @@ public class ExampleEventService {
                           reference.paginationNo(),
                           reference.paginationId())));
     }
-
-    this.eventService.acknowledge(event);
   }
 
   @EventListener
@@ -271,7 +288,6 @@ public class ExampleEventService {
             + event.export().file().uri()
             + "\n"
             + event.email());
-    this.eventService.acknowledge(event);
   }
 
   @EventListener
@@ -282,7 +298,6 @@ public class ExampleEventService {
             + event.export().legalCaseId()
             + " "
             + event.user().remoteAddr());
-    this.eventService.acknowledge(event);
   }
 
   @EventListener
@@ -295,7 +310,6 @@ public class ExampleEventService {
             + event.user().remoteAddr()
             + "\nXFDF: "
             + event.annotation().xfdf());
-    this.eventService.acknowledge(event);
   }
 
   @EventListener
@@ -308,7 +322,6 @@ public class ExampleEventService {
             + event.user().remoteAddr()
             + "\nXFDF: "
             + event.annotation().xfdf());
-    this.eventService.acknowledge(event);
   }
 
   @EventListener
@@ -323,7 +336,6 @@ public class ExampleEventService {
             + event.annotation().xfdf()
             + "\nSourceFile XFDF: "
             + event.annotation().sourceFileXfdf());
-    this.eventService.acknowledge(event);
   }
 
   @EventListener
@@ -336,7 +348,6 @@ public class ExampleEventService {
             + "\n"
             + "Ticket Request: "
             + event.question());
-    this.eventService.acknowledge(event);
   }
 
   @EventListener
@@ -352,7 +363,5 @@ public class ExampleEventService {
                     + "\n"
                     + String.join("\n", event.ticket().attachments())
                 : ""));
-
-    this.eventService.acknowledge(event);
   }
 }
@@ -1,13 +1,26 @@
 package ch.legali.sdk.example;
 
+import ch.legali.sdk.example.cleanup.CleanupEngine;
 import ch.legali.sdk.example.config.ExampleConfig;
+import ch.legali.sdk.example.config.InboxConfig;
+import ch.legali.sdk.example.config.IngestionConfig;
+import ch.legali.sdk.example.config.LoadTestConfig;
+import ch.legali.sdk.example.ingestion.InboxWatcher;
+import ch.legali.sdk.example.ingestion.IngestionEngine;
+import ch.legali.sdk.example.ingestion.IngestionJob;
+import ch.legali.sdk.example.loadtest.LoadGenerator;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
 import ch.legali.sdk.internal.HealthService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.event.EventListener;
-import org.springframework.core.task.TaskExecutor;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 /**
@@ -17,20 +30,38 @@ import org.springframework.stereotype.Service;
 public class ExampleService {
   private static final Logger log = LoggerFactory.getLogger(HealthService.class);
 
-  private final TaskExecutor taskExecutor;
+  private final ConnectorRuntime runtime;
   private final ApplicationContext applicationContext;
-  private final ExampleThread exampleThreadBean;
   private final ExampleConfig config;
+  private final IngestionConfig ingestionConfig;
+  private final IngestionEngine ingestionEngine;
+  private final InboxConfig inboxConfig;
+  private final InboxWatcher inboxWatcher;
+  private final LoadTestConfig loadTestConfig;
+  private final LoadGenerator loadGenerator;
+  private final CleanupEngine cleanupEngine;
 
   public ExampleService(
-      TaskExecutor taskExecutor,
+      ConnectorRuntime runtime,
       ApplicationContext applicationContext,
-      ExampleThread exampleThreadBean,
-      ExampleConfig config) {
-    this.taskExecutor = taskExecutor;
+      ExampleConfig config,
+      IngestionConfig ingestionConfig,
+      IngestionEngine ingestionEngine,
+      InboxConfig inboxConfig,
+      InboxWatcher inboxWatcher,
+      LoadTestConfig loadTestConfig,
+      LoadGenerator loadGenerator,
+      CleanupEngine cleanupEngine) {
+    this.runtime = runtime;
     this.applicationContext = applicationContext;
-    this.exampleThreadBean = exampleThreadBean;
     this.config = config;
+    this.ingestionConfig = ingestionConfig;
+    this.ingestionEngine = ingestionEngine;
+    this.inboxConfig = inboxConfig;
+    this.inboxWatcher = inboxWatcher;
+    this.loadTestConfig = loadTestConfig;
+    this.loadGenerator = loadGenerator;
+    this.cleanupEngine = cleanupEngine;
   }
 
   /**
@@ -42,17 +73,66 @@ public class ExampleService {
       throws InterruptedException {
     log.info("Received StartConnectorEvent, let's go!");
 
-    // Cleanup deletes all cases uploaded by this agent
+    // Cleanup deletes or archives all cases uploaded by this agent
     if (this.config.isCleanup()) {
-      this.exampleThreadBean.cleanup();
+      try {
+        this.cleanupEngine.run();
+      } catch (IOException e) {
+        log.error("🙅‍  Failed to open the cleanup checkpoint", e);
+      }
     }
 
-    // run example connector threads according to tasks pool
-    final int threadPoolSize = ((ThreadPoolTaskExecutor) this.taskExecutor).getMaxPoolSize();
-    for (int i = 0; i < threadPoolSize; i++) {
-      Thread.sleep(500);
+    // live ingestion of new files in legali.example.files-path
+    if (this.ingestionConfig.isEnabled() && this.inboxConfig.isEnabled()) {
+      this.ingestionEngine.start();
+      this.inboxWatcher.start();
+      return;
+    }
+
+    // bulk ingestion of the files in legali.example.files-path
+    if (this.ingestionConfig.isEnabled()) {
+      this.ingestionEngine.start();
+      this.runtime.execute(this::ingestFiles);
+      return;
+    }
+
+    // drive the SDK at a fixed rate and report the latencies
+    if (this.loadTestConfig.isEnabled()) {
+      this.runtime.execute(this.loadGenerator::run);
+      return;
+    }
+
+    // run example connector threads according to tasks pool, or as virtual threads
+    final int connectors = this.runtime.connectors();
+    for (int i = 0; i < connectors; i++) {
+      Thread.sleep(this.config.getConnectorStartInterval().toMillis());
       ExampleThread connector = this.applicationContext.getBean(ExampleThread.class);
-      this.taskExecutor.execute(connector);
+      this.runtime.execute(connector);
+    }
+  }
+
+  /**
+   * Feeds all files below legali.example.files-path to the {@link IngestionEngine}, see {@link
+   * IngestionJob#fromDirectory}.
+   */
+  private void ingestFiles() {
+    if (this.config.getFilesPath() == null || this.config.getFilesPath().isBlank()) {
+      log.warn("legali.example.files-path is not set, nothing to ingest");
+      return;
+    }
+
+    UUID tenantId = this.config.getTenants().get(this.ingestionConfig.getDepartment());
+    Path root = Paths.get(this.config.getFilesPath());
+    try (Stream<Path> files = Files.walk(root)) {
+      for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+        this.ingestionEngine.submit(IngestionJob.fromDirectory(root, file, tenantId));
+      }
+      this.ingestionEngine.awaitCompletion();
+      log.info("🥳 Ingestion of {} finished", root);
+    } catch (IOException e) {
+      log.error("🙅‍  Failed to list {}", root, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     }
   }
 }
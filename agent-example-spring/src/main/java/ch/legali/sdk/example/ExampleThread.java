@@ -1,6 +1,15 @@
 package ch.legali.sdk.example;
 
 import ch.legali.sdk.example.config.ExampleConfig;
+import ch.legali.sdk.example.events.SourceFileReadiness;
+import ch.legali.sdk.example.files.PathUploader;
+import ch.legali.sdk.example.files.StreamUploader;
+import ch.legali.sdk.example.files.VerifiedDownloader;
+import ch.legali.sdk.example.files.VerifiedDownloader.ChecksumMismatchException;
+import ch.legali.sdk.example.runtime.ConnectorResource;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.example.runtime.ConnectorRuntime.Permit;
+import ch.legali.sdk.example.runtime.TenantContext;
 import ch.legali.sdk.exceptions.FileConflictException;
 import ch.legali.sdk.exceptions.NotFoundException;
 import ch.legali.sdk.models.AgentExportDTO;
@@ -20,15 +29,12 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.ClassPathResource;
@@ -42,24 +48,41 @@ public class ExampleThread implements Runnable {
 
   private final LegalCaseService legalCaseService;
   private final SourceFileService sourceFileService;
+  private final PathUploader pathUploader;
+  private final StreamUploader streamUploader;
   private final ExportService exportService;
   private final FileService fileService;
   private final ExampleConfig exampleConfig;
+  private final ConnectorRuntime runtime;
+  private final VerifiedDownloader verifiedDownloader;
+  private final SourceFileReadiness sourceFileReadiness;
 
   private final ExampleAgentMetadataThread exampleAgentMetadataThread;
 
+  private volatile List<Path> localFiles;
+
   public ExampleThread(
       LegalCaseService legalCaseService,
       SourceFileService sourceFileService,
+      PathUploader pathUploader,
+      StreamUploader streamUploader,
       ExportService exportService,
       FileService fileService,
       ExampleAgentMetadataThread exampleAgentMetadataThread,
-      ExampleConfig exampleConfig) {
+      ExampleConfig exampleConfig,
+      ConnectorRuntime runtime,
+      VerifiedDownloader verifiedDownloader,
+      SourceFileReadiness sourceFileReadiness) {
     this.legalCaseService = legalCaseService;
     this.sourceFileService = sourceFileService;
+    this.pathUploader = pathUploader;
+    this.streamUploader = streamUploader;
     this.exportService = exportService;
     this.fileService = fileService;
     this.exampleConfig = exampleConfig;
+    this.runtime = runtime;
+    this.verifiedDownloader = verifiedDownloader;
+    this.sourceFileReadiness = sourceFileReadiness;
 
     // used to test metadata, see below
     this.exampleAgentMetadataThread = exampleAgentMetadataThread;
@@ -70,7 +93,10 @@ public class ExampleThread implements Runnable {
     int i = 0;
     while (i++ < this.exampleConfig.getIterations()) {
       log.info("🚀  Starting run {}", i);
-      this.runExample();
+      try (TenantContext.Scope scope =
+          TenantContext.enter(this.exampleConfig.getTenants().get("department-2"))) {
+        this.runExample();
+      }
       this.runExampleTwoDepartments();
       log.info("ExampleAgent run successful");
     }
@@ -105,7 +131,9 @@ public class ExampleThread implements Runnable {
             .accessGroup("group1")
             .putMetadata("meta.dummy", "dummy value")
             .build();
-    this.legalCaseService.create(legalCase, this.exampleConfig.getTenants().get("department-2"));
+    try (Permit permit = this.runtime.acquire(ConnectorResource.LEGAL_CASES)) {
+      this.legalCaseService.create(legalCase, this.exampleConfig.getTenants().get("department-2"));
+    }
 
     // update legal case
     log.info("🤓  Updating LegalCase");
@@ -122,8 +150,9 @@ public class ExampleThread implements Runnable {
      * To keep a constant memory footprint on the agent, the SDK uses a FileObject and
      * not a ByteArrayResource. PDF files can be large if they contain images (>
      * 500MB), in multi-threaded mode this leads to unwanted spikes in memory usage.
-     * Ideally the files are chunked downloaded to a temporary file and then passed to
-     * the SDK.
+     * Local files are uploaded by the PathUploader; files from a remote source, e.g. a
+     * DMS download, are piped to the upload by the StreamUploader, with a fixed buffer
+     * and without a temporary file.
      */
     Path fileToUpload = this.chooseLocalFile();
 
@@ -161,28 +190,32 @@ public class ExampleThread implements Runnable {
             .build();
 
     log.info("🧾  Creating SourceFile");
-    try (InputStream is = Files.newInputStream(fileToUpload)) {
-      this.sourceFileService.create(sourceFile, is);
+    try {
+      this.pathUploader.create(sourceFile, fileToUpload);
     } catch (IOException e) {
       log.error("🙅‍  Failed to create SourceFile", e);
     }
 
     log.info("😴  Waiting for SourceFile to be processed  (will timeout after 3 seconds!)");
-    // NOTE: use with care, busy waiting and usually not required
-    SourceFileStatus status =
-        this.sourceFileService.waitForSourceFileReadyOrTimeout(
-            sourceFile.sourceFileId(), TimeUnit.SECONDS.toSeconds(3));
-
-    // NOTE: will always time out, if processing is disabled
-    if (status.equals(SourceFileStatus.ERROR) || status.equals(SourceFileStatus.TIMEOUT)) {
-      log.warn("💥 legal-i was not fast enough to process this file {}", sourceFile.sourceFileId());
+    // completed by the SourceFileReadyEvent or SourceFileFailedEvent, blocks the scenario thread
+    try {
+      SourceFileStatus status =
+          this.sourceFileReadiness.await(sourceFile.sourceFileId(), Duration.ofSeconds(3)).join();
+      // NOTE: will always time out, if processing is disabled
+      if (status.equals(SourceFileStatus.ERROR) || status.equals(SourceFileStatus.TIMEOUT)) {
+        log.warn(
+            "💥 legal-i was not fast enough to process this file {}", sourceFile.sourceFileId());
+      }
+    } catch (CompletionException e) {
+      log.error("🙅‍  Failed to wait for SourceFile {}", sourceFile.sourceFileId(), e.getCause());
     }
 
     // Try to create same sourcefile with another file
     try {
+      // stands in for a remote source, the stream is piped to the upload
       ClassPathResource cp = new ClassPathResource("sample2.pdf");
-      try (InputStream file2 = cp.getInputStream()) {
-        this.sourceFileService.create(sourceFile, file2);
+      try {
+        this.streamUploader.create(sourceFile, cp.getInputStream());
       } catch (IOException e) {
         log.error("🙅‍  Failed to open sample2.pdf file", e);
       }
@@ -190,8 +223,8 @@ public class ExampleThread implements Runnable {
       log.info("🙅‍  Sourcefile files are different, refused due to conflict!‍️");
     }
     log.info("🧾  Creating the same SourceFile AGAIN (creates are idempotent)");
-    try (InputStream is = Files.newInputStream(fileToUpload)) {
-      this.sourceFileService.create(sourceFile, is);
+    try {
+      this.pathUploader.create(sourceFile, fileToUpload);
     } catch (IOException e) {
       log.error("🙅‍  Failed to create SourceFile", e);
     }
@@ -201,10 +234,10 @@ public class ExampleThread implements Runnable {
     log.info(
         "🧾  Creating the same SourceFile AGAIN using a different UUID but same fileReference"
             + " (creates are idempotent)");
-    try (InputStream is = Files.newInputStream(fileToUpload)) {
+    try {
       AgentSourceFileDTO sourceFile2 =
           AgentSourceFileDTO.builder().from(sourceFile).sourceFileId(UUID.randomUUID()).build();
-      this.sourceFileService.create(sourceFile2, is);
+      this.pathUploader.create(sourceFile2, fileToUpload);
     } catch (IOException e) {
       log.error("🙅‍  Failed to create SourceFile", e);
     }
@@ -212,21 +245,18 @@ public class ExampleThread implements Runnable {
     List<AgentSourceFileDTO> list = this.sourceFileService.getByLegalCase(legalCase.legalCaseId());
     log.info("1️⃣ LegalCase has {} source files", list.size());
 
-    // download file again and verify md5
+    // download file again and verify md5 while it is streamed to disk
     AgentFileDTO downloadedFile = list.get(0).originalFile();
-    try (InputStream is = this.fileService.downloadFile(downloadedFile.uri())) {
-      Path target = Path.of("./" + downloadedFile.filename());
-      Files.copy(is, target, StandardCopyOption.REPLACE_EXISTING);
-
-      MessageDigest md = MessageDigest.getInstance("MD5");
-      String md5 = Base64.getEncoder().encodeToString(md.digest(Files.readAllBytes(target)));
-      if (!md5.equals(downloadedFile.md5())) {
-        throw new RuntimeException("MD5 of downloaded file is not correct");
-      }
+    try {
+      Path target =
+          this.verifiedDownloader.download(
+              downloadedFile, Path.of("./" + downloadedFile.filename()));
       log.info("🧮 MD5 of downloaded file is {}: correct", downloadedFile.md5());
 
       Files.delete(target);
-    } catch (NoSuchAlgorithmException | IOException e) {
+    } catch (ChecksumMismatchException e) {
+      throw new RuntimeException("MD5 of downloaded file is not correct", e);
+    } catch (IOException e) {
       e.printStackTrace();
     }
 
@@ -243,8 +273,8 @@ public class ExampleThread implements Runnable {
             .putMetadata("legali.mapping.key", "M2")
             .build();
     try {
-      try (InputStream is = Files.newInputStream(fileToUpload)) {
-        this.sourceFileService.replace(sourceFileToReplace, is);
+      try {
+        this.pathUploader.replace(sourceFileToReplace, fileToUpload);
       } catch (IOException e) {
         log.error("🙅‍  Failed to replace SourceFile", e);
       }
@@ -257,8 +287,8 @@ public class ExampleThread implements Runnable {
     AgentSourceFileDTO sourceFileToMove =
         AgentSourceFileDTO.builder().from(sourceFile).legalCaseId(UUID.randomUUID()).build();
     try {
-      try (InputStream is = Files.newInputStream(fileToUpload)) {
-        this.sourceFileService.move(sourceFileToMove, is);
+      try {
+        this.pathUploader.move(sourceFileToMove, fileToUpload);
       } catch (IOException e) {
         log.error("🙅‍  Failed to move SourceFile", e);
       }
@@ -342,14 +372,18 @@ public class ExampleThread implements Runnable {
             .accessGroup("group1")
             .putMetadata("meta.dummy", "dummy value")
             .build();
-    this.legalCaseService.create(
-        legalCaseDept1, this.exampleConfig.getTenants().get("department-1"));
+    UUID tenantDept1 = this.exampleConfig.getTenants().get("department-1");
+    try (Permit permit = this.runtime.acquire(ConnectorResource.LEGAL_CASES, tenantDept1)) {
+      this.legalCaseService.create(legalCaseDept1, tenantDept1);
+    }
 
     log.info("🗂  Adding LegalCase in Department 2");
     AgentLegalCaseDTO legalCaseDept2 =
         AgentLegalCaseDTO.builder().from(legalCaseDept1).legalCaseId(UUID.randomUUID()).build();
-    this.legalCaseService.create(
-        legalCaseDept2, this.exampleConfig.getTenants().get("department-2"));
+    UUID tenantDept2 = this.exampleConfig.getTenants().get("department-2");
+    try (Permit permit = this.runtime.acquire(ConnectorResource.LEGAL_CASES, tenantDept2)) {
+      this.legalCaseService.create(legalCaseDept2, tenantDept2);
+    }
 
     this.legalCaseService
         .list()
@@ -365,14 +399,14 @@ public class ExampleThread implements Runnable {
             .folder(chooseFolder())
             .fileReference(UUID.randomUUID().toString())
             .build();
-    try (InputStream is = Files.newInputStream(fileToUpload)) {
-      this.sourceFileService.create(sourceFileDept1, is);
+    try {
+      this.pathUploader.create(sourceFileDept1, fileToUpload, tenantDept1);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
     AgentSourceFileDTO sourceFileDept2 = AgentSourceFileDTO.builder().from(sourceFileDept1).build();
-    try (InputStream is = Files.newInputStream(fileToUpload)) {
-      this.sourceFileService.create(sourceFileDept2, is);
+    try {
+      this.pathUploader.create(sourceFileDept2, fileToUpload, tenantDept2);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -382,12 +416,14 @@ public class ExampleThread implements Runnable {
         this.sourceFileService.get(sourceFileDept1.sourceFileId()).originalFile().uri();
     String sourceFileDept2Uri =
         this.sourceFileService.get(sourceFileDept2.sourceFileId()).originalFile().uri();
-    try (InputStream is = this.fileService.downloadFile(sourceFileDept1Uri)) {
+    try (Permit permit = this.runtime.acquire(ConnectorResource.DOWNLOADS, tenantDept1);
+        InputStream is = this.fileService.downloadFile(sourceFileDept1Uri)) {
       log.info("📁 Dept1: File with length: {}", is.readAllBytes().length);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
-    try (InputStream is = this.fileService.downloadFile(sourceFileDept2Uri)) {
+    try (Permit permit = this.runtime.acquire(ConnectorResource.DOWNLOADS, tenantDept2);
+        InputStream is = this.fileService.downloadFile(sourceFileDept2Uri)) {
       log.info("📁 Dept2: File 2 length: {}", is.readAllBytes().length);
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -402,16 +438,6 @@ public class ExampleThread implements Runnable {
     log.info("🥳 LegalCases for Department 1 and Department 2 have been created and deleted!");
   }
 
-  public void cleanup() {
-    List<AgentLegalCaseDTO> allCases = this.legalCaseService.list();
-    for (AgentLegalCaseDTO currentLegalCase : allCases) {
-      if ("example-agent".equals(currentLegalCase.metadata().getOrDefault("legali.uploader", ""))) {
-        log.info("🧹 Cleaning up {}", currentLegalCase.legalCaseId());
-        this.legalCaseService.delete(currentLegalCase.legalCaseId());
-      }
-    }
-  }
-
   /**
    * Returns either a random file from the given directory or the sample.pdf
    *
@@ -423,8 +449,7 @@ public class ExampleThread implements Runnable {
     try {
       if (this.exampleConfig.getFilesPath() != null
           && !this.exampleConfig.getFilesPath().isBlank()) {
-        List<Path> files =
-            Files.list(Paths.get(this.exampleConfig.getFilesPath())).collect(Collectors.toList());
+        List<Path> files = this.localFiles();
         int randomIndex = (int) Math.floor(Math.random() * files.size());
         Path f = files.get(randomIndex);
         log.info(
@@ -444,6 +469,21 @@ public class ExampleThread implements Runnable {
     }
   }
 
+  /**
+   * Lists the directory once, every connector iteration picks from the same listing. Use the inbox
+   * (legali.example.inbox.enabled) to pick up files added while the agent is running.
+   */
+  private List<Path> localFiles() throws IOException {
+    List<Path> files = this.localFiles;
+    if (files == null) {
+      try (Stream<Path> listing = Files.list(Paths.get(this.exampleConfig.getFilesPath()))) {
+        files = listing.filter(Files::isRegularFile).toList();
+      }
+      this.localFiles = files;
+    }
+    return files;
+  }
+
   /**
    * @return String random doc type
    */
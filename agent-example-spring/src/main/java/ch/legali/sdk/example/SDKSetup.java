@@ -1,6 +1,8 @@
 package ch.legali.sdk.example;
 
 import ch.legali.sdk.SdkConfig;
+import ch.legali.sdk.example.runtime.RestartableAuthentication;
+import ch.legali.sdk.example.runtime.RestartableHttpClient;
 import ch.legali.sdk.internal.Auth0AccessTokenRequestInterceptor;
 import ch.legali.sdk.internal.AuthenticationRequestInterceptor;
 import ch.legali.sdk.internal.HealthService;
@@ -40,10 +42,11 @@ public class SDKSetup {
     return new HttpClientConfiguration();
   }
 
+  // rebuilt when the context restarts, e.g. after a CRaC restore
   @Bean
-  public HttpClient legaliHttpClient(
+  public RestartableHttpClient legaliHttpClient(
       HttpClientConfiguration httpClientConfiguration, ConfigService configService) {
-    return httpClientConfiguration.legaliHttpClient(configService);
+    return new RestartableHttpClient(() -> httpClientConfiguration.legaliHttpClient(configService));
   }
 
   @Bean
@@ -144,9 +147,13 @@ public class SDKSetup {
     return new HealthService(configService, eventClient, eventService);
   }
 
+  // fetches a new access token when the context restarts, e.g. after a CRaC restore
   @Bean
-  public Auth0AccessTokenRequestInterceptor auth0AccessTokenRequestInterceptor(
+  public RestartableAuthentication auth0AccessTokenRequestInterceptor(
       ConfigService configService, ClientConfiguration clientConfiguration) {
-    return new Auth0AccessTokenRequestInterceptor(configService, clientConfiguration.auth0Client());
+    return new RestartableAuthentication(
+        () ->
+            new Auth0AccessTokenRequestInterceptor(
+                configService, clientConfiguration.auth0Client()));
   }
 }
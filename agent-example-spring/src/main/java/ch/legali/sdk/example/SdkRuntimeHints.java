@@ -0,0 +1,73 @@
+package ch.legali.sdk.example;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.SimpleMetadataReaderFactory;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reachability metadata of the SDK for the native image, see the native profile. The SDK maps its
+ * DTOs and events with Jackson and calls the API through Feign clients, both by reflection, which a
+ * native image only supports for the types registered here. The packages are scanned when the image
+ * is built, so a new SDK version needs no change.
+ */
+public class SdkRuntimeHints implements RuntimeHintsRegistrar {
+
+  // the DTOs with their Immutables implementations and builders, and the events
+  private static final List<String> MAPPED_PACKAGES =
+      List.of("ch.legali.sdk.models", "ch.legali.api");
+
+  private static final String CLIENT_PACKAGE = "ch.legali.sdk.internal.client";
+
+  @Override
+  public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+    for (String packageName : MAPPED_PACKAGES) {
+      for (Class<?> type : classes(packageName, classLoader)) {
+        hints
+            .reflection()
+            .registerType(
+                type,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_DECLARED_METHODS,
+                MemberCategory.DECLARED_FIELDS);
+      }
+    }
+    for (Class<?> client : classes(CLIENT_PACKAGE, classLoader)) {
+      if (client.isInterface()) {
+        // Feign implements the clients as JDK proxies and reads their annotations
+        hints.proxies().registerJdkProxy(client);
+        hints.reflection().registerType(client, MemberCategory.INVOKE_PUBLIC_METHODS);
+      } else {
+        hints.reflection().registerType(client, MemberCategory.values());
+      }
+    }
+    // the example documents
+    hints.resources().registerPattern("sample*.pdf");
+  }
+
+  private static List<Class<?>> classes(String packageName, ClassLoader classLoader) {
+    PathMatchingResourcePatternResolver resolver =
+        new PathMatchingResourcePatternResolver(classLoader);
+    MetadataReaderFactory readerFactory = new SimpleMetadataReaderFactory(resolver);
+    String pattern =
+        "classpath*:" + ClassUtils.convertClassNameToResourcePath(packageName) + "/**/*.class";
+    List<Class<?>> classes = new ArrayList<>();
+    try {
+      for (Resource resource : resolver.getResources(pattern)) {
+        String className =
+            readerFactory.getMetadataReader(resource).getClassMetadata().getClassName();
+        classes.add(ClassUtils.forName(className, classLoader));
+      }
+    } catch (IOException | ClassNotFoundException e) {
+      throw new IllegalStateException("Failed to scan " + packageName, e);
+    }
+    return classes;
+  }
+}
@@ -0,0 +1,222 @@
+package ch.legali.sdk.example.cache;
+
+// CHECKSTYLE IGNORE AvoidStarImport FOR NEXT 1 LINES
+import ch.legali.api.events.*;
+import ch.legali.sdk.example.config.CacheConfig;
+import ch.legali.sdk.models.AgentLegalCaseDTO;
+import ch.legali.sdk.models.AgentSourceFileDTO;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded read-through caches of legal cases, source files and the source files of a legal case,
+ * see {@link SdkCacheInterceptor}.
+ *
+ * <p>An entry is invalidated by the events of its legal case or source file, and by the writes of
+ * this agent. A load runs on the calling thread; callers of the same key wait for it, and a load
+ * that fails is not cached. An entry invalidated while it loads is not stored, so an event cannot
+ * be overtaken by the response of an earlier call. Entries expire after
+ * legali.example.cache.expire-after-write in case an event is missed.
+ *
+ * <p>Hits, misses, evictions and sizes are exported as cache_* with the tag cache, invalidations as
+ * agent_cache_invalidations_total.
+ */
+@Component
+public class SdkCache {
+
+  /** Loads a value on a miss. */
+  @FunctionalInterface
+  public interface Loader<V> {
+    V load() throws Throwable;
+  }
+
+  private final AsyncCache<UUID, AgentLegalCaseDTO> legalCases;
+  private final AsyncCache<UUID, AgentSourceFileDTO> sourceFiles;
+  private final AsyncCache<UUID, List<AgentSourceFileDTO>> legalCaseSourceFiles;
+
+  private final Counter legalCaseInvalidations;
+  private final Counter sourceFileInvalidations;
+  private final Counter legalCaseSourceFileInvalidations;
+
+  public SdkCache(CacheConfig config, MeterRegistry meterRegistry) {
+    this.legalCases = monitor(build(config), "legalcases", meterRegistry);
+    this.sourceFiles = monitor(build(config), "sourcefiles", meterRegistry);
+    this.legalCaseSourceFiles = monitor(build(config), "legalcase.sourcefiles", meterRegistry);
+
+    this.legalCaseInvalidations =
+        meterRegistry.counter("agent.cache.invalidations", "cache", "legalcases");
+    this.sourceFileInvalidations =
+        meterRegistry.counter("agent.cache.invalidations", "cache", "sourcefiles");
+    this.legalCaseSourceFileInvalidations =
+        meterRegistry.counter("agent.cache.invalidations", "cache", "legalcase.sourcefiles");
+  }
+
+  private static <V> AsyncCache<UUID, V> build(CacheConfig config) {
+    return Caffeine.newBuilder()
+        .maximumSize(config.getMaximumSize())
+        .expireAfterWrite(config.getExpireAfterWrite())
+        .recordStats()
+        .buildAsync();
+  }
+
+  private static <V> AsyncCache<UUID, V> monitor(
+      AsyncCache<UUID, V> cache, String name, MeterRegistry meterRegistry) {
+    return CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+  }
+
+  /**
+   * @return the cached legal case, or the one loaded
+   */
+  public AgentLegalCaseDTO legalCase(UUID legalCaseId, Loader<AgentLegalCaseDTO> loader)
+      throws Throwable {
+    return get(this.legalCases, legalCaseId, loader);
+  }
+
+  /**
+   * @return the cached source file, or the one loaded
+   */
+  public AgentSourceFileDTO sourceFile(UUID sourceFileId, Loader<AgentSourceFileDTO> loader)
+      throws Throwable {
+    return get(this.sourceFiles, sourceFileId, loader);
+  }
+
+  /**
+   * @return the cached source files of the legal case, or the ones loaded
+   */
+  public List<AgentSourceFileDTO> sourceFiles(
+      UUID legalCaseId, Loader<List<AgentSourceFileDTO>> loader) throws Throwable {
+    return get(this.legalCaseSourceFiles, legalCaseId, () -> List.copyOf(loader.load()));
+  }
+
+  private static <V> V get(AsyncCache<UUID, V> cache, UUID key, Loader<V> loader) throws Throwable {
+    CompletableFuture<V> loading = new CompletableFuture<>();
+    CompletableFuture<V> value = cache.get(key, (k, executor) -> loading);
+    if (value != loading) {
+      try {
+        return value.join();
+      } catch (CompletionException e) {
+        throw e.getCause();
+      }
+    }
+
+    // a failed load is removed from the cache
+    try {
+      V loaded = loader.load();
+      loading.complete(loaded);
+      return loaded;
+    } catch (Throwable e) {
+      loading.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /** Invalidates a legal case and its source files. */
+  public void invalidateLegalCase(UUID legalCaseId) {
+    this.legalCases.synchronous().invalidate(legalCaseId);
+    this.legalCaseInvalidations.increment();
+    this.invalidateLegalCaseSourceFiles(legalCaseId);
+  }
+
+  /**
+   * Invalidates a source file and the source files of its legal case.
+   *
+   * @param legalCaseId the legal case of the source file, or null if not known
+   */
+  public void invalidateSourceFile(UUID sourceFileId, UUID legalCaseId) {
+    // neither waits for a load in flight nor counts as a hit or miss
+    CompletableFuture<AgentSourceFileDTO> future = this.sourceFiles.asMap().get(sourceFileId);
+    AgentSourceFileDTO cached =
+        future != null && future.isDone() && !future.isCompletedExceptionally()
+            ? future.join()
+            : null;
+    this.sourceFiles.synchronous().invalidate(sourceFileId);
+    this.sourceFileInvalidations.increment();
+
+    if (legalCaseId != null) {
+      this.invalidateLegalCaseSourceFiles(legalCaseId);
+    }
+    if (cached != null && !cached.legalCaseId().equals(legalCaseId)) {
+      // moved to another legal case
+      this.invalidateLegalCaseSourceFiles(cached.legalCaseId());
+    } else if (cached == null && legalCaseId == null) {
+      // the legal case is not known, any list may hold the source file
+      this.legalCaseSourceFiles.synchronous().invalidateAll();
+      this.legalCaseSourceFileInvalidations.increment();
+    }
+  }
+
+  private void invalidateLegalCaseSourceFiles(UUID legalCaseId) {
+    this.legalCaseSourceFiles.synchronous().invalidate(legalCaseId);
+    this.legalCaseSourceFileInvalidations.increment();
+  }
+
+  /*
+   * Events of changes made in the legal-i cloud. The listeners run before the handlers of
+   * ExampleEventService, so a handler reads the changed entity.
+   */
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void on(LegalCaseCreatedEvent event) {
+    this.invalidateLegalCase(event.legalCase().legalCaseId());
+  }
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void on(LegalCaseUpdatedEvent event) {
+    this.invalidateLegalCase(event.legalCase().legalCaseId());
+  }
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void on(LegalCaseStatusChangedEvent event) {
+    this.invalidateLegalCase(event.legalCaseId());
+  }
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void on(LegalCaseReadyEvent event) {
+    this.invalidateLegalCase(event.legalCaseId());
+  }
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void on(LegalCaseDeletedEvent event) {
+    this.invalidateLegalCase(event.legalCase().legalCaseId());
+  }
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void on(SourceFileCreatedEvent event) {
+    this.invalidateSourceFile(event.sourceFile().sourceFileId(), event.sourceFile().legalCaseId());
+  }
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void on(SourceFileUpdatedEvent event) {
+    this.invalidateSourceFile(event.sourceFile().sourceFileId(), event.sourceFile().legalCaseId());
+  }
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void on(SourceFileReadyEvent event) {
+    this.invalidateSourceFile(event.sourceFileId(), event.legalCaseId());
+  }
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void on(SourceFileFailedEvent event) {
+    this.invalidateSourceFile(event.sourceFileId(), event.legalCaseId());
+  }
+}
@@ -0,0 +1,96 @@
+package ch.legali.sdk.example.cache;
+
+import ch.legali.sdk.models.AgentLegalCaseDTO;
+import ch.legali.sdk.models.AgentSourceFileDTO;
+import ch.legali.sdk.services.LegalCaseService;
+import ch.legali.sdk.services.SourceFileService;
+import java.util.List;
+import java.util.UUID;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Reads {@link LegalCaseService#get}, {@link SourceFileService#get} and {@link
+ * SourceFileService#getByLegalCase} through the {@link SdkCache}, and invalidates the entries the
+ * other calls change. Entries are invalidated after a write even if it failed, it may have been
+ * applied.
+ */
+public class SdkCacheInterceptor implements MethodInterceptor {
+
+  private final SdkCache cache;
+
+  public SdkCacheInterceptor(SdkCache cache) {
+    this.cache = cache;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    if (invocation.getThis() instanceof LegalCaseService) {
+      return this.legalCase(invocation);
+    }
+    if (invocation.getThis() instanceof SourceFileService) {
+      return this.sourceFile(invocation);
+    }
+    return invocation.proceed();
+  }
+
+  private Object legalCase(MethodInvocation invocation) throws Throwable {
+    Object[] arguments = invocation.getArguments();
+    switch (invocation.getMethod().getName()) {
+      case "get":
+        return this.cache.legalCase(
+            (UUID) arguments[0], () -> (AgentLegalCaseDTO) invocation.proceed());
+      case "update":
+        try {
+          return invocation.proceed();
+        } finally {
+          this.cache.invalidateLegalCase(((AgentLegalCaseDTO) arguments[0]).legalCaseId());
+        }
+      case "delete", "archive":
+        try {
+          return invocation.proceed();
+        } finally {
+          this.cache.invalidateLegalCase((UUID) arguments[0]);
+        }
+      default:
+        return invocation.proceed();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Object sourceFile(MethodInvocation invocation) throws Throwable {
+    Object[] arguments = invocation.getArguments();
+    switch (invocation.getMethod().getName()) {
+      case "get":
+        return this.cache.sourceFile(
+            (UUID) arguments[0], () -> (AgentSourceFileDTO) invocation.proceed());
+      case "getByLegalCase":
+        return this.cache.sourceFiles(
+            (UUID) arguments[0], () -> (List<AgentSourceFileDTO>) invocation.proceed());
+      case "create", "replace", "updateMetadata":
+        try {
+          return invocation.proceed();
+        } finally {
+          AgentSourceFileDTO sourceFile = (AgentSourceFileDTO) arguments[0];
+          this.cache.invalidateSourceFile(sourceFile.sourceFileId(), sourceFile.legalCaseId());
+        }
+      case "move":
+        try {
+          return invocation.proceed();
+        } finally {
+          AgentSourceFileDTO sourceFile = (AgentSourceFileDTO) arguments[0];
+          // the previous legal case is only known if the source file is cached
+          this.cache.invalidateSourceFile(sourceFile.sourceFileId(), null);
+          this.cache.invalidateSourceFile(sourceFile.sourceFileId(), sourceFile.legalCaseId());
+        }
+      case "delete":
+        try {
+          return invocation.proceed();
+        } finally {
+          this.cache.invalidateSourceFile((UUID) arguments[0], null);
+        }
+      default:
+        return invocation.proceed();
+    }
+  }
+}
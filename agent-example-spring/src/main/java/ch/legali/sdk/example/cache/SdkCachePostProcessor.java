@@ -0,0 +1,61 @@
+package ch.legali.sdk.example.cache;
+
+import ch.legali.sdk.example.config.CacheConfig;
+import ch.legali.sdk.services.LegalCaseService;
+import ch.legali.sdk.services.SourceFileService;
+import java.util.Set;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * Puts the {@link SdkCacheInterceptor} in front of the {@code LegalCaseService} and {@code
+ * SourceFileService} beans of {@link ch.legali.sdk.example.SDKSetup}.
+ *
+ * <p>Runs after {@link ch.legali.sdk.example.metrics.SdkMetricsPostProcessor} and {@link
+ * ch.legali.sdk.example.runtime.SdkSchedulingPostProcessor} and adds the interceptor to their proxy
+ * as the first advice, so a cache hit is neither recorded as an SDK call nor waits for a turn.
+ */
+@Component
+public class SdkCachePostProcessor implements BeanPostProcessor, Ordered {
+
+  private static final Set<Class<?>> SERVICES =
+      Set.of(LegalCaseService.class, SourceFileService.class);
+
+  // resolved when the first SDK service is created, post-processors are created before the beans
+  private final ObjectProvider<SdkCache> cache;
+  private final ObjectProvider<CacheConfig> config;
+
+  public SdkCachePostProcessor(ObjectProvider<SdkCache> cache, ObjectProvider<CacheConfig> config) {
+    this.cache = cache;
+    this.config = config;
+  }
+
+  @Override
+  public int getOrder() {
+    return Ordered.LOWEST_PRECEDENCE;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    Object target =
+        bean instanceof Advised advised
+            ? advised.getTargetSource().getTargetClass()
+            : bean.getClass();
+    if (!SERVICES.contains(target) || !this.config.getObject().isEnabled()) {
+      return bean;
+    }
+    SdkCacheInterceptor interceptor = new SdkCacheInterceptor(this.cache.getObject());
+    if (bean instanceof Advised advised) {
+      advised.addAdvice(0, interceptor);
+      return bean;
+    }
+    ProxyFactory proxyFactory = new ProxyFactory(bean);
+    proxyFactory.setProxyTargetClass(true);
+    proxyFactory.addAdvice(interceptor);
+    return proxyFactory.getProxy();
+  }
+}
@@ -0,0 +1,194 @@
+package ch.legali.sdk.example.cleanup;
+
+import ch.legali.sdk.example.config.CleanupConfig;
+import ch.legali.sdk.example.config.JournalConfig;
+import ch.legali.sdk.example.journal.AppendOnlyLog;
+import ch.legali.sdk.example.runtime.ConnectorResource;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.example.runtime.ConnectorRuntime.Permit;
+import ch.legali.sdk.example.runtime.RateLimiter;
+import ch.legali.sdk.models.AgentLegalCaseDTO;
+import ch.legali.sdk.services.LegalCaseService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes or archives the legal cases added by this agent, see legali.example.housekeeping.
+ *
+ * <p>The matching legal cases are processed page by page, legali.example.housekeeping.concurrency
+ * at a time and at most cases-per-second. Legal cases that fail are retried by the next run.
+ *
+ * <p>Archived legal cases are still listed, so every archived legal case is recorded in cleanup.log
+ * in legali.example.journal.path, also without legali.example.journal.enabled, and an interrupted
+ * run resumes where it stopped; the log is cleared once a run completes. Deleted legal cases are
+ * not listed again and need no record.
+ */
+@Component
+public class CleanupEngine {
+
+  private static final Logger log = LoggerFactory.getLogger(CleanupEngine.class);
+
+  private static final String FILE_NAME = "cleanup.log";
+
+  private final LegalCaseService legalCaseService;
+  private final ConnectorRuntime runtime;
+  private final CleanupConfig config;
+  private final JournalConfig journalConfig;
+
+  private final AtomicInteger remaining = new AtomicInteger();
+  private final Counter cleanedCounter;
+  private final Counter failedCounter;
+
+  public CleanupEngine(
+      LegalCaseService legalCaseService,
+      ConnectorRuntime runtime,
+      CleanupConfig config,
+      JournalConfig journalConfig,
+      MeterRegistry meterRegistry) {
+    this.legalCaseService = legalCaseService;
+    this.runtime = runtime;
+    this.config = config;
+    this.journalConfig = journalConfig;
+
+    meterRegistry.gauge("agent.cleanup.remaining", this.remaining);
+    this.cleanedCounter =
+        meterRegistry.counter("agent.cleanup", "outcome", config.getAction().name().toLowerCase());
+    this.failedCounter = meterRegistry.counter("agent.cleanup", "outcome", "failed");
+  }
+
+  /** Cleans up all matching legal cases, blocks until done. */
+  public void run() throws IOException, InterruptedException {
+    Set<UUID> done = new HashSet<>();
+    AppendOnlyLog checkpoint = null;
+    if (this.config.getAction() == CleanupConfig.Action.ARCHIVE) {
+      checkpoint =
+          AppendOnlyLog.open(
+              Paths.get(this.journalConfig.getPath()).resolve(FILE_NAME),
+              this.journalConfig.isSync(),
+              payload -> done.add(decode(payload)));
+    }
+
+    try {
+      List<UUID> legalCaseIds =
+          this.legalCaseService.list().stream()
+              .filter(
+                  legalCase ->
+                      this.config
+                          .getUploader()
+                          .equals(legalCase.metadata().getOrDefault("legali.uploader", "")))
+              .map(AgentLegalCaseDTO::legalCaseId)
+              .filter(legalCaseId -> !done.contains(legalCaseId))
+              .toList();
+      log.info(
+          "🧹 {} {} legal cases{}",
+          this.config.getAction() == CleanupConfig.Action.DELETE ? "Deleting" : "Archiving",
+          legalCaseIds.size(),
+          done.isEmpty() ? "" : ", resuming after " + done.size());
+      this.remaining.set(legalCaseIds.size());
+
+      int failed = this.process(legalCaseIds, checkpoint);
+      log.info("🧹 Cleanup finished, {} legal cases failed", failed);
+      if (checkpoint != null && failed == 0) {
+        checkpoint.rewrite(List.of());
+      }
+    } finally {
+      this.remaining.set(0);
+      if (checkpoint != null) {
+        checkpoint.close();
+      }
+    }
+  }
+
+  /**
+   * @return number of legal cases that failed
+   */
+  private int process(List<UUID> legalCaseIds, AppendOnlyLog checkpoint)
+      throws InterruptedException {
+    RateLimiter rateLimiter = new RateLimiter(this.config.getCasesPerSecond());
+    AtomicInteger cleaned = new AtomicInteger();
+    AtomicInteger failed = new AtomicInteger();
+    ExecutorService workers =
+        Executors.newFixedThreadPool(
+            Math.max(1, this.config.getConcurrency()), this.runtime.threadFactory("cleanup-"));
+    try {
+      int pageSize = Math.max(1, this.config.getPageSize());
+      for (int from = 0; from < legalCaseIds.size(); from += pageSize) {
+        List<UUID> page =
+            legalCaseIds.subList(from, Math.min(from + pageSize, legalCaseIds.size()));
+        List<Callable<Void>> tasks = new ArrayList<>(page.size());
+        for (UUID legalCaseId : page) {
+          tasks.add(
+              () -> {
+                rateLimiter.acquire();
+                if (this.cleanUp(legalCaseId, checkpoint)) {
+                  cleaned.incrementAndGet();
+                } else {
+                  failed.incrementAndGet();
+                }
+                this.remaining.decrementAndGet();
+                return null;
+              });
+        }
+        workers.invokeAll(tasks);
+        log.info("🧹 {}/{} legal cases cleaned up", cleaned.get(), legalCaseIds.size());
+      }
+    } finally {
+      workers.shutdownNow();
+    }
+    return failed.get();
+  }
+
+  /**
+   * @return whether the legal case has been cleaned up
+   */
+  private boolean cleanUp(UUID legalCaseId, AppendOnlyLog checkpoint) {
+    try (Permit permit = this.runtime.acquire(ConnectorResource.LEGAL_CASES)) {
+      if (this.config.getAction() == CleanupConfig.Action.ARCHIVE) {
+        this.legalCaseService.archive(legalCaseId);
+      } else {
+        this.legalCaseService.delete(legalCaseId);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Failed to clean up legal case {}: {}", legalCaseId, e.getMessage());
+      this.failedCounter.increment();
+      return false;
+    }
+    this.cleanedCounter.increment();
+    if (checkpoint != null) {
+      try {
+        checkpoint.append(encode(legalCaseId));
+      } catch (IOException e) {
+        // the legal case is cleaned up again by a resumed run, which is harmless
+        log.warn("Failed to record cleaned up legal case {}", legalCaseId, e);
+      }
+    }
+    return true;
+  }
+
+  private static byte[] encode(UUID legalCaseId) {
+    return ByteBuffer.allocate(16)
+        .putLong(legalCaseId.getMostSignificantBits())
+        .putLong(legalCaseId.getLeastSignificantBits())
+        .array();
+  }
+
+  private static UUID decode(byte[] payload) {
+    ByteBuffer buffer = ByteBuffer.wrap(payload);
+    return new UUID(buffer.getLong(), buffer.getLong());
+  }
+}
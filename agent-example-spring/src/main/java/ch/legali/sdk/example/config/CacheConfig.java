@@ -0,0 +1,43 @@
+package ch.legali.sdk.example.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "legali.example.cache")
+public class CacheConfig {
+
+  /** Cache legal cases and source files read through the SDK, invalidated by their events. */
+  private boolean enabled = true;
+
+  /** Max. entries per cache, the least recently used are evicted. */
+  private long maximumSize = 10_000;
+
+  /** Entries expire this long after they were loaded, in case an event is missed. */
+  private Duration expireAfterWrite = Duration.ofMinutes(5);
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public long getMaximumSize() {
+    return this.maximumSize;
+  }
+
+  public void setMaximumSize(long maximumSize) {
+    this.maximumSize = maximumSize;
+  }
+
+  public Duration getExpireAfterWrite() {
+    return this.expireAfterWrite;
+  }
+
+  public void setExpireAfterWrite(Duration expireAfterWrite) {
+    this.expireAfterWrite = expireAfterWrite;
+  }
+}
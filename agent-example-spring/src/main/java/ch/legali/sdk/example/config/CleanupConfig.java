@@ -0,0 +1,72 @@
+package ch.legali.sdk.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Settings of the cleanup run, which is enabled by legali.example.cleanup. */
+@Component
+@ConfigurationProperties(prefix = "legali.example.housekeeping")
+public class CleanupConfig {
+
+  /** What happens to the legal cases added by this agent. */
+  public enum Action {
+    /** Delete the legal cases. */
+    DELETE,
+    /** Archive the legal cases, they can be restored in legal-i. */
+    ARCHIVE
+  }
+
+  private Action action = Action.DELETE;
+
+  /** Clean up the legal cases whose legali.uploader metadata has this value. */
+  private String uploader = "example-agent";
+
+  /** Number of legal cases cleaned up at once. */
+  private int concurrency = 4;
+
+  /** Max. legal cases cleaned up per second, 0 for no limit. */
+  private double casesPerSecond = 10;
+
+  /** Number of legal cases per page; progress is logged after every page. */
+  private int pageSize = 100;
+
+  public Action getAction() {
+    return this.action;
+  }
+
+  public void setAction(Action action) {
+    this.action = action;
+  }
+
+  public String getUploader() {
+    return this.uploader;
+  }
+
+  public void setUploader(String uploader) {
+    this.uploader = uploader;
+  }
+
+  public int getConcurrency() {
+    return this.concurrency;
+  }
+
+  public void setConcurrency(int concurrency) {
+    this.concurrency = concurrency;
+  }
+
+  public double getCasesPerSecond() {
+    return this.casesPerSecond;
+  }
+
+  public void setCasesPerSecond(double casesPerSecond) {
+    this.casesPerSecond = casesPerSecond;
+  }
+
+  public int getPageSize() {
+    return this.pageSize;
+  }
+
+  public void setPageSize(int pageSize) {
+    this.pageSize = pageSize;
+  }
+}
@@ -0,0 +1,94 @@
+package ch.legali.sdk.example.config;
+
+import ch.legali.sdk.example.runtime.RestartableHttpClient;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationPropertiesBean;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.support.DefaultLifecycleProcessor;
+import org.springframework.core.SpringProperties;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds the legali.* settings again after a CRaC restore, so the restored agent uses the
+ * credentials and URLs of its own environment rather than those of the checkpointed process.
+ *
+ * <p>Runs before the HTTP client and the authentication start. Settings that a bean reads when it
+ * is created, e.g. pool sizes, keep the values of the checkpoint.
+ */
+@Component
+public class ConfigRebinder implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(ConfigRebinder.class);
+
+  private static final String PREFIX = "legali";
+
+  private final ApplicationContext applicationContext;
+  private final ConfigurableEnvironment environment;
+  private boolean running;
+  private boolean stopped;
+
+  public ConfigRebinder(
+      ApplicationContext applicationContext, ConfigurableEnvironment environment) {
+    this.applicationContext = applicationContext;
+    this.environment = environment;
+  }
+
+  @Override
+  public void start() {
+    // the first start follows the restore if the checkpoint was taken on refresh
+    if (this.stopped
+        || "onRefresh"
+            .equalsIgnoreCase(
+                SpringProperties.getProperty(DefaultLifecycleProcessor.CHECKPOINT_PROPERTY_NAME))) {
+      this.rebind();
+    }
+    this.running = true;
+  }
+
+  @Override
+  public void stop() {
+    this.running = false;
+    this.stopped = true;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  @Override
+  public int getPhase() {
+    return RestartableHttpClient.PHASE - 1;
+  }
+
+  private void rebind() {
+    // the environment variables were captured at startup, read those of the restored process
+    MutablePropertySources sources = this.environment.getPropertySources();
+    String name = StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME;
+    if (sources.contains(name)) {
+      Map<String, Object> variables = new HashMap<>(System.getenv());
+      sources.replace(name, new SystemEnvironmentPropertySource(name, variables));
+    }
+
+    Binder binder = Binder.get(this.environment);
+    int rebound = 0;
+    for (ConfigurationPropertiesBean bean :
+        ConfigurationPropertiesBean.getAll(this.applicationContext).values()) {
+      String prefix = bean.getAnnotation().prefix();
+      if (prefix.equals(PREFIX) || prefix.startsWith(PREFIX + ".")) {
+        binder.bind(prefix, bean.asBindTarget());
+        rebound++;
+      }
+    }
+    log.info("♻️  Restored, bound {} legali.* configurations again", rebound);
+  }
+}
@@ -0,0 +1,65 @@
+package ch.legali.sdk.example.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "legali.example.downloads")
+public class DownloadConfig {
+
+  /** Directory for downloads whose MD5 does not match. If blank, such files are deleted. */
+  private String quarantinePath;
+
+  /** Directory exports are downloaded to. */
+  private String exportPath = "./temp";
+
+  /** Number of exports downloaded concurrently. */
+  private int exportConcurrency = 2;
+
+  /** Attempts per export before it is given up. */
+  private int exportMaxAttempts = 5;
+
+  /** Delay before the first retry, doubled with every further attempt. */
+  private Duration exportRetryBackoff = Duration.ofSeconds(10);
+
+  public String getQuarantinePath() {
+    return this.quarantinePath;
+  }
+
+  public void setQuarantinePath(String quarantinePath) {
+    this.quarantinePath = quarantinePath;
+  }
+
+  public String getExportPath() {
+    return this.exportPath;
+  }
+
+  public void setExportPath(String exportPath) {
+    this.exportPath = exportPath;
+  }
+
+  public int getExportConcurrency() {
+    return this.exportConcurrency;
+  }
+
+  public void setExportConcurrency(int exportConcurrency) {
+    this.exportConcurrency = exportConcurrency;
+  }
+
+  public int getExportMaxAttempts() {
+    return this.exportMaxAttempts;
+  }
+
+  public void setExportMaxAttempts(int exportMaxAttempts) {
+    this.exportMaxAttempts = exportMaxAttempts;
+  }
+
+  public Duration getExportRetryBackoff() {
+    return this.exportRetryBackoff;
+  }
+
+  public void setExportRetryBackoff(Duration exportRetryBackoff) {
+    this.exportRetryBackoff = exportRetryBackoff;
+  }
+}
@@ -0,0 +1,147 @@
+package ch.legali.sdk.example.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "legali.example.events")
+public class EventsConfig {
+
+  /** Number of event handler workers in PLATFORM mode, 0 for one per core. */
+  private int workers = 0;
+
+  /** Max. number of events queued for handlers, the heartbeat blocks when reached. */
+  private int maxQueued = 1000;
+
+  /** Acknowledgements are sent once this many are pending, or after the flush interval. */
+  private int ackBatchSize = 50;
+
+  private Duration ackFlushInterval = Duration.ofSeconds(1);
+
+  /** Number of acknowledgements sent concurrently during a flush. */
+  private int ackConcurrency = 4;
+
+  /**
+   * Journal the events and acknowledge them before their handlers run, see EventOutbox. If
+   * disabled, an event is acknowledged once its handlers have run.
+   */
+  private boolean outbox = false;
+
+  /** Delay before the handlers of an event that failed run again. */
+  private Duration outboxRetryDelay = Duration.ofSeconds(30);
+
+  /** Max. number of runs of the handlers of an event, it is dropped when reached. */
+  private int outboxMaxAttempts = 5;
+
+  /** Drop events that have been received before, see EventDeduplicator. */
+  private boolean dedup = false;
+
+  /**
+   * Number of event ids remembered at least, size it for the events received while the API retains
+   * an unacknowledged event (3 days).
+   */
+  private long dedupCapacity = 1_000_000;
+
+  /** Probability that an event not received before is taken for a duplicate and dropped. */
+  private double dedupFalsePositiveProbability = 1e-9;
+
+  /** Number of recent event ids kept in memory. */
+  private int dedupRecent = 10_000;
+
+  public int getWorkers() {
+    return this.workers;
+  }
+
+  public void setWorkers(int workers) {
+    this.workers = workers;
+  }
+
+  public int getMaxQueued() {
+    return this.maxQueued;
+  }
+
+  public void setMaxQueued(int maxQueued) {
+    this.maxQueued = maxQueued;
+  }
+
+  public int getAckBatchSize() {
+    return this.ackBatchSize;
+  }
+
+  public void setAckBatchSize(int ackBatchSize) {
+    this.ackBatchSize = ackBatchSize;
+  }
+
+  public Duration getAckFlushInterval() {
+    return this.ackFlushInterval;
+  }
+
+  public void setAckFlushInterval(Duration ackFlushInterval) {
+    this.ackFlushInterval = ackFlushInterval;
+  }
+
+  public int getAckConcurrency() {
+    return this.ackConcurrency;
+  }
+
+  public void setAckConcurrency(int ackConcurrency) {
+    this.ackConcurrency = ackConcurrency;
+  }
+
+  public boolean isOutbox() {
+    return this.outbox;
+  }
+
+  public void setOutbox(boolean outbox) {
+    this.outbox = outbox;
+  }
+
+  public Duration getOutboxRetryDelay() {
+    return this.outboxRetryDelay;
+  }
+
+  public void setOutboxRetryDelay(Duration outboxRetryDelay) {
+    this.outboxRetryDelay = outboxRetryDelay;
+  }
+
+  public int getOutboxMaxAttempts() {
+    return this.outboxMaxAttempts;
+  }
+
+  public void setOutboxMaxAttempts(int outboxMaxAttempts) {
+    this.outboxMaxAttempts = outboxMaxAttempts;
+  }
+
+  public boolean isDedup() {
+    return this.dedup;
+  }
+
+  public void setDedup(boolean dedup) {
+    this.dedup = dedup;
+  }
+
+  public long getDedupCapacity() {
+    return this.dedupCapacity;
+  }
+
+  public void setDedupCapacity(long dedupCapacity) {
+    this.dedupCapacity = dedupCapacity;
+  }
+
+  public double getDedupFalsePositiveProbability() {
+    return this.dedupFalsePositiveProbability;
+  }
+
+  public void setDedupFalsePositiveProbability(double dedupFalsePositiveProbability) {
+    this.dedupFalsePositiveProbability = dedupFalsePositiveProbability;
+  }
+
+  public int getDedupRecent() {
+    return this.dedupRecent;
+  }
+
+  public void setDedupRecent(int dedupRecent) {
+    this.dedupRecent = dedupRecent;
+  }
+}
@@ -1,6 +1,8 @@
 package ch.legali.sdk.example.config;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
@@ -18,6 +20,9 @@ public class ExampleConfig {
   /** cleanup environment before starting: deletes all legal cases added by this example. */
   private boolean cleanup = false;
 
+  /** Delay between the start of two example connector threads. */
+  private Duration connectorStartInterval = Duration.ofMillis(500);
+
   /** Map of workspaces that reflect departments . */
   private Map<String, UUID> tenants = Map.of();
 
@@ -45,6 +50,14 @@ public class ExampleConfig {
     this.cleanup = cleanup;
   }
 
+  public Duration getConnectorStartInterval() {
+    return this.connectorStartInterval;
+  }
+
+  public void setConnectorStartInterval(Duration connectorStartInterval) {
+    this.connectorStartInterval = connectorStartInterval;
+  }
+
   public Map<String, UUID> getTenants() {
     return Map.copyOf(this.tenants);
   }
@@ -52,4 +65,15 @@ public class ExampleConfig {
   public void setTenants(Map<String, UUID> tenants) {
     this.tenants = tenants;
   }
+
+  /**
+   * @param tenantId the tenant id
+   * @return the department of the tenant, empty if it is not configured
+   */
+  public Optional<String> getDepartment(UUID tenantId) {
+    return this.getTenants().entrySet().stream()
+        .filter(entry -> entry.getValue().equals(tenantId))
+        .map(Map.Entry::getKey)
+        .findFirst();
+  }
 }
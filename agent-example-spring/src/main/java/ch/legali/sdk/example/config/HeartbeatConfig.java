@@ -0,0 +1,82 @@
+package ch.legali.sdk.example.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "legali.example.heartbeat")
+public class HeartbeatConfig {
+
+  private Duration initialDelay = Duration.ofSeconds(3);
+
+  /** Interval after a heartbeat returned events, or failed. */
+  private Duration minInterval = Duration.ofSeconds(2);
+
+  /**
+   * Upper bound of the interval while heartbeats return no events, capped to liveness-timeout /
+   * legali.max-failed-heartbeats.
+   */
+  private Duration maxInterval = Duration.ofSeconds(30);
+
+  /**
+   * A lost connection is reported, the agent is DOWN, within this time. Defaults to
+   * legali.max-failed-heartbeats times 30s, the fixed heartbeat delay the adaptive interval
+   * replaces.
+   */
+  private Duration livenessTimeout;
+
+  /** Factor the interval grows by with every heartbeat that returns no events. */
+  private double backoffMultiplier = 2;
+
+  /** A heartbeat returning this many events is polled again right away. */
+  private int fullBatchSize = 100;
+
+  public Duration getInitialDelay() {
+    return this.initialDelay;
+  }
+
+  public void setInitialDelay(Duration initialDelay) {
+    this.initialDelay = initialDelay;
+  }
+
+  public Duration getMinInterval() {
+    return this.minInterval;
+  }
+
+  public void setMinInterval(Duration minInterval) {
+    this.minInterval = minInterval;
+  }
+
+  public Duration getMaxInterval() {
+    return this.maxInterval;
+  }
+
+  public void setMaxInterval(Duration maxInterval) {
+    this.maxInterval = maxInterval;
+  }
+
+  public Duration getLivenessTimeout() {
+    return this.livenessTimeout;
+  }
+
+  public void setLivenessTimeout(Duration livenessTimeout) {
+    this.livenessTimeout = livenessTimeout;
+  }
+
+  public double getBackoffMultiplier() {
+    return this.backoffMultiplier;
+  }
+
+  public void setBackoffMultiplier(double backoffMultiplier) {
+    this.backoffMultiplier = backoffMultiplier;
+  }
+
+  public int getFullBatchSize() {
+    return this.fullBatchSize;
+  }
+
+  public void setFullBatchSize(int fullBatchSize) {
+    this.fullBatchSize = fullBatchSize;
+  }
+}
@@ -0,0 +1,81 @@
+package ch.legali.sdk.example.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "legali.example.inbox")
+public class InboxConfig {
+
+  /** How changes in the inbox are detected. */
+  public enum Mode {
+    /**
+     * Use the WatchService, and rescan periodically as well on a network file system, which may
+     * accept a watch but never report changes, or if a directory cannot be watched. Fall back to
+     * polling if the file system does not support watching.
+     */
+    AUTO,
+    /** Use the WatchService only. */
+    WATCH,
+    /** Rescan the directory periodically, e.g. for network mounts that do not report changes. */
+    POLL
+  }
+
+  /**
+   * Watch legali.example.files-path and ingest new files as they arrive. Requires ingestion to be
+   * enabled.
+   */
+  private boolean enabled = false;
+
+  private Mode mode = Mode.AUTO;
+
+  /** Interval between rescans, in POLL mode and when AUTO mode rescans. */
+  private Duration pollInterval = Duration.ofSeconds(30);
+
+  /** A file is uploaded once its size and modification time did not change for this long. */
+  private Duration settleTime = Duration.ofSeconds(5);
+
+  /** Max. number of files handed to the ingestion engine per second, 0 for no limit. */
+  private double filesPerSecond = 0;
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Mode getMode() {
+    return this.mode;
+  }
+
+  public void setMode(Mode mode) {
+    this.mode = mode;
+  }
+
+  public Duration getPollInterval() {
+    return this.pollInterval;
+  }
+
+  public void setPollInterval(Duration pollInterval) {
+    this.pollInterval = pollInterval;
+  }
+
+  public Duration getSettleTime() {
+    return this.settleTime;
+  }
+
+  public void setSettleTime(Duration settleTime) {
+    this.settleTime = settleTime;
+  }
+
+  public double getFilesPerSecond() {
+    return this.filesPerSecond;
+  }
+
+  public void setFilesPerSecond(double filesPerSecond) {
+    this.filesPerSecond = filesPerSecond;
+  }
+}
@@ -0,0 +1,119 @@
+package ch.legali.sdk.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "legali.example.ingestion")
+public class IngestionConfig {
+
+  /** Run the bulk ingestion engine instead of the example connector threads. */
+  private boolean enabled = false;
+
+  /** Department (key of legali.example.tenants) the ingested legal cases are created in. */
+  private String department = "department-1";
+
+  /** Folder the ingested source files are put into. */
+  private String folder = "accident";
+
+  /** Capacity of each stage queue. A full queue blocks the stage feeding it. */
+  private int queueCapacity = 100;
+
+  /** Number of workers creating (or resolving) legal cases. */
+  private int caseConcurrency = 2;
+
+  /** Number of workers building the source file DTOs. */
+  private int buildConcurrency = 2;
+
+  /** Number of workers uploading source files. */
+  private int uploadConcurrency = 4;
+
+  /** Number of workers registering source files for readiness, waiting does not hold a worker. */
+  private int readinessConcurrency = 2;
+
+  /** Wait for each source file to be processed. Will always time out if processing is disabled. */
+  private boolean waitForReady = false;
+
+  /** Seconds to wait for a source file to be processed. */
+  private long readinessTimeoutSeconds = 3;
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public String getDepartment() {
+    return this.department;
+  }
+
+  public void setDepartment(String department) {
+    this.department = department;
+  }
+
+  public String getFolder() {
+    return this.folder;
+  }
+
+  public void setFolder(String folder) {
+    this.folder = folder;
+  }
+
+  public int getQueueCapacity() {
+    return this.queueCapacity;
+  }
+
+  public void setQueueCapacity(int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+
+  public int getCaseConcurrency() {
+    return this.caseConcurrency;
+  }
+
+  public void setCaseConcurrency(int caseConcurrency) {
+    this.caseConcurrency = caseConcurrency;
+  }
+
+  public int getBuildConcurrency() {
+    return this.buildConcurrency;
+  }
+
+  public void setBuildConcurrency(int buildConcurrency) {
+    this.buildConcurrency = buildConcurrency;
+  }
+
+  public int getUploadConcurrency() {
+    return this.uploadConcurrency;
+  }
+
+  public void setUploadConcurrency(int uploadConcurrency) {
+    this.uploadConcurrency = uploadConcurrency;
+  }
+
+  public int getReadinessConcurrency() {
+    return this.readinessConcurrency;
+  }
+
+  public void setReadinessConcurrency(int readinessConcurrency) {
+    this.readinessConcurrency = readinessConcurrency;
+  }
+
+  public boolean isWaitForReady() {
+    return this.waitForReady;
+  }
+
+  public void setWaitForReady(boolean waitForReady) {
+    this.waitForReady = waitForReady;
+  }
+
+  public long getReadinessTimeoutSeconds() {
+    return this.readinessTimeoutSeconds;
+  }
+
+  public void setReadinessTimeoutSeconds(long readinessTimeoutSeconds) {
+    this.readinessTimeoutSeconds = readinessTimeoutSeconds;
+  }
+}
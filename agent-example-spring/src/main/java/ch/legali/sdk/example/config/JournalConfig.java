@@ -0,0 +1,45 @@
+package ch.legali.sdk.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "legali.example.journal")
+public class JournalConfig {
+
+  /**
+   * Record uploads and skip files that have already been uploaded unchanged. Export downloads and
+   * cleanup runs are always journaled, see ExportDownloadWorker and CleanupEngine.
+   */
+  private boolean enabled = false;
+
+  /** Directory of the local journals. */
+  private String path = "./journal";
+
+  /** Force every journal entry to disk before continuing. */
+  private boolean sync = true;
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public String getPath() {
+    return this.path;
+  }
+
+  public void setPath(String path) {
+    this.path = path;
+  }
+
+  public boolean isSync() {
+    return this.sync;
+  }
+
+  public void setSync(boolean sync) {
+    this.sync = sync;
+  }
+}
@@ -0,0 +1,111 @@
+package ch.legali.sdk.example.config;
+
+import ch.legali.sdk.example.loadtest.LoadOperation;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "legali.example.loadtest")
+public class LoadTestConfig {
+
+  /** Run the load generator instead of the example connector threads. */
+  private boolean enabled = false;
+
+  /** Target rate of SDK operations per second, reached after ramp-up. */
+  private double rate = 10;
+
+  /** The rate rises linearly from 0 to the target rate over this time. */
+  private Duration rampUp = Duration.ofSeconds(30);
+
+  /** Duration of the test, including ramp-up. */
+  private Duration duration = Duration.ofMinutes(5);
+
+  /** Max. operations in flight; operations due while at the limit are counted as dropped. */
+  private int maxInFlight = 256;
+
+  /** Relative share of each operation. */
+  private Map<LoadOperation, Integer> mix = defaultMix();
+
+  /** Department the legal cases are created in (see legali.example.tenants). */
+  private String department = "department-1";
+
+  /** Write the latency report as JSON to this file, if set. */
+  private String reportPath;
+
+  private static Map<LoadOperation, Integer> defaultMix() {
+    Map<LoadOperation, Integer> mix = new EnumMap<>(LoadOperation.class);
+    mix.put(LoadOperation.CREATE, 1);
+    mix.put(LoadOperation.GET, 4);
+    mix.put(LoadOperation.UPLOAD, 2);
+    mix.put(LoadOperation.DOWNLOAD, 2);
+    mix.put(LoadOperation.DELETE, 1);
+    return mix;
+  }
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public double getRate() {
+    return this.rate;
+  }
+
+  public void setRate(double rate) {
+    this.rate = rate;
+  }
+
+  public Duration getRampUp() {
+    return this.rampUp;
+  }
+
+  public void setRampUp(Duration rampUp) {
+    this.rampUp = rampUp;
+  }
+
+  public Duration getDuration() {
+    return this.duration;
+  }
+
+  public void setDuration(Duration duration) {
+    this.duration = duration;
+  }
+
+  public int getMaxInFlight() {
+    return this.maxInFlight;
+  }
+
+  public void setMaxInFlight(int maxInFlight) {
+    this.maxInFlight = maxInFlight;
+  }
+
+  public Map<LoadOperation, Integer> getMix() {
+    return this.mix;
+  }
+
+  public void setMix(Map<LoadOperation, Integer> mix) {
+    this.mix = mix;
+  }
+
+  public String getDepartment() {
+    return this.department;
+  }
+
+  public void setDepartment(String department) {
+    this.department = department;
+  }
+
+  public String getReportPath() {
+    return this.reportPath;
+  }
+
+  public void setReportPath(String reportPath) {
+    this.reportPath = reportPath;
+  }
+}
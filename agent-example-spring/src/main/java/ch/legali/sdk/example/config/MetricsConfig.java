@@ -0,0 +1,31 @@
+package ch.legali.sdk.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "legali.example.metrics")
+public class MetricsConfig {
+
+  /** Time the calls of the SDK services and count the transferred bytes. */
+  private boolean sdkCalls = true;
+
+  /** Publish histogram buckets of the SDK call timers, to compute percentiles in Prometheus. */
+  private boolean percentilesHistogram = false;
+
+  public boolean isSdkCalls() {
+    return this.sdkCalls;
+  }
+
+  public void setSdkCalls(boolean sdkCalls) {
+    this.sdkCalls = sdkCalls;
+  }
+
+  public boolean isPercentilesHistogram() {
+    return this.percentilesHistogram;
+  }
+
+  public void setPercentilesHistogram(boolean percentilesHistogram) {
+    this.percentilesHistogram = percentilesHistogram;
+  }
+}
@@ -0,0 +1,35 @@
+package ch.legali.sdk.example.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "legali.example.readiness")
+public class ReadinessConfig {
+
+  /**
+   * Check the status of source files that have been waiting this long, in case their event was
+   * missed. 0 disables polling.
+   */
+  private Duration pollInterval = Duration.ofSeconds(60);
+
+  /** Statuses of source files nobody waits for yet, kept for a later wait. */
+  private int rememberedStatuses = 10000;
+
+  public Duration getPollInterval() {
+    return this.pollInterval;
+  }
+
+  public void setPollInterval(Duration pollInterval) {
+    this.pollInterval = pollInterval;
+  }
+
+  public int getRememberedStatuses() {
+    return this.rememberedStatuses;
+  }
+
+  public void setRememberedStatuses(int rememberedStatuses) {
+    this.rememberedStatuses = rememberedStatuses;
+  }
+}
@@ -0,0 +1,99 @@
+package ch.legali.sdk.example.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "legali.example.runtime")
+public class RuntimeConfig {
+
+  /** Threading model of the connector. */
+  public enum Mode {
+    /**
+     * Connector tasks run on the task executor pool, event handlers on the pool of the
+     * KeyedEventDispatcher, legali.example.events.workers threads.
+     */
+    PLATFORM,
+    /**
+     * Every connector task and each legal case's event handlers run on their own virtual thread.
+     */
+    VIRTUAL
+  }
+
+  private Mode mode = Mode.PLATFORM;
+
+  /** Number of connector tasks in VIRTUAL mode. In PLATFORM mode, the task pool size is used. */
+  private int connectors = 1;
+
+  /** Max. concurrent legal case calls. */
+  private int legalCasePermits = 64;
+
+  /** Max. concurrent source file uploads. */
+  private int uploadPermits = 16;
+
+  /** Max. concurrent file downloads. */
+  private int downloadPermits = 16;
+
+  /** Report virtual threads pinned to their carrier (VIRTUAL mode only). */
+  private boolean reportPinning = true;
+
+  /** Pinned periods shorter than this are not reported. */
+  private Duration pinningThreshold = Duration.ofMillis(20);
+
+  public Mode getMode() {
+    return this.mode;
+  }
+
+  public void setMode(Mode mode) {
+    this.mode = mode;
+  }
+
+  public int getConnectors() {
+    return this.connectors;
+  }
+
+  public void setConnectors(int connectors) {
+    this.connectors = connectors;
+  }
+
+  public int getLegalCasePermits() {
+    return this.legalCasePermits;
+  }
+
+  public void setLegalCasePermits(int legalCasePermits) {
+    this.legalCasePermits = legalCasePermits;
+  }
+
+  public int getUploadPermits() {
+    return this.uploadPermits;
+  }
+
+  public void setUploadPermits(int uploadPermits) {
+    this.uploadPermits = uploadPermits;
+  }
+
+  public int getDownloadPermits() {
+    return this.downloadPermits;
+  }
+
+  public void setDownloadPermits(int downloadPermits) {
+    this.downloadPermits = downloadPermits;
+  }
+
+  public boolean isReportPinning() {
+    return this.reportPinning;
+  }
+
+  public void setReportPinning(boolean reportPinning) {
+    this.reportPinning = reportPinning;
+  }
+
+  public Duration getPinningThreshold() {
+    return this.pinningThreshold;
+  }
+
+  public void setPinningThreshold(Duration pinningThreshold) {
+    this.pinningThreshold = pinningThreshold;
+  }
+}
@@ -0,0 +1,54 @@
+package ch.legali.sdk.example.config;
+
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "legali.example.scheduling")
+public class SchedulingConfig {
+
+  /** Share SDK calls between tenants by weighted fair queuing. */
+  private boolean enabled = false;
+
+  /** Max. concurrent SDK calls of all tenants. */
+  private int maxInFlight = 16;
+
+  /** Weight per department (see legali.example.tenants), 1 if not set. */
+  private Map<String, Integer> weights = Map.of();
+
+  /** Max. concurrent SDK calls per department, max-in-flight if not set. */
+  private Map<String, Integer> tenantMaxInFlight = Map.of();
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getMaxInFlight() {
+    return this.maxInFlight;
+  }
+
+  public void setMaxInFlight(int maxInFlight) {
+    this.maxInFlight = maxInFlight;
+  }
+
+  public Map<String, Integer> getWeights() {
+    return this.weights;
+  }
+
+  public void setWeights(Map<String, Integer> weights) {
+    this.weights = weights;
+  }
+
+  public Map<String, Integer> getTenantMaxInFlight() {
+    return this.tenantMaxInFlight;
+  }
+
+  public void setTenantMaxInFlight(Map<String, Integer> tenantMaxInFlight) {
+    this.tenantMaxInFlight = tenantMaxInFlight;
+  }
+}
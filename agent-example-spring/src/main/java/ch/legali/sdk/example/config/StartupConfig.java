@@ -0,0 +1,21 @@
+package ch.legali.sdk.example.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "legali.example.startup")
+public class StartupConfig {
+
+  /** Exit this long after the first heartbeat, e.g. to end the AppCDS training run. */
+  private Duration exitAfter;
+
+  public Duration getExitAfter() {
+    return this.exitAfter;
+  }
+
+  public void setExitAfter(Duration exitAfter) {
+    this.exitAfter = exitAfter;
+  }
+}
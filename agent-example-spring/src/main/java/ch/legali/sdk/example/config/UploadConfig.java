@@ -0,0 +1,38 @@
+package ch.legali.sdk.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "legali.example.uploads")
+public class UploadConfig {
+
+  /** How local files are read for upload. */
+  public enum Mode {
+    /** Read and hash the file through memory-mapped windows of its channel. */
+    MAPPED,
+    /** Read the file through a stream, hashing it on the way. */
+    STREAM
+  }
+
+  private Mode mode = Mode.MAPPED;
+
+  /** Bytes buffered between the source and the upload when streaming from a remote source. */
+  private int pipeBufferSize = 1024 * 1024;
+
+  public Mode getMode() {
+    return this.mode;
+  }
+
+  public void setMode(Mode mode) {
+    this.mode = mode;
+  }
+
+  public int getPipeBufferSize() {
+    return this.pipeBufferSize;
+  }
+
+  public void setPipeBufferSize(int pipeBufferSize) {
+    this.pipeBufferSize = pipeBufferSize;
+  }
+}
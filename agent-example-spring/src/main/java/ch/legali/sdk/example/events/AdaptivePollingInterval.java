@@ -0,0 +1,104 @@
+package ch.legali.sdk.example.events;
+
+import ch.legali.sdk.SdkConfig;
+import ch.legali.sdk.example.config.HeartbeatConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * The delay until the next heartbeat, adapted to the event backlog:
+ *
+ * <ul>
+ *   <li>a full batch of events: poll again right away, more events are waiting
+ *   <li>some events: poll again after the min interval
+ *   <li>no events: multiply the interval by the backoff multiplier, up to the max interval
+ *   <li>failed heartbeat, or the agent is DOWN: poll again after the min interval
+ * </ul>
+ *
+ * <p>The SDK reports the agent DOWN after legali.max-failed-heartbeats failed heartbeats in a row.
+ * Until then, a failed heartbeat may look like one without events, so a lost connection is detected
+ * after at most max-failed-heartbeats times the max interval. The max interval is therefore capped
+ * to legali.example.heartbeat.liveness-timeout / max-failed-heartbeats. Unless set, the liveness
+ * timeout is max-failed-heartbeats times the fixed delay of 30s the heartbeat had before, so a lost
+ * connection is detected as fast as before and an idle agent polls every 30s.
+ */
+@Component
+public class AdaptivePollingInterval {
+
+  private static final Logger log = LoggerFactory.getLogger(AdaptivePollingInterval.class);
+
+  // of the heartbeat before it adapted to the backlog
+  static final Duration FIXED_INTERVAL = Duration.ofSeconds(30);
+
+  private final HeartbeatConfig config;
+  private final Duration maxInterval;
+  private volatile Duration current;
+
+  public AdaptivePollingInterval(
+      HeartbeatConfig config, SdkConfig sdkConfig, MeterRegistry meterRegistry) {
+    this.config = config;
+    this.maxInterval = maxInterval(config, sdkConfig.getMaxFailedHeartbeats());
+    this.current = config.getMinInterval();
+    Gauge.builder("agent.heartbeat.interval", this, i -> i.current().toMillis() / 1000.0)
+        .baseUnit("seconds")
+        .register(meterRegistry);
+  }
+
+  /**
+   * @return the delay until the next heartbeat
+   */
+  public Duration current() {
+    return this.current;
+  }
+
+  /**
+   * @param events number of events returned by the heartbeat
+   * @return the delay until the next heartbeat
+   */
+  public synchronized Duration onHeartbeat(int events) {
+    if (events >= this.config.getFullBatchSize()) {
+      this.current = Duration.ZERO;
+    } else if (events > 0) {
+      this.current = this.config.getMinInterval();
+    } else {
+      long backoff =
+          (long)
+              (Math.max(this.current.toMillis(), this.config.getMinInterval().toMillis())
+                  * this.config.getBackoffMultiplier());
+      this.current = Duration.ofMillis(Math.min(backoff, this.maxInterval.toMillis()));
+    }
+    return this.current;
+  }
+
+  /**
+   * @return the delay until the next heartbeat
+   */
+  public synchronized Duration onFailure() {
+    this.current = this.config.getMinInterval();
+    return this.current;
+  }
+
+  private static Duration maxInterval(HeartbeatConfig config, int maxFailedHeartbeats) {
+    int failures = Math.max(1, maxFailedHeartbeats);
+    Duration livenessTimeout =
+        config.getLivenessTimeout() != null
+            ? config.getLivenessTimeout()
+            : FIXED_INTERVAL.multipliedBy(failures);
+    Duration liveness = livenessTimeout.dividedBy(failures);
+    if (config.getMaxInterval().compareTo(liveness) <= 0) {
+      return config.getMaxInterval();
+    }
+    log.warn(
+        "legali.example.heartbeat.max-interval {} exceeds liveness-timeout {} / {} failed"
+            + " heartbeats, capped to {}",
+        config.getMaxInterval(),
+        livenessTimeout,
+        maxFailedHeartbeats,
+        liveness);
+    return liveness.compareTo(config.getMinInterval()) < 0 ? config.getMinInterval() : liveness;
+  }
+}
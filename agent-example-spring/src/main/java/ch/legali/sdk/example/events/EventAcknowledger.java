@@ -0,0 +1,189 @@
+package ch.legali.sdk.example.events;
+
+import ch.legali.api.events.BaseEvent;
+import ch.legali.sdk.example.config.EventsConfig;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.services.EventService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collects event acknowledgements from the EventOutbox and sends them in batches, once
+ * legali.example.events.ack-batch-size are pending or after the ack-flush-interval. Callers return
+ * without waiting for the round-trip, and an event acknowledged twice before the flush is sent
+ * once. Until its acknowledgement is sent the API may deliver an event again, the EventOutbox asks
+ * {@link #isPending} and drops such redeliveries.
+ *
+ * <p>The acknowledgements of a batch are sent concurrently. Failed ones are retried with the next
+ * batch. Pending acknowledgements are flushed on shutdown.
+ */
+@Component
+public class EventAcknowledger {
+
+  private static final Logger log = LoggerFactory.getLogger(EventAcknowledger.class);
+
+  private final EventService eventService;
+  private final EventsConfig config;
+  private final ConnectorRuntime runtime;
+  private final ExecutorService senders;
+
+  private final Object lock = new Object();
+  private final Map<UUID, BaseEvent> pending = new LinkedHashMap<>();
+  // taken from pending, not sent yet
+  private final Set<UUID> sending = new HashSet<>();
+  private boolean stopped;
+  private Thread flusher;
+
+  private final Timer flushTimer;
+  private final Counter sentCounter;
+  private final Counter failedCounter;
+  private final Counter coalescedCounter;
+
+  public EventAcknowledger(
+      EventService eventService,
+      EventsConfig config,
+      ConnectorRuntime runtime,
+      MeterRegistry meterRegistry) {
+    this.eventService = eventService;
+    this.config = config;
+    this.runtime = runtime;
+    this.senders =
+        Executors.newFixedThreadPool(config.getAckConcurrency(), runtime.threadFactory("acks-"));
+
+    Gauge.builder("agent.events.acks.pending", this, EventAcknowledger::pendingCount)
+        .register(meterRegistry);
+    this.flushTimer = meterRegistry.timer("agent.events.acks.flush");
+    this.sentCounter = meterRegistry.counter("agent.events.acks", "outcome", "sent");
+    this.failedCounter = meterRegistry.counter("agent.events.acks", "outcome", "failed");
+    this.coalescedCounter = meterRegistry.counter("agent.events.acks", "outcome", "coalesced");
+  }
+
+  @PostConstruct
+  public void start() {
+    this.flusher = this.runtime.threadFactory("acks-flusher-").newThread(this::run);
+    this.flusher.start();
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    synchronized (this.lock) {
+      this.stopped = true;
+      this.lock.notifyAll();
+    }
+    this.flusher.join(this.config.getAckFlushInterval().toMillis());
+    this.flush();
+    this.senders.shutdown();
+  }
+
+  /** Marks the event as handled, it is acknowledged with the next batch. */
+  public void acknowledge(BaseEvent event) {
+    synchronized (this.lock) {
+      if (this.pending.putIfAbsent(event.eventId(), event) != null) {
+        this.coalescedCounter.increment();
+        return;
+      }
+      if (this.pending.size() >= this.config.getAckBatchSize()) {
+        this.lock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * @return true if the acknowledgement of the event has not been sent yet, the API may deliver it
+   *     again meanwhile
+   */
+  public boolean isPending(UUID eventId) {
+    synchronized (this.lock) {
+      return this.pending.containsKey(eventId) || this.sending.contains(eventId);
+    }
+  }
+
+  /** Sends all pending acknowledgements and waits for them. */
+  public void flush() throws InterruptedException {
+    List<BaseEvent> batch;
+    synchronized (this.lock) {
+      if (this.pending.isEmpty()) {
+        return;
+      }
+      batch = new ArrayList<>(this.pending.values());
+      this.sending.addAll(this.pending.keySet());
+      this.pending.clear();
+    }
+
+    long start = System.nanoTime();
+    List<Callable<Void>> acks = new ArrayList<>(batch.size());
+    for (BaseEvent event : batch) {
+      acks.add(
+          () -> {
+            this.send(event);
+            return null;
+          });
+    }
+    this.senders.invokeAll(acks);
+    this.flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    log.debug("Acknowledged {} events", batch.size());
+  }
+
+  private void send(BaseEvent event) {
+    try {
+      this.eventService.acknowledge(event);
+      this.sentCounter.increment();
+    } catch (RuntimeException e) {
+      log.warn("Failed to acknowledge event {}, retrying with next batch", event.eventId(), e);
+      this.failedCounter.increment();
+      synchronized (this.lock) {
+        this.pending.putIfAbsent(event.eventId(), event);
+      }
+    } finally {
+      synchronized (this.lock) {
+        this.sending.remove(event.eventId());
+      }
+    }
+  }
+
+  private void run() {
+    try {
+      while (true) {
+        synchronized (this.lock) {
+          long deadline = System.nanoTime() + this.config.getAckFlushInterval().toNanos();
+          long remaining;
+          while (!this.stopped
+              && this.pending.size() < this.config.getAckBatchSize()
+              && (remaining = deadline - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this.lock, remaining);
+          }
+          if (this.stopped) {
+            return;
+          }
+        }
+        this.flush();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private int pendingCount() {
+    synchronized (this.lock) {
+      return this.pending.size();
+    }
+  }
+}
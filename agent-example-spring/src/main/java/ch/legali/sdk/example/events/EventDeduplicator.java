@@ -0,0 +1,207 @@
+package ch.legali.sdk.example.events;
+
+import ch.legali.api.events.BaseEvent;
+import ch.legali.sdk.example.config.EventsConfig;
+import ch.legali.sdk.example.config.JournalConfig;
+import ch.legali.sdk.example.journal.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops events that are delivered again after they have been received, e.g. because their
+ * acknowledgement timed out or the agent restarted before sending it. The API redelivers an event
+ * until it is acknowledged, for up to three days.
+ *
+ * <p>The ids of received events are kept in an LRU of the legali.example.events.dedup-recent latest
+ * ids, and in two {@link BloomFilter} files (seen-0.bloom and seen-1.bloom in
+ * legali.example.journal.path) that survive a restart. Once the current filter holds dedup-capacity
+ * ids, the older one is cleared and takes its place, so at least dedup-capacity ids are remembered
+ * with a fixed size on disk. A filter may take an event that has not been received for a duplicate,
+ * with dedup-false-positive-probability.
+ *
+ * <p>Dropped duplicates are counted in agent_events_duplicates_total, with match="recent" for ids
+ * found in the LRU or twice in a heartbeat, and match="filter" for ids only found in a filter.
+ * Those may be false positives and are logged with their id.
+ */
+@Component
+public class EventDeduplicator implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(EventDeduplicator.class);
+
+  private static final String FILE_NAME = "seen-%d.bloom";
+
+  private final EventsConfig config;
+  private final JournalConfig journalConfig;
+  private final Counter recentDuplicatesCounter;
+  private final Counter filterDuplicatesCounter;
+
+  // guarded by this
+  private final Map<UUID, Boolean> recent;
+  private final BloomFilter[] filters = new BloomFilter[2];
+  private int current;
+
+  public EventDeduplicator(
+      EventsConfig config, JournalConfig journalConfig, MeterRegistry meterRegistry) {
+    this.config = config;
+    this.journalConfig = journalConfig;
+    this.recentDuplicatesCounter =
+        meterRegistry.counter("agent.events.duplicates", "match", "recent");
+    this.filterDuplicatesCounter =
+        meterRegistry.counter("agent.events.duplicates", "match", "filter");
+    this.recent =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+            return this.size() > config.getDedupRecent();
+          }
+        };
+  }
+
+  // opened when the context starts, see UploadJournal
+  @Override
+  public synchronized void start() {
+    if (!this.config.isDedup()) {
+      return;
+    }
+    try {
+      for (int i = 0; i < this.filters.length; i++) {
+        this.filters[i] =
+            BloomFilter.open(
+                this.file(i),
+                this.config.getDedupCapacity(),
+                this.config.getDedupFalsePositiveProbability());
+      }
+    } catch (IOException e) {
+      this.stop();
+      throw new UncheckedIOException(e);
+    }
+    this.current = this.filters[0].generation() >= this.filters[1].generation() ? 0 : 1;
+    log.info(
+        "📒 Event deduplication: {} recent event ids",
+        this.filters[0].insertions() + this.filters[1].insertions());
+  }
+
+  @Override
+  public synchronized void stop() {
+    for (int i = 0; i < this.filters.length; i++) {
+      if (this.filters[i] != null) {
+        try {
+          this.filters[i].close();
+        } catch (IOException e) {
+          log.warn("Failed to close {}", String.format(FILE_NAME, i), e);
+        }
+        this.filters[i] = null;
+      }
+    }
+    this.recent.clear();
+  }
+
+  @Override
+  public synchronized boolean isRunning() {
+    return this.filters[0] != null;
+  }
+
+  @Override
+  public int getPhase() {
+    // opened before, and closed after, the EventOutbox
+    return 0;
+  }
+
+  /**
+   * Drops the events that have been received before, or that occur twice in the list.
+   *
+   * @return the events not received before, in order
+   */
+  public synchronized List<BaseEvent> unseen(List<BaseEvent> events) {
+    if (this.filters[0] == null) {
+      return events;
+    }
+    List<BaseEvent> unseen = new ArrayList<>(events.size());
+    Set<UUID> ids = new HashSet<>();
+    for (BaseEvent event : events) {
+      UUID eventId = event.eventId();
+      if (!ids.add(eventId) || this.recent.containsKey(eventId)) {
+        log.debug("Dropping duplicate {} {}", event.getClass().getSimpleName(), eventId);
+        this.recentDuplicatesCounter.increment();
+      } else if (this.filters[0].mightContain(eventId) || this.filters[1].mightContain(eventId)) {
+        log.info(
+            "Dropping {} {}, probably received before (Bloom filter)",
+            event.getClass().getSimpleName(),
+            eventId);
+        this.filterDuplicatesCounter.increment();
+      } else {
+        unseen.add(event);
+      }
+    }
+    return unseen;
+  }
+
+  /**
+   * Remembers the events as received, a later delivery is dropped by {@link #unseen}. The ids are
+   * on disk when this returns if legali.example.journal.sync is set.
+   */
+  public synchronized void seen(Collection<BaseEvent> events) {
+    if (this.filters[0] == null || events.isEmpty()) {
+      return;
+    }
+    for (BaseEvent event : events) {
+      this.recent.put(event.eventId(), Boolean.TRUE);
+      BloomFilter filter = this.filters[this.current];
+      if (filter.insertions() >= this.config.getDedupCapacity()) {
+        // the older filter starts over, the full one keeps the previous dedup-capacity ids
+        int older = 1 - this.current;
+        this.clear(older, filter.generation() + 1);
+        this.current = older;
+        filter = this.filters[older];
+      }
+      filter.put(event.eventId());
+    }
+    if (this.journalConfig.isSync()) {
+      this.filters[0].force();
+      this.filters[1].force();
+    }
+  }
+
+  // a filter sized for other settings is created again at the configured size
+  private void clear(int index, long generation) {
+    BloomFilter filter = this.filters[index];
+    if (filter.isSizedFor(
+        this.config.getDedupCapacity(), this.config.getDedupFalsePositiveProbability())) {
+      filter.clear(generation);
+      return;
+    }
+    try {
+      filter.close();
+      Files.delete(this.file(index));
+      this.filters[index] =
+          BloomFilter.open(
+              this.file(index),
+              this.config.getDedupCapacity(),
+              this.config.getDedupFalsePositiveProbability());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.filters[index].clear(generation);
+  }
+
+  private Path file(int index) {
+    return Paths.get(this.journalConfig.getPath()).resolve(String.format(FILE_NAME, index));
+  }
+}
@@ -0,0 +1,35 @@
+package ch.legali.sdk.example.events;
+
+// CHECKSTYLE IGNORE AvoidStarImport FOR NEXT 1 LINES
+import ch.legali.api.events.*;
+import java.util.UUID;
+
+/** Extracts the legal case an event belongs to. */
+public final class EventKeys {
+
+  private EventKeys() {}
+
+  /**
+   * @return the legalCaseId of the event, or null if it does not belong to a legal case
+   */
+  public static UUID legalCaseId(BaseEvent event) {
+    return switch (event) {
+      case LegalCaseCreatedEvent e -> e.legalCase().legalCaseId();
+      case LegalCaseUpdatedEvent e -> e.legalCase().legalCaseId();
+      case LegalCaseDeletedEvent e -> e.legalCase().legalCaseId();
+      case LegalCaseStatusChangedEvent e -> e.legalCaseId();
+      case LegalCaseReadyEvent e -> e.legalCaseId();
+      case SourceFileCreatedEvent e -> e.sourceFile().legalCaseId();
+      case SourceFileUpdatedEvent e -> e.sourceFile().legalCaseId();
+      case SourceFileReadyEvent e -> e.legalCaseId();
+      case SourceFileFailedEvent e -> e.legalCaseId();
+      case AnnotationCreatedEvent e -> e.annotation().legalCaseId();
+      case AnnotationUpdatedEvent e -> e.annotation().legalCaseId();
+      case AnnotationDeletedEvent e -> e.annotation().legalCaseId();
+      case ExportCreatedEvent e -> e.export().legalCaseId();
+      case ExportSharedEvent e -> e.export().legalCaseId();
+      case ExportViewedEvent e -> e.export().legalCaseId();
+      default -> null;
+    };
+  }
+}
@@ -0,0 +1,24 @@
+package ch.legali.sdk.example.events;
+
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/** Exposes the queue depth of each lane of the {@link KeyedEventDispatcher}. */
+@Component
+@Endpoint(id = "eventlanes")
+public class EventLanesEndpoint {
+
+  private final KeyedEventDispatcher dispatcher;
+
+  public EventLanesEndpoint(KeyedEventDispatcher dispatcher) {
+    this.dispatcher = dispatcher;
+  }
+
+  @ReadOperation
+  public Map<UUID, Integer> lanes() {
+    return this.dispatcher.laneDepths();
+  }
+}
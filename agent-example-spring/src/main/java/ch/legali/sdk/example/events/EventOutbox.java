@@ -0,0 +1,257 @@
+package ch.legali.sdk.example.events;
+
+import ch.legali.api.events.BaseEvent;
+import ch.legali.sdk.example.config.EventsConfig;
+import ch.legali.sdk.example.journal.EventJournal;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decouples the heartbeat from the event handlers. The events of a heartbeat are appended to the
+ * {@link EventJournal} and acknowledged right away; a consumer thread passes them to the {@link
+ * KeyedEventDispatcher} at the pace of the handlers, and marks them handled in the journal once
+ * their handlers have run. Events that were not handled when the agent stopped are handled again
+ * after the restart.
+ *
+ * <p>The handlers of an event that failed run again after legali.example.events.outbox-retry-delay,
+ * up to outbox-max-attempts times, before the later events of its legal case. Unless
+ * legali.example.events.outbox is set, events are dispatched by the heartbeat and acknowledged once
+ * their handlers have run.
+ *
+ * <p>The API delivers an event again until its acknowledgement has been sent. A redelivery of an
+ * event whose handlers are still running, or whose acknowledgement is still pending in the {@link
+ * EventAcknowledger}, is dropped whether or not deduplication is enabled, and counted in
+ * agent_events_duplicates_total with match="inflight".
+ */
+@Component
+public class EventOutbox implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(EventOutbox.class);
+
+  private final EventJournal journal;
+  private final EventDeduplicator deduplicator;
+  private final KeyedEventDispatcher dispatcher;
+  private final EventAcknowledger acknowledger;
+  private final EventsConfig config;
+  private final ConnectorRuntime runtime;
+
+  private final Object lock = new Object();
+  // in journal order
+  private final Queue<EventJournal.Entry> deliveries = new ArrayDeque<>();
+  private boolean stopped;
+  private Thread consumer;
+  // dispatched by the heartbeat, until their acknowledgement is pending
+  private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+  private final Counter handledCounter;
+  private final Counter droppedCounter;
+  private final Counter inFlightDuplicatesCounter;
+
+  public EventOutbox(
+      EventJournal journal,
+      EventDeduplicator deduplicator,
+      KeyedEventDispatcher dispatcher,
+      EventAcknowledger acknowledger,
+      EventsConfig config,
+      ConnectorRuntime runtime,
+      MeterRegistry meterRegistry) {
+    this.journal = journal;
+    this.deduplicator = deduplicator;
+    this.dispatcher = dispatcher;
+    this.acknowledger = acknowledger;
+    this.config = config;
+    this.runtime = runtime;
+
+    Gauge.builder("agent.events.outbox.waiting", this, EventOutbox::waitingCount)
+        .register(meterRegistry);
+    this.handledCounter = meterRegistry.counter("agent.events.outbox", "outcome", "handled");
+    this.droppedCounter = meterRegistry.counter("agent.events.outbox", "outcome", "dropped");
+    this.inFlightDuplicatesCounter =
+        meterRegistry.counter("agent.events.duplicates", "match", "inflight");
+  }
+
+  @Override
+  public void start() {
+    synchronized (this.lock) {
+      this.stopped = false;
+      this.deliveries.clear();
+      this.deliveries.addAll(this.journal.takeReplayed());
+    }
+    this.consumer = this.runtime.threadFactory("outbox-").newThread(this::run);
+    this.consumer.start();
+  }
+
+  @Override
+  public void stop() {
+    synchronized (this.lock) {
+      this.stopped = true;
+      this.lock.notifyAll();
+    }
+    // may be waiting for capacity of the dispatcher
+    this.consumer.interrupt();
+    try {
+      this.consumer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    this.consumer = null;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.consumer != null;
+  }
+
+  @Override
+  public int getPhase() {
+    // started after, and stopped before, the EventJournal
+    return 1;
+  }
+
+  /**
+   * Journals and acknowledges the events of a heartbeat, or dispatches them if the outbox is
+   * disabled. Events received before are acknowledged and dropped, see {@link EventDeduplicator}.
+   */
+  public void submit(List<BaseEvent> events) throws InterruptedException {
+    List<BaseEvent> delivered = this.notInFlight(events);
+    List<BaseEvent> unseen = this.deduplicator.unseen(delivered);
+    if (!this.config.isOutbox() || !this.journal.isOpen()) {
+      Set<BaseEvent> dispatched = Collections.newSetFromMap(new IdentityHashMap<>());
+      dispatched.addAll(unseen);
+      for (BaseEvent event : delivered) {
+        if (!dispatched.contains(event)) {
+          this.acknowledger.acknowledge(event);
+          continue;
+        }
+        // handlers run in parallel, events of the same legal case in order
+        this.inFlight.add(event.eventId());
+        CompletableFuture<Void> handled;
+        try {
+          handled = this.dispatcher.dispatch(event);
+        } catch (InterruptedException | RuntimeException e) {
+          this.inFlight.remove(event.eventId());
+          throw e;
+        }
+        handled
+            .thenRun(
+                () -> {
+                  this.deduplicator.seen(List.of(event));
+                  // pending before it leaves inFlight, so a redelivery is dropped meanwhile
+                  this.acknowledger.acknowledge(event);
+                })
+            .whenComplete((result, failure) -> this.inFlight.remove(event.eventId()));
+      }
+      return;
+    }
+
+    List<EventJournal.Entry> entries;
+    try {
+      entries = this.journal.append(unseen);
+    } catch (IOException e) {
+      // not acknowledged, the events are delivered again
+      throw new UncheckedIOException(e);
+    }
+    this.deduplicator.seen(unseen);
+    synchronized (this.lock) {
+      for (BaseEvent event : delivered) {
+        this.acknowledger.acknowledge(event);
+      }
+      this.deliveries.addAll(entries);
+      this.lock.notifyAll();
+    }
+  }
+
+  // drops redeliveries of events that are being handled or acknowledged, and repeated ids
+  private List<BaseEvent> notInFlight(List<BaseEvent> events) {
+    List<BaseEvent> notInFlight = new ArrayList<>(events.size());
+    Set<UUID> ids = new HashSet<>();
+    for (BaseEvent event : events) {
+      UUID eventId = event.eventId();
+      if (!ids.add(eventId)
+          || this.inFlight.contains(eventId)
+          || this.acknowledger.isPending(eventId)) {
+        log.debug("Dropping {} {}, still in flight", event.getClass().getSimpleName(), eventId);
+        this.inFlightDuplicatesCounter.increment();
+      } else {
+        notInFlight.add(event);
+      }
+    }
+    return notInFlight;
+  }
+
+  private void run() {
+    try {
+      while (true) {
+        EventJournal.Entry entry;
+        synchronized (this.lock) {
+          while (!this.stopped && this.deliveries.isEmpty()) {
+            this.lock.wait();
+          }
+          if (this.stopped) {
+            return;
+          }
+          entry = this.deliveries.poll();
+        }
+
+        // blocks while legali.example.events.max-queued events wait for their handlers
+        this.dispatcher
+            .dispatch(
+                entry.event(),
+                this.config.getOutboxMaxAttempts(),
+                this.config.getOutboxRetryDelay())
+            .whenComplete((result, failure) -> this.completed(entry, failure));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void completed(EventJournal.Entry entry, Throwable failure) {
+    BaseEvent event = entry.event();
+    if (failure instanceof CancellationException) {
+      // the dispatcher was shut down, handled again after the restart
+      return;
+    }
+    if (failure != null) {
+      log.error(
+          "🙅‍  Dropping {} {} after {} failed attempts",
+          event.getClass().getSimpleName(),
+          event.eventId(),
+          this.config.getOutboxMaxAttempts());
+      this.droppedCounter.increment();
+    } else {
+      this.handledCounter.increment();
+    }
+    try {
+      this.journal.handled(entry.sequence());
+    } catch (IOException e) {
+      log.warn("Failed to journal event {} as handled, it is handled again", event.eventId(), e);
+    }
+  }
+
+  private int waitingCount() {
+    synchronized (this.lock) {
+      return this.deliveries.size();
+    }
+  }
+}
@@ -0,0 +1,306 @@
+package ch.legali.sdk.example.events;
+
+import ch.legali.api.events.BaseEvent;
+import ch.legali.sdk.example.config.EventsConfig;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs event handlers in parallel while keeping the events of a legal case in order. Events of the
+ * same legal case are queued in a lane that is drained by one worker at a time. Events that do not
+ * belong to a legal case, see {@link EventKeys}, run right away.
+ *
+ * <p>An event can be dispatched with retries: if its handlers fail, it stays at the head of its
+ * lane and runs again after the retry delay, so the later events of its legal case wait for it.
+ *
+ * <p>Handlers run on a pool with one worker per core in PLATFORM mode, or each lane on its own
+ * virtual thread in VIRTUAL mode. Queued events are limited by legali.example.events.max-queued. On
+ * {@link #shutdown()}, the futures of the events whose handlers have not completed are cancelled.
+ */
+@Component
+public class KeyedEventDispatcher {
+
+  private static final Logger log = LoggerFactory.getLogger(KeyedEventDispatcher.class);
+
+  // events a lane handles before giving its worker to other lanes
+  private static final int LANE_BATCH_SIZE = 16;
+
+  private final ApplicationEventPublisher applicationEventPublisher;
+  private final ExecutorService pool;
+  private final Executor executor;
+  private final Semaphore capacity;
+  private final ScheduledExecutorService retries;
+  private final Counter retriedCounter;
+
+  // guarded by itself, a lane is removed when drained
+  private final Map<UUID, Lane> lanes = new HashMap<>();
+  // dispatched events whose handlers have not completed
+  private final Set<Task> pending = ConcurrentHashMap.newKeySet();
+
+  public KeyedEventDispatcher(
+      ApplicationEventPublisher applicationEventPublisher,
+      ConnectorRuntime runtime,
+      EventsConfig config,
+      MeterRegistry meterRegistry) {
+    this.applicationEventPublisher = applicationEventPublisher;
+    if (runtime.isVirtual()) {
+      this.pool = null;
+      this.executor = runtime::execute;
+    } else {
+      int workers =
+          config.getWorkers() > 0
+              ? config.getWorkers()
+              : Runtime.getRuntime().availableProcessors();
+      this.pool = Executors.newFixedThreadPool(workers, runtime.threadFactory("events-"));
+      this.executor = this.pool;
+    }
+    this.capacity = new Semaphore(config.getMaxQueued());
+    this.retries =
+        Executors.newSingleThreadScheduledExecutor(runtime.threadFactory("events-retry-"));
+    this.retriedCounter = meterRegistry.counter("agent.events.retries");
+
+    Gauge.builder(
+            "agent.events.queued",
+            this.capacity,
+            semaphore -> config.getMaxQueued() - semaphore.availablePermits())
+        .register(meterRegistry);
+    Gauge.builder("agent.events.lanes", this, KeyedEventDispatcher::laneCount)
+        .register(meterRegistry);
+    Gauge.builder("agent.events.lanes.max.depth", this, KeyedEventDispatcher::maxLaneDepth)
+        .register(meterRegistry);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    this.retries.shutdownNow();
+    if (this.pool != null) {
+      this.pool.shutdownNow();
+    }
+    synchronized (this.lanes) {
+      this.lanes.clear();
+    }
+    // queued, waiting for a retry or interrupted, their handlers did not complete
+    for (Task task : this.pending) {
+      task.done.cancel(false);
+    }
+  }
+
+  /**
+   * Queues the event for its handlers, blocks while max-queued events are pending.
+   *
+   * @return completes when all handlers have run, exceptionally if one of them failed, is cancelled
+   *     if the dispatcher is shut down before
+   */
+  public CompletableFuture<Void> dispatch(BaseEvent event) throws InterruptedException {
+    return this.dispatch(event, 1, Duration.ZERO);
+  }
+
+  /**
+   * Queues the event for its handlers, blocks while max-queued events are pending. Handlers that
+   * fail run again after the retry delay, before the later events of the legal case.
+   *
+   * @param maxAttempts max. number of runs of the handlers
+   * @return completes when all handlers have run, exceptionally if they failed maxAttempts times,
+   *     is cancelled if the dispatcher is shut down before
+   */
+  public CompletableFuture<Void> dispatch(BaseEvent event, int maxAttempts, Duration retryDelay)
+      throws InterruptedException {
+    this.capacity.acquire();
+    Task task = new Task(event, maxAttempts, retryDelay);
+    this.pending.add(task);
+    UUID legalCaseId = EventKeys.legalCaseId(event);
+    if (legalCaseId == null) {
+      this.execute(() -> this.run(task), () -> this.cancel(task));
+      return task.done;
+    }
+
+    Lane lane;
+    boolean schedule;
+    synchronized (this.lanes) {
+      lane = this.lanes.computeIfAbsent(legalCaseId, Lane::new);
+      lane.tasks.add(task);
+      schedule = !lane.scheduled;
+      lane.scheduled = true;
+    }
+    if (schedule) {
+      this.execute(lane, lane::cancel);
+    }
+    return task.done;
+  }
+
+  /**
+   * @return number of queued events per legal case with pending events
+   */
+  public Map<UUID, Integer> laneDepths() {
+    synchronized (this.lanes) {
+      return this.lanes.values().stream()
+          .collect(Collectors.toMap(lane -> lane.legalCaseId, lane -> lane.tasks.size()));
+    }
+  }
+
+  private int laneCount() {
+    synchronized (this.lanes) {
+      return this.lanes.size();
+    }
+  }
+
+  private int maxLaneDepth() {
+    synchronized (this.lanes) {
+      return this.lanes.values().stream().mapToInt(lane -> lane.tasks.size()).max().orElse(0);
+    }
+  }
+
+  private void run(Task task) {
+    if (!this.handle(task)) {
+      this.retryLater(task.retryDelay, () -> this.run(task), () -> this.cancel(task));
+    }
+  }
+
+  /** Runs the task or lane, or calls onRejected once the dispatcher is shut down. */
+  private void execute(Runnable runnable, Runnable onRejected) {
+    try {
+      this.executor.execute(runnable);
+    } catch (RejectedExecutionException e) {
+      onRejected.run();
+    }
+  }
+
+  private void retryLater(Duration delay, Runnable runnable, Runnable onRejected) {
+    try {
+      this.retries.schedule(
+          () -> this.execute(runnable, onRejected), delay.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      onRejected.run();
+    }
+  }
+
+  private void cancel(Task task) {
+    task.done.cancel(false);
+    if (this.pending.remove(task)) {
+      this.capacity.release();
+    }
+  }
+
+  /**
+   * @return false if the handlers failed and run again after the retry delay
+   */
+  private boolean handle(Task task) {
+    task.attempts++;
+    try {
+      this.applicationEventPublisher.publishEvent(task.event);
+      task.done.complete(null);
+    } catch (Throwable e) {
+      // errors too, the lane goes on with the next event
+      if (task.attempts < task.maxAttempts) {
+        log.warn(
+            "Handler of {} {} failed, retrying in {}",
+            task.event.getClass().getSimpleName(),
+            task.event.eventId(),
+            task.retryDelay,
+            e);
+        this.retriedCounter.increment();
+        return false;
+      }
+      log.error(
+          "🙅‍  Handler of {} {} failed",
+          task.event.getClass().getSimpleName(),
+          task.event.eventId(),
+          e);
+      task.done.completeExceptionally(e);
+    }
+    if (this.pending.remove(task)) {
+      this.capacity.release();
+    }
+    return true;
+  }
+
+  /** A queued event. */
+  private static final class Task {
+
+    private final BaseEvent event;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private int attempts;
+
+    Task(BaseEvent event, int maxAttempts, Duration retryDelay) {
+      this.event = event;
+      this.maxAttempts = maxAttempts;
+      this.retryDelay = retryDelay;
+    }
+  }
+
+  /** The queued events of one legal case. */
+  private final class Lane implements Runnable {
+
+    private final UUID legalCaseId;
+    private final Queue<Task> tasks = new ArrayDeque<>();
+    private boolean scheduled;
+
+    Lane(UUID legalCaseId) {
+      this.legalCaseId = legalCaseId;
+    }
+
+    @Override
+    public void run() {
+      for (int i = 0; i < LANE_BATCH_SIZE; i++) {
+        Task task;
+        synchronized (KeyedEventDispatcher.this.lanes) {
+          task = this.tasks.peek();
+          if (task == null) {
+            this.scheduled = false;
+            KeyedEventDispatcher.this.lanes.remove(this.legalCaseId);
+            return;
+          }
+        }
+        if (!KeyedEventDispatcher.this.handle(task)) {
+          // the task stays at the head, the later events of the legal case wait for the retry
+          KeyedEventDispatcher.this.retryLater(task.retryDelay, this, this::cancel);
+          return;
+        }
+        synchronized (KeyedEventDispatcher.this.lanes) {
+          this.tasks.poll();
+        }
+      }
+      // more events pending, requeue so other lanes get a turn
+      KeyedEventDispatcher.this.execute(this, this::cancel);
+    }
+
+    /** Cancels the queued events, the dispatcher is shut down. */
+    void cancel() {
+      List<Task> cancelled;
+      synchronized (KeyedEventDispatcher.this.lanes) {
+        cancelled = List.copyOf(this.tasks);
+        this.tasks.clear();
+        this.scheduled = false;
+        KeyedEventDispatcher.this.lanes.remove(this.legalCaseId, this);
+      }
+      cancelled.forEach(KeyedEventDispatcher.this::cancel);
+    }
+  }
+}
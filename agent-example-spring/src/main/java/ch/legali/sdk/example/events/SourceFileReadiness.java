@@ -0,0 +1,191 @@
+package ch.legali.sdk.example.events;
+
+import ch.legali.sdk.example.config.ReadinessConfig;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.models.AgentSourceFileDTO.SourceFileStatus;
+import ch.legali.sdk.services.SourceFileService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Futures of the processing status of source files, completed by the SourceFileReadyEvent and
+ * SourceFileFailedEvent handlers. Unlike {@link SourceFileService#waitForSourceFileReadyOrTimeout},
+ * waiting holds neither a thread nor polls the API in a loop, so any number of source files can be
+ * waited for.
+ *
+ * <p>A status that arrives before anybody waits for it, e.g. while the upload call is still
+ * returning, is kept for the next {@link #await}. Source files that have been waiting for
+ * legali.example.readiness.poll-interval are checked once per interval, in case their event was
+ * missed.
+ */
+@Component
+public class SourceFileReadiness {
+
+  private static final Logger log = LoggerFactory.getLogger(SourceFileReadiness.class);
+
+  private final SourceFileService sourceFileService;
+  private final ReadinessConfig config;
+  private final ConnectorRuntime runtime;
+
+  // guarded by itself
+  private final Map<UUID, Waiter> waiting = new HashMap<>();
+  // guarded by waiting, oldest first
+  private final Map<UUID, SourceFileStatus> unclaimed;
+  private ScheduledExecutorService poller;
+
+  private final Counter eventCounter;
+  private final Counter polledCounter;
+  private final Counter timeoutCounter;
+
+  public SourceFileReadiness(
+      SourceFileService sourceFileService,
+      ReadinessConfig config,
+      ConnectorRuntime runtime,
+      MeterRegistry meterRegistry) {
+    this.sourceFileService = sourceFileService;
+    this.config = config;
+    this.runtime = runtime;
+    this.unclaimed =
+        new LinkedHashMap<>() {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<UUID, SourceFileStatus> eldest) {
+            return this.size() > config.getRememberedStatuses();
+          }
+        };
+
+    Gauge.builder("agent.readiness.waiting", this, SourceFileReadiness::waitingCount)
+        .register(meterRegistry);
+    this.eventCounter = meterRegistry.counter("agent.readiness", "outcome", "event");
+    this.polledCounter = meterRegistry.counter("agent.readiness", "outcome", "polled");
+    this.timeoutCounter = meterRegistry.counter("agent.readiness", "outcome", "timeout");
+  }
+
+  @PostConstruct
+  public void start() {
+    long interval = this.config.getPollInterval().toMillis();
+    if (interval > 0) {
+      this.poller =
+          Executors.newSingleThreadScheduledExecutor(this.runtime.threadFactory("readiness-"));
+      this.poller.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (this.poller != null) {
+      this.poller.shutdownNow();
+    }
+  }
+
+  /**
+   * Waits for the source file to be processed. Waiting again for the same source file returns the
+   * same future, with the timeout of the first wait.
+   *
+   * @param sourceFileId the source file
+   * @param timeout completes with {@link SourceFileStatus#TIMEOUT} after this long
+   * @return completes with the status of the source file once it is processed
+   */
+  public CompletableFuture<SourceFileStatus> await(UUID sourceFileId, Duration timeout) {
+    Waiter waiter;
+    synchronized (this.waiting) {
+      SourceFileStatus status = this.unclaimed.remove(sourceFileId);
+      if (status != null) {
+        return CompletableFuture.completedFuture(status);
+      }
+      waiter = this.waiting.get(sourceFileId);
+      if (waiter != null) {
+        return waiter.future();
+      }
+      waiter = new Waiter(new CompletableFuture<>(), System.nanoTime());
+      this.waiting.put(sourceFileId, waiter);
+    }
+    waiter
+        .future()
+        .completeOnTimeout(SourceFileStatus.TIMEOUT, timeout.toMillis(), TimeUnit.MILLISECONDS)
+        .thenAccept(
+            status -> {
+              synchronized (this.waiting) {
+                this.waiting.remove(sourceFileId);
+              }
+              if (status == SourceFileStatus.TIMEOUT) {
+                this.timeoutCounter.increment();
+              }
+            });
+    return waiter.future();
+  }
+
+  /** Completes the wait for a processed source file, called by the event handlers. */
+  public void complete(UUID sourceFileId, SourceFileStatus status) {
+    Waiter waiter;
+    synchronized (this.waiting) {
+      waiter = this.waiting.remove(sourceFileId);
+      if (waiter == null) {
+        this.unclaimed.put(sourceFileId, status);
+        return;
+      }
+    }
+    if (waiter.future().complete(status)) {
+      this.eventCounter.increment();
+    }
+  }
+
+  private void poll() {
+    long due = System.nanoTime() - this.config.getPollInterval().toNanos();
+    List<UUID> sourceFileIds;
+    synchronized (this.waiting) {
+      sourceFileIds =
+          this.waiting.entrySet().stream()
+              .filter(entry -> entry.getValue().since() - due <= 0)
+              .map(Map.Entry::getKey)
+              .toList();
+    }
+    for (UUID sourceFileId : sourceFileIds) {
+      try {
+        // a single check, returns TIMEOUT while the source file is processed
+        SourceFileStatus status =
+            this.sourceFileService.waitForSourceFileReadyOrTimeout(sourceFileId, 0);
+        if (status != SourceFileStatus.TIMEOUT && this.completePolled(sourceFileId, status)) {
+          log.info("SourceFile {} is {}, its event was missed", sourceFileId, status);
+          this.polledCounter.increment();
+        }
+      } catch (RuntimeException e) {
+        log.warn("Failed to check the status of SourceFile {}", sourceFileId, e);
+      }
+    }
+  }
+
+  private boolean completePolled(UUID sourceFileId, SourceFileStatus status) {
+    Waiter waiter;
+    synchronized (this.waiting) {
+      waiter = this.waiting.remove(sourceFileId);
+    }
+    return waiter != null && waiter.future().complete(status);
+  }
+
+  private int waitingCount() {
+    synchronized (this.waiting) {
+      return this.waiting.size();
+    }
+  }
+
+  /**
+   * @param since when the wait started, in nanos
+   */
+  private record Waiter(CompletableFuture<SourceFileStatus> future, long since) {}
+}
@@ -0,0 +1,50 @@
+package ch.legali.sdk.example.files;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/** MD5 helpers, legal-i reports file checksums as Base64 encoded MD5. */
+public final class Checksums {
+
+  private Checksums() {}
+
+  public static MessageDigest md5() {
+    try {
+      return MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("MD5 is not supported by this JVM", e);
+    }
+  }
+
+  /**
+   * @return the Base64 encoded digest, the digest is reset
+   */
+  public static String encode(MessageDigest digest) {
+    return Base64.getEncoder().encodeToString(digest.digest());
+  }
+
+  /**
+   * Hashes the file through memory-mapped windows, without reading it into a buffer.
+   *
+   * @return the Base64 encoded MD5 of the file
+   */
+  public static String md5(Path file) throws IOException {
+    MessageDigest digest = md5();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      for (long position = 0; position < size; position += MappedFileInputStream.WINDOW_SIZE) {
+        digest.update(
+            channel.map(
+                FileChannel.MapMode.READ_ONLY,
+                position,
+                Math.min(MappedFileInputStream.WINDOW_SIZE, size - position)));
+      }
+    }
+    return encode(digest);
+  }
+}
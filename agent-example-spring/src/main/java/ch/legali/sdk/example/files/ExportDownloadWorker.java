@@ -0,0 +1,297 @@
+package ch.legali.sdk.example.files;
+
+import ch.legali.sdk.example.config.DownloadConfig;
+import ch.legali.sdk.example.config.JournalConfig;
+import ch.legali.sdk.example.journal.AppendOnlyLog;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.models.AgentExportDTO;
+import ch.legali.sdk.models.AgentFileDTO;
+import ch.legali.sdk.services.ExportService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Downloads exports in the background, so a large export does not hold up the event handlers.
+ *
+ * <p>A job is written to exports.log in legali.example.journal.path before {@link #enqueue}
+ * returns, whether or not legali.example.journal.enabled is set, so the export event can be
+ * acknowledged right away: jobs that did not finish are resumed after a restart. The log is
+ * rewritten to the unfinished jobs on startup, and while running once the finished ones dominate.
+ * At most legali.example.downloads.export-concurrency exports are downloaded at once. Failed
+ * downloads are retried with exponential backoff; the export is fetched again before every retry,
+ * so an expired download URI is replaced.
+ */
+@Component
+public class ExportDownloadWorker implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(ExportDownloadWorker.class);
+
+  private static final String FILE_NAME = "exports.log";
+  private static final byte QUEUED = 0;
+  private static final byte FINISHED = 1;
+  private static final int COMPACTION_THRESHOLD = 1000;
+
+  private final ExportService exportService;
+  private final VerifiedDownloader verifiedDownloader;
+  private final ConnectorRuntime runtime;
+  private final DownloadConfig config;
+  private final JournalConfig journalConfig;
+
+  // jobs not finished yet, guarded by itself, as are the log and the executor
+  private final Map<UUID, Job> jobs = new LinkedHashMap<>();
+  private final AtomicInteger active = new AtomicInteger();
+  private AppendOnlyLog appendOnlyLog;
+  private ScheduledThreadPoolExecutor executor;
+
+  private final Counter bytesCounter;
+  private final Counter downloadedCounter;
+  private final Counter retriedCounter;
+  private final Counter failedCounter;
+
+  public ExportDownloadWorker(
+      ExportService exportService,
+      VerifiedDownloader verifiedDownloader,
+      ConnectorRuntime runtime,
+      DownloadConfig config,
+      JournalConfig journalConfig,
+      MeterRegistry meterRegistry) {
+    this.exportService = exportService;
+    this.verifiedDownloader = verifiedDownloader;
+    this.runtime = runtime;
+    this.config = config;
+    this.journalConfig = journalConfig;
+
+    Gauge.builder("agent.exports.queued", this, ExportDownloadWorker::queued)
+        .register(meterRegistry);
+    Gauge.builder("agent.exports.active", this.active, AtomicInteger::get).register(meterRegistry);
+    this.bytesCounter =
+        Counter.builder("agent.exports.downloaded.bytes").baseUnit("bytes").register(meterRegistry);
+    this.downloadedCounter = meterRegistry.counter("agent.exports", "outcome", "downloaded");
+    this.retriedCounter = meterRegistry.counter("agent.exports", "outcome", "retried");
+    this.failedCounter = meterRegistry.counter("agent.exports", "outcome", "failed");
+  }
+
+  // started with the context rather than when the bean is created, so a CRaC checkpoint taken on
+  // refresh holds no open file and the restored agent resumes the jobs on its own disk
+  @Override
+  public void start() {
+    synchronized (this.jobs) {
+      this.jobs.clear();
+      try {
+        this.appendOnlyLog =
+            AppendOnlyLog.open(
+                Paths.get(this.journalConfig.getPath()).resolve(FILE_NAME),
+                this.journalConfig.isSync(),
+                this::replay);
+        this.appendOnlyLog.rewrite(this.jobs.values().stream().map(Job::encode).toList());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      this.executor =
+          new ScheduledThreadPoolExecutor(
+              this.config.getExportConcurrency(), this.runtime.threadFactory("exports-"));
+      if (!this.jobs.isEmpty()) {
+        log.info("⤵️  Resuming {} export downloads", this.jobs.size());
+      }
+      // the download URIs of resumed jobs may have expired, fetch the export again
+      this.jobs.values().forEach(job -> this.submit(job, null, 1, 0));
+    }
+  }
+
+  @Override
+  public void stop() {
+    // unfinished jobs stay in the log and are resumed on the next start
+    synchronized (this.jobs) {
+      if (this.executor != null) {
+        this.executor.shutdownNow();
+        this.executor = null;
+      }
+      if (this.appendOnlyLog != null) {
+        try {
+          this.appendOnlyLog.close();
+        } catch (IOException e) {
+          log.warn("Failed to close the export download log", e);
+        }
+        this.appendOnlyLog = null;
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    synchronized (this.jobs) {
+      return this.executor != null;
+    }
+  }
+
+  @Override
+  public int getPhase() {
+    // started after, and stopped before, the HTTP client
+    return 0;
+  }
+
+  /**
+   * Queues the download of an export. The job is on disk when this returns.
+   *
+   * @param export the export
+   * @param tocFile download the table of contents instead of the export file
+   * @throws IOException if the job cannot be stored
+   * @throws IllegalStateException if the worker is stopped
+   */
+  public void enqueue(AgentExportDTO export, boolean tocFile) throws IOException {
+    AgentFileDTO file = tocFile ? export.tocFile() : export.file();
+    Job job = new Job(UUID.randomUUID(), export.exportId(), tocFile, file.filename());
+    synchronized (this.jobs) {
+      if (this.executor == null) {
+        throw new IllegalStateException("Export download worker is stopped");
+      }
+      this.appendOnlyLog.append(job.encode());
+      this.jobs.put(job.jobId(), job);
+      this.submit(job, file, 1, 0);
+    }
+  }
+
+  private int queued() {
+    synchronized (this.jobs) {
+      return this.jobs.size() - this.active.get();
+    }
+  }
+
+  // called with the lock of jobs held
+  private void submit(Job job, AgentFileDTO file, int attempt, long delayMillis) {
+    this.executor.schedule(
+        () -> this.download(job, file, attempt), delayMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private void download(Job job, AgentFileDTO file, int attempt) {
+    this.active.incrementAndGet();
+    try {
+      AgentFileDTO fileToDownload = file != null ? file : this.fetchFile(job);
+      Path target = Paths.get(this.config.getExportPath()).resolve(job.filename());
+      this.verifiedDownloader.download(fileToDownload, target, this.bytesCounter::increment);
+      log.info("⤵️  Downloaded file: {}", job.filename());
+      this.downloadedCounter.increment();
+      this.finish(job);
+    } catch (IOException | RuntimeException e) {
+      if (!this.isRunning()) {
+        // interrupted by stop, resumed on the next start
+        return;
+      }
+      if (attempt >= this.config.getExportMaxAttempts()) {
+        log.error(
+            "🙅‍  Giving up download of export {} after {} attempts", job.exportId(), attempt, e);
+        this.failedCounter.increment();
+        this.finish(job);
+        return;
+      }
+      long backoff = this.config.getExportRetryBackoff().toMillis() << Math.min(attempt - 1, 16);
+      log.warn(
+          "Download of export {} failed, retrying in {} ms: {}",
+          job.exportId(),
+          backoff,
+          e.getMessage());
+      this.retriedCounter.increment();
+      synchronized (this.jobs) {
+        if (this.executor != null) {
+          this.submit(job, null, attempt + 1, backoff);
+        }
+      }
+    } finally {
+      this.active.decrementAndGet();
+    }
+  }
+
+  private AgentFileDTO fetchFile(Job job) {
+    AgentExportDTO export = this.exportService.get(job.exportId());
+    return job.tocFile() ? export.tocFile() : export.file();
+  }
+
+  private void finish(Job job) {
+    synchronized (this.jobs) {
+      this.jobs.remove(job.jobId());
+      if (this.appendOnlyLog == null) {
+        return;
+      }
+      try {
+        this.appendOnlyLog.append(Job.encodeFinished(job.jobId()));
+        if (this.appendOnlyLog.records() > 2L * this.jobs.size() + COMPACTION_THRESHOLD) {
+          this.appendOnlyLog.rewrite(this.jobs.values().stream().map(Job::encode).toList());
+        }
+      } catch (IOException e) {
+        // the job is downloaded again after a restart, which is harmless
+        log.warn("Failed to record finished export download {}", job.exportId(), e);
+      }
+    }
+  }
+
+  private void replay(byte[] payload) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+      byte type = in.readByte();
+      UUID jobId = new UUID(in.readLong(), in.readLong());
+      if (type == FINISHED) {
+        this.jobs.remove(jobId);
+        return;
+      }
+      UUID exportId = new UUID(in.readLong(), in.readLong());
+      this.jobs.put(jobId, new Job(jobId, exportId, in.readBoolean(), in.readUTF()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @param jobId identifies the job in the log
+   * @param exportId the export to download
+   * @param tocFile download the table of contents instead of the export file
+   * @param filename name of the downloaded file
+   */
+  private record Job(UUID jobId, UUID exportId, boolean tocFile, String filename) {
+
+    byte[] encode() {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+        out.writeByte(QUEUED);
+        out.writeLong(this.jobId.getMostSignificantBits());
+        out.writeLong(this.jobId.getLeastSignificantBits());
+        out.writeLong(this.exportId.getMostSignificantBits());
+        out.writeLong(this.exportId.getLeastSignificantBits());
+        out.writeBoolean(this.tocFile);
+        out.writeUTF(this.filename);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return bytes.toByteArray();
+    }
+
+    static byte[] encodeFinished(UUID jobId) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+        out.writeByte(FINISHED);
+        out.writeLong(jobId.getMostSignificantBits());
+        out.writeLong(jobId.getLeastSignificantBits());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return bytes.toByteArray();
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package ch.legali.sdk.example.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Objects;
+
+/**
+ * Reads a file through memory-mapped windows of its {@link FileChannel}. Bytes are copied once,
+ * from the page cache into the reader's buffer, instead of through the temporary direct buffer of
+ * {@link java.nio.file.Files#newInputStream}, and {@link #transferTo} hands the file to the channel
+ * without a buffer of its own.
+ *
+ * <p>The length is known up front, {@link #available()} reports the remaining bytes. A mapping is
+ * released when it is garbage collected, not on {@link #close()}.
+ *
+ * <p>If opened with a digest, the bytes are hashed as they are read, skipped or transferred, so the
+ * file is read once for upload and checksum. The transfer then writes the mapped windows instead of
+ * handing the channel over.
+ */
+public final class MappedFileInputStream extends InputStream {
+
+  /** Bytes mapped at once, so files larger than 2 GiB can be read. */
+  static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+  private final FileChannel channel;
+  private final long length;
+  private final long windowSize;
+  private final MessageDigest digest;
+  private MappedByteBuffer window;
+  private long windowStart;
+
+  MappedFileInputStream(FileChannel channel, long windowSize, MessageDigest digest)
+      throws IOException {
+    this.channel = channel;
+    this.length = channel.size();
+    this.windowSize = windowSize;
+    this.digest = digest;
+  }
+
+  /**
+   * @param file the file to read
+   * @return a stream positioned at the start of the file
+   */
+  public static MappedFileInputStream open(Path file) throws IOException {
+    return open(file, null);
+  }
+
+  /**
+   * @param file the file to read
+   * @param digest updated with the bytes read, or null
+   * @return a stream positioned at the start of the file
+   */
+  public static MappedFileInputStream open(Path file, MessageDigest digest) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      return new MappedFileInputStream(channel, WINDOW_SIZE, digest);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the length of the file when it was opened
+   */
+  public long length() {
+    return this.length;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!this.nextWindow()) {
+      return -1;
+    }
+    byte b = this.window.get();
+    if (this.digest != null) {
+      this.digest.update(b);
+    }
+    return b & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    Objects.checkFromIndexSize(off, len, b.length);
+    if (len == 0) {
+      return 0;
+    }
+    if (!this.nextWindow()) {
+      return -1;
+    }
+    int read = Math.min(len, this.window.remaining());
+    this.window.get(b, off, read);
+    if (this.digest != null) {
+      this.digest.update(b, off, read);
+    }
+    return read;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if (n <= 0) {
+      return 0;
+    }
+    if (this.digest != null) {
+      // reads the skipped bytes, so they are hashed
+      return super.skip(n);
+    }
+    long position = this.position();
+    long skipped = Math.min(n, this.length - position);
+    this.seek(position + skipped);
+    return skipped;
+  }
+
+  @Override
+  public int available() {
+    return (int) Math.min(this.length - this.position(), Integer.MAX_VALUE);
+  }
+
+  @Override
+  public long transferTo(OutputStream out) throws IOException {
+    long position = this.position();
+    long start = position;
+    WritableByteChannel target = Channels.newChannel(out);
+    if (this.digest != null) {
+      while (this.nextWindow()) {
+        this.digest.update(this.window.duplicate());
+        while (this.window.hasRemaining()) {
+          target.write(this.window);
+        }
+      }
+      return this.position() - start;
+    }
+    while (position < this.length) {
+      position += this.channel.transferTo(position, this.length - position, target);
+    }
+    this.seek(position);
+    return position - start;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.window = null;
+    this.channel.close();
+  }
+
+  private long position() {
+    return this.window != null ? this.windowStart + this.window.position() : this.windowStart;
+  }
+
+  private void seek(long position) {
+    this.window = null;
+    this.windowStart = position;
+  }
+
+  /**
+   * @return false at the end of the file
+   */
+  private boolean nextWindow() throws IOException {
+    if (this.window != null && this.window.hasRemaining()) {
+      return true;
+    }
+    long position = this.position();
+    if (position >= this.length) {
+      return false;
+    }
+    this.window =
+        this.channel.map(
+            FileChannel.MapMode.READ_ONLY,
+            position,
+            Math.min(this.windowSize, this.length - position));
+    this.windowStart = position;
+    return true;
+  }
+}
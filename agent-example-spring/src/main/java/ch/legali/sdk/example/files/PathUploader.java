@@ -0,0 +1,95 @@
+package ch.legali.sdk.example.files;
+
+import ch.legali.sdk.example.config.UploadConfig;
+import ch.legali.sdk.example.runtime.ConnectorResource;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.example.runtime.ConnectorRuntime.Permit;
+import ch.legali.sdk.example.runtime.TenantContext;
+import ch.legali.sdk.models.AgentSourceFileDTO;
+import ch.legali.sdk.services.SourceFileService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+
+/**
+ * Uploads source files from local files, holding an UPLOADS permit of the {@link ConnectorRuntime}
+ * while the SDK reads them.
+ *
+ * <p>In MAPPED mode, see legali.example.uploads.mode, the file is read through memory-mapped
+ * windows, see {@link MappedFileInputStream}, which saves a copy of every byte and the buffers of a
+ * large scan. In STREAM mode it is read through a stream. Either way it is hashed on the way.
+ */
+@Component
+public class PathUploader {
+
+  private final SourceFileService sourceFileService;
+  private final ConnectorRuntime runtime;
+  private final UploadConfig config;
+
+  public PathUploader(
+      SourceFileService sourceFileService, ConnectorRuntime runtime, UploadConfig config) {
+    this.sourceFileService = sourceFileService;
+    this.runtime = runtime;
+    this.config = config;
+  }
+
+  /**
+   * Creates the source file for the tenant of the {@link TenantContext}.
+   *
+   * @return the Base64 encoded MD5 of the file
+   */
+  public String create(AgentSourceFileDTO sourceFile, Path file) throws IOException {
+    return this.create(sourceFile, file, TenantContext.current());
+  }
+
+  /**
+   * @param tenantId the tenant the upload is made for, or null
+   * @return the Base64 encoded MD5 of the file
+   */
+  public String create(AgentSourceFileDTO sourceFile, Path file, UUID tenantId) throws IOException {
+    return this.upload(file, tenantId, is -> this.sourceFileService.create(sourceFile, is));
+  }
+
+  /**
+   * @return the Base64 encoded MD5 of the file
+   */
+  public String replace(AgentSourceFileDTO sourceFile, Path file) throws IOException {
+    return this.upload(
+        file, TenantContext.current(), is -> this.sourceFileService.replace(sourceFile, is));
+  }
+
+  /**
+   * @return the Base64 encoded MD5 of the file
+   */
+  public String move(AgentSourceFileDTO sourceFile, Path file) throws IOException {
+    return this.upload(
+        file, TenantContext.current(), is -> this.sourceFileService.move(sourceFile, is));
+  }
+
+  private String upload(Path file, UUID tenantId, Upload upload) throws IOException {
+    MessageDigest digest = Checksums.md5();
+    try (Permit permit = this.runtime.acquire(ConnectorResource.UPLOADS, tenantId);
+        InputStream is = this.open(file, digest)) {
+      upload.send(is);
+    }
+    return Checksums.encode(digest);
+  }
+
+  private InputStream open(Path file, MessageDigest digest) throws IOException {
+    if (this.config.getMode() == UploadConfig.Mode.MAPPED) {
+      return MappedFileInputStream.open(file, digest);
+    }
+    return new DigestInputStream(Files.newInputStream(file), digest);
+  }
+
+  /** A call of the {@link SourceFileService} that reads the file. */
+  @FunctionalInterface
+  private interface Upload {
+    void send(InputStream is) throws IOException;
+  }
+}
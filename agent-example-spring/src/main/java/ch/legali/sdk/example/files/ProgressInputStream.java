@@ -0,0 +1,53 @@
+package ch.legali.sdk.example.files;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * Reports the number of bytes read, as they are read. {@link #transferTo} is passed on to the
+ * wrapped stream, so e.g. the transfer of a {@link MappedFileInputStream} is kept, and reports the
+ * bytes once it is done.
+ */
+public class ProgressInputStream extends FilterInputStream {
+
+  private final LongConsumer progress;
+
+  /**
+   * @param in the stream to read
+   * @param progress called with the number of bytes of every read
+   */
+  public ProgressInputStream(InputStream in, LongConsumer progress) {
+    super(in);
+    this.progress = progress;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int b = super.read();
+    if (b != -1) {
+      this.progress.accept(1);
+    }
+    return b;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int read = super.read(b, off, len);
+    if (read > 0) {
+      this.progress.accept(read);
+    }
+    return read;
+  }
+
+  @Override
+  public long transferTo(OutputStream out) throws IOException {
+    long transferred = this.in.transferTo(out);
+    if (transferred > 0) {
+      this.progress.accept(transferred);
+    }
+    return transferred;
+  }
+}
@@ -0,0 +1,260 @@
+package ch.legali.sdk.example.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.security.MessageDigest;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Connects a source stream to a reader through a fixed ring buffer, so a file of any size passes
+ * with constant memory and without a temporary file.
+ *
+ * <p>One thread calls {@link #pump}, which reads the source straight into the free part of the
+ * buffer and blocks while it is full; another reads {@link #source()} and blocks while it is empty.
+ * The MD5 is computed as the bytes leave the buffer. A failure of the source is rethrown to the
+ * reader. A reader that closes the pipe early, e.g. once it has read the length it expects, stops
+ * the pump and closes the source, which unblocks a pump waiting for the source.
+ */
+public final class RingBufferPipe {
+
+  private final byte[] buffer;
+  private final MessageDigest digest = Checksums.md5();
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition readable = this.lock.newCondition();
+  private final Condition writable = this.lock.newCondition();
+
+  // total bytes written and read, guarded by the lock
+  private long written;
+  private long read;
+  private boolean sourceDone;
+  private boolean readerClosed;
+  private IOException failure;
+  private InputStream pumped;
+
+  /**
+   * @param capacity the size of the ring buffer in bytes
+   */
+  public RingBufferPipe(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+    this.buffer = new byte[capacity];
+  }
+
+  /**
+   * Copies the source into the pipe until it ends or the reader closes the pipe, and closes the
+   * source.
+   *
+   * @throws IOException if the source fails before the reader closed the pipe
+   */
+  public void pump(InputStream source) throws IOException {
+    this.lock.lock();
+    try {
+      this.pumped = source;
+    } finally {
+      this.lock.unlock();
+    }
+    try (source) {
+      while (true) {
+        int offset;
+        int length;
+        this.lock.lock();
+        try {
+          while (this.free() == 0 && !this.readerClosed) {
+            this.writable.await();
+          }
+          if (this.readerClosed) {
+            break;
+          }
+          offset = (int) (this.written % this.buffer.length);
+          length = Math.min(this.free(), this.buffer.length - offset);
+        } finally {
+          this.lock.unlock();
+        }
+
+        // the reader does not touch the free part of the buffer, fill it without the lock
+        int n = source.read(this.buffer, offset, length);
+        if (n < 0) {
+          break;
+        }
+
+        this.lock.lock();
+        try {
+          this.written += n;
+          this.readable.signal();
+        } finally {
+          this.lock.unlock();
+        }
+      }
+      this.finish(null);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      InterruptedIOException interrupted = new InterruptedIOException("Interrupted while pumping");
+      this.finish(interrupted);
+      throw interrupted;
+    } catch (IOException | RuntimeException e) {
+      if (this.isReaderClosed()) {
+        // e.g. the source closed by the reader while the pump was waiting for it
+        this.finish(null);
+        return;
+      }
+      this.finish(e instanceof IOException io ? io : new IOException(e));
+      throw e;
+    }
+  }
+
+  /**
+   * @return the stream the pumped bytes are read from, closing it closes the pipe
+   */
+  public InputStream source() {
+    return new Source();
+  }
+
+  /**
+   * @return the Base64 encoded MD5 of the bytes read from the pipe, all of the source unless the
+   *     reader closed the pipe early
+   * @throws IOException if the source failed
+   * @throws IllegalStateException if the pump has not ended yet
+   */
+  public String md5() throws IOException {
+    this.lock.lock();
+    try {
+      if (this.failure != null) {
+        throw new IOException("Source failed after " + this.written + " bytes", this.failure);
+      }
+      if (!this.sourceDone) {
+        throw new IllegalStateException("Source has not ended yet");
+      }
+      return Checksums.encode(this.digest);
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of bytes taken from the source so far
+   */
+  public long transferred() {
+    this.lock.lock();
+    try {
+      return this.written;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private boolean isReaderClosed() {
+    this.lock.lock();
+    try {
+      return this.readerClosed;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private int free() {
+    return this.buffer.length - (int) (this.written - this.read);
+  }
+
+  private void finish(IOException failure) {
+    this.lock.lock();
+    try {
+      this.sourceDone = true;
+      this.failure = failure;
+      this.readable.signalAll();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /** The reading end of the pipe. */
+  private final class Source extends InputStream {
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return this.read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      Objects.checkFromIndexSize(off, len, b.length);
+      if (len == 0) {
+        return 0;
+      }
+      RingBufferPipe pipe = RingBufferPipe.this;
+      int offset;
+      int length;
+      pipe.lock.lock();
+      try {
+        while (pipe.written == pipe.read && !pipe.sourceDone) {
+          pipe.readable.await();
+        }
+        if (pipe.failure != null) {
+          throw new IOException("Source failed after " + pipe.written + " bytes", pipe.failure);
+        }
+        if (pipe.written == pipe.read) {
+          return -1;
+        }
+        offset = (int) (pipe.read % pipe.buffer.length);
+        length =
+            (int) Math.min(len, Math.min(pipe.written - pipe.read, pipe.buffer.length - offset));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while reading the pipe");
+      } finally {
+        pipe.lock.unlock();
+      }
+
+      // the pump does not touch the unread part of the buffer, copy it without the lock
+      System.arraycopy(pipe.buffer, offset, b, off, length);
+      pipe.digest.update(b, off, length);
+
+      pipe.lock.lock();
+      try {
+        pipe.read += length;
+        pipe.writable.signal();
+      } finally {
+        pipe.lock.unlock();
+      }
+      return length;
+    }
+
+    @Override
+    public int available() {
+      RingBufferPipe pipe = RingBufferPipe.this;
+      pipe.lock.lock();
+      try {
+        return (int) (pipe.written - pipe.read);
+      } finally {
+        pipe.lock.unlock();
+      }
+    }
+
+    @Override
+    public void close() {
+      RingBufferPipe pipe = RingBufferPipe.this;
+      InputStream pumped;
+      pipe.lock.lock();
+      try {
+        pipe.readerClosed = true;
+        pipe.writable.signalAll();
+        pumped = pipe.sourceDone ? null : pipe.pumped;
+      } finally {
+        pipe.lock.unlock();
+      }
+      if (pumped != null) {
+        // unblocks a pump waiting for the source
+        try {
+          pumped.close();
+        } catch (IOException e) {
+          // the pump stops anyway
+        }
+      }
+    }
+  }
+}
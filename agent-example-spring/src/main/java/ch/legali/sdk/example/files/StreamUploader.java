@@ -0,0 +1,94 @@
+package ch.legali.sdk.example.files;
+
+import ch.legali.sdk.example.config.UploadConfig;
+import ch.legali.sdk.example.runtime.ConnectorResource;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.example.runtime.ConnectorRuntime.Permit;
+import ch.legali.sdk.example.runtime.TenantContext;
+import ch.legali.sdk.models.AgentSourceFileDTO;
+import ch.legali.sdk.services.SourceFileService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Uploads source files from a remote stream, e.g. the download of a document management system,
+ * without a temporary file.
+ *
+ * <p>The source is read on a thread of its own into a {@link RingBufferPipe} of
+ * legali.example.uploads.pipe-buffer-size bytes, which the SDK reads the upload from. Downloading
+ * and uploading overlap, the slower side sets the pace of both, and the memory per upload does not
+ * depend on the size of the file.
+ */
+@Component
+public class StreamUploader {
+
+  private static final Logger log = LoggerFactory.getLogger(StreamUploader.class);
+
+  private final SourceFileService sourceFileService;
+  private final ConnectorRuntime runtime;
+  private final UploadConfig config;
+
+  public StreamUploader(
+      SourceFileService sourceFileService, ConnectorRuntime runtime, UploadConfig config) {
+    this.sourceFileService = sourceFileService;
+    this.runtime = runtime;
+    this.config = config;
+  }
+
+  /**
+   * Creates the source file for the tenant of the {@link TenantContext}.
+   *
+   * @return the Base64 encoded MD5 of the uploaded bytes
+   */
+  public String create(AgentSourceFileDTO sourceFile, InputStream source) throws IOException {
+    return this.create(sourceFile, source, TenantContext.current());
+  }
+
+  /**
+   * @param source the stream to upload, it is closed when the upload ends
+   * @param tenantId the tenant the upload is made for, or null
+   * @return the Base64 encoded MD5 of the uploaded bytes
+   * @throws IOException if the source fails
+   */
+  public String create(AgentSourceFileDTO sourceFile, InputStream source, UUID tenantId)
+      throws IOException {
+    try (Permit permit = this.runtime.acquire(ConnectorResource.UPLOADS, tenantId)) {
+      RingBufferPipe pipe = new RingBufferPipe(this.config.getPipeBufferSize());
+      Thread pump =
+          this.runtime
+              .threadFactory("upload-pipe-")
+              .newThread(
+                  () -> {
+                    try {
+                      pipe.pump(source);
+                    } catch (IOException e) {
+                      // rethrown to the reader of the pipe and by md5()
+                      log.debug("Pipe of SourceFile {} failed", sourceFile.sourceFileId(), e);
+                    }
+                  });
+      pump.start();
+      try (InputStream is = pipe.source()) {
+        this.sourceFileService.create(sourceFile, is);
+      } finally {
+        // closing the pipe closes the source, the pump stops if the upload ended early
+        this.join(pump);
+      }
+      return pipe.md5();
+    }
+  }
+
+  private void join(Thread pump) throws IOException {
+    try {
+      pump.join();
+    } catch (InterruptedException e) {
+      pump.interrupt();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the pipe");
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package ch.legali.sdk.example.files;
+
+import ch.legali.sdk.example.config.DownloadConfig;
+import ch.legali.sdk.example.runtime.ConnectorResource;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.example.runtime.ConnectorRuntime.Permit;
+import ch.legali.sdk.models.AgentFileDTO;
+import ch.legali.sdk.services.FileService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.function.LongConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Downloads files and verifies their MD5 in a single pass: the digest is computed while the bytes
+ * are streamed to disk, so the file is neither read back nor held in memory.
+ */
+@Component
+public class VerifiedDownloader {
+
+  private static final Logger log = LoggerFactory.getLogger(VerifiedDownloader.class);
+
+  private final FileService fileService;
+  private final ConnectorRuntime runtime;
+  private final DownloadConfig config;
+
+  public VerifiedDownloader(
+      FileService fileService, ConnectorRuntime runtime, DownloadConfig config) {
+    this.fileService = fileService;
+    this.runtime = runtime;
+    this.config = config;
+  }
+
+  /**
+   * Downloads the file to a sibling .part file and moves it to the target once its MD5 matches.
+   *
+   * @param file the file to download
+   * @param target where to store the file, parent directories are created
+   * @return the target
+   * @throws ChecksumMismatchException if the MD5 does not match, the file has been quarantined or
+   *     removed
+   * @throws IOException if the download fails
+   */
+  public Path download(AgentFileDTO file, Path target) throws IOException {
+    return this.download(file, target, bytes -> {});
+  }
+
+  /**
+   * Like {@link #download(AgentFileDTO, Path)}, reporting progress while streaming.
+   *
+   * @param progress called with the number of bytes read since the last call
+   */
+  public Path download(AgentFileDTO file, Path target, LongConsumer progress) throws IOException {
+    Path directory = target.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path part = directory.resolve(target.getFileName() + ".part");
+
+    MessageDigest digest = Checksums.md5();
+    try (Permit permit = this.runtime.acquire(ConnectorResource.DOWNLOADS);
+        InputStream is =
+            new DigestInputStream(
+                new ProgressInputStream(this.fileService.downloadFile(file.uri()), progress),
+                digest)) {
+      Files.copy(is, part, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(part);
+      throw e;
+    }
+
+    String md5 = Checksums.encode(digest);
+    if (!md5.equals(file.md5())) {
+      this.reject(part, target, file);
+      throw new ChecksumMismatchException(file.filename(), file.md5(), md5);
+    }
+
+    try {
+      Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+    return target;
+  }
+
+  private void reject(Path part, Path target, AgentFileDTO file) throws IOException {
+    if (this.config.getQuarantinePath() == null || this.config.getQuarantinePath().isBlank()) {
+      Files.delete(part);
+      return;
+    }
+    Path quarantine = Paths.get(this.config.getQuarantinePath());
+    Files.createDirectories(quarantine);
+    Path quarantined =
+        quarantine.resolve(System.currentTimeMillis() + "-" + target.getFileName().toString());
+    Files.move(part, quarantined, StandardCopyOption.REPLACE_EXISTING);
+    log.warn("☣️  Quarantined {} to {}", file.filename(), quarantined);
+  }
+
+  /** The MD5 of a downloaded file does not match the MD5 announced by legal-i. */
+  public static class ChecksumMismatchException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ChecksumMismatchException(String filename, String expected, String actual) {
+      super("MD5 of " + filename + " is " + actual + ", expected " + expected);
+    }
+  }
+}
@@ -0,0 +1,351 @@
+package ch.legali.sdk.example.ingestion;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import ch.legali.sdk.example.config.ExampleConfig;
+import ch.legali.sdk.example.config.InboxConfig;
+import ch.legali.sdk.example.config.IngestionConfig;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.example.runtime.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Treats legali.example.files-path as a live inbox: after one initial scan, new and modified files
+ * are picked up from the {@link WatchService} instead of listing the directory again. File systems
+ * that do not support watching are rescanned periodically instead. In AUTO mode, the directory is
+ * also rescanned periodically while watching if it is on a network file system (NFS, SMB), which
+ * accepts a watch but never reports changes made by other hosts, or if a directory could not be
+ * registered.
+ *
+ * <p>A file is handed to the {@link IngestionEngine} once its size and modification time have been
+ * stable for the settle time, so files that are still being copied are not uploaded half-written.
+ * Hidden files and .part / .tmp files are ignored.
+ *
+ * <p>All bookkeeping happens on a single thread, submitting blocks while the engine is saturated.
+ */
+@Component
+public class InboxWatcher {
+
+  private static final Logger log = LoggerFactory.getLogger(InboxWatcher.class);
+
+  private static final Duration CHECK_INTERVAL = Duration.ofSeconds(1);
+
+  private final IngestionEngine ingestionEngine;
+  private final ConnectorRuntime runtime;
+  private final ExampleConfig exampleConfig;
+  private final IngestionConfig ingestionConfig;
+  private final InboxConfig config;
+  private final Counter detectedCounter;
+
+  /** Files seen but not yet stable. */
+  private final Map<Path, Candidate> candidates = new HashMap<>();
+
+  /**
+   * Modification time of every submitted file still in the inbox, so rescans and late events do not
+   * resubmit. Deleted files are removed.
+   */
+  private final Map<Path, FileTime> submitted = new HashMap<>();
+
+  private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+  private final AtomicInteger candidateCount = new AtomicInteger();
+
+  private Path root;
+  private UUID tenantId;
+  private RateLimiter rateLimiter;
+  private WatchService watchService;
+  private boolean rescanning;
+  private long nextScanNanos;
+  private volatile Thread thread;
+
+  public InboxWatcher(
+      IngestionEngine ingestionEngine,
+      ConnectorRuntime runtime,
+      ExampleConfig exampleConfig,
+      IngestionConfig ingestionConfig,
+      InboxConfig config,
+      MeterRegistry meterRegistry) {
+    this.ingestionEngine = ingestionEngine;
+    this.runtime = runtime;
+    this.exampleConfig = exampleConfig;
+    this.ingestionConfig = ingestionConfig;
+    this.config = config;
+    this.detectedCounter = meterRegistry.counter("agent.inbox.files.detected");
+    Gauge.builder("agent.inbox.files.settling", this.candidateCount, AtomicInteger::get)
+        .register(meterRegistry);
+  }
+
+  /** Starts watching legali.example.files-path, does nothing if already started. */
+  public synchronized void start() {
+    if (this.thread != null) {
+      return;
+    }
+    if (this.exampleConfig.getFilesPath() == null || this.exampleConfig.getFilesPath().isBlank()) {
+      log.warn("legali.example.files-path is not set, inbox is not watched");
+      return;
+    }
+    this.root = Paths.get(this.exampleConfig.getFilesPath()).toAbsolutePath();
+    this.tenantId = this.exampleConfig.getTenants().get(this.ingestionConfig.getDepartment());
+    this.rateLimiter = new RateLimiter(this.config.getFilesPerSecond());
+    this.thread = this.runtime.threadFactory("inbox-").newThread(this::run);
+    this.thread.start();
+  }
+
+  @PreDestroy
+  public synchronized void stop() {
+    if (this.thread != null) {
+      this.thread.interrupt();
+      this.thread = null;
+    }
+  }
+
+  private void run() {
+    try {
+      this.openWatchService();
+      this.scan(this.root);
+      log.info(
+          "📥 Watching inbox {} ({})",
+          this.root,
+          this.watchService == null
+              ? "polling"
+              : this.rescanning ? "watch service and polling" : "watch service");
+
+      while (!Thread.currentThread().isInterrupted()) {
+        if (this.watchService != null) {
+          WatchKey key = this.watchService.poll(CHECK_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+          while (key != null) {
+            this.processEvents(key);
+            key = this.watchService.poll();
+          }
+        } else {
+          Thread.sleep(CHECK_INTERVAL.toMillis());
+        }
+        if (this.rescanning && System.nanoTime() - this.nextScanNanos >= 0) {
+          this.scan(this.root);
+        }
+        this.submitSettled();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException e) {
+      log.error("🙅‍  Failed to watch inbox {}", this.root, e);
+    } finally {
+      this.closeWatchService();
+    }
+  }
+
+  private void openWatchService() throws IOException {
+    this.rescanning = true;
+    if (this.config.getMode() == InboxConfig.Mode.POLL) {
+      return;
+    }
+    try {
+      this.watchService = this.root.getFileSystem().newWatchService();
+    } catch (UnsupportedOperationException | IOException e) {
+      if (this.config.getMode() == InboxConfig.Mode.WATCH) {
+        throw e;
+      }
+      log.warn("File system does not support watching {}, polling instead", this.root);
+      return;
+    }
+    this.rescanning = this.config.getMode() == InboxConfig.Mode.AUTO && isNetworkStore(this.root);
+    if (this.rescanning) {
+      log.info("{} is on a network file system, rescanning it while watching", this.root);
+    }
+  }
+
+  // accepts a watch, but does not report changes made by other hosts
+  private static boolean isNetworkStore(Path path) throws IOException {
+    String type = Files.getFileStore(path).type().toLowerCase(Locale.ROOT);
+    return type.startsWith("nfs")
+        || type.startsWith("smb")
+        || type.equals("cifs")
+        || type.equals("9p")
+        || type.startsWith("fuse.");
+  }
+
+  private void closeWatchService() {
+    if (this.watchService == null) {
+      return;
+    }
+    try {
+      this.watchService.close();
+    } catch (IOException e) {
+      log.debug("Failed to close watch service", e);
+    }
+    this.watchService = null;
+    this.watchedDirectories.clear();
+  }
+
+  /**
+   * Walks the directory, registers subdirectories for watching and tracks all files. Submitted
+   * files that are no longer there are forgotten.
+   */
+  private void scan(Path directory) throws IOException {
+    Set<Path> files = new HashSet<>();
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : (Iterable<Path>) paths::iterator) {
+        if (Files.isDirectory(path)) {
+          this.register(path);
+        } else {
+          files.add(path);
+          this.track(path);
+        }
+      }
+    } catch (NoSuchFileException e) {
+      // directory removed while walking it
+      log.debug("{} disappeared", e.getFile());
+    }
+    this.submitted.keySet().removeIf(file -> file.startsWith(directory) && !files.contains(file));
+    this.nextScanNanos = System.nanoTime() + this.config.getPollInterval().toNanos();
+  }
+
+  private void register(Path directory) throws IOException {
+    if (this.watchService == null) {
+      return;
+    }
+    try {
+      this.watchedDirectories.put(
+          directory.register(this.watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE),
+          directory);
+    } catch (IOException e) {
+      if (this.config.getMode() == InboxConfig.Mode.WATCH) {
+        throw e;
+      }
+      if (!this.rescanning) {
+        log.warn("Failed to watch {}, rescanning the inbox instead", directory, e);
+        this.rescanning = true;
+      }
+    }
+  }
+
+  // a deleted directory takes the files in it along
+  private void forget(Path path) {
+    this.submitted.keySet().removeIf(file -> file.startsWith(path));
+    this.candidates.keySet().removeIf(file -> file.startsWith(path));
+    this.candidateCount.set(this.candidates.size());
+  }
+
+  private void processEvents(WatchKey key) throws IOException {
+    Path directory = this.watchedDirectories.get(key);
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == OVERFLOW) {
+        // events have been lost, only a full scan catches up
+        this.scan(this.root);
+        continue;
+      }
+      if (directory == null) {
+        continue;
+      }
+      Path path = directory.resolve((Path) event.context());
+      if (event.kind() == ENTRY_DELETE) {
+        this.forget(path);
+      } else if (Files.isDirectory(path)) {
+        // files may have been created before the directory was registered
+        this.scan(path);
+      } else {
+        this.track(path);
+      }
+    }
+    if (!key.reset()) {
+      this.watchedDirectories.remove(key);
+    }
+  }
+
+  private void track(Path file) throws IOException {
+    String name = file.getFileName().toString();
+    if (name.startsWith(".") || name.endsWith(".part") || name.endsWith(".tmp")) {
+      return;
+    }
+    BasicFileAttributes attributes = attributes(file);
+    if (attributes == null || !attributes.isRegularFile()) {
+      return;
+    }
+    if (attributes.lastModifiedTime().equals(this.submitted.get(file))) {
+      return;
+    }
+    if (!this.candidates.containsKey(file)) {
+      this.detectedCounter.increment();
+    }
+    this.candidates.merge(
+        file, new Candidate(attributes, System.nanoTime()), InboxWatcher::keepIfUnchanged);
+    this.candidateCount.set(this.candidates.size());
+  }
+
+  /** Submits all candidates that did not change during the settle time. */
+  private void submitSettled() throws IOException, InterruptedException {
+    long now = System.nanoTime();
+    Iterator<Map.Entry<Path, Candidate>> iterator = this.candidates.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Path, Candidate> entry = iterator.next();
+      BasicFileAttributes attributes = attributes(entry.getKey());
+      if (attributes == null) {
+        iterator.remove();
+        continue;
+      }
+      Candidate current = keepIfUnchanged(entry.getValue(), new Candidate(attributes, now));
+      entry.setValue(current);
+      if (now - current.stableSinceNanos() < this.config.getSettleTime().toNanos()) {
+        continue;
+      }
+
+      this.rateLimiter.acquire();
+      this.ingestionEngine.submit(
+          IngestionJob.fromDirectory(this.root, entry.getKey(), this.tenantId));
+      this.submitted.put(entry.getKey(), current.lastModified());
+      iterator.remove();
+    }
+    this.candidateCount.set(this.candidates.size());
+  }
+
+  private static Candidate keepIfUnchanged(Candidate previous, Candidate current) {
+    return previous.size() == current.size()
+            && previous.lastModified().equals(current.lastModified())
+        ? previous
+        : current;
+  }
+
+  private static BasicFileAttributes attributes(Path file) throws IOException {
+    try {
+      return Files.readAttributes(file, BasicFileAttributes.class);
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  /** A file waiting to settle, stable since its size or modification time last changed. */
+  private record Candidate(long size, FileTime lastModified, long stableSinceNanos) {
+    Candidate(BasicFileAttributes attributes, long observedNanos) {
+      this(attributes.size(), attributes.lastModifiedTime(), observedNanos);
+    }
+  }
+}
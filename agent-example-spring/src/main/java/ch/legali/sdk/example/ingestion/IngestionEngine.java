@@ -0,0 +1,293 @@
+package ch.legali.sdk.example.ingestion;
+
+import ch.legali.sdk.example.config.IngestionConfig;
+import ch.legali.sdk.example.events.SourceFileReadiness;
+import ch.legali.sdk.example.files.PathUploader;
+import ch.legali.sdk.example.journal.UploadJournal;
+import ch.legali.sdk.example.runtime.ConnectorResource;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.example.runtime.ConnectorRuntime.Permit;
+import ch.legali.sdk.exceptions.NotFoundException;
+import ch.legali.sdk.models.AgentLegalCaseDTO;
+import ch.legali.sdk.models.AgentSourceFileDTO;
+import ch.legali.sdk.models.AgentSourceFileDTO.SourceFileStatus;
+import ch.legali.sdk.services.LegalCaseService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bulk ingestion of local documents. Jobs pass through four stages, each with its own bounded queue
+ * and number of workers:
+ *
+ * <ol>
+ *   <li>case: resolve or create the legal case of the document
+ *   <li>build: build the source file DTO
+ *   <li>upload: create the source file, unless the {@link UploadJournal} knows it is uploaded
+ *   <li>readiness: optionally wait for the source file to be processed, see {@link
+ *       SourceFileReadiness}; the wait does not hold a worker
+ * </ol>
+ *
+ * A full queue blocks the stage feeding it, so a slow uplink throttles case creation and the
+ * producer instead of piling up jobs in memory.
+ */
+@Component
+public class IngestionEngine {
+
+  private static final Logger log = LoggerFactory.getLogger(IngestionEngine.class);
+
+  private final LegalCaseService legalCaseService;
+  private final PathUploader pathUploader;
+  private final IngestionConfig config;
+  private final ConnectorRuntime runtime;
+  private final UploadJournal uploadJournal;
+  private final SourceFileReadiness sourceFileReadiness;
+
+  private final IngestionStage<IngestionJob> caseStage;
+  private final IngestionStage<IngestionJob> buildStage;
+  private final IngestionStage<IngestionJob> uploadStage;
+  private final IngestionStage<IngestionJob> readinessStage;
+
+  // legal cases resolved during this run, keyed by tenant and case reference
+  private final Map<String, CompletableFuture<UUID>> legalCases = new ConcurrentHashMap<>();
+
+  private final Counter uploadedCounter;
+  private final Counter failedCounter;
+  private final Counter skippedCounter;
+
+  private final Object pendingLock = new Object();
+  private long pending = 0;
+
+  public IngestionEngine(
+      LegalCaseService legalCaseService,
+      PathUploader pathUploader,
+      IngestionConfig config,
+      ConnectorRuntime runtime,
+      UploadJournal uploadJournal,
+      SourceFileReadiness sourceFileReadiness,
+      MeterRegistry meterRegistry) {
+    this.legalCaseService = legalCaseService;
+    this.pathUploader = pathUploader;
+    this.config = config;
+    this.runtime = runtime;
+    this.uploadJournal = uploadJournal;
+    this.sourceFileReadiness = sourceFileReadiness;
+
+    int capacity = config.getQueueCapacity();
+    this.readinessStage =
+        new IngestionStage<>(
+            "readiness",
+            config.getReadinessConcurrency(),
+            capacity,
+            this::trackReadiness,
+            this::fail);
+    this.uploadStage =
+        new IngestionStage<>(
+            "upload", config.getUploadConcurrency(), capacity, this::upload, this::fail);
+    this.buildStage =
+        new IngestionStage<>(
+            "build",
+            config.getBuildConcurrency(),
+            capacity,
+            job -> this.uploadStage.submit(job.withSourceFile(this.buildSourceFile(job))),
+            this::fail);
+    this.caseStage =
+        new IngestionStage<>(
+            "case",
+            config.getCaseConcurrency(),
+            capacity,
+            job -> this.buildStage.submit(job.withLegalCaseId(this.resolveLegalCase(job))),
+            this::fail);
+
+    for (IngestionStage<IngestionJob> stage : this.stages()) {
+      Gauge.builder("agent.ingestion.queue.depth", stage, IngestionStage::depth)
+          .tag("stage", stage.name())
+          .register(meterRegistry);
+      Gauge.builder("agent.ingestion.active", stage, IngestionStage::active)
+          .tag("stage", stage.name())
+          .register(meterRegistry);
+    }
+    this.uploadedCounter =
+        Counter.builder("agent.ingestion.documents")
+            .tag("outcome", "uploaded")
+            .register(meterRegistry);
+    this.failedCounter =
+        Counter.builder("agent.ingestion.documents")
+            .tag("outcome", "failed")
+            .register(meterRegistry);
+    this.skippedCounter =
+        Counter.builder("agent.ingestion.documents")
+            .tag("outcome", "skipped")
+            .register(meterRegistry);
+  }
+
+  /** Starts the stage workers, does nothing if they are already running. */
+  public void start() {
+    for (IngestionStage<IngestionJob> stage : this.stages()) {
+      stage.start(this.runtime.threadFactory("ingest-" + stage.name() + "-"));
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    int dropped = 0;
+    for (IngestionStage<IngestionJob> stage : this.stages()) {
+      for (IngestionJob job : stage.stop()) {
+        this.complete(job);
+        dropped++;
+      }
+    }
+    if (dropped > 0) {
+      log.warn("🛑 Ingestion stopped, {} queued documents not ingested", dropped);
+    }
+  }
+
+  /**
+   * Submits a document, blocks while the case stage is saturated.
+   *
+   * @param job the document to ingest
+   * @throws InterruptedException if interrupted while waiting for queue capacity
+   * @throws IllegalStateException if the engine has been stopped
+   */
+  public void submit(IngestionJob job) throws InterruptedException {
+    synchronized (this.pendingLock) {
+      this.pending++;
+    }
+    try {
+      this.caseStage.submit(job);
+    } catch (InterruptedException | RuntimeException e) {
+      this.complete(job);
+      throw e;
+    }
+  }
+
+  /** Blocks until every submitted document has been uploaded or has failed. */
+  public void awaitCompletion() throws InterruptedException {
+    synchronized (this.pendingLock) {
+      while (this.pending > 0) {
+        this.pendingLock.wait();
+      }
+    }
+  }
+
+  private List<IngestionStage<IngestionJob>> stages() {
+    return List.of(this.caseStage, this.buildStage, this.uploadStage, this.readinessStage);
+  }
+
+  private UUID resolveLegalCase(IngestionJob job) {
+    String key = job.tenantId() + "/" + job.caseReference();
+    CompletableFuture<UUID> created = new CompletableFuture<>();
+    CompletableFuture<UUID> existing = this.legalCases.putIfAbsent(key, created);
+    if (existing != null) {
+      return existing.join();
+    }
+
+    // NOTE: the legalCaseId is derived from the case reference, so that a restarted run adds its
+    // files to the cases created by the previous run.
+    UUID legalCaseId = UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8));
+    try (Permit permit = this.runtime.acquire(ConnectorResource.LEGAL_CASES, job.tenantId())) {
+      try {
+        this.legalCaseService.get(legalCaseId);
+      } catch (NotFoundException e) {
+        log.info("🗂  Adding LegalCase {}", job.caseReference());
+        AgentLegalCaseDTO legalCase =
+            AgentLegalCaseDTO.builder()
+                .legalCaseId(legalCaseId)
+                // IMPORTANT: every case must have a PII_FIRSTNAME and PII_LASTNAME, or PII_COMPANY
+                .caseData(Map.of("PII_COMPANY", job.caseReference()))
+                .reference(job.caseReference())
+                .owner("DummyIamUser")
+                .accessGroup("group1")
+                .build();
+        this.legalCaseService.create(legalCase, job.tenantId());
+      }
+      created.complete(legalCaseId);
+      return legalCaseId;
+    } catch (RuntimeException e) {
+      this.legalCases.remove(key, created);
+      created.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private AgentSourceFileDTO buildSourceFile(IngestionJob job) {
+    return AgentSourceFileDTO.builder()
+        // creates are idempotent on the sourceFileId, derive it from the file reference
+        .sourceFileId(
+            UUID.nameUUIDFromBytes(
+                (job.legalCaseId() + "/" + job.fileReference()).getBytes(StandardCharsets.UTF_8)))
+        .legalCaseId(job.legalCaseId())
+        .folder(this.config.getFolder())
+        .fileReference(job.fileReference())
+        .putMetadata("legali.metadata.title", job.file().getFileName().toString())
+        .build();
+  }
+
+  private void upload(IngestionJob job) throws Exception {
+    if (this.uploadJournal.isUploaded(job.legalCaseId(), job.fileReference(), job.file())) {
+      log.debug("⏭️  Skipping SourceFile {}, already uploaded", job.fileReference());
+      this.skippedCounter.increment();
+      this.complete(job);
+      return;
+    }
+
+    log.info("🧾  Creating SourceFile {}", job.fileReference());
+    UUID sourceFileId = job.sourceFile().sourceFileId();
+    BasicFileAttributes attributes =
+        this.uploadJournal.started(
+            job.legalCaseId(), job.fileReference(), job.file(), sourceFileId);
+    String md5 = this.pathUploader.create(job.sourceFile(), job.file(), job.tenantId());
+    this.uploadJournal.uploaded(
+        job.legalCaseId(), job.fileReference(), attributes, md5, sourceFileId);
+    this.uploadedCounter.increment();
+
+    if (this.config.isWaitForReady()) {
+      this.readinessStage.submit(job);
+    } else {
+      this.complete(job);
+    }
+  }
+
+  private void trackReadiness(IngestionJob job) {
+    UUID sourceFileId = job.sourceFile().sourceFileId();
+    this.sourceFileReadiness
+        .await(sourceFileId, Duration.ofSeconds(this.config.getReadinessTimeoutSeconds()))
+        .whenComplete(
+            (status, failure) -> {
+              if (failure != null) {
+                log.error("🙅‍  Failed to await SourceFile {}", sourceFileId, failure);
+              } else if (status.equals(SourceFileStatus.ERROR)
+                  || status.equals(SourceFileStatus.TIMEOUT)) {
+                log.warn("💥 SourceFile {} is not processed: {}", sourceFileId, status);
+              }
+              this.complete(job);
+            });
+  }
+
+  private void fail(IngestionJob job, Exception e) {
+    log.error("🙅‍  Failed to ingest {}", job.fileReference(), e);
+    this.failedCounter.increment();
+    this.complete(job);
+  }
+
+  private void complete(@SuppressWarnings("unused") IngestionJob job) {
+    synchronized (this.pendingLock) {
+      this.pending--;
+      if (this.pending == 0) {
+        this.pendingLock.notifyAll();
+      }
+    }
+  }
+}
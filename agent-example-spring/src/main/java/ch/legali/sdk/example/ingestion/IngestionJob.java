@@ -0,0 +1,65 @@
+package ch.legali.sdk.example.ingestion;
+
+import ch.legali.sdk.models.AgentSourceFileDTO;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * A document travelling through the {@link IngestionEngine}. Each stage fills in what the next one
+ * needs: the legal case is resolved first, then the source file DTO is built.
+ *
+ * @param file local file to upload
+ * @param fileReference stable reference of the file, used to derive the sourceFileId
+ * @param caseReference reference of the legal case the file belongs to
+ * @param tenantId tenant the legal case is created in
+ * @param legalCaseId set by the case stage
+ * @param sourceFile set by the build stage
+ */
+public record IngestionJob(
+    Path file,
+    String fileReference,
+    String caseReference,
+    UUID tenantId,
+    UUID legalCaseId,
+    AgentSourceFileDTO sourceFile) {
+
+  public static IngestionJob of(
+      Path file, String fileReference, String caseReference, UUID tenantId) {
+    return new IngestionJob(file, fileReference, caseReference, tenantId, null, null);
+  }
+
+  /**
+   * Maps a file below an ingestion directory to a job. Files in a subdirectory are added to the
+   * legal case named after the directory, files at the top level get a legal case of their own.
+   *
+   * @param root the ingestion directory
+   * @param file a file below the root
+   * @param tenantId tenant the legal case is created in
+   */
+  public static IngestionJob fromDirectory(Path root, Path file, UUID tenantId) {
+    Path relative = root.relativize(file);
+    String caseReference =
+        relative.getNameCount() > 1 ? relative.getName(0).toString() : relative.toString();
+    return of(file, relative.toString(), caseReference, tenantId);
+  }
+
+  public IngestionJob withLegalCaseId(UUID legalCaseId) {
+    return new IngestionJob(
+        this.file,
+        this.fileReference,
+        this.caseReference,
+        this.tenantId,
+        legalCaseId,
+        this.sourceFile);
+  }
+
+  public IngestionJob withSourceFile(AgentSourceFileDTO sourceFile) {
+    return new IngestionJob(
+        this.file,
+        this.fileReference,
+        this.caseReference,
+        this.tenantId,
+        this.legalCaseId,
+        sourceFile);
+  }
+}
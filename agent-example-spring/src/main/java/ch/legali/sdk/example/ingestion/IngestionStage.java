@@ -0,0 +1,120 @@
+package ch.legali.sdk.example.ingestion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * A stage of the {@link IngestionEngine}: a bounded queue drained by a fixed number of workers.
+ * {@link #submit(Object)} blocks while the queue is full, which pushes back on the stage feeding
+ * it.
+ */
+final class IngestionStage<T> {
+
+  /** Processes one item, usually by handing the result to the next stage. */
+  @FunctionalInterface
+  interface Handler<T> {
+    void handle(T item) throws Exception;
+  }
+
+  private final String name;
+  private final int concurrency;
+  private final BlockingQueue<T> queue;
+  private final Handler<T> handler;
+  private final BiConsumer<T, Exception> onFailure;
+  private final List<Thread> workers = new ArrayList<>();
+  private final AtomicInteger active = new AtomicInteger();
+  private volatile boolean running = false;
+
+  IngestionStage(
+      String name,
+      int concurrency,
+      int capacity,
+      Handler<T> handler,
+      BiConsumer<T, Exception> onFailure) {
+    this.name = name;
+    this.concurrency = Math.max(1, concurrency);
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    this.handler = handler;
+    this.onFailure = onFailure;
+  }
+
+  String name() {
+    return this.name;
+  }
+
+  int depth() {
+    return this.queue.size();
+  }
+
+  int active() {
+    return this.active.get();
+  }
+
+  synchronized void start(ThreadFactory threadFactory) {
+    if (this.running) {
+      return;
+    }
+    this.running = true;
+    for (int i = 0; i < this.concurrency; i++) {
+      Thread worker = threadFactory.newThread(this::work);
+      this.workers.add(worker);
+      worker.start();
+    }
+  }
+
+  /**
+   * Interrupts the workers, an item being handled is passed to the failure handler.
+   *
+   * @return the queued items that have not been handled
+   */
+  synchronized List<T> stop() {
+    this.running = false;
+    this.workers.forEach(Thread::interrupt);
+    this.workers.clear();
+    List<T> dropped = new ArrayList<>();
+    this.queue.drainTo(dropped);
+    return dropped;
+  }
+
+  /**
+   * Enqueues an item, blocks while the stage is saturated.
+   *
+   * @throws IllegalStateException if the stage has been stopped
+   */
+  void submit(T item) throws InterruptedException {
+    if (!this.running) {
+      throw new IllegalStateException("Ingestion stage " + this.name + " is stopped");
+    }
+    this.queue.put(item);
+  }
+
+  private void work() {
+    while (this.running) {
+      T item;
+      try {
+        item = this.queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+
+      this.active.incrementAndGet();
+      try {
+        this.handler.handle(item);
+      } catch (InterruptedException e) {
+        this.onFailure.accept(item, e);
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        this.onFailure.accept(item, e);
+      } finally {
+        this.active.decrementAndGet();
+      }
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package ch.legali.sdk.example.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A file of records that are only ever appended. Each record is framed by its length and a CRC32 of
+ * its payload:
+ *
+ * <pre>
+ * | length (int) | crc32 (int) | payload (length bytes) |
+ * </pre>
+ *
+ * <p>On open, all records are replayed. A record cut off by a crash, or one whose checksum does not
+ * match, ends the log: it and everything after it is truncated, so the next append starts on a
+ * clean boundary. Callers that keep state derived from the log can {@link #rewrite} it from time to
+ * time to drop superseded records.
+ */
+public final class AppendOnlyLog implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(AppendOnlyLog.class);
+
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+  private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+
+  private final Path file;
+  private final boolean sync;
+  private FileChannel channel;
+  private long records;
+
+  private AppendOnlyLog(Path file, boolean sync) {
+    this.file = file;
+    this.sync = sync;
+  }
+
+  /**
+   * Opens or creates the log and replays its records.
+   *
+   * @param file the log file, parent directories are created
+   * @param sync force every append to disk before returning
+   * @param replay called with the payload of every intact record, in order
+   */
+  public static AppendOnlyLog open(Path file, boolean sync, Consumer<byte[]> replay)
+      throws IOException {
+    Path parent = file.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    AppendOnlyLog appendOnlyLog = new AppendOnlyLog(file, sync);
+    appendOnlyLog.channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      appendOnlyLog.replay(replay);
+    } catch (IOException | RuntimeException e) {
+      appendOnlyLog.close();
+      throw e;
+    }
+    return appendOnlyLog;
+  }
+
+  private void replay(Consumer<byte[]> replay) throws IOException {
+    long size = this.channel.size();
+    long position = 0;
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    CRC32 crc = new CRC32();
+    while (position < size) {
+      header.clear();
+      if (!this.readFully(header, position)) {
+        break;
+      }
+      header.flip();
+      int length = header.getInt();
+      int checksum = header.getInt();
+      if (length < 0 || length > MAX_RECORD_SIZE) {
+        break;
+      }
+      ByteBuffer payload = ByteBuffer.allocate(length);
+      if (!this.readFully(payload, position + HEADER_SIZE)) {
+        break;
+      }
+      crc.reset();
+      crc.update(payload.array());
+      if ((int) crc.getValue() != checksum) {
+        break;
+      }
+      replay.accept(payload.array());
+      this.records++;
+      position += HEADER_SIZE + length;
+    }
+
+    if (position < size) {
+      log.warn(
+          "📒 Truncating {} bytes of incomplete or corrupt records from {}",
+          size - position,
+          this.file);
+      this.channel.truncate(position);
+      this.channel.force(true);
+    }
+    this.channel.position(position);
+  }
+
+  private boolean readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = this.channel.read(buffer, position + buffer.position());
+      if (read < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Appends a record, on disk when this returns if the log was opened with sync. */
+  public synchronized void append(byte[] payload) throws IOException {
+    this.append(List.of(payload));
+  }
+
+  /**
+   * Appends records, on disk when this returns if the log was opened with sync. The records are
+   * forced to disk together.
+   */
+  public synchronized void append(Collection<byte[]> payloads) throws IOException {
+    for (byte[] payload : payloads) {
+      ByteBuffer frame = frame(payload);
+      while (frame.hasRemaining()) {
+        this.channel.write(frame);
+      }
+    }
+    if (this.sync) {
+      this.channel.force(false);
+    }
+    this.records += payloads.size();
+  }
+
+  /**
+   * Replaces the log with the given records. The new log is written next to the old one and moved
+   * over it, so a crash leaves either the old or the new log intact.
+   */
+  public synchronized void rewrite(Collection<byte[]> payloads) throws IOException {
+    Path compacted = this.file.resolveSibling(this.file.getFileName() + ".compact");
+    try (FileChannel out =
+        FileChannel.open(
+            compacted,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      for (byte[] payload : payloads) {
+        ByteBuffer frame = frame(payload);
+        while (frame.hasRemaining()) {
+          out.write(frame);
+        }
+      }
+      out.force(true);
+    }
+    this.channel.close();
+    try {
+      Files.move(
+          compacted,
+          this.file,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(compacted, this.file, StandardCopyOption.REPLACE_EXISTING);
+    }
+    this.channel = FileChannel.open(this.file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.channel.position(this.channel.size());
+    this.records = payloads.size();
+  }
+
+  /**
+   * @return number of records in the log, including superseded ones
+   */
+  public synchronized long records() {
+    return this.records;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    this.channel.close();
+  }
+
+  private static ByteBuffer frame(byte[] payload) {
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+    buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+    return buffer.flip();
+  }
+}
@@ -0,0 +1,207 @@
+package ch.legali.sdk.example.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * A Bloom filter of UUIDs in a memory-mapped file, so it survives a restart without being read or
+ * written as a whole. The file holds a header and the bits:
+ *
+ * <pre>
+ * | magic (int) | hashes (int) | bits (long) | generation (long) | insertions (long) | bits... |
+ * </pre>
+ *
+ * <p>A new filter is sized for an expected number of insertions and false-positive probability. An
+ * existing filter keeps its size and ids when opened with other parameters; delete the file to
+ * resize it. Changes reach the disk when the OS writes back the mapped pages, or on {@link #force}.
+ */
+public final class BloomFilter implements Closeable {
+
+  private static final int MAGIC = 0x5EE9B100;
+  private static final int HEADER_SIZE = 2 * Integer.BYTES + 3 * Long.BYTES;
+  private static final int GENERATION_OFFSET = 2 * Integer.BYTES + Long.BYTES;
+  private static final int INSERTIONS_OFFSET = GENERATION_OFFSET + Long.BYTES;
+
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final long bits;
+  private final int hashes;
+
+  private BloomFilter(FileChannel channel, MappedByteBuffer buffer, long bits, int hashes) {
+    this.channel = channel;
+    this.buffer = buffer;
+    this.bits = bits;
+    this.hashes = hashes;
+  }
+
+  /**
+   * Opens or creates the filter.
+   *
+   * @param file the filter file, parent directories are created
+   * @param expectedInsertions number of insertions the filter is sized for
+   * @param falsePositiveProbability probability that an id not inserted is reported as contained,
+   *     once expectedInsertions are reached
+   */
+  public static BloomFilter open(
+      Path file, long expectedInsertions, double falsePositiveProbability) throws IOException {
+    long bits = bits(expectedInsertions, falsePositiveProbability);
+    int hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+    long size = HEADER_SIZE + bits / Byte.SIZE;
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Bloom filter of " + size + " bytes is too large");
+    }
+
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    FileChannel channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      BloomFilter existing = reopen(channel);
+      if (existing != null) {
+        return existing;
+      }
+      // new, corrupt or partially cleared, started over at the configured size
+      channel.truncate(size);
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      BloomFilter filter = new BloomFilter(channel, buffer, bits, hashes);
+      filter.clear(0);
+      return filter;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  // an intact filter keeps the size it was created with, so a changed size keeps its ids
+  private static BloomFilter reopen(FileChannel channel) throws IOException {
+    long size = channel.size();
+    if (size < HEADER_SIZE) {
+      return null;
+    }
+    MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+    int hashes = header.getInt(Integer.BYTES);
+    long bits = header.getLong(2 * Integer.BYTES);
+    if (header.getInt(0) != MAGIC
+        || hashes < 1
+        || bits < Byte.SIZE
+        || bits % Byte.SIZE != 0
+        || HEADER_SIZE + bits / Byte.SIZE != size) {
+      return null;
+    }
+    return new BloomFilter(
+        channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), bits, hashes);
+  }
+
+  /**
+   * @return true if the filter has the size of one opened for these parameters
+   */
+  public boolean isSizedFor(long expectedInsertions, double falsePositiveProbability) {
+    return this.bits == bits(expectedInsertions, falsePositiveProbability);
+  }
+
+  private static long bits(long expectedInsertions, double falsePositiveProbability) {
+    long bits =
+        (long)
+            Math.ceil(
+                -expectedInsertions
+                    * Math.log(falsePositiveProbability)
+                    / (Math.log(2) * Math.log(2)));
+    // rounded up to whole bytes
+    return (bits + Byte.SIZE - 1) / Byte.SIZE * Byte.SIZE;
+  }
+
+  /**
+   * @return false if the id has not been inserted, true if it probably has
+   */
+  public synchronized boolean mightContain(UUID id) {
+    long hash1 = hash1(id);
+    long hash2 = hash2(hash1, id);
+    for (int i = 0; i < this.hashes; i++) {
+      long bit = Math.floorMod(hash1 + i * hash2, this.bits);
+      int index = HEADER_SIZE + (int) (bit >>> 3);
+      if ((this.buffer.get(index) & (1 << (bit & 7))) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Inserts the id. */
+  public synchronized void put(UUID id) {
+    long hash1 = hash1(id);
+    long hash2 = hash2(hash1, id);
+    for (int i = 0; i < this.hashes; i++) {
+      long bit = Math.floorMod(hash1 + i * hash2, this.bits);
+      int index = HEADER_SIZE + (int) (bit >>> 3);
+      this.buffer.put(index, (byte) (this.buffer.get(index) | (1 << (bit & 7))));
+    }
+    this.buffer.putLong(INSERTIONS_OFFSET, this.buffer.getLong(INSERTIONS_OFFSET) + 1);
+  }
+
+  /**
+   * @return number of ids inserted since the filter was cleared, including repeated ones
+   */
+  public synchronized long insertions() {
+    return this.buffer.getLong(INSERTIONS_OFFSET);
+  }
+
+  /**
+   * @return the generation set when the filter was last cleared
+   */
+  public synchronized long generation() {
+    return this.buffer.getLong(GENERATION_OFFSET);
+  }
+
+  /** Removes all ids and sets the generation. */
+  public synchronized void clear(long generation) {
+    this.buffer.putInt(0, 0);
+    this.buffer.force();
+    for (int i = HEADER_SIZE; i < this.buffer.capacity(); i++) {
+      this.buffer.put(i, (byte) 0);
+    }
+    this.buffer.putLong(INSERTIONS_OFFSET, 0);
+    this.buffer.putLong(GENERATION_OFFSET, generation);
+    this.buffer.putLong(2 * Integer.BYTES, this.bits);
+    this.buffer.putInt(Integer.BYTES, this.hashes);
+    // written last, a filter partially cleared by a crash is cleared again on open
+    this.buffer.putInt(0, MAGIC);
+    this.buffer.force();
+  }
+
+  /** Writes the changes to disk. */
+  public synchronized void force() {
+    this.buffer.force();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    this.buffer.force();
+    this.channel.close();
+  }
+
+  // double hashing: the i-th bit is hash1 + i * hash2
+  private static long hash1(UUID id) {
+    return mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+  }
+
+  private static long hash2(long hash1, UUID id) {
+    // never 0, so the probes differ
+    return mix(hash1 ^ id.getLeastSignificantBits()) | 1;
+  }
+
+  // finalizer of MurmurHash3, spreads the bits of time-based UUIDs
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb34fe63a5ecdL;
+    value ^= value >>> 33;
+    return value;
+  }
+}
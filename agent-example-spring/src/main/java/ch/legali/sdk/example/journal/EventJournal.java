@@ -0,0 +1,269 @@
+package ch.legali.sdk.example.journal;
+
+import ch.legali.api.events.BaseEvent;
+import ch.legali.sdk.example.config.EventsConfig;
+import ch.legali.sdk.example.config.JournalConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the events received by the heartbeat until their handlers have run, so they can be
+ * acknowledged before. Each event is numbered and appended to an {@link AppendOnlyLog} (events.log
+ * in legali.example.journal.path) together with its class, followed by a second record once it has
+ * been handled. The events without the second record are replayed after a restart.
+ *
+ * <p>The log is compacted to the pending events once the handled ones dominate, on startup and
+ * while running. Events that cannot be read after a restart, e.g. of a class removed from the SDK,
+ * are moved to events.rejected.log before. It is only opened with
+ * legali.example.events.outbox=true.
+ */
+@Component
+public class EventJournal implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(EventJournal.class);
+
+  private static final String FILE_NAME = "events.log";
+  private static final String REJECTED_FILE_NAME = "events.rejected.log";
+  private static final int COMPACTION_THRESHOLD = 1000;
+
+  private static final byte RECEIVED = 0;
+  private static final byte HANDLED = 1;
+
+  /**
+   * @param sequence number of the event in the journal
+   * @param event the event
+   */
+  public record Entry(long sequence, BaseEvent event) {}
+
+  private final JournalConfig config;
+  private final EventsConfig eventsConfig;
+  private final ObjectMapper objectMapper;
+
+  // the records of the pending events by sequence, guarded by this
+  private final Map<Long, byte[]> pending = new TreeMap<>();
+  private final List<Entry> replayed = new ArrayList<>();
+  private AppendOnlyLog appendOnlyLog;
+  private long nextSequence;
+  private boolean running;
+
+  public EventJournal(
+      JournalConfig config,
+      EventsConfig eventsConfig,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    this.config = config;
+    this.eventsConfig = eventsConfig;
+    this.objectMapper = objectMapper;
+    Gauge.builder("agent.journal.events.pending", this, EventJournal::pendingCount)
+        .register(meterRegistry);
+  }
+
+  // opened when the context starts, see UploadJournal
+  @Override
+  public synchronized void start() {
+    try {
+      this.open();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.running = true;
+  }
+
+  @Override
+  public synchronized void stop() {
+    try {
+      if (this.appendOnlyLog != null) {
+        this.appendOnlyLog.close();
+        this.appendOnlyLog = null;
+      }
+    } catch (IOException e) {
+      log.warn("Failed to close the event journal", e);
+    }
+    this.running = false;
+  }
+
+  @Override
+  public synchronized boolean isRunning() {
+    return this.running;
+  }
+
+  @Override
+  public int getPhase() {
+    // opened before, and closed after, the EventOutbox
+    return 0;
+  }
+
+  private void open() throws IOException {
+    if (!this.eventsConfig.isOutbox()) {
+      return;
+    }
+    this.pending.clear();
+    this.replayed.clear();
+    this.nextSequence = 0;
+    Path directory = Paths.get(this.config.getPath());
+    Path file = directory.resolve(FILE_NAME);
+    this.appendOnlyLog =
+        AppendOnlyLog.open(
+            file,
+            this.config.isSync(),
+            payload -> {
+              long sequence = sequence(payload);
+              if (payload[0] == RECEIVED) {
+                this.pending.put(sequence, payload);
+              } else {
+                this.pending.remove(sequence);
+              }
+              this.nextSequence = Math.max(this.nextSequence, sequence + 1);
+            });
+
+    List<byte[]> rejected = new ArrayList<>();
+    for (Map.Entry<Long, byte[]> record : this.pending.entrySet()) {
+      try {
+        this.replayed.add(new Entry(record.getKey(), this.decode(record.getValue())));
+      } catch (IOException | ClassNotFoundException | RuntimeException e) {
+        log.error(
+            "🙅‍  Cannot read event {} of the event journal, moved to {}",
+            record.getKey(),
+            REJECTED_FILE_NAME,
+            e);
+        rejected.add(record.getValue());
+      }
+    }
+    if (!rejected.isEmpty()) {
+      // on disk before the compaction drops them from the event journal
+      try (AppendOnlyLog rejectedLog =
+          AppendOnlyLog.open(directory.resolve(REJECTED_FILE_NAME), true, payload -> {})) {
+        rejectedLog.append(rejected);
+      }
+    }
+    this.pending.keySet().retainAll(this.replayed.stream().map(Entry::sequence).toList());
+    log.info("📒 Event journal {}: {} events will be handled again", file, this.replayed.size());
+    this.compact();
+  }
+
+  /**
+   * @return true if events can be journaled
+   */
+  public synchronized boolean isOpen() {
+    return this.appendOnlyLog != null;
+  }
+
+  /**
+   * @return the events that had not been handled when the journal was last closed, in order, once
+   *     after each start
+   */
+  public synchronized List<Entry> takeReplayed() {
+    List<Entry> entries = List.copyOf(this.replayed);
+    this.replayed.clear();
+    return entries;
+  }
+
+  /**
+   * Appends the events, on disk when this returns if legali.example.journal.sync is set.
+   *
+   * @return the journaled events, in order
+   */
+  public synchronized List<Entry> append(List<BaseEvent> events) throws IOException {
+    if (this.appendOnlyLog == null) {
+      throw new IllegalStateException("Event journal is closed");
+    }
+    if (events.isEmpty()) {
+      return List.of();
+    }
+    List<Entry> entries = new ArrayList<>(events.size());
+    List<byte[]> records = new ArrayList<>(events.size());
+    for (BaseEvent event : events) {
+      Entry entry = new Entry(this.nextSequence++, event);
+      entries.add(entry);
+      records.add(this.encode(entry));
+    }
+    this.appendOnlyLog.append(records);
+    for (int i = 0; i < entries.size(); i++) {
+      this.pending.put(entries.get(i).sequence(), records.get(i));
+    }
+    return entries;
+  }
+
+  /** Records that the handlers of the event have run, it is not replayed after a restart. */
+  public synchronized void handled(long sequence) throws IOException {
+    if (this.appendOnlyLog == null || !this.pending.containsKey(sequence)) {
+      return;
+    }
+    this.appendOnlyLog.append(handledRecord(sequence));
+    this.pending.remove(sequence);
+    this.compact();
+  }
+
+  private void compact() throws IOException {
+    if (this.appendOnlyLog.records() > 2L * this.pending.size() + COMPACTION_THRESHOLD) {
+      this.appendOnlyLog.rewrite(List.copyOf(this.pending.values()));
+    }
+  }
+
+  private synchronized int pendingCount() {
+    return this.pending.size();
+  }
+
+  byte[] encode(Entry entry) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(RECEIVED);
+      out.writeLong(entry.sequence());
+      out.writeUTF(entry.event().getClass().getName());
+      out.write(this.objectMapper.writeValueAsBytes(entry.event()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  BaseEvent decode(byte[] payload) throws IOException, ClassNotFoundException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+      in.readByte();
+      in.readLong();
+      Class<?> type = Class.forName(in.readUTF(), false, EventJournal.class.getClassLoader());
+      if (!BaseEvent.class.isAssignableFrom(type)) {
+        throw new IOException("Not an event: " + type.getName());
+      }
+      return (BaseEvent) this.objectMapper.readValue((InputStream) in, type);
+    }
+  }
+
+  private static byte[] handledRecord(long sequence) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(HANDLED);
+      out.writeLong(sequence);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static long sequence(byte[] payload) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+      in.readByte();
+      return in.readLong();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,284 @@
+package ch.legali.sdk.example.journal;
+
+import ch.legali.sdk.example.config.JournalConfig;
+import ch.legali.sdk.example.files.Checksums;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers which local files have been uploaded, so a restarted backfill does not send them again.
+ * Maps the legal case and fileReference to the MD5, size and modification time of the uploaded
+ * content, the sourceFileId and the upload status.
+ *
+ * <p>Entries are kept in memory and appended to an {@link AppendOnlyLog} (uploads.log in
+ * legali.example.journal.path), which is compacted on startup. It is only opened with
+ * legali.example.journal.enabled=true.
+ */
+@Component
+public class UploadJournal implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(UploadJournal.class);
+
+  private static final String FILE_NAME = "uploads.log";
+  private static final int COMPACTION_THRESHOLD = 1000;
+
+  /** Upload status of a journal entry. */
+  public enum Status {
+    /** The upload has been started, but did not complete. */
+    STARTED,
+    /** The source file has been created. */
+    UPLOADED
+  }
+
+  /**
+   * @param legalCaseId legal case of the source file
+   * @param fileReference reference of the source file, unique within the legal case
+   * @param md5 Base64 encoded MD5 of the content, null if not known yet
+   * @param size size of the local file
+   * @param lastModified modification time of the local file in millis
+   * @param sourceFileId the created source file
+   * @param status upload status
+   */
+  public record Entry(
+      UUID legalCaseId,
+      String fileReference,
+      String md5,
+      long size,
+      long lastModified,
+      UUID sourceFileId,
+      Status status) {
+
+    Key key() {
+      return new Key(this.legalCaseId, this.fileReference);
+    }
+  }
+
+  private record Key(UUID legalCaseId, String fileReference) {}
+
+  private final JournalConfig config;
+  // written together with the log, under the lock of this
+  private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+  private AppendOnlyLog appendOnlyLog;
+
+  public UploadJournal(JournalConfig config, MeterRegistry meterRegistry) {
+    this.config = config;
+    Gauge.builder("agent.journal.uploads.entries", this.entries, Map::size).register(meterRegistry);
+  }
+
+  // opened when the context starts rather than when the bean is created, so a CRaC checkpoint taken
+  // on refresh holds no open file and the restored agent replays the journal on its own disk
+  @Override
+  public synchronized void start() {
+    try {
+      this.open();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    try {
+      this.close();
+    } catch (IOException e) {
+      log.warn("Failed to close the upload journal", e);
+    }
+  }
+
+  /**
+   * @return true if the journal is open, false while stopped or with the journal disabled
+   */
+  @Override
+  public synchronized boolean isRunning() {
+    return this.appendOnlyLog != null;
+  }
+
+  @Override
+  public int getPhase() {
+    // opened before, and closed after, the connector threads that write to it
+    return 0;
+  }
+
+  private void open() throws IOException {
+    if (!this.config.isEnabled()) {
+      return;
+    }
+    this.entries.clear();
+    Path file = Paths.get(this.config.getPath()).resolve(FILE_NAME);
+    this.appendOnlyLog =
+        AppendOnlyLog.open(
+            file,
+            this.config.isSync(),
+            payload -> {
+              Entry entry = decode(payload);
+              this.entries.put(entry.key(), entry);
+            });
+
+    long interrupted =
+        this.entries.values().stream().filter(e -> e.status() == Status.STARTED).count();
+    log.info(
+        "📒 Upload journal {}: {} files, {} interrupted uploads will be retried",
+        file,
+        this.entries.size(),
+        interrupted);
+
+    if (this.appendOnlyLog.records() > 2L * this.entries.size() + COMPACTION_THRESHOLD) {
+      this.appendOnlyLog.rewrite(
+          this.entries.values().stream().map(UploadJournal::encode).toList());
+    }
+  }
+
+  private void close() throws IOException {
+    if (this.appendOnlyLog != null) {
+      this.appendOnlyLog.close();
+      this.appendOnlyLog = null;
+    }
+  }
+
+  /**
+   * Checks whether the file has already been uploaded unchanged. Unchanged size and modification
+   * time are trusted, otherwise the MD5 of the file is compared.
+   *
+   * @param legalCaseId legal case of the source file
+   * @param fileReference reference of the source file
+   * @param file the local file
+   * @return true if the file does not need to be uploaded again
+   */
+  public boolean isUploaded(UUID legalCaseId, String fileReference, Path file) throws IOException {
+    if (!this.isRunning()) {
+      return false;
+    }
+    Entry entry = this.entries.get(new Key(legalCaseId, fileReference));
+    if (entry == null || entry.status() != Status.UPLOADED) {
+      return false;
+    }
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    if (attributes.size() != entry.size()) {
+      return false;
+    }
+    if (attributes.lastModifiedTime().toMillis() == entry.lastModified()) {
+      return true;
+    }
+
+    // touched, but maybe not changed
+    if (!Checksums.md5(file).equals(entry.md5())) {
+      return false;
+    }
+    this.write(
+        new Entry(
+            legalCaseId,
+            fileReference,
+            entry.md5(),
+            entry.size(),
+            attributes.lastModifiedTime().toMillis(),
+            entry.sourceFileId(),
+            Status.UPLOADED));
+    return true;
+  }
+
+  /**
+   * Records that the upload of a file starts.
+   *
+   * @return the attributes of the file, pass them to {@link #uploaded}
+   */
+  public BasicFileAttributes started(
+      UUID legalCaseId, String fileReference, Path file, UUID sourceFileId) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    this.write(
+        new Entry(
+            legalCaseId,
+            fileReference,
+            null,
+            attributes.size(),
+            attributes.lastModifiedTime().toMillis(),
+            sourceFileId,
+            Status.STARTED));
+    return attributes;
+  }
+
+  /**
+   * Records a completed upload.
+   *
+   * @param attributes attributes of the file when the upload started
+   * @param md5 Base64 encoded MD5 of the uploaded content
+   */
+  public void uploaded(
+      UUID legalCaseId,
+      String fileReference,
+      BasicFileAttributes attributes,
+      String md5,
+      UUID sourceFileId)
+      throws IOException {
+    this.write(
+        new Entry(
+            legalCaseId,
+            fileReference,
+            md5,
+            attributes.size(),
+            attributes.lastModifiedTime().toMillis(),
+            sourceFileId,
+            Status.UPLOADED));
+  }
+
+  // in the same order in the log and the map, the last write of a file wins in both
+  private synchronized void write(Entry entry) throws IOException {
+    if (this.appendOnlyLog == null) {
+      return;
+    }
+    this.appendOnlyLog.append(encode(entry));
+    this.entries.put(entry.key(), entry);
+  }
+
+  static byte[] encode(Entry entry) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeLong(entry.legalCaseId().getMostSignificantBits());
+      out.writeLong(entry.legalCaseId().getLeastSignificantBits());
+      out.writeUTF(entry.fileReference());
+      out.writeUTF(entry.md5() == null ? "" : entry.md5());
+      out.writeLong(entry.size());
+      out.writeLong(entry.lastModified());
+      out.writeLong(entry.sourceFileId().getMostSignificantBits());
+      out.writeLong(entry.sourceFileId().getLeastSignificantBits());
+      out.writeByte(entry.status().ordinal());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  static Entry decode(byte[] payload) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+      UUID legalCaseId = new UUID(in.readLong(), in.readLong());
+      String fileReference = in.readUTF();
+      String md5 = in.readUTF();
+      return new Entry(
+          legalCaseId,
+          fileReference,
+          md5.isEmpty() ? null : md5,
+          in.readLong(),
+          in.readLong(),
+          new UUID(in.readLong(), in.readLong()),
+          Status.values()[in.readByte()]);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package ch.legali.sdk.example.loadtest;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies per {@link LoadOperation}, recorded in HdrHistograms with microsecond resolution up to
+ * one hour.
+ */
+public class LatencyReport {
+
+  private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+
+  private final Map<LoadOperation, Histogram> histograms = new EnumMap<>(LoadOperation.class);
+  private final Map<LoadOperation, LongAdder> errors = new EnumMap<>(LoadOperation.class);
+  private final Map<LoadOperation, LongAdder> dropped = new EnumMap<>(LoadOperation.class);
+
+  public LatencyReport() {
+    for (LoadOperation operation : LoadOperation.values()) {
+      this.histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+      this.errors.put(operation, new LongAdder());
+      this.dropped.put(operation, new LongAdder());
+    }
+  }
+
+  /** Records a completed operation, failed or not. */
+  public void record(LoadOperation operation, long nanos, boolean failed) {
+    long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS);
+    this.histograms.get(operation).recordValue(micros);
+    if (failed) {
+      this.errors.get(operation).increment();
+    }
+  }
+
+  /** Records an operation that was due while max-in-flight operations were running. */
+  public void drop(LoadOperation operation) {
+    this.dropped.get(operation).increment();
+  }
+
+  /**
+   * @return count, errors, dropped and latencies in milliseconds per operation
+   */
+  public Map<LoadOperation, Map<String, Number>> summary() {
+    Map<LoadOperation, Map<String, Number>> summary = new EnumMap<>(LoadOperation.class);
+    for (LoadOperation operation : LoadOperation.values()) {
+      Histogram histogram = this.histograms.get(operation);
+      Map<String, Number> values = new LinkedHashMap<>();
+      values.put("count", histogram.getTotalCount());
+      values.put("errors", this.errors.get(operation).sum());
+      values.put("dropped", this.dropped.get(operation).sum());
+      values.put("p50", millis(histogram.getValueAtPercentile(50)));
+      values.put("p99", millis(histogram.getValueAtPercentile(99)));
+      values.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+      values.put("max", millis(histogram.getMaxValue()));
+      summary.put(operation, values);
+    }
+    return summary;
+  }
+
+  /**
+   * @return the summary as a table, latencies in milliseconds
+   */
+  public String format() {
+    StringBuilder table = new StringBuilder();
+    table.append(
+        String.format(
+            "%-10s %8s %7s %8s %10s %10s %10s %10s%n",
+            "operation", "count", "errors", "dropped", "p50", "p99", "p999", "max"));
+    this.summary()
+        .forEach(
+            (operation, values) ->
+                table.append(
+                    String.format(
+                        "%-10s %8d %7d %8d %10.1f %10.1f %10.1f %10.1f%n",
+                        operation,
+                        values.get("count").longValue(),
+                        values.get("errors").longValue(),
+                        values.get("dropped").longValue(),
+                        values.get("p50").doubleValue(),
+                        values.get("p99").doubleValue(),
+                        values.get("p999").doubleValue(),
+                        values.get("max").doubleValue())));
+    return table.toString();
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000.0;
+  }
+}
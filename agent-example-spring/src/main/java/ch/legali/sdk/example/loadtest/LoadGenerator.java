@@ -0,0 +1,325 @@
+package ch.legali.sdk.example.loadtest;
+
+import ch.legali.sdk.example.config.ExampleConfig;
+import ch.legali.sdk.example.config.LoadTestConfig;
+import ch.legali.sdk.example.runtime.ConnectorResource;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.example.runtime.ConnectorRuntime.Permit;
+import ch.legali.sdk.models.AgentLegalCaseDTO;
+import ch.legali.sdk.models.AgentSourceFileDTO;
+import ch.legali.sdk.services.FileService;
+import ch.legali.sdk.services.LegalCaseService;
+import ch.legali.sdk.services.SourceFileService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Issues SDK operations at legali.example.loadtest.rate per second, in the configured mix, and
+ * reports their latencies per operation.
+ *
+ * <p>The load is open: operations are started on schedule whether or not earlier ones have
+ * finished, and the latency is measured from the scheduled start, so a slow backend shows up in the
+ * percentiles instead of lowering the rate. Operations due while max-in-flight operations are
+ * running are dropped and counted.
+ *
+ * <p>Operations that need an earlier result (e.g. GET needs a legal case) fall back to the
+ * operation that creates it, until there is one.
+ */
+@Component
+public class LoadGenerator {
+
+  private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+  private final LegalCaseService legalCaseService;
+  private final SourceFileService sourceFileService;
+  private final FileService fileService;
+  private final ConnectorRuntime runtime;
+  private final LoadTestConfig config;
+  private final ExampleConfig exampleConfig;
+  private final ObjectMapper objectMapper;
+
+  private final Pool<UUID> legalCases = new Pool<>();
+  private final Pool<SourceFile> sourceFiles = new Pool<>();
+
+  public LoadGenerator(
+      LegalCaseService legalCaseService,
+      SourceFileService sourceFileService,
+      FileService fileService,
+      ConnectorRuntime runtime,
+      LoadTestConfig config,
+      ExampleConfig exampleConfig,
+      ObjectMapper objectMapper) {
+    this.legalCaseService = legalCaseService;
+    this.sourceFileService = sourceFileService;
+    this.fileService = fileService;
+    this.runtime = runtime;
+    this.config = config;
+    this.exampleConfig = exampleConfig;
+    this.objectMapper = objectMapper;
+  }
+
+  /** Runs the load test for legali.example.loadtest.duration and logs the report. */
+  public void run() {
+    UUID tenantId = this.exampleConfig.getTenants().get(this.config.getDepartment());
+    byte[] content;
+    try (InputStream sample = new ClassPathResource("sample.pdf").getInputStream()) {
+      content = sample.readAllBytes();
+    } catch (IOException e) {
+      log.error("🙅‍  Failed to read sample.pdf", e);
+      return;
+    }
+    Mix mix = new Mix(this.config.getMix());
+    LatencyReport report = new LatencyReport();
+    Semaphore inFlight = new Semaphore(this.config.getMaxInFlight());
+
+    log.info(
+        "🏋️  Load test: {} operations/s after {} ramp-up, for {}",
+        this.config.getRate(),
+        this.config.getRampUp(),
+        this.config.getDuration());
+    long start = System.nanoTime();
+    long end = start + this.config.getDuration().toNanos();
+    for (long n = 0; ; n++) {
+      long due = start + this.dueNanos(n);
+      if (due >= end) {
+        break;
+      }
+      long wait;
+      while ((wait = due - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(wait);
+      }
+
+      LoadOperation operation = mix.next();
+      if (!inFlight.tryAcquire()) {
+        report.drop(operation);
+        continue;
+      }
+      this.runtime.execute(
+          () -> {
+            LoadOperation executed = operation;
+            boolean failed = false;
+            try {
+              executed = this.execute(operation, tenantId, content);
+            } catch (IOException | RuntimeException e) {
+              log.debug("{} failed", operation, e);
+              failed = true;
+            } finally {
+              report.record(executed, System.nanoTime() - due, failed);
+              inFlight.release();
+            }
+          });
+    }
+
+    try {
+      if (!inFlight.tryAcquire(this.config.getMaxInFlight(), 1, TimeUnit.MINUTES)) {
+        log.warn("Operations still running after 1 minute, reporting without them");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    log.info("🏁 Load test finished, latencies in ms:\n{}", report.format());
+    this.writeReport(report);
+  }
+
+  /**
+   * The rate rises linearly over the ramp-up, so n operations are due at t = sqrt(2 * rampUp * n /
+   * rate) during ramp-up, and one every 1 / rate after.
+   *
+   * @return nanos from the start until the n-th operation is due
+   */
+  long dueNanos(long n) {
+    double rate = this.config.getRate() / TimeUnit.SECONDS.toNanos(1);
+    double rampUp = this.config.getRampUp().toNanos();
+    double duringRampUp = rate * rampUp / 2;
+    if (n < duringRampUp) {
+      return (long) Math.sqrt(2 * rampUp * n / rate);
+    }
+    return (long) (rampUp + (n - duringRampUp) / rate);
+  }
+
+  /**
+   * @return the operation executed, differs from the requested one if it had to fall back
+   */
+  private LoadOperation execute(LoadOperation operation, UUID tenantId, byte[] content)
+      throws IOException {
+    switch (operation) {
+      case GET -> {
+        UUID legalCaseId = this.legalCases.random();
+        if (legalCaseId == null) {
+          return this.execute(LoadOperation.CREATE, tenantId, content);
+        }
+        try (Permit permit = this.runtime.acquire(ConnectorResource.LEGAL_CASES, tenantId)) {
+          this.legalCaseService.get(legalCaseId);
+        }
+      }
+      case UPLOAD -> {
+        UUID legalCaseId = this.legalCases.random();
+        if (legalCaseId == null) {
+          return this.execute(LoadOperation.CREATE, tenantId, content);
+        }
+        AgentSourceFileDTO sourceFile =
+            AgentSourceFileDTO.builder()
+                .sourceFileId(UUID.randomUUID())
+                .legalCaseId(legalCaseId)
+                .folder("loadtest")
+                .fileReference(UUID.randomUUID().toString())
+                .build();
+        try (Permit permit = this.runtime.acquire(ConnectorResource.UPLOADS, tenantId)) {
+          this.sourceFileService.create(sourceFile, new ByteArrayInputStream(content));
+        }
+        this.sourceFiles.add(new SourceFile(legalCaseId, sourceFile.sourceFileId()));
+      }
+      case DOWNLOAD -> {
+        SourceFile sourceFile = this.sourceFiles.random();
+        if (sourceFile == null) {
+          return this.execute(LoadOperation.UPLOAD, tenantId, content);
+        }
+        String uri = this.sourceFileService.get(sourceFile.sourceFileId()).originalFile().uri();
+        try (Permit permit = this.runtime.acquire(ConnectorResource.DOWNLOADS, tenantId);
+            InputStream is = this.fileService.downloadFile(uri)) {
+          is.transferTo(OutputStream.nullOutputStream());
+        }
+      }
+      case DELETE -> {
+        UUID legalCaseId = this.legalCases.take();
+        if (legalCaseId == null) {
+          return this.execute(LoadOperation.CREATE, tenantId, content);
+        }
+        this.sourceFiles.removeIf(sourceFile -> sourceFile.legalCaseId().equals(legalCaseId));
+        try (Permit permit = this.runtime.acquire(ConnectorResource.LEGAL_CASES, tenantId)) {
+          this.legalCaseService.delete(legalCaseId);
+        }
+      }
+      case CREATE -> {
+        AgentLegalCaseDTO legalCase =
+            AgentLegalCaseDTO.builder()
+                .legalCaseId(UUID.randomUUID())
+                .firstname("Load")
+                .lastname("Test")
+                .reference("loadtest")
+                .owner("DummyIamUser")
+                .accessGroup("group1")
+                .build();
+        try (Permit permit = this.runtime.acquire(ConnectorResource.LEGAL_CASES, tenantId)) {
+          this.legalCaseService.create(legalCase, tenantId);
+        }
+        this.legalCases.add(legalCase.legalCaseId());
+      }
+    }
+    return operation;
+  }
+
+  private void writeReport(LatencyReport report) {
+    if (this.config.getReportPath() == null || this.config.getReportPath().isBlank()) {
+      return;
+    }
+    Map<String, Object> json = new LinkedHashMap<>();
+    json.put("rate", this.config.getRate());
+    json.put("rampUp", this.config.getRampUp().toString());
+    json.put("duration", this.config.getDuration().toString());
+    json.put("maxInFlight", this.config.getMaxInFlight());
+    json.put("mix", this.config.getMix());
+    json.put("operations", report.summary());
+    Path file = Paths.get(this.config.getReportPath());
+    try {
+      this.objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), json);
+      log.info("📄 Load test report written to {}", file);
+    } catch (IOException e) {
+      log.error("🙅‍  Failed to write load test report to {}", file, e);
+    }
+  }
+
+  private record SourceFile(UUID legalCaseId, UUID sourceFileId) {}
+
+  /** Picks operations at random, weighted by the mix. */
+  static final class Mix {
+
+    private final LoadOperation[] operations;
+    private final int[] cumulativeWeights;
+
+    Mix(Map<LoadOperation, Integer> weights) {
+      List<LoadOperation> operations = new ArrayList<>();
+      List<Integer> cumulative = new ArrayList<>();
+      int total = 0;
+      for (Map.Entry<LoadOperation, Integer> entry : weights.entrySet()) {
+        if (entry.getValue() > 0) {
+          total += entry.getValue();
+          operations.add(entry.getKey());
+          cumulative.add(total);
+        }
+      }
+      if (operations.isEmpty()) {
+        throw new IllegalArgumentException("legali.example.loadtest.mix has no operation");
+      }
+      this.operations = operations.toArray(LoadOperation[]::new);
+      this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    LoadOperation next() {
+      int pick =
+          ThreadLocalRandom.current()
+              .nextInt(this.cumulativeWeights[this.cumulativeWeights.length - 1]);
+      for (int i = 0; i < this.cumulativeWeights.length; i++) {
+        if (pick < this.cumulativeWeights[i]) {
+          return this.operations[i];
+        }
+      }
+      throw new IllegalStateException();
+    }
+  }
+
+  /** Results of earlier operations, for operations that need one. */
+  private static final class Pool<T> {
+
+    private final List<T> items = new ArrayList<>();
+
+    synchronized void add(T item) {
+      this.items.add(item);
+    }
+
+    /**
+     * @return a random item, or null if empty
+     */
+    synchronized T random() {
+      if (this.items.isEmpty()) {
+        return null;
+      }
+      return this.items.get(ThreadLocalRandom.current().nextInt(this.items.size()));
+    }
+
+    /**
+     * @return a random item, removed from the pool, or null if empty
+     */
+    synchronized T take() {
+      if (this.items.isEmpty()) {
+        return null;
+      }
+      int index = ThreadLocalRandom.current().nextInt(this.items.size());
+      T last = this.items.removeLast();
+      return index == this.items.size() ? last : this.items.set(index, last);
+    }
+
+    synchronized void removeIf(Predicate<T> predicate) {
+      this.items.removeIf(predicate);
+    }
+  }
+}
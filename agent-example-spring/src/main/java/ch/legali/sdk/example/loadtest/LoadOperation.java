@@ -0,0 +1,15 @@
+package ch.legali.sdk.example.loadtest;
+
+/** SDK operations issued by the {@link LoadGenerator}. */
+public enum LoadOperation {
+  /** Create a legal case. */
+  CREATE,
+  /** Get a legal case created before. */
+  GET,
+  /** Upload a source file to a legal case created before. */
+  UPLOAD,
+  /** Download the original file of a source file uploaded before. */
+  DOWNLOAD,
+  /** Delete a legal case created before. */
+  DELETE
+}
@@ -0,0 +1,128 @@
+package ch.legali.sdk.example.metrics;
+
+import ch.legali.sdk.example.config.ExampleConfig;
+import ch.legali.sdk.example.files.ProgressInputStream;
+import ch.legali.sdk.example.runtime.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Times the calls of one SDK service as agent.sdk.calls, tagged by service, operation (the method),
+ * tenant and outcome, and counts the calls in flight.
+ *
+ * <p>The bytes of {@link InputStream} arguments are counted as uploaded when the SDK reads them,
+ * the bytes of returned streams as downloaded when the caller reads them. The timer of a download
+ * thus stops when the stream is returned, not when it is read.
+ *
+ * <p>The tenant is the argument that is a configured tenant id, e.g. of {@code
+ * LegalCaseService.create}, or else the {@link TenantContext}.
+ *
+ * <p>A timer is registered on the first call of its method, tenant and outcome, and looked up
+ * afterwards.
+ */
+public class SdkCallInterceptor implements MethodInterceptor {
+
+  private record TimerKey(Method method, String tenant, String outcome) {}
+
+  private final String service;
+  private final MeterRegistry meterRegistry;
+  private final ExampleConfig exampleConfig;
+  private final boolean percentilesHistogram;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Counter uploadedBytes;
+  private final Counter downloadedBytes;
+  private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+  /**
+   * @param service name of the service in the service tag
+   */
+  public SdkCallInterceptor(
+      String service,
+      MeterRegistry meterRegistry,
+      ExampleConfig exampleConfig,
+      boolean percentilesHistogram) {
+    this.service = service;
+    this.meterRegistry = meterRegistry;
+    this.exampleConfig = exampleConfig;
+    this.percentilesHistogram = percentilesHistogram;
+
+    meterRegistry.gauge("agent.sdk.inflight", Tags.of("service", service), this.inFlight);
+    this.uploadedBytes =
+        Counter.builder("agent.sdk.bytes")
+            .baseUnit("bytes")
+            .tags("service", service, "direction", "upload")
+            .register(meterRegistry);
+    this.downloadedBytes =
+        Counter.builder("agent.sdk.bytes")
+            .baseUnit("bytes")
+            .tags("service", service, "direction", "download")
+            .register(meterRegistry);
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    if (invocation.getMethod().getDeclaringClass() == Object.class) {
+      return invocation.proceed();
+    }
+    Object[] arguments = invocation.getArguments();
+    for (int i = 0; i < arguments.length; i++) {
+      if (arguments[i] instanceof InputStream in) {
+        arguments[i] = new ProgressInputStream(in, this.uploadedBytes::increment);
+      }
+    }
+
+    String tenant = this.tenant(arguments);
+    String outcome = "error";
+    this.inFlight.incrementAndGet();
+    long start = System.nanoTime();
+    try {
+      Object result = invocation.proceed();
+      outcome = "success";
+      if (result instanceof InputStream in) {
+        return new ProgressInputStream(in, this.downloadedBytes::increment);
+      }
+      return result;
+    } finally {
+      long nanos = System.nanoTime() - start;
+      this.inFlight.decrementAndGet();
+      this.timers
+          .computeIfAbsent(new TimerKey(invocation.getMethod(), tenant, outcome), this::timer)
+          .record(nanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private Timer timer(TimerKey key) {
+    return Timer.builder("agent.sdk.calls")
+        .tags(
+            "service",
+            this.service,
+            "operation",
+            key.method().getName(),
+            "tenant",
+            key.tenant(),
+            "outcome",
+            key.outcome())
+        .publishPercentileHistogram(this.percentilesHistogram)
+        .register(this.meterRegistry);
+  }
+
+  private String tenant(Object[] arguments) {
+    UUID tenantId = TenantContext.resolve(arguments, this.exampleConfig.getTenants().values());
+    if (tenantId == null) {
+      return "none";
+    }
+    return this.exampleConfig.getDepartment(tenantId).orElse(tenantId.toString());
+  }
+}
@@ -0,0 +1,83 @@
+package ch.legali.sdk.example.metrics;
+
+import ch.legali.sdk.example.config.ExampleConfig;
+import ch.legali.sdk.example.config.MetricsConfig;
+import ch.legali.sdk.services.ExportService;
+import ch.legali.sdk.services.FileService;
+import ch.legali.sdk.services.LegalCaseService;
+import ch.legali.sdk.services.SourceFileService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the SDK service beans of {@link ch.legali.sdk.example.SDKSetup} in proxies that record
+ * their calls, see {@link SdkCallInterceptor}. The beans are proxied by subclass, so callers keep
+ * injecting the SDK classes.
+ *
+ * <p>The proxy classes are exposed by {@link #determineBeanType}, so Spring AOT generates them when
+ * the native image is built; a native image cannot generate classes at runtime.
+ */
+@Component
+public class SdkMetricsPostProcessor implements SmartInstantiationAwareBeanPostProcessor, Ordered {
+
+  private static final Map<Class<?>, String> SERVICES =
+      Map.of(
+          LegalCaseService.class, "legalcase",
+          SourceFileService.class, "sourcefile",
+          FileService.class, "file",
+          ExportService.class, "export");
+
+  // resolved when the first SDK service is created, post-processors are created before the meters
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+  private final ObjectProvider<ExampleConfig> exampleConfig;
+  private final ObjectProvider<MetricsConfig> config;
+
+  public SdkMetricsPostProcessor(
+      ObjectProvider<MeterRegistry> meterRegistry,
+      ObjectProvider<ExampleConfig> exampleConfig,
+      ObjectProvider<MetricsConfig> config) {
+    this.meterRegistry = meterRegistry;
+    this.exampleConfig = exampleConfig;
+    this.config = config;
+  }
+
+  @Override
+  public int getOrder() {
+    // before SdkSchedulingPostProcessor and SdkCachePostProcessor, which add their interceptors to
+    // these proxies
+    return Ordered.LOWEST_PRECEDENCE - 2;
+  }
+
+  @Override
+  public Class<?> determineBeanType(Class<?> beanClass, String beanName) {
+    if (!SERVICES.containsKey(beanClass) || !this.config.getObject().isSdkCalls()) {
+      return beanClass;
+    }
+    ProxyFactory proxyFactory = new ProxyFactory();
+    proxyFactory.setTargetClass(beanClass);
+    proxyFactory.setProxyTargetClass(true);
+    return proxyFactory.getProxyClass(beanClass.getClassLoader());
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    String service = SERVICES.get(bean.getClass());
+    if (service == null || !this.config.getObject().isSdkCalls()) {
+      return bean;
+    }
+    ProxyFactory proxyFactory = new ProxyFactory(bean);
+    proxyFactory.setProxyTargetClass(true);
+    proxyFactory.addAdvice(
+        new SdkCallInterceptor(
+            service,
+            this.meterRegistry.getObject(),
+            this.exampleConfig.getObject(),
+            this.config.getObject().isPercentilesHistogram()));
+    return proxyFactory.getProxy();
+  }
+}
@@ -0,0 +1,8 @@
+package ch.legali.sdk.example.runtime;
+
+/** Remote resources whose concurrent use is limited by the {@link ConnectorRuntime}. */
+public enum ConnectorResource {
+  LEGAL_CASES,
+  UPLOADS,
+  DOWNLOADS
+}
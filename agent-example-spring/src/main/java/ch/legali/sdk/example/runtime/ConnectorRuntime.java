@@ -0,0 +1,143 @@
+package ch.legali.sdk.example.runtime;
+
+import ch.legali.sdk.example.config.RuntimeConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides where connector work runs. In PLATFORM mode, tasks run on the Spring task executor. In
+ * VIRTUAL mode, every task gets its own virtual thread, so blocking SDK calls do not tie up
+ * platform threads.
+ *
+ * <p>In both modes, concurrent use of remote resources is limited by one semaphore per {@link
+ * ConnectorResource}, not by the size of a thread pool. The SDK calls made while a permit is held
+ * then wait for their turn in the {@link TenantScheduler}, see {@link SdkSchedulingInterceptor}, so
+ * a turn is not held while waiting for a permit.
+ */
+@Component
+public class ConnectorRuntime {
+
+  private final RuntimeConfig config;
+  private final TaskExecutor taskExecutor;
+  private final ExecutorService virtualExecutor;
+  private final Map<ConnectorResource, Semaphore> permits = new EnumMap<>(ConnectorResource.class);
+
+  public ConnectorRuntime(
+      RuntimeConfig config, TaskExecutor taskExecutor, MeterRegistry meterRegistry) {
+    this.config = config;
+    this.taskExecutor = taskExecutor;
+    this.virtualExecutor =
+        this.isVirtual()
+            ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("connector-", 0).factory())
+            : null;
+
+    this.permits.put(ConnectorResource.LEGAL_CASES, new Semaphore(config.getLegalCasePermits()));
+    this.permits.put(ConnectorResource.UPLOADS, new Semaphore(config.getUploadPermits()));
+    this.permits.put(ConnectorResource.DOWNLOADS, new Semaphore(config.getDownloadPermits()));
+    this.permits.forEach(
+        (resource, semaphore) ->
+            Gauge.builder("agent.runtime.permits.available", semaphore, Semaphore::availablePermits)
+                .tag("resource", resource.name().toLowerCase())
+                .register(meterRegistry));
+  }
+
+  public boolean isVirtual() {
+    return this.config.getMode() == RuntimeConfig.Mode.VIRTUAL;
+  }
+
+  /**
+   * @return number of connector tasks to start
+   */
+  public int connectors() {
+    if (this.isVirtual()) {
+      return this.config.getConnectors();
+    }
+    if (this.taskExecutor instanceof ThreadPoolTaskExecutor pool) {
+      return pool.getMaxPoolSize();
+    }
+    return 1;
+  }
+
+  /** Runs a connector task, on its own virtual thread in VIRTUAL mode. */
+  public void execute(Runnable task) {
+    if (this.isVirtual()) {
+      this.virtualExecutor.execute(task);
+    } else {
+      this.taskExecutor.execute(task);
+    }
+  }
+
+  /**
+   * @param prefix thread name prefix, a counter is appended
+   * @return a factory for long-running workers, virtual threads in VIRTUAL mode
+   */
+  public ThreadFactory threadFactory(String prefix) {
+    if (this.isVirtual()) {
+      return Thread.ofVirtual().name(prefix, 0).factory();
+    }
+    return Thread.ofPlatform().name(prefix, 0).factory();
+  }
+
+  /**
+   * Blocks until a permit for the resource is available, on behalf of the tenant of the {@link
+   * TenantContext}. Use with try-with-resources to release it.
+   *
+   * @param resource the remote resource about to be used
+   * @return the acquired permit
+   */
+  public Permit acquire(ConnectorResource resource) {
+    return this.acquire(resource, TenantContext.current());
+  }
+
+  /**
+   * Blocks until a permit for the resource is available. While it is held, the tenant is the {@link
+   * TenantContext} of the current thread, so the SDK calls are scheduled on its behalf. Use with
+   * try-with-resources to release it.
+   *
+   * @param resource the remote resource about to be used
+   * @param tenantId the tenant the call is made for, or null
+   * @return the acquired permit
+   */
+  public Permit acquire(ConnectorResource resource, UUID tenantId) {
+    Semaphore semaphore = this.permits.get(resource);
+    try {
+      semaphore.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for " + resource, e);
+    }
+    if (tenantId == null) {
+      return semaphore::release;
+    }
+    TenantContext.Scope scope = TenantContext.enter(tenantId);
+    return () -> {
+      scope.close();
+      semaphore.release();
+    };
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (this.virtualExecutor != null) {
+      this.virtualExecutor.shutdownNow();
+    }
+  }
+
+  /** A held permit, released on close. */
+  @FunctionalInterface
+  public interface Permit extends AutoCloseable {
+    @Override
+    void close();
+  }
+}
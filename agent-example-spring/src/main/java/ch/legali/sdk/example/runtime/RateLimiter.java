@@ -0,0 +1,37 @@
+package ch.legali.sdk.example.runtime;
+
+import java.util.concurrent.TimeUnit;
+
+/** Spaces out permits evenly to stay at a given rate, without bursts. */
+public final class RateLimiter {
+
+  private final long intervalNanos;
+  private long nextFreeNanos = System.nanoTime();
+
+  /**
+   * @param permitsPerSecond the rate, 0 or less for no limit
+   */
+  public RateLimiter(double permitsPerSecond) {
+    this.intervalNanos =
+        permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+  }
+
+  /** Blocks until the next permit is due. */
+  public void acquire() throws InterruptedException {
+    if (this.intervalNanos == 0) {
+      return;
+    }
+    long waitNanos;
+    synchronized (this) {
+      long now = System.nanoTime();
+      if (this.nextFreeNanos < now) {
+        this.nextFreeNanos = now;
+      }
+      waitNanos = this.nextFreeNanos - now;
+      this.nextFreeNanos += this.intervalNanos;
+    }
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package ch.legali.sdk.example.runtime;
+
+import ch.legali.sdk.internal.AuthenticationRequestInterceptor;
+import feign.RequestTemplate;
+import java.util.function.Supplier;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Authenticates the SDK requests, and forgets the access token when the application context stops.
+ *
+ * <p>After a CRaC restore the token of the checkpointed process may have expired, or have been
+ * issued for other credentials. The interceptor is built anew on the first request after a start,
+ * so that request fetches a fresh token with the credentials of the restored process.
+ */
+public class RestartableAuthentication implements AuthenticationRequestInterceptor, SmartLifecycle {
+
+  private final Supplier<AuthenticationRequestInterceptor> factory;
+  private volatile AuthenticationRequestInterceptor delegate;
+  private volatile boolean running;
+
+  /**
+   * @param factory builds the interceptor, which fetches the token on its first request
+   */
+  public RestartableAuthentication(Supplier<AuthenticationRequestInterceptor> factory) {
+    this.factory = factory;
+  }
+
+  @Override
+  public void apply(RequestTemplate template) {
+    AuthenticationRequestInterceptor interceptor = this.delegate;
+    if (interceptor == null) {
+      synchronized (this) {
+        if (this.delegate == null) {
+          this.delegate = this.factory.get();
+        }
+        interceptor = this.delegate;
+      }
+    }
+    interceptor.apply(template);
+  }
+
+  @Override
+  public void start() {
+    this.running = true;
+  }
+
+  @Override
+  public synchronized void stop() {
+    this.delegate = null;
+    this.running = false;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  @Override
+  public int getPhase() {
+    return RestartableHttpClient.PHASE;
+  }
+}
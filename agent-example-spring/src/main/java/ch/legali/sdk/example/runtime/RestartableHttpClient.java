@@ -0,0 +1,150 @@
+package ch.legali.sdk.example.runtime;
+
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * The HTTP client of the SDK, shut down when the application context stops and built anew when it
+ * starts.
+ *
+ * <p>A CRaC checkpoint stops the context and restore starts it again, so the restored agent opens
+ * fresh connections instead of using sockets of the checkpointed process. With
+ * spring.context.checkpoint=onRefresh the checkpoint is taken before the first start, no client is
+ * open at that point. The client is built on first use if that comes before the start.
+ */
+public class RestartableHttpClient extends HttpClient implements SmartLifecycle {
+
+  /** Connections start before, and stop after, everything that uses them. */
+  public static final int PHASE = Integer.MIN_VALUE + 1000;
+
+  private final Supplier<HttpClient> factory;
+  private volatile HttpClient delegate;
+
+  /**
+   * @param factory builds the client on every start
+   */
+  public RestartableHttpClient(Supplier<HttpClient> factory) {
+    this.factory = factory;
+  }
+
+  @Override
+  public void start() {
+    this.delegate();
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (this.delegate != null) {
+      // the users of the client have stopped already, nothing is in flight
+      this.delegate.shutdownNow();
+      this.delegate = null;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.delegate != null;
+  }
+
+  @Override
+  public int getPhase() {
+    return PHASE;
+  }
+
+  private HttpClient delegate() {
+    HttpClient client = this.delegate;
+    if (client != null) {
+      return client;
+    }
+    synchronized (this) {
+      if (this.delegate == null) {
+        this.delegate = this.factory.get();
+      }
+      return this.delegate;
+    }
+  }
+
+  @Override
+  public Optional<CookieHandler> cookieHandler() {
+    return this.delegate().cookieHandler();
+  }
+
+  @Override
+  public Optional<Duration> connectTimeout() {
+    return this.delegate().connectTimeout();
+  }
+
+  @Override
+  public Redirect followRedirects() {
+    return this.delegate().followRedirects();
+  }
+
+  @Override
+  public Optional<ProxySelector> proxy() {
+    return this.delegate().proxy();
+  }
+
+  @Override
+  public SSLContext sslContext() {
+    return this.delegate().sslContext();
+  }
+
+  @Override
+  public SSLParameters sslParameters() {
+    return this.delegate().sslParameters();
+  }
+
+  @Override
+  public Optional<Authenticator> authenticator() {
+    return this.delegate().authenticator();
+  }
+
+  @Override
+  public Version version() {
+    return this.delegate().version();
+  }
+
+  @Override
+  public Optional<Executor> executor() {
+    return this.delegate().executor();
+  }
+
+  @Override
+  public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+      throws IOException, InterruptedException {
+    return this.delegate().send(request, handler);
+  }
+
+  @Override
+  public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+      HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+    return this.delegate().sendAsync(request, handler);
+  }
+
+  @Override
+  public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+      HttpRequest request,
+      HttpResponse.BodyHandler<T> handler,
+      HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+    return this.delegate().sendAsync(request, handler, pushPromiseHandler);
+  }
+
+  @Override
+  public WebSocket.Builder newWebSocketBuilder() {
+    return this.delegate().newWebSocketBuilder();
+  }
+}
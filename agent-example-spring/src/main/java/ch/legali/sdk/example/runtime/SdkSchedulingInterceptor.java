@@ -0,0 +1,37 @@
+package ch.legali.sdk.example.runtime;
+
+import ch.legali.sdk.example.config.ExampleConfig;
+import ch.legali.sdk.example.runtime.ConnectorRuntime.Permit;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Makes every call of an SDK service wait for its tenant's turn in the {@link TenantScheduler}. The
+ * tenant is the argument that is a configured tenant id, or else the {@link TenantContext}.
+ *
+ * <p>A {@link ConnectorResource} permit is taken by the caller before the call, so a turn is never
+ * held while waiting for a permit.
+ */
+public class SdkSchedulingInterceptor implements MethodInterceptor {
+
+  private final TenantScheduler scheduler;
+  private final ExampleConfig exampleConfig;
+
+  public SdkSchedulingInterceptor(TenantScheduler scheduler, ExampleConfig exampleConfig) {
+    this.scheduler = scheduler;
+    this.exampleConfig = exampleConfig;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    if (invocation.getMethod().getDeclaringClass() == Object.class) {
+      return invocation.proceed();
+    }
+    try (Permit turn =
+        this.scheduler.acquire(
+            TenantContext.resolve(
+                invocation.getArguments(), this.exampleConfig.getTenants().values()))) {
+      return invocation.proceed();
+    }
+  }
+}
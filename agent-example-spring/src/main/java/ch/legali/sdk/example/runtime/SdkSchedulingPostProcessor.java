@@ -0,0 +1,71 @@
+package ch.legali.sdk.example.runtime;
+
+import ch.legali.sdk.example.config.ExampleConfig;
+import ch.legali.sdk.example.config.SchedulingConfig;
+import ch.legali.sdk.services.ExportService;
+import ch.legali.sdk.services.FileService;
+import ch.legali.sdk.services.LegalCaseService;
+import ch.legali.sdk.services.SourceFileService;
+import java.util.Set;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * Puts the {@link SdkSchedulingInterceptor} in front of the SDK service beans of {@link
+ * ch.legali.sdk.example.SDKSetup}, if legali.example.scheduling.enabled is set.
+ *
+ * <p>Runs after {@link ch.legali.sdk.example.metrics.SdkMetricsPostProcessor} and before {@link
+ * ch.legali.sdk.example.cache.SdkCachePostProcessor}, so the time waiting for a turn is not
+ * recorded as part of the SDK call, and a cache hit does not wait for a turn.
+ */
+@Component
+public class SdkSchedulingPostProcessor implements BeanPostProcessor, Ordered {
+
+  private static final Set<Class<?>> SERVICES =
+      Set.of(
+          LegalCaseService.class, SourceFileService.class, FileService.class, ExportService.class);
+
+  // resolved when the first SDK service is created, post-processors are created before the beans
+  private final ObjectProvider<TenantScheduler> scheduler;
+  private final ObjectProvider<ExampleConfig> exampleConfig;
+  private final ObjectProvider<SchedulingConfig> config;
+
+  public SdkSchedulingPostProcessor(
+      ObjectProvider<TenantScheduler> scheduler,
+      ObjectProvider<ExampleConfig> exampleConfig,
+      ObjectProvider<SchedulingConfig> config) {
+    this.scheduler = scheduler;
+    this.exampleConfig = exampleConfig;
+    this.config = config;
+  }
+
+  @Override
+  public int getOrder() {
+    return Ordered.LOWEST_PRECEDENCE - 1;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    Object target =
+        bean instanceof Advised advised
+            ? advised.getTargetSource().getTargetClass()
+            : bean.getClass();
+    if (!SERVICES.contains(target) || !this.config.getObject().isEnabled()) {
+      return bean;
+    }
+    SdkSchedulingInterceptor interceptor =
+        new SdkSchedulingInterceptor(this.scheduler.getObject(), this.exampleConfig.getObject());
+    if (bean instanceof Advised advised) {
+      advised.addAdvice(0, interceptor);
+      return bean;
+    }
+    ProxyFactory proxyFactory = new ProxyFactory(bean);
+    proxyFactory.setProxyTargetClass(true);
+    proxyFactory.addAdvice(interceptor);
+    return proxyFactory.getProxy();
+  }
+}
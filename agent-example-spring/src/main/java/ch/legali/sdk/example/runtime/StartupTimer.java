@@ -0,0 +1,117 @@
+package ch.legali.sdk.example.runtime;
+
+import ch.legali.sdk.example.ExampleEventService;
+import ch.legali.sdk.example.config.StartupConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.support.DefaultLifecycleProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.SpringProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Measures the time from the start of the JVM to the first successful heartbeat, and reports it in
+ * the log and as agent.startup.first.heartbeat. After a CRaC restore, the time is measured from the
+ * restore instead.
+ *
+ * <p>With legali.example.startup.exit-after set, the agent exits that long after the first
+ * heartbeat. The AppCDS training run of docker/Dockerfile.cds uses this to record the classes of a
+ * short connector run.
+ */
+@Component
+public class StartupTimer implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(StartupTimer.class);
+
+  private final StartupConfig config;
+  private final ApplicationContext applicationContext;
+  private final AtomicLong firstHeartbeatMillis = new AtomicLong();
+
+  private volatile long startedAt;
+  private volatile boolean restored;
+  private boolean running;
+  private boolean stopped;
+
+  public StartupTimer(
+      StartupConfig config, ApplicationContext applicationContext, MeterRegistry meterRegistry) {
+    this.config = config;
+    this.applicationContext = applicationContext;
+    TimeGauge.builder(
+            "agent.startup.first.heartbeat",
+            this.firstHeartbeatMillis,
+            TimeUnit.MILLISECONDS,
+            AtomicLong::get)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void start() {
+    // the first start follows the restore if the checkpoint was taken on refresh
+    this.restored =
+        this.stopped
+            || "onRefresh"
+                .equalsIgnoreCase(
+                    SpringProperties.getProperty(
+                        DefaultLifecycleProcessor.CHECKPOINT_PROPERTY_NAME));
+    this.startedAt =
+        this.restored
+            ? System.currentTimeMillis()
+            : ManagementFactory.getRuntimeMXBean().getStartTime();
+    this.running = true;
+  }
+
+  @Override
+  public void stop() {
+    this.running = false;
+    this.stopped = true;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  @Override
+  public int getPhase() {
+    // before everything else, the restore is the start of the measurement
+    return Integer.MIN_VALUE;
+  }
+
+  /** Measures before the other listeners start the connector threads. */
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onStartConnectorEvent(
+      @SuppressWarnings("unused") ExampleEventService.StartConnectorEvent event) {
+    long millis = System.currentTimeMillis() - this.startedAt;
+    this.firstHeartbeatMillis.set(millis);
+    log.info("🚀 First heartbeat {} ms after the {}", millis, this.restored ? "restore" : "start");
+
+    Duration exitAfter = this.config.getExitAfter();
+    if (exitAfter != null) {
+      log.info("Exiting in {}", exitAfter);
+      Thread.ofPlatform()
+          .name("startup-exit")
+          .start(
+              () -> {
+                try {
+                  Thread.sleep(exitAfter);
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  return;
+                }
+                System.exit(SpringApplication.exit(this.applicationContext));
+              });
+    }
+  }
+}
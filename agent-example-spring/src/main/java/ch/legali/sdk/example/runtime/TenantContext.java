@@ -0,0 +1,68 @@
+package ch.legali.sdk.example.runtime;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * The tenant the current thread works for. SDK calls made while a tenant is set are scheduled on
+ * its behalf by the {@link TenantScheduler}.
+ *
+ * <pre>
+ * try (TenantContext.Scope scope = TenantContext.enter(tenantId)) {
+ *   ...
+ * }
+ * </pre>
+ */
+public final class TenantContext {
+
+  private static final ThreadLocal<UUID> CURRENT = new ThreadLocal<>();
+
+  private TenantContext() {}
+
+  /**
+   * @return the current tenant, or null if none is set
+   */
+  public static UUID current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * @param arguments the arguments of an SDK call
+   * @param tenantIds the configured tenants
+   * @return the argument that is a configured tenant id, e.g. of {@code LegalCaseService.create},
+   *     or else the current tenant, or null
+   */
+  public static UUID resolve(Object[] arguments, Collection<UUID> tenantIds) {
+    for (Object argument : arguments) {
+      if (argument instanceof UUID id && tenantIds.contains(id)) {
+        return id;
+      }
+    }
+    return current();
+  }
+
+  /**
+   * Sets the tenant of the current thread until the scope is closed.
+   *
+   * @param tenantId the tenant
+   * @return the scope, restores the previous tenant on close
+   */
+  public static Scope enter(UUID tenantId) {
+    UUID previous = CURRENT.get();
+    CURRENT.set(tenantId);
+    return () -> {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    };
+  }
+
+  /** An entered tenant, restores the previous one on close. */
+  @FunctionalInterface
+  public interface Scope extends AutoCloseable {
+    @Override
+    void close();
+  }
+}
@@ -0,0 +1,224 @@
+package ch.legali.sdk.example.runtime;
+
+import ch.legali.sdk.example.config.ExampleConfig;
+import ch.legali.sdk.example.config.SchedulingConfig;
+import ch.legali.sdk.example.runtime.ConnectorRuntime.Permit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shares the SDK calls of all tenants by weighted fair queuing, so a backfill in one department
+ * does not starve the interactive work of another.
+ *
+ * <p>Each request gets a virtual finish time: the later of the current virtual time and the finish
+ * time of the tenant's previous request, plus 1 / weight. Free slots go to the waiting request with
+ * the earliest finish time whose tenant is below its in-flight limit. A tenant with weight 2 thus
+ * gets twice the calls of a tenant with weight 1 while both are busy, and an idle tenant does not
+ * save up credit.
+ *
+ * <p>Calls without a tenant, see {@link TenantContext}, are scheduled as a tenant of their own.
+ */
+@Component
+public class TenantScheduler {
+
+  private static final Comparator<Request> BY_FINISH_TIME =
+      Comparator.comparingDouble(Request::finish).thenComparingLong(Request::sequence);
+
+  private final SchedulingConfig config;
+  private final ExampleConfig exampleConfig;
+  private final MeterRegistry meterRegistry;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition granted = this.lock.newCondition();
+  private final NavigableSet<Request> waiting = new TreeSet<>(BY_FINISH_TIME);
+  private final Map<UUID, Tenant> tenants = new HashMap<>();
+  private final Tenant noTenant;
+  private int inFlight;
+  private double virtualTime;
+  private long sequence;
+
+  public TenantScheduler(
+      SchedulingConfig config, ExampleConfig exampleConfig, MeterRegistry meterRegistry) {
+    this.config = config;
+    this.exampleConfig = exampleConfig;
+    this.meterRegistry = meterRegistry;
+    this.noTenant = this.register("none", 1, config.getMaxInFlight());
+    if (config.isEnabled()) {
+      exampleConfig.getTenants().values().forEach(this::tenant);
+    }
+  }
+
+  /**
+   * Blocks until the tenant may make a call. Use with try-with-resources to release it.
+   *
+   * @param tenantId the tenant, or null
+   * @return the acquired permit
+   */
+  public Permit acquire(UUID tenantId) {
+    if (!this.config.isEnabled()) {
+      return () -> {};
+    }
+    this.lock.lock();
+    try {
+      Tenant tenant = tenantId != null ? this.tenant(tenantId) : this.noTenant;
+      double start = Math.max(this.virtualTime, tenant.lastFinish);
+      Request request = new Request(tenant, start, start + 1.0 / tenant.weight, this.sequence++);
+      tenant.lastFinish = request.finish();
+      tenant.waiting++;
+      this.waiting.add(request);
+      this.dispatch();
+
+      try {
+        while (!request.isGranted()) {
+          this.granted.await();
+        }
+      } catch (InterruptedException e) {
+        if (this.waiting.remove(request)) {
+          tenant.waiting--;
+        } else {
+          this.release(tenant);
+        }
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for tenant " + tenantId, e);
+      }
+      return () -> {
+        this.lock.lock();
+        try {
+          this.release(tenant);
+        } finally {
+          this.lock.unlock();
+        }
+      };
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void release(Tenant tenant) {
+    tenant.inFlight--;
+    this.inFlight--;
+    this.dispatch();
+  }
+
+  /** Grants free slots by finish time, skipping tenants at their limit. Requires the lock. */
+  private void dispatch() {
+    boolean any = false;
+    Iterator<Request> iterator = this.waiting.iterator();
+    while (this.inFlight < this.config.getMaxInFlight() && iterator.hasNext()) {
+      Request request = iterator.next();
+      Tenant tenant = request.tenant();
+      if (tenant.inFlight >= tenant.maxInFlight) {
+        continue;
+      }
+      iterator.remove();
+      tenant.waiting--;
+      tenant.inFlight++;
+      this.inFlight++;
+      this.virtualTime = Math.max(this.virtualTime, request.start());
+      request.grant();
+      any = true;
+    }
+    if (any) {
+      this.granted.signalAll();
+    }
+  }
+
+  private Tenant tenant(UUID tenantId) {
+    Tenant tenant = this.tenants.get(tenantId);
+    if (tenant == null) {
+      String name = this.exampleConfig.getDepartment(tenantId).orElse(tenantId.toString());
+      tenant =
+          this.register(
+              name,
+              this.config.getWeights().getOrDefault(name, 1),
+              this.config.getTenantMaxInFlight().getOrDefault(name, this.config.getMaxInFlight()));
+      this.tenants.put(tenantId, tenant);
+    }
+    return tenant;
+  }
+
+  private Tenant register(String name, int weight, int maxInFlight) {
+    Tenant tenant = new Tenant(Math.max(1, weight), maxInFlight);
+    Gauge.builder("agent.scheduler.inflight", this, s -> s.read(() -> tenant.inFlight))
+        .tag("tenant", name)
+        .register(this.meterRegistry);
+    Gauge.builder("agent.scheduler.waiting", this, s -> s.read(() -> tenant.waiting))
+        .tag("tenant", name)
+        .register(this.meterRegistry);
+    return tenant;
+  }
+
+  private int read(IntSupplier value) {
+    this.lock.lock();
+    try {
+      return value.getAsInt();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /** Scheduling state of a tenant, guarded by the lock. */
+  private static final class Tenant {
+    private final int weight;
+    private final int maxInFlight;
+    private double lastFinish;
+    private int inFlight;
+    private int waiting;
+
+    Tenant(int weight, int maxInFlight) {
+      this.weight = weight;
+      this.maxInFlight = maxInFlight;
+    }
+  }
+
+  /** A waiting call, guarded by the lock. */
+  private static final class Request {
+    private final Tenant tenant;
+    private final double start;
+    private final double finish;
+    private final long sequence;
+    private boolean granted;
+
+    Request(Tenant tenant, double start, double finish, long sequence) {
+      this.tenant = tenant;
+      this.start = start;
+      this.finish = finish;
+      this.sequence = sequence;
+    }
+
+    Tenant tenant() {
+      return this.tenant;
+    }
+
+    double start() {
+      return this.start;
+    }
+
+    double finish() {
+      return this.finish;
+    }
+
+    long sequence() {
+      return this.sequence;
+    }
+
+    boolean isGranted() {
+      return this.granted;
+    }
+
+    void grant() {
+      this.granted = true;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package ch.legali.sdk.example.runtime;
+
+import ch.legali.sdk.example.config.RuntimeConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, e.g. while blocking inside a
+ * synchronized block of the SDK or Feign. Pinned threads block a carrier, so a few of them can
+ * stall all other virtual threads.
+ *
+ * <p>Listens to the JFR event jdk.VirtualThreadPinned. Each code location is logged once with its
+ * stack, all occurrences are counted in agent_virtualthreads_pinned_total.
+ */
+@Component
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final int REPORTED_FRAMES = 8;
+
+  private final ConnectorRuntime runtime;
+  private final RuntimeConfig config;
+  private final Counter pinnedCounter;
+  private final Timer pinnedTimer;
+  private final Set<String> reportedLocations = ConcurrentHashMap.newKeySet();
+  private RecordingStream recordingStream;
+
+  public VirtualThreadPinningMonitor(
+      ConnectorRuntime runtime, RuntimeConfig config, MeterRegistry meterRegistry) {
+    this.runtime = runtime;
+    this.config = config;
+    this.pinnedCounter = meterRegistry.counter("agent.virtualthreads.pinned");
+    this.pinnedTimer = meterRegistry.timer("agent.virtualthreads.pinned.duration");
+  }
+
+  // started with the context, a CRaC checkpoint taken on refresh cannot hold the JFR repository
+  @Override
+  public void start() {
+    if (!this.runtime.isVirtual() || !this.config.isReportPinning()) {
+      return;
+    }
+    this.recordingStream = new RecordingStream();
+    this.recordingStream
+        .enable(PINNED_EVENT)
+        .withThreshold(this.config.getPinningThreshold())
+        .withStackTrace();
+    this.recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+    this.recordingStream.startAsync();
+    log.info(
+        "📌 Reporting virtual threads pinned for more than {}", this.config.getPinningThreshold());
+  }
+
+  @Override
+  public void stop() {
+    if (this.recordingStream != null) {
+      this.recordingStream.close();
+      this.recordingStream = null;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.recordingStream != null;
+  }
+
+  private void onPinned(RecordedEvent event) {
+    this.pinnedCounter.increment();
+    this.pinnedTimer.record(event.getDuration());
+
+    if (event.getStackTrace() == null) {
+      return;
+    }
+    String stack =
+        event.getStackTrace().getFrames().stream()
+            .filter(RecordedFrame::isJavaFrame)
+            .limit(REPORTED_FRAMES)
+            .map(
+                frame ->
+                    frame.getMethod().getType().getName()
+                        + "."
+                        + frame.getMethod().getName()
+                        + ":"
+                        + frame.getLineNumber())
+            .collect(Collectors.joining("\n    at "));
+
+    // log each location once, the counter keeps track of repetitions
+    if (this.reportedLocations.add(stack)) {
+      log.warn("📌 Virtual thread pinned for {}:\n    at {}", event.getDuration(), stack);
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package ch.legali.sdk.example;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.legali.api.events.SourceFileReadyEvent;
+import ch.legali.sdk.internal.client.LegalCaseClient;
+import ch.legali.sdk.models.AgentSourceFileDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+class SdkRuntimeHintsTest {
+
+  @Test
+  void registersSdkTypes() {
+    RuntimeHints hints = new RuntimeHints();
+    new SdkRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+    assertTrue(
+        RuntimeHintsPredicates.reflection()
+            .onType(AgentSourceFileDTO.class)
+            .withMemberCategory(MemberCategory.INVOKE_DECLARED_METHODS)
+            .test(hints));
+    assertTrue(RuntimeHintsPredicates.reflection().onType(SourceFileReadyEvent.class).test(hints));
+    assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(LegalCaseClient.class).test(hints));
+    assertTrue(RuntimeHintsPredicates.resource().forResource("sample.pdf").test(hints));
+  }
+}
@@ -0,0 +1,104 @@
+package ch.legali.sdk.example.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.legali.api.events.SourceFileUpdatedEvent;
+import ch.legali.sdk.example.config.CacheConfig;
+import ch.legali.sdk.models.AgentLegalCaseDTO;
+import ch.legali.sdk.models.AgentSourceFileDTO;
+import ch.legali.sdk.services.LegalCaseService;
+import ch.legali.sdk.services.SourceFileService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+class SdkCacheTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final SdkCache cache = new SdkCache(new CacheConfig(), this.registry);
+
+  @Test
+  void readsThroughUntilTheOwnWrite() {
+    UUID legalCaseId = UUID.randomUUID();
+    AgentLegalCaseDTO legalCase = mock(AgentLegalCaseDTO.class);
+    when(legalCase.legalCaseId()).thenReturn(legalCaseId);
+    LegalCaseService legalCaseService = mock(LegalCaseService.class);
+    when(legalCaseService.get(legalCaseId)).thenReturn(legalCase);
+    LegalCaseService proxy = this.proxy(legalCaseService);
+
+    assertEquals(legalCase, proxy.get(legalCaseId));
+    assertEquals(legalCase, proxy.get(legalCaseId));
+    verify(legalCaseService, times(1)).get(legalCaseId);
+    assertEquals(1, this.gets("legalcases", "hit"));
+    assertEquals(1, this.gets("legalcases", "miss"));
+
+    proxy.update(legalCase);
+    proxy.get(legalCaseId);
+    verify(legalCaseService, times(2)).get(legalCaseId);
+  }
+
+  @Test
+  void invalidatesBySourceFileEvent() {
+    UUID legalCaseId = UUID.randomUUID();
+    UUID sourceFileId = UUID.randomUUID();
+    AgentSourceFileDTO sourceFile = mock(AgentSourceFileDTO.class);
+    when(sourceFile.sourceFileId()).thenReturn(sourceFileId);
+    when(sourceFile.legalCaseId()).thenReturn(legalCaseId);
+    List<AgentSourceFileDTO> sourceFiles = List.of(sourceFile);
+    SourceFileService sourceFileService = mock(SourceFileService.class);
+    when(sourceFileService.get(sourceFileId)).thenReturn(sourceFile);
+    when(sourceFileService.getByLegalCase(legalCaseId)).thenReturn(sourceFiles);
+    SourceFileService proxy = this.proxy(sourceFileService);
+
+    proxy.get(sourceFileId);
+    proxy.getByLegalCase(legalCaseId);
+    proxy.get(sourceFileId);
+    proxy.getByLegalCase(legalCaseId);
+    verify(sourceFileService, times(1)).get(sourceFileId);
+    verify(sourceFileService, times(1)).getByLegalCase(legalCaseId);
+
+    SourceFileUpdatedEvent event = mock(SourceFileUpdatedEvent.class);
+    when(event.sourceFile()).thenReturn(sourceFile);
+    this.cache.on(event);
+
+    proxy.get(sourceFileId);
+    proxy.getByLegalCase(legalCaseId);
+    verify(sourceFileService, times(2)).get(sourceFileId);
+    verify(sourceFileService, times(2)).getByLegalCase(legalCaseId);
+  }
+
+  @Test
+  void doesNotCacheFailures() {
+    UUID legalCaseId = UUID.randomUUID();
+    LegalCaseService legalCaseService = mock(LegalCaseService.class);
+    when(legalCaseService.get(legalCaseId)).thenThrow(new IllegalStateException("not found"));
+    LegalCaseService proxy = this.proxy(legalCaseService);
+
+    assertThrows(IllegalStateException.class, () -> proxy.get(legalCaseId));
+    assertThrows(IllegalStateException.class, () -> proxy.get(legalCaseId));
+    verify(legalCaseService, times(2)).get(legalCaseId);
+  }
+
+  private double gets(String cache, String result) {
+    return this.registry
+        .get("cache.gets")
+        .tags("cache", cache, "result", result)
+        .functionCounter()
+        .count();
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T proxy(T service) {
+    ProxyFactory proxyFactory = new ProxyFactory(service);
+    proxyFactory.setProxyTargetClass(true);
+    proxyFactory.addAdvice(new SdkCacheInterceptor(this.cache));
+    return (T) proxyFactory.getProxy();
+  }
+}
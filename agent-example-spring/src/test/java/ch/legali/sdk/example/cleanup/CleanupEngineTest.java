@@ -0,0 +1,79 @@
+package ch.legali.sdk.example.cleanup;
+
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.legali.sdk.example.config.CleanupConfig;
+import ch.legali.sdk.example.config.JournalConfig;
+import ch.legali.sdk.example.config.RuntimeConfig;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.models.AgentLegalCaseDTO;
+import ch.legali.sdk.services.LegalCaseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.SyncTaskExecutor;
+
+class CleanupEngineTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void resumesWithTheCasesThatFailed() throws Exception {
+    UUID first = UUID.randomUUID();
+    UUID failing = UUID.randomUUID();
+    UUID foreign = UUID.randomUUID();
+    LegalCaseService legalCaseService = mock(LegalCaseService.class);
+    // archived legal cases are still listed
+    List<AgentLegalCaseDTO> legalCases =
+        List.of(
+            legalCase(first, "example-agent"),
+            legalCase(failing, "example-agent"),
+            legalCase(foreign, "someone-else"));
+    when(legalCaseService.list()).thenReturn(legalCases);
+    doNothing().when(legalCaseService).archive(first);
+    doThrow(new IllegalStateException("unavailable"))
+        .doNothing()
+        .when(legalCaseService)
+        .archive(failing);
+
+    CleanupConfig config = new CleanupConfig();
+    config.setAction(CleanupConfig.Action.ARCHIVE);
+    config.setCasesPerSecond(0);
+    config.setPageSize(1);
+    JournalConfig journalConfig = new JournalConfig();
+    journalConfig.setPath(this.tempDir.toString());
+    journalConfig.setSync(false);
+    CleanupEngine engine =
+        new CleanupEngine(
+            legalCaseService,
+            new ConnectorRuntime(
+                new RuntimeConfig(), new SyncTaskExecutor(), new SimpleMeterRegistry()),
+            config,
+            journalConfig,
+            new SimpleMeterRegistry());
+
+    engine.run();
+    engine.run();
+
+    verify(legalCaseService, times(1)).archive(first);
+    verify(legalCaseService, times(2)).archive(failing);
+    verify(legalCaseService, never()).archive(foreign);
+  }
+
+  private static AgentLegalCaseDTO legalCase(UUID legalCaseId, String uploader) {
+    AgentLegalCaseDTO legalCase = mock(AgentLegalCaseDTO.class);
+    when(legalCase.legalCaseId()).thenReturn(legalCaseId);
+    when(legalCase.metadata()).thenReturn(Map.of("legali.uploader", uploader));
+    return legalCase;
+  }
+}
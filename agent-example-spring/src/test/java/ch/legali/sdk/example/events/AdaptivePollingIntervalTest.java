@@ -0,0 +1,43 @@
+package ch.legali.sdk.example.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ch.legali.sdk.SdkConfig;
+import ch.legali.sdk.example.config.HeartbeatConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class AdaptivePollingIntervalTest {
+
+  @Test
+  void backsOffToTheFixedIntervalWhenIdle() {
+    SdkConfig sdkConfig = new SdkConfig();
+    sdkConfig.setMaxFailedHeartbeats(5);
+    AdaptivePollingInterval interval =
+        new AdaptivePollingInterval(new HeartbeatConfig(), sdkConfig, new SimpleMeterRegistry());
+
+    for (int i = 0; i < 10; i++) {
+      interval.onHeartbeat(0);
+    }
+    assertEquals(AdaptivePollingInterval.FIXED_INTERVAL, interval.current());
+  }
+
+  @Test
+  void keepsFailedHeartbeatsWithinLivenessTimeout() {
+    HeartbeatConfig config = new HeartbeatConfig();
+    config.setMaxInterval(Duration.ofSeconds(60));
+    config.setLivenessTimeout(Duration.ofSeconds(30));
+    SdkConfig sdkConfig = new SdkConfig();
+    sdkConfig.setMaxFailedHeartbeats(5);
+    AdaptivePollingInterval interval =
+        new AdaptivePollingInterval(config, sdkConfig, new SimpleMeterRegistry());
+
+    for (int i = 0; i < 10; i++) {
+      interval.onHeartbeat(0);
+    }
+    assertEquals(Duration.ofSeconds(6), interval.current());
+    assertEquals(Duration.ZERO, interval.onHeartbeat(config.getFullBatchSize()));
+    assertEquals(config.getMinInterval(), interval.onFailure());
+  }
+}
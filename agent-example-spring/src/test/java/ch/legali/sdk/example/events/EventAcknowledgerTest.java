@@ -0,0 +1,116 @@
+package ch.legali.sdk.example.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.legali.api.events.BaseEvent;
+import ch.legali.sdk.example.config.EventsConfig;
+import ch.legali.sdk.example.config.RuntimeConfig;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.services.EventService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+
+class EventAcknowledgerTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private EventService eventService;
+  private EventsConfig config;
+
+  @BeforeEach
+  void setUp() {
+    this.eventService = mock(EventService.class);
+    this.config = new EventsConfig();
+    this.config.setAckBatchSize(3);
+    this.config.setAckFlushInterval(Duration.ofHours(1));
+  }
+
+  @Test
+  void flushesFullBatch() throws Exception {
+    EventAcknowledger acknowledger = this.acknowledger();
+    acknowledger.start();
+    acknowledger.acknowledge(event());
+    acknowledger.acknowledge(event());
+    verify(this.eventService, timeout(200).times(0)).acknowledge(any());
+
+    acknowledger.acknowledge(event());
+    verify(this.eventService, timeout(5000).times(3)).acknowledge(any());
+    acknowledger.stop();
+  }
+
+  @Test
+  void flushesAfterInterval() throws Exception {
+    this.config.setAckFlushInterval(Duration.ofMillis(50));
+    EventAcknowledger acknowledger = this.acknowledger();
+    acknowledger.start();
+    BaseEvent event = event();
+    acknowledger.acknowledge(event);
+
+    verify(this.eventService, timeout(5000)).acknowledge(event);
+    acknowledger.stop();
+  }
+
+  @Test
+  void requeuesFailedAcknowledgements() throws Exception {
+    EventAcknowledger acknowledger = this.acknowledger();
+    BaseEvent event = event();
+    doThrow(new IllegalStateException("gateway timeout"))
+        .doNothing()
+        .when(this.eventService)
+        .acknowledge(event);
+    acknowledger.acknowledge(event);
+    acknowledger.acknowledge(event);
+
+    acknowledger.flush();
+    assertTrue(acknowledger.isPending(event.eventId()));
+    acknowledger.flush();
+    assertFalse(acknowledger.isPending(event.eventId()));
+
+    verify(this.eventService, times(2)).acknowledge(event);
+    assertEquals(1, this.count("sent"));
+    assertEquals(1, this.count("failed"));
+    assertEquals(1, this.count("coalesced"));
+  }
+
+  @Test
+  void flushesPendingOnStop() throws Exception {
+    EventAcknowledger acknowledger = this.acknowledger();
+    acknowledger.start();
+    BaseEvent event = event();
+    acknowledger.acknowledge(event);
+
+    acknowledger.stop();
+    verify(this.eventService).acknowledge(event);
+    assertFalse(acknowledger.isPending(event.eventId()));
+  }
+
+  private EventAcknowledger acknowledger() {
+    return new EventAcknowledger(
+        this.eventService,
+        this.config,
+        new ConnectorRuntime(new RuntimeConfig(), new SyncTaskExecutor(), this.registry),
+        this.registry);
+  }
+
+  private double count(String outcome) {
+    return this.registry.get("agent.events.acks").tag("outcome", outcome).counter().count();
+  }
+
+  private static BaseEvent event() {
+    BaseEvent event = mock(BaseEvent.class);
+    when(event.eventId()).thenReturn(UUID.randomUUID());
+    return event;
+  }
+}
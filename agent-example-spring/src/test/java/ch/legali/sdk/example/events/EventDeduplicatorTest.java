@@ -0,0 +1,83 @@
+package ch.legali.sdk.example.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ch.legali.api.events.BaseEvent;
+import ch.legali.sdk.example.config.EventsConfig;
+import ch.legali.sdk.example.config.JournalConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EventDeduplicatorTest {
+
+  @TempDir Path tempDir;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  void dropsDuplicatesAfterRestart() {
+    BaseEvent one = event(UUID.randomUUID());
+    BaseEvent two = event(UUID.randomUUID());
+    EventDeduplicator deduplicator = this.deduplicator(1000);
+    deduplicator.start();
+    assertEquals(List.of(one), deduplicator.unseen(List.of(one, event(one.eventId()))));
+    deduplicator.seen(List.of(one));
+    deduplicator.stop();
+
+    deduplicator = this.deduplicator(1000);
+    deduplicator.start();
+    assertEquals(List.of(two), deduplicator.unseen(List.of(one, two)));
+    deduplicator.stop();
+    assertEquals(1, this.duplicates("recent"));
+    assertEquals(1, this.duplicates("filter"));
+  }
+
+  @Test
+  void remembersAtLeastCapacityIds() {
+    EventDeduplicator deduplicator = this.deduplicator(100);
+    deduplicator.start();
+    List<BaseEvent> events = new ArrayList<>();
+    for (int i = 0; i < 250; i++) {
+      BaseEvent event = event(UUID.randomUUID());
+      events.add(event);
+      deduplicator.seen(List.of(event));
+    }
+    deduplicator.stop();
+
+    deduplicator = this.deduplicator(100);
+    deduplicator.start();
+    List<BaseEvent> latest = events.subList(150, 250);
+    assertEquals(List.of(), deduplicator.unseen(latest));
+    // the filter of the first 100 ids has been cleared
+    assertEquals(events.subList(0, 100), deduplicator.unseen(events.subList(0, 100)));
+    deduplicator.stop();
+  }
+
+  private double duplicates(String match) {
+    return this.registry.get("agent.events.duplicates").tag("match", match).counter().count();
+  }
+
+  private EventDeduplicator deduplicator(long capacity) {
+    EventsConfig config = new EventsConfig();
+    config.setDedup(true);
+    config.setDedupCapacity(capacity);
+    config.setDedupRecent(10);
+    JournalConfig journalConfig = new JournalConfig();
+    journalConfig.setPath(this.tempDir.toString());
+    journalConfig.setSync(false);
+    return new EventDeduplicator(config, journalConfig, this.registry);
+  }
+
+  private static BaseEvent event(UUID eventId) {
+    BaseEvent event = mock(BaseEvent.class);
+    when(event.eventId()).thenReturn(eventId);
+    return event;
+  }
+}
@@ -0,0 +1,92 @@
+package ch.legali.sdk.example.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.legali.api.events.BaseEvent;
+import ch.legali.sdk.example.config.EventsConfig;
+import ch.legali.sdk.example.config.JournalConfig;
+import ch.legali.sdk.example.config.RuntimeConfig;
+import ch.legali.sdk.example.journal.EventJournal;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.services.EventService;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+
+class EventOutboxTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  void dropsRedeliveriesWhileHandledOrAcknowledged() throws Exception {
+    AtomicInteger handled = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    EventsConfig config = new EventsConfig();
+    ConnectorRuntime runtime =
+        new ConnectorRuntime(new RuntimeConfig(), new SyncTaskExecutor(), this.registry);
+    KeyedEventDispatcher dispatcher =
+        new KeyedEventDispatcher(
+            event -> {
+              handled.incrementAndGet();
+              started.countDown();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            },
+            runtime,
+            config,
+            this.registry);
+    EventService eventService = mock(EventService.class);
+    // not started, acknowledgements stay pending until flushed
+    EventAcknowledger acknowledger =
+        new EventAcknowledger(eventService, config, runtime, this.registry);
+    JournalConfig journalConfig = new JournalConfig();
+    EventOutbox outbox =
+        new EventOutbox(
+            new EventJournal(journalConfig, config, new JsonMapper(), this.registry),
+            new EventDeduplicator(config, journalConfig, this.registry),
+            dispatcher,
+            acknowledger,
+            config,
+            runtime,
+            this.registry);
+
+    BaseEvent event = mock(BaseEvent.class);
+    when(event.eventId()).thenReturn(UUID.randomUUID());
+    outbox.submit(List.of(event));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    // redelivered while the handler is running
+    outbox.submit(List.of(event));
+    release.countDown();
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!acknowledger.isPending(event.eventId()) && System.nanoTime() - deadline < 0) {
+      Thread.sleep(1);
+    }
+    // redelivered before the acknowledgement is sent
+    outbox.submit(List.of(event));
+    acknowledger.flush();
+    assertFalse(acknowledger.isPending(event.eventId()));
+    dispatcher.shutdown();
+
+    assertEquals(1, handled.get());
+    verify(eventService, timeout(5000).times(1)).acknowledge(event);
+    assertEquals(
+        2, this.registry.get("agent.events.duplicates").tag("match", "inflight").counter().count());
+  }
+}
@@ -0,0 +1,139 @@
+package ch.legali.sdk.example.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ch.legali.api.events.BaseEvent;
+import ch.legali.api.events.LegalCaseReadyEvent;
+import ch.legali.sdk.example.config.EventsConfig;
+import ch.legali.sdk.example.config.RuntimeConfig;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+
+class KeyedEventDispatcherTest {
+
+  @Test
+  void keepsEventsOfALegalCaseInOrder() throws Exception {
+    Map<UUID, List<UUID>> handled = new ConcurrentHashMap<>();
+    EventsConfig config = new EventsConfig();
+    config.setWorkers(4);
+    KeyedEventDispatcher dispatcher =
+        new KeyedEventDispatcher(
+            event -> {
+              LegalCaseReadyEvent ready = (LegalCaseReadyEvent) event;
+              try {
+                Thread.sleep((long) (Math.random() * 3));
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              handled.get(ready.legalCaseId()).add(ready.eventId());
+            },
+            runtime(),
+            config,
+            new SimpleMeterRegistry());
+
+    List<UUID> legalCaseIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+    Map<UUID, List<UUID>> dispatched = new ConcurrentHashMap<>();
+    for (UUID legalCaseId : legalCaseIds) {
+      handled.put(legalCaseId, new ArrayList<>());
+      dispatched.put(legalCaseId, new ArrayList<>());
+    }
+
+    List<CompletableFuture<Void>> done = new ArrayList<>();
+    for (int i = 0; i < 150; i++) {
+      UUID legalCaseId = legalCaseIds.get(i % legalCaseIds.size());
+      LegalCaseReadyEvent event = mock(LegalCaseReadyEvent.class);
+      UUID eventId = UUID.randomUUID();
+      when(event.eventId()).thenReturn(eventId);
+      when(event.legalCaseId()).thenReturn(legalCaseId);
+      dispatched.get(legalCaseId).add(eventId);
+      done.add(dispatcher.dispatch(event));
+    }
+    CompletableFuture.allOf(done.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+    dispatcher.shutdown();
+
+    assertEquals(dispatched, handled);
+  }
+
+  @Test
+  void retriesBeforeLaterEventsOfTheLegalCase() throws Exception {
+    List<UUID> handled = Collections.synchronizedList(new ArrayList<>());
+    AtomicInteger failures = new AtomicInteger(1);
+    KeyedEventDispatcher dispatcher =
+        new KeyedEventDispatcher(
+            event -> {
+              handled.add(((BaseEvent) event).eventId());
+              if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("first attempt");
+              }
+            },
+            runtime(),
+            new EventsConfig(),
+            new SimpleMeterRegistry());
+
+    UUID legalCaseId = UUID.randomUUID();
+    LegalCaseReadyEvent first = readyEvent(legalCaseId);
+    LegalCaseReadyEvent second = readyEvent(legalCaseId);
+    CompletableFuture<Void> firstDone = dispatcher.dispatch(first, 2, Duration.ofMillis(50));
+    CompletableFuture<Void> secondDone = dispatcher.dispatch(second, 2, Duration.ofMillis(50));
+    CompletableFuture.allOf(firstDone, secondDone).get(10, TimeUnit.SECONDS);
+    dispatcher.shutdown();
+
+    assertEquals(List.of(first.eventId(), first.eventId(), second.eventId()), handled);
+  }
+
+  @Test
+  void cancelsPendingEventsOnShutdown() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    KeyedEventDispatcher dispatcher =
+        new KeyedEventDispatcher(
+            event -> {
+              started.countDown();
+              try {
+                new CountDownLatch(1).await();
+              } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+              }
+            },
+            runtime(),
+            new EventsConfig(),
+            new SimpleMeterRegistry());
+
+    UUID legalCaseId = UUID.randomUUID();
+    dispatcher.dispatch(readyEvent(legalCaseId));
+    CompletableFuture<Void> queued = dispatcher.dispatch(readyEvent(legalCaseId));
+    started.await();
+    dispatcher.shutdown();
+
+    assertTrue(queued.isCancelled());
+    assertTrue(dispatcher.dispatch(readyEvent(UUID.randomUUID())).isCancelled());
+  }
+
+  private static LegalCaseReadyEvent readyEvent(UUID legalCaseId) {
+    LegalCaseReadyEvent event = mock(LegalCaseReadyEvent.class);
+    UUID eventId = UUID.randomUUID();
+    when(event.eventId()).thenReturn(eventId);
+    when(event.legalCaseId()).thenReturn(legalCaseId);
+    return event;
+  }
+
+  private static ConnectorRuntime runtime() {
+    return new ConnectorRuntime(
+        new RuntimeConfig(), new SyncTaskExecutor(), new SimpleMeterRegistry());
+  }
+}
@@ -0,0 +1,64 @@
+package ch.legali.sdk.example.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+
+import ch.legali.sdk.example.config.ReadinessConfig;
+import ch.legali.sdk.example.config.RuntimeConfig;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.models.AgentSourceFileDTO.SourceFileStatus;
+import ch.legali.sdk.services.SourceFileService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+
+class SourceFileReadinessTest {
+
+  private SourceFileReadiness readiness;
+
+  @BeforeEach
+  void setUp() {
+    ReadinessConfig config = new ReadinessConfig();
+    config.setPollInterval(Duration.ZERO);
+    this.readiness =
+        new SourceFileReadiness(
+            mock(SourceFileService.class),
+            config,
+            new ConnectorRuntime(
+                new RuntimeConfig(), new SyncTaskExecutor(), new SimpleMeterRegistry()),
+            new SimpleMeterRegistry());
+  }
+
+  @Test
+  void completesOnEvent() {
+    UUID sourceFileId = UUID.randomUUID();
+    CompletableFuture<SourceFileStatus> status =
+        this.readiness.await(sourceFileId, Duration.ofMinutes(1));
+    assertFalse(status.isDone());
+
+    this.readiness.complete(sourceFileId, SourceFileStatus.ERROR);
+
+    assertEquals(SourceFileStatus.ERROR, status.join());
+  }
+
+  @Test
+  void keepsEventThatArrivesBeforeTheWait() {
+    UUID sourceFileId = UUID.randomUUID();
+    this.readiness.complete(sourceFileId, SourceFileStatus.READY);
+
+    assertEquals(
+        SourceFileStatus.READY, this.readiness.await(sourceFileId, Duration.ofMinutes(1)).join());
+  }
+
+  @Test
+  void timesOut() {
+    assertEquals(
+        SourceFileStatus.TIMEOUT,
+        this.readiness.await(UUID.randomUUID(), Duration.ofMillis(10)).join());
+  }
+}
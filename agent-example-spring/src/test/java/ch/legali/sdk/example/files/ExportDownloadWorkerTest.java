@@ -0,0 +1,138 @@
+package ch.legali.sdk.example.files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.legali.sdk.example.config.DownloadConfig;
+import ch.legali.sdk.example.config.JournalConfig;
+import ch.legali.sdk.example.config.RuntimeConfig;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.models.AgentExportDTO;
+import ch.legali.sdk.models.AgentFileDTO;
+import ch.legali.sdk.services.ExportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.SyncTaskExecutor;
+
+class ExportDownloadWorkerTest {
+
+  @TempDir Path tempDir;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private ExportService exportService;
+  private VerifiedDownloader downloader;
+  private DownloadConfig config;
+  private AgentExportDTO export;
+
+  @BeforeEach
+  void setUp() {
+    this.exportService = mock(ExportService.class);
+    this.downloader = mock(VerifiedDownloader.class);
+    this.config = new DownloadConfig();
+    this.config.setExportPath(this.tempDir.resolve("exports").toString());
+    this.config.setExportMaxAttempts(3);
+    this.config.setExportRetryBackoff(Duration.ofMillis(1));
+
+    AgentFileDTO file = mock(AgentFileDTO.class);
+    when(file.filename()).thenReturn("export.pdf");
+    this.export = mock(AgentExportDTO.class);
+    when(this.export.exportId()).thenReturn(UUID.randomUUID());
+    when(this.export.file()).thenReturn(file);
+    when(this.exportService.get(this.export.exportId())).thenReturn(this.export);
+  }
+
+  @Test
+  void resumesUnfinishedDownloadsWithoutJournal() throws Exception {
+    this.config.setExportRetryBackoff(Duration.ofHours(1));
+    when(this.downloader.download(any(), any(), any(LongConsumer.class)))
+        .thenThrow(new IOException("connection reset"));
+    ExportDownloadWorker worker = this.worker();
+    worker.start();
+    worker.enqueue(this.export, false);
+    verify(this.downloader, timeout(5000)).download(any(), any(), any(LongConsumer.class));
+    worker.stop();
+
+    // restarted after the retry was scheduled, the export is fetched again
+    this.downloader = mock(VerifiedDownloader.class);
+    worker = this.worker();
+    worker.start();
+    verify(this.downloader, timeout(5000))
+        .download(
+            eq(this.export.file()),
+            eq(Path.of(this.config.getExportPath()).resolve("export.pdf")),
+            any(LongConsumer.class));
+    verify(this.exportService, timeout(5000)).get(this.export.exportId());
+    this.awaitCount("downloaded", 1);
+    worker.stop();
+
+    // finished downloads are not resumed
+    this.downloader = mock(VerifiedDownloader.class);
+    worker = this.worker();
+    worker.start();
+    worker.stop();
+    verify(this.downloader, timeout(100).times(0)).download(any(), any(), any(LongConsumer.class));
+  }
+
+  @Test
+  void givesUpAfterMaxAttempts() throws Exception {
+    when(this.downloader.download(any(), any(), any(LongConsumer.class)))
+        .thenThrow(new IOException("connection reset"));
+    ExportDownloadWorker worker = this.worker();
+    worker.start();
+    worker.enqueue(this.export, false);
+
+    verify(this.downloader, timeout(5000).times(3)).download(any(), any(), any(LongConsumer.class));
+    // the download URI may have expired, every retry fetches the export again
+    verify(this.exportService, timeout(5000).times(2)).get(this.export.exportId());
+    this.awaitCount("failed", 1);
+    worker.stop();
+    assertEquals(2, this.count("retried"));
+  }
+
+  @Test
+  void rejectsJobsWhenStopped() {
+    ExportDownloadWorker worker = this.worker();
+    worker.start();
+    worker.stop();
+
+    assertThrows(IllegalStateException.class, () -> worker.enqueue(this.export, false));
+  }
+
+  private void awaitCount(String outcome, double count) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (this.count(outcome) < count && System.nanoTime() - deadline < 0) {
+      Thread.sleep(1);
+    }
+    assertEquals(count, this.count(outcome));
+  }
+
+  private double count(String outcome) {
+    return this.registry.get("agent.exports").tag("outcome", outcome).counter().count();
+  }
+
+  private ExportDownloadWorker worker() {
+    JournalConfig journalConfig = new JournalConfig();
+    journalConfig.setPath(this.tempDir.toString());
+    journalConfig.setSync(false);
+    return new ExportDownloadWorker(
+        this.exportService,
+        this.downloader,
+        new ConnectorRuntime(new RuntimeConfig(), new SyncTaskExecutor(), this.registry),
+        this.config,
+        journalConfig,
+        this.registry);
+  }
+}
@@ -0,0 +1,80 @@
+package ch.legali.sdk.example.files;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedFileInputStreamTest {
+
+  private static final byte[] CONTENT = new byte[10_000];
+
+  static {
+    new Random(42).nextBytes(CONTENT);
+  }
+
+  @TempDir Path tempDir;
+
+  @Test
+  void readsAcrossWindows() throws Exception {
+    Path file = Files.write(this.tempDir.resolve("scan.pdf"), CONTENT);
+    try (MappedFileInputStream in =
+        new MappedFileInputStream(FileChannel.open(file, StandardOpenOption.READ), 4096, null)) {
+      assertEquals(CONTENT.length, in.length());
+      assertEquals(CONTENT.length, in.available());
+
+      byte[] head = new byte[5000];
+      int read = in.read(head);
+      assertEquals(4096, read);
+      assertEquals(CONTENT[4096], (byte) in.read());
+      assertEquals(1000, in.skip(1000));
+
+      ByteArrayOutputStream rest = new ByteArrayOutputStream();
+      assertEquals(CONTENT.length - 5097, in.transferTo(rest));
+      assertArrayEquals(Arrays.copyOfRange(CONTENT, 5097, CONTENT.length), rest.toByteArray());
+      assertEquals(0, in.available());
+      assertEquals(-1, in.read(head));
+    }
+  }
+
+  @Test
+  void hashesWhileReading() throws Exception {
+    Path file = Files.write(this.tempDir.resolve("scan.pdf"), CONTENT);
+    MessageDigest digest = Checksums.md5();
+    AtomicLong progress = new AtomicLong();
+    try (InputStream in =
+        new ProgressInputStream(
+            new MappedFileInputStream(
+                FileChannel.open(file, StandardOpenOption.READ), 4096, digest),
+            progress::addAndGet)) {
+      assertEquals(100, in.read(new byte[100]));
+      assertEquals(100, in.skip(100));
+      ByteArrayOutputStream rest = new ByteArrayOutputStream();
+      assertEquals(CONTENT.length - 200, in.transferTo(rest));
+    }
+    assertEquals(CONTENT.length - 100, progress.get());
+    assertEquals(Checksums.md5(file), Checksums.encode(digest));
+  }
+
+  @Test
+  void hashesMappedFile() throws Exception {
+    Path file = Files.write(this.tempDir.resolve("scan.pdf"), CONTENT);
+    assertEquals(
+        Base64.getEncoder().encodeToString(Checksums.md5().digest(CONTENT)), Checksums.md5(file));
+    assertEquals(
+        Base64.getEncoder().encodeToString(Checksums.md5().digest(new byte[0])),
+        Checksums.md5(Files.write(this.tempDir.resolve("empty.pdf"), new byte[0])));
+  }
+}
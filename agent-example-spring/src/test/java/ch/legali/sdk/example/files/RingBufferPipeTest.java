@@ -0,0 +1,122 @@
+package ch.legali.sdk.example.files;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class RingBufferPipeTest {
+
+  private static final byte[] CONTENT = new byte[1_000_000];
+
+  static {
+    new Random(42).nextBytes(CONTENT);
+  }
+
+  @Test
+  void pipesSourceThroughSmallBuffer() throws Exception {
+    RingBufferPipe pipe = new RingBufferPipe(4096);
+    CompletableFuture<Void> pump = pump(pipe, new ByteArrayInputStream(CONTENT));
+
+    byte[] received;
+    try (InputStream is = pipe.source()) {
+      received = is.readAllBytes();
+    }
+    pump.get();
+
+    assertArrayEquals(CONTENT, received);
+    assertEquals(CONTENT.length, pipe.transferred());
+    assertEquals(Base64.getEncoder().encodeToString(Checksums.md5().digest(CONTENT)), pipe.md5());
+  }
+
+  @Test
+  void rethrowsSourceFailureToReader() throws Exception {
+    RingBufferPipe pipe = new RingBufferPipe(4096);
+    InputStream failing =
+        new InputStream() {
+          @Override
+          public int read() throws IOException {
+            throw new IOException("connection reset");
+          }
+        };
+    pump(pipe, new SequenceInputStream(new ByteArrayInputStream(new byte[100]), failing));
+
+    try (InputStream is = pipe.source()) {
+      IOException e = assertThrows(IOException.class, is::readAllBytes);
+      assertEquals("connection reset", e.getCause().getMessage());
+    }
+    assertThrows(IOException.class, pipe::md5);
+  }
+
+  @Test
+  void readerClosingStopsPump() throws Exception {
+    RingBufferPipe pipe = new RingBufferPipe(4096);
+    CompletableFuture<Void> pump = pump(pipe, new ByteArrayInputStream(CONTENT));
+
+    try (InputStream is = pipe.source()) {
+      assertEquals(100, is.readNBytes(100).length);
+    }
+
+    pump.get();
+    assertEquals(
+        Base64.getEncoder().encodeToString(Checksums.md5().digest(Arrays.copyOf(CONTENT, 100))),
+        pipe.md5());
+  }
+
+  @Test
+  void readerClosingClosesBlockedSource() throws Exception {
+    RingBufferPipe pipe = new RingBufferPipe(4096);
+    CountDownLatch closed = new CountDownLatch(1);
+    InputStream stalled =
+        new InputStream() {
+          @Override
+          public int read() throws IOException {
+            try {
+              closed.await();
+            } catch (InterruptedException e) {
+              throw new InterruptedIOException();
+            }
+            throw new IOException("stream closed");
+          }
+
+          @Override
+          public void close() {
+            closed.countDown();
+          }
+        };
+    CompletableFuture<Void> pump =
+        pump(pipe, new SequenceInputStream(new ByteArrayInputStream(new byte[100]), stalled));
+
+    try (InputStream is = pipe.source()) {
+      assertEquals(100, is.readNBytes(100).length);
+    }
+
+    pump.get(5, TimeUnit.SECONDS);
+    assertEquals(
+        Base64.getEncoder().encodeToString(Checksums.md5().digest(new byte[100])), pipe.md5());
+  }
+
+  private static CompletableFuture<Void> pump(RingBufferPipe pipe, InputStream source) {
+    return CompletableFuture.runAsync(
+        () -> {
+          try {
+            pipe.pump(source);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+  }
+}
@@ -0,0 +1,94 @@
+package ch.legali.sdk.example.files;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ch.legali.sdk.example.config.DownloadConfig;
+import ch.legali.sdk.example.config.RuntimeConfig;
+import ch.legali.sdk.example.files.VerifiedDownloader.ChecksumMismatchException;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import ch.legali.sdk.models.AgentFileDTO;
+import ch.legali.sdk.services.FileService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.SyncTaskExecutor;
+
+class VerifiedDownloaderTest {
+
+  private static final byte[] CONTENT = "%PDF-1.4 dummy".getBytes(StandardCharsets.UTF_8);
+
+  @TempDir Path tempDir;
+
+  private FileService fileService;
+  private DownloadConfig config;
+  private VerifiedDownloader downloader;
+
+  @BeforeEach
+  void setUp() {
+    this.fileService = mock(FileService.class);
+    when(this.fileService.downloadFile("uri")).thenReturn(new ByteArrayInputStream(CONTENT));
+    this.config = new DownloadConfig();
+    this.downloader =
+        new VerifiedDownloader(
+            this.fileService,
+            new ConnectorRuntime(
+                new RuntimeConfig(), new SyncTaskExecutor(), new SimpleMeterRegistry()),
+            this.config);
+  }
+
+  @Test
+  void storesFileWithMatchingMd5() throws Exception {
+    String md5 = Base64.getEncoder().encodeToString(Checksums.md5().digest(CONTENT));
+    Path target = this.tempDir.resolve("out/file.pdf");
+
+    this.downloader.download(file(md5), target);
+
+    assertArrayEquals(CONTENT, Files.readAllBytes(target));
+    assertFalse(Files.exists(this.tempDir.resolve("out/file.pdf.part")));
+  }
+
+  @Test
+  void removesFileWithWrongMd5() {
+    Path target = this.tempDir.resolve("file.pdf");
+
+    assertThrows(
+        ChecksumMismatchException.class, () -> this.downloader.download(file("x"), target));
+
+    assertFalse(Files.exists(target));
+    assertFalse(Files.exists(this.tempDir.resolve("file.pdf.part")));
+  }
+
+  @Test
+  void quarantinesFileWithWrongMd5() throws Exception {
+    Path quarantine = this.tempDir.resolve("quarantine");
+    this.config.setQuarantinePath(quarantine.toString());
+    Path target = this.tempDir.resolve("file.pdf");
+
+    assertThrows(
+        ChecksumMismatchException.class, () -> this.downloader.download(file("x"), target));
+
+    assertFalse(Files.exists(target));
+    try (var quarantined = Files.list(quarantine)) {
+      assertEquals(1, quarantined.count());
+    }
+  }
+
+  private static AgentFileDTO file(String md5) {
+    AgentFileDTO file = mock(AgentFileDTO.class);
+    when(file.uri()).thenReturn("uri");
+    when(file.filename()).thenReturn("file.pdf");
+    when(file.md5()).thenReturn(md5);
+    return file;
+  }
+}
@@ -0,0 +1,104 @@
+package ch.legali.sdk.example.ingestion;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import ch.legali.sdk.example.config.ExampleConfig;
+import ch.legali.sdk.example.config.InboxConfig;
+import ch.legali.sdk.example.config.IngestionConfig;
+import ch.legali.sdk.example.config.RuntimeConfig;
+import ch.legali.sdk.example.runtime.ConnectorRuntime;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.SyncTaskExecutor;
+
+class InboxWatcherTest {
+
+  private static final FileTime MODIFIED = FileTime.from(Instant.parse("2024-01-01T00:00:00Z"));
+
+  @TempDir Path inbox;
+
+  private IngestionEngine engine;
+  private InboxConfig config;
+  private InboxWatcher watcher;
+
+  @BeforeEach
+  void setUp() {
+    this.engine = mock(IngestionEngine.class);
+    this.config = new InboxConfig();
+    this.config.setSettleTime(Duration.ofMillis(300));
+    this.config.setPollInterval(Duration.ofMillis(10));
+    ExampleConfig exampleConfig = new ExampleConfig();
+    exampleConfig.setFilesPath(this.inbox.toString());
+    exampleConfig.setTenants(Map.of("department-1", UUID.randomUUID()));
+    IngestionConfig ingestionConfig = new IngestionConfig();
+    ingestionConfig.setDepartment("department-1");
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    this.watcher =
+        new InboxWatcher(
+            this.engine,
+            new ConnectorRuntime(new RuntimeConfig(), new SyncTaskExecutor(), registry),
+            exampleConfig,
+            ingestionConfig,
+            this.config,
+            registry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.watcher.stop();
+  }
+
+  @Test
+  void forgetsFilesDeletedWhileWatching() throws Exception {
+    this.config.setMode(InboxConfig.Mode.WATCH);
+    this.watcher.start();
+    Thread.sleep(500);
+
+    Path file = this.write("case-1/doc.pdf");
+    verify(this.engine, timeout(5000)).submit(any());
+    Files.delete(file);
+    Thread.sleep(1500);
+
+    // the same file again, a new file to the inbox
+    this.write("case-1/doc.pdf");
+    verify(this.engine, timeout(5000).times(2)).submit(any());
+  }
+
+  @Test
+  void forgetsFilesMissingFromARescan() throws Exception {
+    this.config.setMode(InboxConfig.Mode.POLL);
+    Path file = this.write("case-1/doc.pdf");
+    this.watcher.start();
+    verify(this.engine, timeout(5000)).submit(any());
+
+    // rescans do not submit it again
+    Thread.sleep(2500);
+    verify(this.engine).submit(any());
+
+    Files.delete(file);
+    Thread.sleep(1500);
+    this.write("case-1/doc.pdf");
+    verify(this.engine, timeout(5000).times(2)).submit(any());
+  }
+
+  private Path write(String name) throws Exception {
+    Path file = this.inbox.resolve(name);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, "%PDF-1.4");
+    Files.setLastModifiedTime(file, MODIFIED);
+    return file;
+  }
+}
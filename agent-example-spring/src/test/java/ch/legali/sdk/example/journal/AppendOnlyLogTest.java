@@ -0,0 +1,81 @@
+package ch.legali.sdk.example.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AppendOnlyLogTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void replaysAppendedRecords() throws Exception {
+    Path file = this.tempDir.resolve("test.log");
+    try (AppendOnlyLog log = AppendOnlyLog.open(file, false, payload -> {})) {
+      log.append(bytes("one"));
+      log.append(bytes("two"));
+    }
+
+    assertEquals(List.of("one", "two"), replay(file));
+  }
+
+  @Test
+  void truncatesTornRecord() throws Exception {
+    Path file = this.tempDir.resolve("test.log");
+    try (AppendOnlyLog log = AppendOnlyLog.open(file, false, payload -> {})) {
+      log.append(bytes("one"));
+      log.append(bytes("two"));
+    }
+    long intact = Files.size(file);
+    try (AppendOnlyLog log = AppendOnlyLog.open(file, false, payload -> {})) {
+      log.append(bytes("three"));
+    }
+    // cut the last record in half, as a crash during the write would
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(Files.size(file) - 3);
+    }
+
+    assertEquals(List.of("one", "two"), replay(file));
+    assertEquals(intact, Files.size(file));
+
+    try (AppendOnlyLog log = AppendOnlyLog.open(file, false, payload -> {})) {
+      log.append(bytes("four"));
+    }
+    assertEquals(List.of("one", "two", "four"), replay(file));
+  }
+
+  @Test
+  void rewriteReplacesRecords() throws Exception {
+    Path file = this.tempDir.resolve("test.log");
+    try (AppendOnlyLog log = AppendOnlyLog.open(file, false, payload -> {})) {
+      log.append(bytes("one"));
+      log.append(bytes("two"));
+      log.rewrite(List.of(bytes("two")));
+      log.append(bytes("three"));
+      assertEquals(2, log.records());
+    }
+
+    assertEquals(List.of("two", "three"), replay(file));
+  }
+
+  private static List<String> replay(Path file) throws Exception {
+    List<String> records = new ArrayList<>();
+    try (AppendOnlyLog log =
+        AppendOnlyLog.open(
+            file, false, payload -> records.add(new String(payload, StandardCharsets.UTF_8)))) {
+      return records;
+    }
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
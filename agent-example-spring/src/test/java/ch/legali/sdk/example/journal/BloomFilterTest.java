@@ -0,0 +1,56 @@
+package ch.legali.sdk.example.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BloomFilterTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void keepsIdsWhenReopenedWithSmallerCapacity() throws Exception {
+    Path file = this.tempDir.resolve("seen.bloom");
+    List<UUID> ids = new ArrayList<>();
+    try (BloomFilter filter = BloomFilter.open(file, 10_000, 1e-6)) {
+      for (int i = 0; i < 1000; i++) {
+        UUID id = UUID.randomUUID();
+        ids.add(id);
+        filter.put(id);
+      }
+    }
+    long size = Files.size(file);
+
+    // twice, a changed size must not clear the filter on every start
+    for (int i = 0; i < 2; i++) {
+      try (BloomFilter filter = BloomFilter.open(file, 1000, 1e-3)) {
+        assertFalse(filter.isSizedFor(1000, 1e-3));
+        assertEquals(1000, filter.insertions());
+        for (UUID id : ids) {
+          assertTrue(filter.mightContain(id));
+        }
+      }
+      assertEquals(size, Files.size(file));
+    }
+  }
+
+  @Test
+  void startsOverWhenCorrupt() throws Exception {
+    Path file = this.tempDir.resolve("seen.bloom");
+    Files.write(file, new byte[1_000_000]);
+    try (BloomFilter filter = BloomFilter.open(file, 1000, 1e-3)) {
+      assertTrue(filter.isSizedFor(1000, 1e-3));
+      assertEquals(0, filter.insertions());
+      assertFalse(filter.mightContain(UUID.randomUUID()));
+    }
+    assertTrue(Files.size(file) < 1_000_000);
+  }
+}
@@ -0,0 +1,122 @@
+package ch.legali.sdk.example.journal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.legali.api.events.BaseEvent;
+import ch.legali.sdk.example.config.EventsConfig;
+import ch.legali.sdk.example.config.JournalConfig;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EventJournalTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void replaysEventsNotHandled() throws Exception {
+    List<BaseEvent> events = List.of(event("one"), event("two"), event("three"));
+    EventJournal journal = this.journal();
+    journal.start();
+    List<EventJournal.Entry> entries = journal.append(events);
+    journal.handled(entries.get(1).sequence());
+    journal.stop();
+
+    journal = this.journal();
+    journal.start();
+    assertEquals(
+        List.of(events.get(0), events.get(2)),
+        journal.takeReplayed().stream().map(EventJournal.Entry::event).toList());
+    assertTrue(journal.takeReplayed().isEmpty());
+
+    // numbering continues after the replayed events
+    EventJournal.Entry next = journal.append(List.of(event("four"))).get(0);
+    assertEquals(entries.get(2).sequence() + 1, next.sequence());
+    journal.stop();
+  }
+
+  @Test
+  void compactsHandledEvents() throws Exception {
+    EventJournal journal = this.journal();
+    journal.start();
+    BaseEvent pending = event("pending");
+    journal.append(List.of(pending));
+    for (int i = 0; i < 5000; i++) {
+      for (EventJournal.Entry entry : journal.append(List.of(event("handled-" + i)))) {
+        journal.handled(entry.sequence());
+      }
+    }
+    journal.stop();
+    try (AppendOnlyLog log =
+        AppendOnlyLog.open(this.tempDir.resolve("events.log"), false, payload -> {})) {
+      // 10001 without compaction
+      assertTrue(log.records() <= 2 + 1000);
+    }
+
+    journal = this.journal();
+    journal.start();
+    assertEquals(
+        List.of(pending), journal.takeReplayed().stream().map(EventJournal.Entry::event).toList());
+    journal.stop();
+  }
+
+  @Test
+  void keepsEventsThatCannotBeRead() throws Exception {
+    BaseEvent event = event("removed");
+    byte[] record = this.journal().encode(new EventJournal.Entry(0, event));
+    String type = event.getClass().getName();
+    int offset = new String(record, StandardCharsets.ISO_8859_1).indexOf(type);
+    // an event class that no longer exists, same length
+    record[offset + type.length() - 1] = '!';
+    try (AppendOnlyLog log =
+        AppendOnlyLog.open(this.tempDir.resolve("events.log"), false, payload -> {})) {
+      log.append(record);
+    }
+
+    EventJournal journal = this.journal();
+    journal.start();
+    assertTrue(journal.takeReplayed().isEmpty());
+    for (int i = 0; i < 2000; i++) {
+      for (EventJournal.Entry entry : journal.append(List.of(event("handled-" + i)))) {
+        journal.handled(entry.sequence());
+      }
+    }
+    journal.stop();
+
+    List<byte[]> rejected = new ArrayList<>();
+    AppendOnlyLog.open(this.tempDir.resolve("events.rejected.log"), false, rejected::add).close();
+    assertEquals(1, rejected.size());
+    assertArrayEquals(record, rejected.get(0));
+  }
+
+  private EventJournal journal() {
+    JournalConfig config = new JournalConfig();
+    config.setPath(this.tempDir.toString());
+    config.setSync(false);
+    EventsConfig eventsConfig = new EventsConfig();
+    eventsConfig.setOutbox(true);
+    return new EventJournal(
+        config,
+        eventsConfig,
+        JsonMapper.builder().findAndAddModules().build(),
+        new SimpleMeterRegistry());
+  }
+
+  private static BaseEvent event(String message) {
+    return new MessageEvent(
+        UUID.randomUUID(), UUID.randomUUID(), OffsetDateTime.now(ZoneOffset.UTC), message);
+  }
+
+  record MessageEvent(UUID eventId, UUID tenantId, OffsetDateTime ts, String message)
+      implements BaseEvent {}
+}
@@ -0,0 +1,46 @@
+package ch.legali.sdk.example.journal;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.legali.sdk.example.config.JournalConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UploadJournalTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void keepsFileReferencesOfLegalCasesApart() throws Exception {
+    Path file = Files.writeString(this.tempDir.resolve("doc.pdf"), "content");
+    UUID uploadedCase = UUID.randomUUID();
+    UUID otherCase = UUID.randomUUID();
+    UploadJournal journal = this.journal();
+    journal.start();
+    UUID sourceFileId = UUID.randomUUID();
+    BasicFileAttributes attributes = journal.started(uploadedCase, "doc", file, sourceFileId);
+    journal.uploaded(uploadedCase, "doc", attributes, "md5", sourceFileId);
+    journal.started(otherCase, "doc", file, UUID.randomUUID());
+    journal.stop();
+
+    journal = this.journal();
+    journal.start();
+    assertTrue(journal.isUploaded(uploadedCase, "doc", file));
+    assertFalse(journal.isUploaded(otherCase, "doc", file));
+    journal.stop();
+  }
+
+  private UploadJournal journal() {
+    JournalConfig config = new JournalConfig();
+    config.setEnabled(true);
+    config.setPath(this.tempDir.toString());
+    config.setSync(false);
+    return new UploadJournal(config, new SimpleMeterRegistry());
+  }
+}
@@ -0,0 +1,36 @@
+package ch.legali.sdk.example.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ch.legali.sdk.example.config.LoadTestConfig;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class LoadGeneratorTest {
+
+  @Test
+  void rampsUpLinearlyToTheTargetRate() {
+    LoadTestConfig config = new LoadTestConfig();
+    config.setRate(100);
+    config.setRampUp(Duration.ofSeconds(10));
+    LoadGenerator generator = new LoadGenerator(null, null, null, null, config, null, null);
+
+    // 100/s reached after 10s, so half the rate and 500 operations during ramp-up
+    assertEquals(0, generator.dueNanos(0));
+    assertEquals(TimeUnit.SECONDS.toNanos(5), generator.dueNanos(125), 1_000);
+    assertEquals(TimeUnit.SECONDS.toNanos(10), generator.dueNanos(500), 1_000);
+    assertEquals(TimeUnit.SECONDS.toNanos(11), generator.dueNanos(600), 1_000);
+  }
+
+  @Test
+  void startsAtTheTargetRateWithoutRampUp() {
+    LoadTestConfig config = new LoadTestConfig();
+    config.setRate(4);
+    config.setRampUp(Duration.ZERO);
+    LoadGenerator generator = new LoadGenerator(null, null, null, null, config, null, null);
+
+    assertEquals(0, generator.dueNanos(0));
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(250), generator.dueNanos(1), 1_000);
+  }
+}
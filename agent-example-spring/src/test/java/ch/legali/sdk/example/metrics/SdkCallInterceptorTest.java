@@ -0,0 +1,89 @@
+package ch.legali.sdk.example.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ch.legali.sdk.example.config.ExampleConfig;
+import ch.legali.sdk.services.FileService;
+import ch.legali.sdk.services.LegalCaseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+class SdkCallInterceptorTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final ExampleConfig exampleConfig = new ExampleConfig();
+
+  @Test
+  void countsDownloadedBytes() throws Exception {
+    FileService fileService = mock(FileService.class);
+    when(fileService.downloadFile("uri")).thenReturn(new ByteArrayInputStream(new byte[1000]));
+    FileService proxy = this.proxy(fileService, "file");
+
+    try (InputStream is = proxy.downloadFile("uri")) {
+      is.transferTo(OutputStream.nullOutputStream());
+    }
+
+    assertEquals(
+        1000,
+        this.registry
+            .get("agent.sdk.bytes")
+            .tags("service", "file", "direction", "download")
+            .counter()
+            .count());
+    assertEquals(
+        1,
+        this.registry
+            .get("agent.sdk.calls")
+            .tags("operation", "downloadFile", "tenant", "none", "outcome", "success")
+            .timer()
+            .count());
+  }
+
+  @Test
+  void tagsTenantAndFailures() {
+    UUID tenantId = UUID.randomUUID();
+    this.exampleConfig.setTenants(Map.of("department-1", tenantId));
+    LegalCaseService legalCaseService = mock(LegalCaseService.class);
+    UUID legalCaseId = UUID.randomUUID();
+    doThrow(new IllegalStateException("boom")).when(legalCaseService).delete(legalCaseId);
+    LegalCaseService proxy = this.proxy(legalCaseService, "legalcase");
+
+    proxy.create(null, tenantId);
+    assertThrows(IllegalStateException.class, () -> proxy.delete(legalCaseId));
+
+    assertEquals(
+        1,
+        this.registry
+            .get("agent.sdk.calls")
+            .tags("operation", "create", "tenant", "department-1", "outcome", "success")
+            .timer()
+            .count());
+    assertEquals(
+        1,
+        this.registry
+            .get("agent.sdk.calls")
+            .tags("operation", "delete", "tenant", "none", "outcome", "error")
+            .timer()
+            .count());
+    assertEquals(0, this.registry.get("agent.sdk.inflight").gauge().value());
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T proxy(T target, String service) {
+    ProxyFactory proxyFactory = new ProxyFactory(target);
+    proxyFactory.setProxyTargetClass(true);
+    proxyFactory.addAdvice(
+        new SdkCallInterceptor(service, this.registry, this.exampleConfig, false));
+    return (T) proxyFactory.getProxy();
+  }
+}
@@ -0,0 +1,57 @@
+package ch.legali.sdk.example.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RestartableHttpClientTest {
+
+  @Test
+  void buildsANewClientOnRestart() throws Exception {
+    List<HttpClient> built = new ArrayList<>();
+    RestartableHttpClient client =
+        new RestartableHttpClient(
+            () -> {
+              HttpClient delegate =
+                  HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(7)).build();
+              built.add(delegate);
+              return delegate;
+            });
+
+    client.start();
+    assertEquals(Duration.ofSeconds(7), client.connectTimeout().orElseThrow());
+    client.stop();
+    assertFalse(client.isRunning());
+    assertTrue(built.get(0).awaitTermination(Duration.ofSeconds(5)));
+
+    client.start();
+    assertTrue(client.isRunning());
+    assertEquals(Duration.ofSeconds(7), client.connectTimeout().orElseThrow());
+    assertEquals(2, built.size());
+    assertFalse(built.get(1).isTerminated());
+    client.stop();
+  }
+
+  @Test
+  void buildsTheClientOnFirstUse() {
+    List<HttpClient> built = new ArrayList<>();
+    RestartableHttpClient client =
+        new RestartableHttpClient(
+            () -> {
+              HttpClient delegate = HttpClient.newHttpClient();
+              built.add(delegate);
+              return delegate;
+            });
+
+    assertEquals(HttpClient.Version.HTTP_2, client.version());
+    client.start();
+    assertEquals(1, built.size());
+    client.stop();
+  }
+}
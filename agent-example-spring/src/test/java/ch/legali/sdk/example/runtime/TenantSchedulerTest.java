@@ -0,0 +1,104 @@
+package ch.legali.sdk.example.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ch.legali.sdk.example.config.ExampleConfig;
+import ch.legali.sdk.example.config.RuntimeConfig;
+import ch.legali.sdk.example.config.SchedulingConfig;
+import ch.legali.sdk.example.runtime.ConnectorRuntime.Permit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+
+class TenantSchedulerTest {
+
+  @Test
+  void grantsSlotsByWeight() throws Exception {
+    UUID heavy = UUID.randomUUID();
+    UUID light = UUID.randomUUID();
+    ExampleConfig exampleConfig = new ExampleConfig();
+    exampleConfig.setTenants(Map.of("heavy", heavy, "light", light));
+    SchedulingConfig config = new SchedulingConfig();
+    config.setEnabled(true);
+    config.setMaxInFlight(1);
+    config.setWeights(Map.of("heavy", 2));
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    TenantScheduler scheduler = new TenantScheduler(config, exampleConfig, registry);
+
+    List<String> granted = Collections.synchronizedList(new ArrayList<>());
+    List<Thread> threads = new ArrayList<>();
+    try (Permit blocker = scheduler.acquire(null)) {
+      List<String> arrivals = List.of("heavy", "heavy", "heavy", "heavy", "light", "light");
+      for (int i = 0; i < arrivals.size(); i++) {
+        String name = arrivals.get(i);
+        UUID tenantId = name.equals("heavy") ? heavy : light;
+        Thread thread =
+            Thread.ofVirtual()
+                .start(
+                    () -> {
+                      try (Permit permit = scheduler.acquire(tenantId)) {
+                        granted.add(name);
+                      }
+                    });
+        threads.add(thread);
+        // queue the requests in a known order
+        while (waiting(registry) < i + 1) {
+          Thread.sleep(1);
+        }
+      }
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(List.of("heavy", "heavy", "light", "heavy", "heavy", "light"), granted);
+  }
+
+  @Test
+  void schedulesSdkCallsForTheTenantOfThePermit() throws Throwable {
+    UUID tenantId = UUID.randomUUID();
+    ExampleConfig exampleConfig = new ExampleConfig();
+    exampleConfig.setTenants(Map.of("department-1", tenantId));
+    SchedulingConfig config = new SchedulingConfig();
+    config.setEnabled(true);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    SdkSchedulingInterceptor interceptor =
+        new SdkSchedulingInterceptor(
+            new TenantScheduler(config, exampleConfig, registry), exampleConfig);
+    ConnectorRuntime runtime =
+        new ConnectorRuntime(new RuntimeConfig(), new SyncTaskExecutor(), registry);
+
+    MethodInvocation invocation = mock(MethodInvocation.class);
+    when(invocation.getMethod()).thenReturn(String.class.getMethod("length"));
+    when(invocation.getArguments()).thenReturn(new Object[0]);
+    when(invocation.proceed())
+        .thenAnswer(
+            call ->
+                registry
+                    .get("agent.scheduler.inflight")
+                    .tag("tenant", "department-1")
+                    .gauge()
+                    .value());
+    try (Permit permit = runtime.acquire(ConnectorResource.UPLOADS, tenantId)) {
+      assertEquals(1.0, interceptor.invoke(invocation));
+    }
+    assertNull(TenantContext.current());
+    assertEquals(
+        0, registry.get("agent.scheduler.inflight").tag("tenant", "department-1").gauge().value());
+  }
+
+  private static double waiting(SimpleMeterRegistry registry) {
+    return registry.find("agent.scheduler.waiting").gauges().stream()
+        .mapToDouble(gauge -> gauge.value())
+        .sum();
+  }
+}
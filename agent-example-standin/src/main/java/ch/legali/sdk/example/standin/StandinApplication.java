@@ -0,0 +1,12 @@
+package ch.legali.sdk.example.standin;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class StandinApplication {
+
+  public static void main(String[] args) {
+    SpringApplication.run(StandinApplication.class, args);
+  }
+}
@@ -0,0 +1,15 @@
+package ch.legali.sdk.example.standin.api;
+
+import java.util.Map;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Issues a token for any client credentials, in place of the legal-i IDP. */
+@RestController
+public class AuthController {
+
+  @PostMapping("/oauth/token")
+  public Map<String, Object> token() {
+    return Map.of("access_token", "standin", "token_type", "Bearer", "expires_in", 86400);
+  }
+}
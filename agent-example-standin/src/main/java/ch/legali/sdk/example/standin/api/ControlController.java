@@ -0,0 +1,89 @@
+package ch.legali.sdk.example.standin.api;
+
+import ch.legali.sdk.example.standin.store.StandinStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Drives the stand-in during a load test, in place of users of the legal-i app. Not affected by
+ * fault injection.
+ */
+@RestController
+@RequestMapping("/standin")
+public class ControlController {
+
+  private final StandinStore store;
+  private final PresignedUris presignedUris;
+  private final ObjectMapper objectMapper;
+
+  public ControlController(
+      StandinStore store, PresignedUris presignedUris, ObjectMapper objectMapper) {
+    this.store = store;
+    this.presignedUris = presignedUris;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Exports the first source file of a legal case and publishes an ExportCreatedEvent.
+   *
+   * @return the export
+   */
+  @PostMapping("/exports")
+  public ObjectNode createExport(@RequestParam UUID legalCaseId) throws IOException {
+    ObjectNode sourceFile =
+        this.store.sourceFiles().values().stream()
+            .filter(s -> legalCaseId.toString().equals(s.path("legalCaseId").asText()))
+            .filter(s -> s.has("originalFile"))
+            .findFirst()
+            .orElseThrow(
+                () ->
+                    new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, "Legal case has no source file to export"));
+
+    UUID exportId = UUID.randomUUID();
+    String filename = exportId + ".pdf";
+    Path source =
+        this.store.file(
+            legalCaseId + "/ORIGINAL/" + sourceFile.get("sourceFileId").asText() + ".pdf");
+    Path target = this.store.file(legalCaseId + "/EXPORT/" + filename);
+    Files.createDirectories(target.getParent());
+    Files.copy(source, target);
+
+    ObjectNode file = sourceFile.get("originalFile").deepCopy();
+    file.put("uri", this.presignedUris.api(legalCaseId.toString(), "EXPORT", filename));
+    file.put("filename", filename);
+    ObjectNode export = this.objectMapper.createObjectNode();
+    export.put("exportId", exportId.toString());
+    export.put("legalCaseId", legalCaseId.toString());
+    export.set("file", file);
+    export.set("tocFile", file.deepCopy());
+    this.store.exports().put(exportId, export);
+
+    ObjectNode fields = this.objectMapper.createObjectNode();
+    fields.put("legalCaseId", legalCaseId.toString());
+    fields.set("export", export.deepCopy());
+    this.store.publish("ExportCreatedEvent", fields);
+    return export;
+  }
+
+  @GetMapping("/stats")
+  public Map<String, Integer> stats() {
+    return Map.of(
+        "legalCases", this.store.legalCases().size(),
+        "sourceFiles", this.store.sourceFiles().size(),
+        "exports", this.store.exports().size(),
+        "pendingEvents", this.store.pendingEventCount());
+  }
+}
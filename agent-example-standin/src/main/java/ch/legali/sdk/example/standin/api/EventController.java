@@ -0,0 +1,52 @@
+package ch.legali.sdk.example.standin.api;
+
+import ch.legali.sdk.example.standin.store.StandinStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Heartbeat and events, as used by the SDK's EventClient. Events stay pending until they are
+ * acknowledged, so unacknowledged events are delivered again by the next heartbeat.
+ */
+@RestController
+@RequestMapping("/agents/v1/events")
+public class EventController {
+
+  private final StandinStore store;
+  private final ObjectMapper objectMapper;
+
+  public EventController(StandinStore store, ObjectMapper objectMapper) {
+    this.store = store;
+    this.objectMapper = objectMapper;
+  }
+
+  @GetMapping("/heartbeat")
+  public List<ObjectNode> heartbeat() {
+    return this.store.pendingEvents();
+  }
+
+  /** Answered by a PongEvent with the next heartbeat. */
+  @PostMapping("/ping")
+  public void ping() {
+    ObjectNode fields = this.objectMapper.createObjectNode();
+    fields.put("message", "pong");
+    this.store.publish("PongEvent", fields);
+  }
+
+  @DeleteMapping("/{eventId}")
+  public void acknowledge(@PathVariable UUID eventId) {
+    if (!this.store.acknowledge(eventId)) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+  }
+}
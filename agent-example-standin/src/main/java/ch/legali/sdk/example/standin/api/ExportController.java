@@ -0,0 +1,44 @@
+package ch.legali.sdk.example.standin.api;
+
+import ch.legali.sdk.example.standin.store.StandinStore;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exports, as used by the SDK's ExportClient. Exports are created through {@link
+ * ControlController}.
+ */
+@RestController
+@RequestMapping("/agents/v1/exports")
+public class ExportController {
+
+  private final StandinStore store;
+
+  public ExportController(StandinStore store) {
+    this.store = store;
+  }
+
+  @GetMapping
+  public List<ObjectNode> list(@RequestParam UUID legalCaseId) {
+    return this.store.exports().values().stream()
+        .filter(export -> legalCaseId.toString().equals(export.path("legalCaseId").asText()))
+        .toList();
+  }
+
+  @GetMapping("/{exportId}")
+  public ObjectNode get(@PathVariable UUID exportId) {
+    ObjectNode export = this.store.exports().get(exportId);
+    if (export == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+    return export;
+  }
+}
@@ -0,0 +1,25 @@
+package ch.legali.sdk.example.standin.api;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Answers requests no other route matches. They are logged, so an SDK version calling an endpoint
+ * the stand-in does not implement shows up right away.
+ */
+@RestController
+public class FallbackController {
+
+  private static final Logger log = LoggerFactory.getLogger(FallbackController.class);
+
+  @RequestMapping("/**")
+  public ResponseEntity<Void> unmatched(HttpServletRequest request) {
+    log.warn("No stand-in route for {} {}", request.getMethod(), request.getRequestURI());
+    return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+  }
+}
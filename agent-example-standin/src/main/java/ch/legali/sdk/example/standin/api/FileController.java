@@ -0,0 +1,110 @@
+package ch.legali.sdk.example.standin.api;
+
+import ch.legali.sdk.example.standin.faults.Bandwidth;
+import ch.legali.sdk.example.standin.store.StandinStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * The presigned file flow of README-FILES.md: the API answers a file request with a 307 to a
+ * presigned URL, and files are uploaded with a PUT to a presigned URL. Both transfers are paced by
+ * the {@link Bandwidth}.
+ */
+@RestController
+public class FileController {
+
+  private final StandinStore store;
+  private final PresignedUris presignedUris;
+  private final Bandwidth bandwidth;
+
+  public FileController(StandinStore store, PresignedUris presignedUris, Bandwidth bandwidth) {
+    this.store = store;
+    this.presignedUris = presignedUris;
+    this.bandwidth = bandwidth;
+  }
+
+  /**
+   * @return the uploadId to reference in the source file, and the presigned URI to PUT the file to
+   */
+  @PostMapping("/agents/v1/files/uploads")
+  public Map<String, String> createUpload() {
+    UUID uploadId = UUID.randomUUID();
+    return Map.of(
+        "uploadId", uploadId.toString(), "uri", this.presignedUris.presign("/upload/" + uploadId));
+  }
+
+  @PutMapping("/upload/{uploadId}")
+  public ResponseEntity<Void> upload(@PathVariable UUID uploadId, HttpServletRequest request)
+      throws IOException {
+    Path target = this.store.file("uploads/" + uploadId);
+    Files.createDirectories(target.getParent());
+    MessageDigest md5 = md5();
+    try (InputStream in = new DigestInputStream(request.getInputStream(), md5);
+        OutputStream out = Files.newOutputStream(target)) {
+      this.bandwidth.transfer(in, out);
+    }
+    String checksum = Base64.getEncoder().encodeToString(md5.digest());
+    this.store.uploads().put(uploadId, checksum);
+    return ResponseEntity.ok().eTag(checksum).build();
+  }
+
+  @GetMapping("/agents/v1/files/{legalCaseId}/{type}/{filename}")
+  public ResponseEntity<Void> redirect(
+      @PathVariable UUID legalCaseId, @PathVariable String type, @PathVariable String filename) {
+    if (!Files.exists(this.store.file(legalCaseId + "/" + type + "/" + filename))) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+    return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+        .location(
+            URI.create(
+                this.presignedUris.presign("/data/" + legalCaseId + "/" + type + "/" + filename)))
+        .build();
+  }
+
+  @GetMapping("/data/{legalCaseId}/{type}/{filename}")
+  public void download(
+      @PathVariable UUID legalCaseId,
+      @PathVariable String type,
+      @PathVariable String filename,
+      HttpServletResponse response)
+      throws IOException {
+    Path file = this.store.file(legalCaseId + "/" + type + "/" + filename);
+    if (!Files.exists(file)) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+    response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    response.setContentLengthLong(Files.size(file));
+    try (InputStream in = Files.newInputStream(file)) {
+      this.bandwidth.transfer(in, response.getOutputStream());
+    }
+  }
+
+  private static MessageDigest md5() {
+    try {
+      return MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("MD5 not supported", e);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package ch.legali.sdk.example.standin.api;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/** Reads ids from request bodies. */
+final class Ids {
+
+  private Ids() {}
+
+  /**
+   * @return the UUID in the field
+   * @throws ResponseStatusException 400 if the field is missing or not a UUID
+   */
+  static UUID require(ObjectNode node, String field) {
+    try {
+      return UUID.fromString(node.path(field).asText());
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, field + " must be a UUID", e);
+    }
+  }
+}
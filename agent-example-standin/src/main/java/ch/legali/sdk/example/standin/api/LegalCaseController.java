@@ -0,0 +1,120 @@
+package ch.legali.sdk.example.standin.api;
+
+import ch.legali.sdk.example.standin.store.StandinStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/** Legal cases, as used by the SDK's LegalCaseClient. */
+@RestController
+@RequestMapping("/agents/v1/legalcases")
+public class LegalCaseController {
+
+  private final StandinStore store;
+  private final ObjectMapper objectMapper;
+
+  public LegalCaseController(StandinStore store, ObjectMapper objectMapper) {
+    this.store = store;
+    this.objectMapper = objectMapper;
+  }
+
+  /** Creates are idempotent, creating an existing legal case returns it unchanged. */
+  @PostMapping
+  public ObjectNode create(
+      @RequestBody ObjectNode legalCase, @RequestParam(required = false) UUID tenantId) {
+    UUID legalCaseId = Ids.require(legalCase, "legalCaseId");
+    if (tenantId != null) {
+      legalCase.put("tenantId", tenantId.toString());
+    }
+    ObjectNode existing = this.store.legalCases().putIfAbsent(legalCaseId, legalCase);
+    if (existing != null) {
+      return existing;
+    }
+    this.publish("LegalCaseCreatedEvent", legalCase);
+    return legalCase;
+  }
+
+  @GetMapping
+  public Collection<ObjectNode> list() {
+    return this.store.legalCases().values();
+  }
+
+  @GetMapping("/{legalCaseId}")
+  public ObjectNode get(@PathVariable UUID legalCaseId) {
+    return this.find(legalCaseId);
+  }
+
+  @PutMapping("/{legalCaseId}")
+  public ObjectNode update(@PathVariable UUID legalCaseId, @RequestBody ObjectNode legalCase) {
+    ObjectNode existing = this.find(legalCaseId);
+    existing.setAll(legalCase);
+    existing.put("legalCaseId", legalCaseId.toString());
+    this.publish("LegalCaseUpdatedEvent", existing);
+    return existing;
+  }
+
+  @DeleteMapping("/{legalCaseId}")
+  public void delete(@PathVariable UUID legalCaseId) {
+    ObjectNode legalCase = this.store.legalCases().remove(legalCaseId);
+    if (legalCase == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+    this.store
+        .sourceFiles()
+        .values()
+        .removeIf(
+            sourceFile -> legalCaseId.toString().equals(sourceFile.path("legalCaseId").asText()));
+    this.publish("LegalCaseDeletedEvent", legalCase);
+  }
+
+  @PostMapping("/{legalCaseId}/archive")
+  public void archive(@PathVariable UUID legalCaseId) {
+    this.setStatus(legalCaseId, "ARCHIVED");
+  }
+
+  @PostMapping("/{legalCaseId}/unarchive")
+  public void unarchive(@PathVariable UUID legalCaseId) {
+    this.setStatus(legalCaseId, "OPEN");
+  }
+
+  @GetMapping("/{legalCaseId}/notebooks")
+  public List<ObjectNode> notebooks(@PathVariable UUID legalCaseId) {
+    this.find(legalCaseId);
+    return List.of();
+  }
+
+  private void setStatus(UUID legalCaseId, String status) {
+    ObjectNode legalCase = this.find(legalCaseId);
+    legalCase.put("status", status);
+    this.publish("LegalCaseStatusChangedEvent", legalCase);
+  }
+
+  private ObjectNode find(UUID legalCaseId) {
+    ObjectNode legalCase = this.store.legalCases().get(legalCaseId);
+    if (legalCase == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+    return legalCase;
+  }
+
+  private void publish(String type, ObjectNode legalCase) {
+    ObjectNode fields = this.objectMapper.createObjectNode();
+    fields.set("legalCaseId", legalCase.get("legalCaseId"));
+    fields.set("tenantId", legalCase.get("tenantId"));
+    fields.set("legalCase", legalCase.deepCopy());
+    this.store.publish(type, fields);
+  }
+}
@@ -0,0 +1,38 @@
+package ch.legali.sdk.example.standin.api;
+
+import ch.legali.sdk.example.standin.config.StandinConfig;
+import java.time.Instant;
+import org.springframework.stereotype.Component;
+
+/** Builds the file URIs the stand-in hands out, based on legali.standin.public-url. */
+@Component
+class PresignedUris {
+
+  private final StandinConfig config;
+
+  PresignedUris(StandinConfig config) {
+    this.config = config;
+  }
+
+  /**
+   * @param path path of the file on the stand-in
+   * @return the URI with a dummy expiry and signature, like a CloudFront presigned URL
+   */
+  String presign(String path) {
+    long expires = Instant.now().plusSeconds(3600).getEpochSecond();
+    return this.config.getPublicUrl() + path + "?Expires=" + expires + "&Signature=standin";
+  }
+
+  /**
+   * @return the URI of a stored file as the API hands it out, redirects to the presigned URI
+   */
+  String api(String legalCaseId, String type, String filename) {
+    return this.config.getPublicUrl()
+        + "/agents/v1/files/"
+        + legalCaseId
+        + "/"
+        + type
+        + "/"
+        + filename;
+  }
+}
@@ -0,0 +1,154 @@
+package ch.legali.sdk.example.standin.api;
+
+import ch.legali.sdk.example.standin.store.StandinStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Source files, as used by the SDK's SourceFileClient. A source file references the uploadId of a
+ * file PUT to the presigned upload URI before, see {@link FileController}. It becomes READY after
+ * legali.standin.processing-delay.
+ */
+@RestController
+@RequestMapping("/agents/v1/sourcefiles")
+public class SourceFileController {
+
+  private final StandinStore store;
+  private final PresignedUris presignedUris;
+  private final ObjectMapper objectMapper;
+
+  public SourceFileController(
+      StandinStore store, PresignedUris presignedUris, ObjectMapper objectMapper) {
+    this.store = store;
+    this.presignedUris = presignedUris;
+    this.objectMapper = objectMapper;
+  }
+
+  /** Creates are idempotent, creating an existing source file returns it unchanged. */
+  @PostMapping
+  public ObjectNode create(@RequestBody ObjectNode sourceFile) throws IOException {
+    UUID sourceFileId = Ids.require(sourceFile, "sourceFileId");
+    UUID legalCaseId = Ids.require(sourceFile, "legalCaseId");
+    if (!this.store.legalCases().containsKey(legalCaseId)) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Legal case not found");
+    }
+    ObjectNode existing = this.store.sourceFiles().get(sourceFileId);
+    if (existing != null) {
+      return existing;
+    }
+    this.attachUpload(sourceFile, sourceFileId, legalCaseId);
+    sourceFile.put("status", "PENDING");
+    this.store.sourceFiles().put(sourceFileId, sourceFile);
+    this.publish("SourceFileCreatedEvent", sourceFile);
+    this.store.process(sourceFileId);
+    return sourceFile;
+  }
+
+  @GetMapping
+  public List<ObjectNode> list(@RequestParam UUID legalCaseId) {
+    return this.store.sourceFiles().values().stream()
+        .filter(
+            sourceFile -> legalCaseId.toString().equals(sourceFile.path("legalCaseId").asText()))
+        .toList();
+  }
+
+  @GetMapping("/{sourceFileId}")
+  public ObjectNode get(@PathVariable UUID sourceFileId) {
+    return this.find(sourceFileId);
+  }
+
+  /** Replaces, moves or updates the metadata of a source file, depending on the fields sent. */
+  @PutMapping("/{sourceFileId}")
+  public ObjectNode update(@PathVariable UUID sourceFileId, @RequestBody ObjectNode sourceFile)
+      throws IOException {
+    ObjectNode existing = this.find(sourceFileId);
+    UUID legalCaseId =
+        sourceFile.hasNonNull("legalCaseId")
+            ? Ids.require(sourceFile, "legalCaseId")
+            : Ids.require(existing, "legalCaseId");
+    if (!this.store.legalCases().containsKey(legalCaseId)) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Legal case not found");
+    }
+    if (sourceFile.hasNonNull("uploadId")) {
+      this.attachUpload(sourceFile, sourceFileId, legalCaseId);
+      sourceFile.put("status", "PENDING");
+      this.store.process(sourceFileId);
+    }
+    existing.setAll(sourceFile);
+    existing.put("sourceFileId", sourceFileId.toString());
+    this.publish("SourceFileUpdatedEvent", existing);
+    return existing;
+  }
+
+  @DeleteMapping("/{sourceFileId}")
+  public void delete(@PathVariable UUID sourceFileId) {
+    if (this.store.sourceFiles().remove(sourceFileId) == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+  }
+
+  @GetMapping("/{sourceFileId}/annotations")
+  public Map<String, String> annotations(@PathVariable UUID sourceFileId) {
+    ObjectNode sourceFile = this.find(sourceFileId);
+    return Map.of(
+        "sourceFileId",
+        sourceFileId.toString(),
+        "xfdf",
+        sourceFile.path("annotationsXfdf").asText(""));
+  }
+
+  /** Moves the uploaded file to the legal case and sets the originalFile of the source file. */
+  private void attachUpload(ObjectNode sourceFile, UUID sourceFileId, UUID legalCaseId)
+      throws IOException {
+    UUID uploadId = Ids.require(sourceFile, "uploadId");
+    String md5 = this.store.uploads().remove(uploadId);
+    if (md5 == null) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown uploadId " + uploadId);
+    }
+    String filename = sourceFileId + ".pdf";
+    Path target = this.store.file(legalCaseId + "/ORIGINAL/" + filename);
+    Files.createDirectories(target.getParent());
+    Files.move(this.store.file("uploads/" + uploadId), target, StandardCopyOption.REPLACE_EXISTING);
+
+    ObjectNode originalFile = this.objectMapper.createObjectNode();
+    originalFile.put("uri", this.presignedUris.api(legalCaseId.toString(), "ORIGINAL", filename));
+    originalFile.put("filename", filename);
+    originalFile.put("md5", md5);
+    originalFile.put("size", Files.size(target));
+    sourceFile.set("originalFile", originalFile);
+  }
+
+  private ObjectNode find(UUID sourceFileId) {
+    ObjectNode sourceFile = this.store.sourceFiles().get(sourceFileId);
+    if (sourceFile == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+    return sourceFile;
+  }
+
+  private void publish(String type, ObjectNode sourceFile) {
+    ObjectNode fields = this.objectMapper.createObjectNode();
+    fields.set("sourceFileId", sourceFile.get("sourceFileId"));
+    fields.set("legalCaseId", sourceFile.get("legalCaseId"));
+    fields.set("sourceFile", sourceFile.deepCopy());
+    this.store.publish(type, fields);
+  }
+}
@@ -0,0 +1,110 @@
+package ch.legali.sdk.example.standin.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Component
+@ConfigurationProperties(prefix = "legali.standin")
+public class StandinConfig {
+
+  /** Base URL the agent reaches the stand-in at, used for presigned file URLs. */
+  private String publicUrl = "http://localhost:8090";
+
+  /** Directory for uploaded and exported files. */
+  private String dataPath = "./standin-data";
+
+  /** Added to every API and file request. */
+  private Duration latency = Duration.ZERO;
+
+  /** Random extra latency, up to this much. */
+  private Duration latencyJitter = Duration.ZERO;
+
+  /** Share of API requests answered with error-status, 0 to 1. */
+  private double errorRate = 0;
+
+  /** Status of injected errors. */
+  private int errorStatus = 503;
+
+  /** Bandwidth per second shared by all uploads and downloads, 0 for no limit. */
+  private DataSize bandwidth = DataSize.ofBytes(0);
+
+  /** Time until an uploaded source file is READY. */
+  private Duration processingDelay = Duration.ofSeconds(2);
+
+  /** Max. events returned by a heartbeat. */
+  private int heartbeatBatchSize = 100;
+
+  public String getPublicUrl() {
+    return this.publicUrl;
+  }
+
+  public void setPublicUrl(String publicUrl) {
+    this.publicUrl = publicUrl;
+  }
+
+  public String getDataPath() {
+    return this.dataPath;
+  }
+
+  public void setDataPath(String dataPath) {
+    this.dataPath = dataPath;
+  }
+
+  public Duration getLatency() {
+    return this.latency;
+  }
+
+  public void setLatency(Duration latency) {
+    this.latency = latency;
+  }
+
+  public Duration getLatencyJitter() {
+    return this.latencyJitter;
+  }
+
+  public void setLatencyJitter(Duration latencyJitter) {
+    this.latencyJitter = latencyJitter;
+  }
+
+  public double getErrorRate() {
+    return this.errorRate;
+  }
+
+  public void setErrorRate(double errorRate) {
+    this.errorRate = errorRate;
+  }
+
+  public int getErrorStatus() {
+    return this.errorStatus;
+  }
+
+  public void setErrorStatus(int errorStatus) {
+    this.errorStatus = errorStatus;
+  }
+
+  public DataSize getBandwidth() {
+    return this.bandwidth;
+  }
+
+  public void setBandwidth(DataSize bandwidth) {
+    this.bandwidth = bandwidth;
+  }
+
+  public Duration getProcessingDelay() {
+    return this.processingDelay;
+  }
+
+  public void setProcessingDelay(Duration processingDelay) {
+    this.processingDelay = processingDelay;
+  }
+
+  public int getHeartbeatBatchSize() {
+    return this.heartbeatBatchSize;
+  }
+
+  public void setHeartbeatBatchSize(int heartbeatBatchSize) {
+    this.heartbeatBatchSize = heartbeatBatchSize;
+  }
+}
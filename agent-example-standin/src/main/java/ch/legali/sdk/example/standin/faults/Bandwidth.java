@@ -0,0 +1,66 @@
+package ch.legali.sdk.example.standin.faults;
+
+import ch.legali.sdk.example.standin.config.StandinConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * The simulated link of legali.standin.bandwidth, shared by all transfers: bytes are paced so that
+ * uploads and downloads together do not exceed it.
+ */
+@Component
+public class Bandwidth {
+
+  private static final int CHUNK_SIZE = 64 * 1024;
+
+  private final long bytesPerSecond;
+  private long nextFreeNanos = System.nanoTime();
+
+  public Bandwidth(StandinConfig config) {
+    this.bytesPerSecond = config.getBandwidth().toBytes();
+  }
+
+  /**
+   * Copies the stream at the configured bandwidth.
+   *
+   * @return number of bytes copied
+   */
+  public long transfer(InputStream in, OutputStream out) throws IOException {
+    byte[] buffer = new byte[CHUNK_SIZE];
+    long total = 0;
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      this.acquire(read);
+      out.write(buffer, 0, read);
+      total += read;
+    }
+    return total;
+  }
+
+  private void acquire(int bytes) throws InterruptedIOException {
+    if (this.bytesPerSecond <= 0) {
+      return;
+    }
+    long waitNanos;
+    synchronized (this) {
+      long now = System.nanoTime();
+      if (this.nextFreeNanos < now) {
+        this.nextFreeNanos = now;
+      }
+      waitNanos = this.nextFreeNanos - now;
+      this.nextFreeNanos += TimeUnit.SECONDS.toNanos(bytes) / this.bytesPerSecond;
+    }
+    if (waitNanos > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while throttling transfer");
+      }
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package ch.legali.sdk.example.standin.faults;
+
+import ch.legali.sdk.example.standin.config.StandinConfig;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Adds legali.standin.latency (plus jitter) to API and file requests and fails a share of the API
+ * requests with legali.standin.error-status. Control requests below /standin are not affected.
+ */
+@Component
+public class FaultInjectionFilter extends OncePerRequestFilter {
+
+  private final StandinConfig config;
+
+  public FaultInjectionFilter(StandinConfig config) {
+    this.config = config;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return request.getRequestURI().startsWith("/standin/");
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    this.delay();
+    if (request.getRequestURI().startsWith("/agents/")
+        && ThreadLocalRandom.current().nextDouble() < this.config.getErrorRate()) {
+      response.sendError(this.config.getErrorStatus(), "Injected by stand-in");
+      return;
+    }
+
+    filterChain.doFilter(request, response);
+  }
+
+  private void delay() throws IOException {
+    long nanos = this.config.getLatency().toNanos();
+    long jitter = this.config.getLatencyJitter().toNanos();
+    if (jitter > 0) {
+      nanos += ThreadLocalRandom.current().nextLong(jitter);
+    }
+    if (nanos <= 0) {
+      return;
+    }
+    try {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while delaying request", e);
+    }
+  }
+}
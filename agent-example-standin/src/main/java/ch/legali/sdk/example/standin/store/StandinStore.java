@@ -0,0 +1,153 @@
+package ch.legali.sdk.example.standin.store;
+
+import ch.legali.sdk.example.standin.config.StandinConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory state of the stand-in: legal cases, source files and exports as the JSON the agent
+ * sent, plus the queue of unacknowledged events. File content is kept below
+ * legali.standin.data-path.
+ */
+@Component
+public class StandinStore {
+
+  private final StandinConfig config;
+  private final ObjectMapper objectMapper;
+  private final Path dataPath;
+  private final ScheduledExecutorService processing =
+      Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("processing").factory());
+
+  private final Map<UUID, ObjectNode> legalCases = new ConcurrentHashMap<>();
+  private final Map<UUID, ObjectNode> sourceFiles = new ConcurrentHashMap<>();
+  private final Map<UUID, ObjectNode> exports = new ConcurrentHashMap<>();
+  // Base64 MD5 of uploaded files not yet attached to a source file, by upload id
+  private final Map<UUID, String> uploads = new ConcurrentHashMap<>();
+
+  // unacknowledged events by id, in order of creation, guarded by itself
+  private final Map<UUID, ObjectNode> events = new LinkedHashMap<>();
+
+  public StandinStore(StandinConfig config, ObjectMapper objectMapper) throws IOException {
+    this.config = config;
+    this.objectMapper = objectMapper;
+    this.dataPath = Files.createDirectories(Paths.get(config.getDataPath()));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    this.processing.shutdownNow();
+  }
+
+  public Map<UUID, ObjectNode> legalCases() {
+    return this.legalCases;
+  }
+
+  public Map<UUID, ObjectNode> sourceFiles() {
+    return this.sourceFiles;
+  }
+
+  public Map<UUID, ObjectNode> exports() {
+    return this.exports;
+  }
+
+  public Map<UUID, String> uploads() {
+    return this.uploads;
+  }
+
+  /**
+   * @param key path of the file below the data path, e.g. legalCaseId/ORIGINAL/filename
+   * @return the location of the file content
+   */
+  public Path file(String key) {
+    Path file = this.dataPath.resolve(key).normalize();
+    if (!file.startsWith(this.dataPath)) {
+      throw new IllegalArgumentException("Invalid file key " + key);
+    }
+    return file;
+  }
+
+  /**
+   * Queues an event for the next heartbeat.
+   *
+   * @param type simple name of the event class, e.g. LegalCaseCreatedEvent
+   * @param fields fields of the event besides eventId, type and timestamp, may be null
+   */
+  public void publish(String type, ObjectNode fields) {
+    ObjectNode event = this.objectMapper.createObjectNode();
+    UUID eventId = UUID.randomUUID();
+    event.put("eventId", eventId.toString());
+    event.put("type", type);
+    event.put("timestamp", Instant.now().toString());
+    if (fields != null) {
+      event.setAll(fields);
+    }
+    synchronized (this.events) {
+      this.events.put(eventId, event);
+    }
+  }
+
+  /**
+   * @return the oldest unacknowledged events, at most legali.standin.heartbeat-batch-size
+   */
+  public List<ObjectNode> pendingEvents() {
+    synchronized (this.events) {
+      List<ObjectNode> batch = new ArrayList<>();
+      for (ObjectNode event : this.events.values()) {
+        if (batch.size() == this.config.getHeartbeatBatchSize()) {
+          break;
+        }
+        batch.add(event);
+      }
+      return batch;
+    }
+  }
+
+  /**
+   * @return false if the event is not pending
+   */
+  public boolean acknowledge(UUID eventId) {
+    synchronized (this.events) {
+      return this.events.remove(eventId) != null;
+    }
+  }
+
+  public int pendingEventCount() {
+    synchronized (this.events) {
+      return this.events.size();
+    }
+  }
+
+  /** Marks the source file READY after legali.standin.processing-delay, like the pipeline. */
+  public void process(UUID sourceFileId) {
+    this.processing.schedule(
+        () -> {
+          ObjectNode sourceFile = this.sourceFiles.get(sourceFileId);
+          if (sourceFile == null) {
+            return;
+          }
+          sourceFile.put("status", "READY");
+          ObjectNode fields = this.objectMapper.createObjectNode();
+          fields.put("sourceFileId", sourceFileId.toString());
+          fields.set("legalCaseId", sourceFile.get("legalCaseId"));
+          this.publish("SourceFileReadyEvent", fields);
+        },
+        this.config.getProcessingDelay().toMillis(),
+        TimeUnit.MILLISECONDS);
+  }
+}